@@ -0,0 +1,83 @@
+package com.pucmm.network.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.OverflowPolicy;
+
+/**
+ * Costo del inbox de Node: encolar con receiveMessage y drenar procesando.
+ * - receiveAndDrain: un solo hilo encola un lote y lo drena.
+ * - mpsc: tres productores compiten contra un consumidor que drena.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NodeMailboxBenchmark {
+    private static final int BATCH = 256;
+
+    @State(Scope.Thread)
+    public static class SingleThread {
+        Node node;
+        Message msg;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            NetworkLog.setEnabled(false);
+            node = new Node(0);
+            node.configureInbox(BATCH, OverflowPolicy.DROP_NEWEST);
+            msg = new Message(1, 0, "bench");
+        }
+    }
+
+    @State(Scope.Group)
+    public static class Shared {
+        Node node;
+        Message msg;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            NetworkLog.setEnabled(false);
+            node = new Node(0);
+            // DROP_NEWEST para que los productores nunca queden bloqueados al terminar la iteracion
+            node.configureInbox(4096, OverflowPolicy.DROP_NEWEST);
+            msg = new Message(1, 0, "bench");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int receiveAndDrain(SingleThread state) {
+        for (int i = 0; i < BATCH; i++) {
+            state.node.receiveMessage(state.msg);
+        }
+        return state.node.drain(BATCH);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(3)
+    public boolean produce(Shared state) {
+        return state.node.receiveMessage(state.msg);
+    }
+
+    @Benchmark
+    @Group("mpsc")
+    @GroupThreads(1)
+    public int consume(Shared state) {
+        return state.node.drain(64);
+    }
+}
@@ -0,0 +1,84 @@
+package com.pucmm.network.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Costo de calcular una ruta completa (sin entregar mensajes) para pares
+ * origen/destino aleatorios precalculados.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoutingBenchmark {
+    private static final int PAIRS = 1024;
+
+    // potencia de 2 para que sirva tambien al hipercubo
+    @Param({"64", "1024"})
+    public int size;
+
+    private int[] from;
+    private int[] to;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+        from = new int[PAIRS];
+        to = new int[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            from[i] = random.nextInt(size);
+            to[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public int treeRoute() {
+        int i = index++ & (PAIRS - 1);
+        int current = from[i];
+        int hops = 0;
+        while (current != to[i]) {
+            current = TreeNetwork.nextHop(current, to[i]);
+            hops++;
+        }
+        return hops;
+    }
+
+    @Benchmark
+    public int hypercubeRoute() {
+        int i = index++ & (PAIRS - 1);
+        int current = from[i];
+        int hops = 0;
+        while (current != to[i]) {
+            current = HypercubeNetwork.nextHop(current, to[i]);
+            hops++;
+        }
+        return hops;
+    }
+
+    @Benchmark
+    public int ringRoute() {
+        int i = index++ & (PAIRS - 1);
+        int current = from[i];
+        int hops = 0;
+        while (current != to[i]) {
+            current = RingNetwork.nextHop(current, size);
+            hops++;
+        }
+        return hops;
+    }
+}
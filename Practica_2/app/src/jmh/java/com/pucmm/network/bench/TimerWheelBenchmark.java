@@ -0,0 +1,53 @@
+package com.pucmm.network.bench;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.pucmm.network.core.TimerWheel;
+
+/**
+ * Costo de programar una entrega diferida de 1 ms: TimerWheel contra un
+ * ScheduledExecutorService de un hilo (cola con heap, O(log n) por timer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimerWheelBenchmark {
+    private static final Runnable NOOP = () -> { };
+
+    private TimerWheel wheel;
+    private ScheduledExecutorService scheduler;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        wheel = new TimerWheel(100, TimeUnit.MICROSECONDS, "bench-wheel");
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wheel.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Benchmark
+    public Object timerWheel() {
+        return wheel.schedule(NOOP, 1, TimeUnit.MILLISECONDS);
+    }
+
+    @Benchmark
+    public Object scheduledExecutor() {
+        return scheduler.schedule(NOOP, 1, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pucmm.network.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.OverflowPolicy;
+import com.pucmm.network.topologia.BusNetwork;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.SwitchedNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Costo de sendMessage por topologia con el log apagado, con 8 nodos corriendo.
+ * Los inboxes se acotan con DROP_NEWEST para que la memoria no crezca durante
+ * la medicion; el costo medido es el del lado del emisor.
+ * En las topologias multi-hop (Ring, Mesh, Star, Hypercube, Tree) solo se
+ * mide el primer hop: los siguientes los reenvian los nodos intermedios con la
+ * latencia programada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TopologySendBenchmark {
+    private static final int NODES = 8;
+
+    @Param({"BusNetwork", "RingNetwork", "MeshNetwork", "StarNetwork", "FullyConnectedNetwork",
+            "HypercubeNetwork", "TreeNetwork", "SwitchedNetwork"})
+    public String topologyName;
+
+    private NetworkTopology topology;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        NetworkLog.setEnabled(false);
+        topology = create(topologyName);
+        topology.configureNetwork(NODES);
+        for (Node node : topology.getNodes()) {
+            node.configureInbox(4096, OverflowPolicy.DROP_NEWEST);
+        }
+        topology.runNetwork();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        topology.shutdown();
+    }
+
+    @Benchmark
+    public void send() {
+        int i = counter++;
+        topology.sendMessage(i & (NODES - 1), (i * 5 + 3) & (NODES - 1), "bench");
+    }
+
+    static NetworkTopology create(String name) {
+        switch (name) {
+            case "BusNetwork":
+                return new BusNetwork();
+            case "RingNetwork":
+                return new RingNetwork();
+            case "MeshNetwork":
+                return new MeshNetwork();
+            case "StarNetwork":
+                return new StarNetwork();
+            case "FullyConnectedNetwork":
+                return new FullyConnectedNetwork();
+            case "HypercubeNetwork":
+                return new HypercubeNetwork();
+            case "TreeNetwork":
+                return new TreeNetwork();
+            case "SwitchedNetwork":
+                return new SwitchedNetwork();
+            default:
+                throw new IllegalArgumentException("Topologia desconocida: " + name);
+        }
+    }
+}
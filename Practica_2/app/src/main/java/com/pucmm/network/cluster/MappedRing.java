@@ -0,0 +1,228 @@
+package com.pucmm.network.cluster;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer circular de un productor y un consumidor en un archivo mapeado a
+ * memoria, compartido por dos procesos (ver SharedMemoryTransport).
+ *
+ * Cabecera de una pagina y despues los datos (capacidad potencia de 2):
+ * - 0   int  MAGIC, escrito por el productor al terminar de crear el archivo
+ * - 4   int  capacidad de datos
+ * - 64  long tail: bytes publicados por el productor (solo crece)
+ * - 128 long head: bytes consumidos por el consumidor (solo crece)
+ * - 192 int  1 cuando el productor cerro
+ * tail y head van en lineas de cache distintas y se publican con
+ * release/acquire por VarHandle sobre el buffer mapeado: es lo unico que
+ * sincroniza a los dos procesos, sin syscalls.
+ *
+ * Cada trama ocupa su largo alineado a 8 bytes y se escribe en el lugar
+ * (claim devuelve el buffer posicionado en el ring). Si no entra antes del
+ * fin de los datos, el resto se llena con una trama PADDING y la trama
+ * empieza en 0, asi el consumidor la lee contigua.
+ */
+final class MappedRing {
+    static final int MAGIC = 0x4E52494E;
+    // tipo de las tramas de relleno al final de los datos
+    static final byte PADDING = -1;
+    private static final int HEADER_BYTES = 4096;
+    private static final int CAPACITY = 4;
+    private static final int TAIL = 64;
+    private static final int HEAD = 128;
+    private static final int CLOSED = 192;
+    private static final int ALIGNMENT = 8;
+    private static final int FULL_SPINS = 100;
+    private static final long FULL_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle INTS =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path path;
+    private final MappedByteBuffer mapped;
+    // datos, sin la cabecera; position y limit los usa solo un lado
+    private final ByteBuffer data;
+    private final int capacity;
+    private final int mask;
+    // productor: tail propio, ultimo head visto y tamano de la trama reservada
+    private long tail;
+    private long headCache;
+    private int claimed;
+    // consumidor
+    private long head;
+
+    private MappedRing(Path path, MappedByteBuffer mapped, int capacity) {
+        this.path = path;
+        this.mapped = mapped;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        ByteBuffer view = mapped.duplicate();
+        view.position(HEADER_BYTES);
+        this.data = view.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Crea el archivo del lado productor (reemplaza uno anterior). Se arma
+     * con otro nombre y se renombra ya listo, asi el consumidor nunca mapea
+     * un archivo a medio crear.
+     *
+     * @param capacity bytes de datos, potencia de 2
+     * @throws IllegalArgumentException si capacity no es potencia de 2 >= 4096
+     */
+    static MappedRing create(Path path, int capacity) throws IOException {
+        if (Integer.bitCount(capacity) != 1 || capacity < HEADER_BYTES) {
+            throw new IllegalArgumentException("MappedRing requiere capacidad potencia de 2 >= " + HEADER_BYTES);
+        }
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity);
+        }
+        mapped.order(ByteOrder.nativeOrder());
+        mapped.putInt(CAPACITY, capacity);
+        INTS.setRelease(mapped, 0, MAGIC);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new MappedRing(path, mapped, capacity);
+    }
+
+    /**
+     * Abre del lado consumidor; espera a que el productor lo cree.
+     *
+     * @throws IOException si no aparece a tiempo o no esta inicializado
+     */
+    static MappedRing open(Path path, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!Files.exists(path)) {
+            if (System.nanoTime() > deadline) {
+                throw new IOException("No aparecio el ring " + path);
+            }
+            Thread.sleep(10);
+        }
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        mapped.order(ByteOrder.nativeOrder());
+        if ((int) INTS.getAcquire(mapped, 0) != MAGIC) {
+            throw new IOException("Ring sin inicializar: " + path);
+        }
+        return new MappedRing(path, mapped, mapped.getInt(CAPACITY));
+    }
+
+    /**
+     * Reserva frameBytes contiguos y devuelve los datos posicionados ahi.
+     * Si el consumidor va atrasado espera a que libere espacio. Solo el
+     * productor, y sin otro claim pendiente.
+     *
+     * @throws IllegalArgumentException si la trama no entra en medio ring
+     * @throws IllegalStateException si el ring sigue lleno tras 30s
+     */
+    ByteBuffer claim(int frameBytes) {
+        int size = align(frameBytes);
+        if (size > capacity / 2) {
+            throw new IllegalArgumentException("Trama de " + frameBytes + " bytes para un ring de " + capacity);
+        }
+        int index = (int) (tail & mask);
+        int padding = index + size > capacity ? capacity - index : 0;
+        awaitSpace(padding + size);
+        if (padding > 0) {
+            data.limit(capacity).position(index);
+            data.putInt(padding - 4).put(PADDING);
+            tail += padding;
+            index = 0;
+        }
+        claimed = size;
+        data.limit(index + frameBytes).position(index);
+        return data;
+    }
+
+    private void awaitSpace(int bytes) {
+        if (tail + bytes - headCache <= capacity) {
+            return;
+        }
+        long start = System.nanoTime();
+        int spins = 0;
+        while (tail + bytes - (headCache = (long) LONGS.getAcquire(mapped, HEAD)) > capacity) {
+            if (++spins < FULL_SPINS) {
+                Thread.onSpinWait();
+            } else if (System.nanoTime() - start > FULL_TIMEOUT_NANOS) {
+                throw new IllegalStateException("Ring lleno sin consumidor: " + path);
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Publica la trama reservada (y el relleno que la precedia).
+     */
+    void commit() {
+        tail += claimed;
+        claimed = 0;
+        LONGS.setRelease(mapped, TAIL, tail);
+    }
+
+    /**
+     * Procesa en el lugar las tramas publicadas y libera su espacio.
+     *
+     * @param transport receptor de cada trama (desde el tipo hasta limit)
+     * @return tramas procesadas
+     */
+    int drain(PartitionedTransport transport) {
+        long published = (long) LONGS.getAcquire(mapped, TAIL);
+        long start = head;
+        int frames = 0;
+        while (head < published) {
+            int index = (int) (head & mask);
+            data.limit(capacity);
+            int length = data.getInt(index);
+            if (data.get(index + 4) != PADDING) {
+                data.limit(index + 4 + length).position(index + 4);
+                transport.receive(data);
+                frames++;
+            }
+            head += align(4 + length);
+        }
+        if (head != start) {
+            LONGS.setRelease(mapped, HEAD, head);
+        }
+        return frames;
+    }
+
+    /**
+     * Marca el fin del productor: lo ya publicado se sigue leyendo.
+     */
+    void close() {
+        INTS.setRelease(mapped, CLOSED, 1);
+    }
+
+    /**
+     * El productor cerro y no queda nada por leer.
+     */
+    boolean isClosedAndDrained() {
+        return (int) INTS.getAcquire(mapped, CLOSED) == 1 && (long) LONGS.getAcquire(mapped, TAIL) == head;
+    }
+
+    /**
+     * Bytes publicados y aun sin consumir.
+     */
+    long backlog() {
+        return (long) LONGS.getAcquire(mapped, TAIL) - (long) LONGS.getAcquire(mapped, HEAD);
+    }
+
+    private static int align(int bytes) {
+        return (bytes + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
@@ -0,0 +1,45 @@
+package com.pucmm.network.cluster;
+
+import java.util.concurrent.TimeUnit;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.AbstractTopology;
+
+/**
+ * Proceso de una particion lanzado por ProcessCluster: recrea la topologia,
+ * ejecuta su bloque de nodos y termina cuando el coordinador cierra su
+ * conexion (o si el proceso que lo lanzo ya no existe).
+ *
+ * Uso: PartitionWorker claseTopologia nodos particion particiones medio destino latenciaNs log
+ * (destino: puerto base con SOCKETS, directorio de los rings con SHARED_MEMORY)
+ */
+public class PartitionWorker {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 8) {
+            System.err.println("Uso: PartitionWorker claseTopologia nodos particion particiones medio destino"
+                    + " latenciaNs log");
+            System.exit(2);
+        }
+        int numNodes = Integer.parseInt(args[1]);
+        int partition = Integer.parseInt(args[2]);
+        int partitions = Integer.parseInt(args[3]);
+        ProcessCluster.Medium medium = ProcessCluster.Medium.valueOf(args[4]);
+        long linkLatencyNanos = Long.parseLong(args[6]);
+        NetworkLog.setEnabled(Boolean.parseBoolean(args[7]));
+
+        AbstractTopology topology = (AbstractTopology) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+        PartitionedTransport transport = ProcessCluster.createTransport(medium, topology.getName(), numNodes,
+                partition, partitions, args[5]);
+        topology.setTransport(transport);
+        topology.configureNetwork(numNodes);
+        ProcessCluster.configure(topology, linkLatencyNanos);
+        topology.runNetwork();
+        ProcessHandle parent = ProcessHandle.current().parent().orElse(null);
+        while (!transport.awaitRelease(1, TimeUnit.SECONDS)) {
+            if (parent != null && !parent.isAlive()) {
+                break;
+            }
+        }
+        topology.shutdown();
+    }
+}
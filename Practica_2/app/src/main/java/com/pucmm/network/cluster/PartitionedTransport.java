@@ -0,0 +1,405 @@
+package com.pucmm.network.cluster;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.pucmm.network.core.Frame;
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.Transport;
+import com.pucmm.network.core.TransportKind;
+
+/**
+ * Transporte de una particion de la red repartida entre varios procesos.
+ * Todos los procesos configuran la misma topologia completa, pero cada uno
+ * ejecuta solo sus nodos (un bloque contiguo de ids, ver partitionOf) sobre
+ * un ShardedExecutor local. Un hop hacia un nodo de otra particion se
+ * codifica en una trama y viaja por el medio de la subclase; del otro lado
+ * se reconstruye como RemoteMessage y sigue su camino. Para la topologia el
+ * hop remoto es una entrega mas: los enlaces, su latencia y el ruteo los
+ * aplica el proceso que reenvia, como siempre. El primer hop lo pone en el
+ * enlace el proceso que llama a sendMessage, aunque el nodo origen sea de
+ * otra particion.
+ *
+ * El future de un mensaje vive en el proceso que lo creo. Cuando una copia
+ * remota se entrega o se descarta, su proceso manda una trama DONE a la
+ * particion de origen, que completa el original: sendMessage, la
+ * quiescencia de NetworkManager y las metricas de envio funcionan igual.
+ * Los histogramas de latencia y la traza son por proceso.
+ *
+ * Tramas: largo (int, sin contarse), tipo (byte) y cuerpo:
+ * - MESSAGE: nodo receptor del hop, id, from, to, secuencia, creacion, hops,
+ *   particion de origen y payload en UTF-8
+ * - DONE: id y motivo del descarte (largo 0 si se entrego)
+ * Las tramas con tipo propio del medio (>= MEDIUM_TYPES) van a onMediumFrame.
+ *
+ * No admite entrega confiable (las tramas de ReliableChannel no se codifican).
+ */
+public abstract class PartitionedTransport implements Transport {
+    protected static final byte MESSAGE = 1;
+    protected static final byte DONE = 2;
+    // primer tipo libre para tramas propias del medio
+    protected static final byte MEDIUM_TYPES = 16;
+    // largo + tipo
+    protected static final int FRAME_HEADER = 5;
+    // receptor, id, from, to, secuencia, creacion, hops, origen, largo del payload
+    private static final int MESSAGE_FIELDS = 4 + 8 + 4 + 4 + 8 + 8 + 4 + 4 + 4;
+
+    protected final String name;
+    protected final int numNodes;
+    protected final int partition;
+    protected final int partitions;
+    private final Transport local;
+    // originales creados aca cuyo hop salio a otra particion, por id
+    private final ConcurrentHashMap<Long, Message> pending = new ConcurrentHashMap<>();
+    // se abre cuando la particion 0 cierra su conexion (ver awaitRelease)
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final LongAdder remoteHops = new LongAdder();
+    private final LongAdder framesSent = new LongAdder();
+    private final LongAdder receivedHops = new LongAdder();
+    private List<Node> nodes;
+
+    /**
+     * @param name prefijo de los hilos
+     * @param numNodes nodos de la topologia completa
+     * @param partition particion de este proceso (0 = coordinador)
+     * @param partitions cantidad de particiones
+     * @throws IllegalArgumentException si partition no esta en 0..partitions-1
+     *         o hay mas particiones que nodos
+     */
+    protected PartitionedTransport(String name, int numNodes, int partition, int partitions) {
+        if (partitions < 1 || partition < 0 || partition >= partitions || partitions > numNodes) {
+            throw new IllegalArgumentException("Particion " + partition + " invalida para " + partitions
+                    + " particiones de " + numNodes + " nodos");
+        }
+        this.name = name;
+        this.numNodes = numNodes;
+        this.partition = partition;
+        this.partitions = partitions;
+        this.local = TransportKind.SHARDED.create(localCount(), name);
+    }
+
+    /**
+     * Particion que ejecuta el nodo id: bloques contiguos, asi en anillos y
+     * mallas la mayoria de los enlaces quedan dentro de un proceso y en el
+     * hipercubo solo cruzan las dimensiones altas.
+     */
+    public static int partitionOf(int id, int numNodes, int partitions) {
+        return (int) ((long) id * partitions / numNodes);
+    }
+
+    private int localCount() {
+        int count = 0;
+        for (int id = 0; id < numNodes; id++) {
+            if (partitionOf(id, numNodes, partitions) == partition) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Arranca los nodos de esta particion y despues abre el medio: las
+     * tramas que lleguen ya encuentran a sus nodos corriendo.
+     *
+     * @throws IllegalArgumentException si la topologia no tiene numNodes nodos
+     * @throws IllegalStateException si no se puede abrir el medio
+     */
+    @Override
+    public void start(List<Node> nodes) {
+        if (nodes.size() != numNodes) {
+            throw new IllegalArgumentException(name + ": el transporte se creo para " + numNodes
+                    + " nodos y la topologia tiene " + nodes.size());
+        }
+        this.nodes = nodes;
+        List<Node> own = new ArrayList<>();
+        for (Node node : nodes) {
+            if (isLocal(node.getId())) {
+                own.add(node);
+            }
+        }
+        local.start(own);
+        open();
+    }
+
+    /**
+     * Las particiones se fijan al lanzar los workers: una topologia repartida
+     * no crece en caliente.
+     *
+     * @throws IllegalStateException siempre
+     */
+    @Override
+    public void addNode(Node node) {
+        throw new IllegalStateException(name + ": una topologia repartida entre procesos no admite nodos nuevos");
+    }
+
+    /**
+     * Conecta con las demas particiones y empieza a recibir tramas.
+     *
+     * @throws IllegalStateException si no se puede conectar
+     */
+    protected abstract void open();
+
+    /**
+     * Reserva espacio contiguo para una trama hacia peer y devuelve el buffer
+     * posicionado donde escribirla. Hasta commit el llamador tiene el buffer
+     * para si (los productores de un mismo destino se serializan).
+     *
+     * @param peer particion destino
+     * @param frameBytes largo total de la trama, cabecera incluida
+     */
+    protected abstract ByteBuffer claim(int peer, int frameBytes);
+
+    /**
+     * Publica la trama escrita tras claim.
+     */
+    protected abstract void commit(int peer, ByteBuffer buffer);
+
+    /**
+     * Entrega y espera a que salga lo encolado hacia las demas particiones y
+     * cierra el medio. Se llama con los nodos locales ya detenidos.
+     *
+     * @param timeout espera maxima
+     * @param unit unidad del timeout
+     * @return true si el medio cerro a tiempo
+     */
+    protected abstract boolean close(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Trama de un tipo propio del medio (>= MEDIUM_TYPES). Por defecto la ignora.
+     *
+     * @param type tipo de la trama
+     * @param frame cuerpo de la trama (de position a limit)
+     */
+    protected void onMediumFrame(byte type, ByteBuffer frame) {
+    }
+
+    public boolean isLocal(int id) {
+        return partitionOf(id, numNodes, partitions) == partition;
+    }
+
+    /**
+     * Entrega local por el ShardedExecutor, o a la particion duena del nodo.
+     *
+     * @throws IllegalStateException si msg es una trama de ReliableChannel
+     *         que deberia cruzar de proceso
+     */
+    @Override
+    public void deliver(Node target, Message msg) {
+        int peer = partitionOf(target.getId(), numNodes, partitions);
+        if (peer == partition) {
+            local.deliver(target, msg);
+            return;
+        }
+        if (msg instanceof Frame) {
+            throw new IllegalStateException(name + " no admite entrega confiable entre procesos");
+        }
+        int origin;
+        if (msg instanceof RemoteMessage) {
+            origin = ((RemoteMessage) msg).getOrigin();
+        } else {
+            origin = partition;
+            pending.putIfAbsent(msg.getId(), msg);
+        }
+        byte[] payload = msg.getPayload().getBytes(StandardCharsets.UTF_8);
+        int length = 1 + MESSAGE_FIELDS + payload.length;
+        ByteBuffer out = claim(peer, 4 + length);
+        out.putInt(length).put(MESSAGE)
+                .putInt(target.getId())
+                .putLong(msg.getId())
+                .putInt(msg.getFromId())
+                .putInt(msg.getToId())
+                .putLong(msg.getSequence())
+                .putLong(msg.getCreatedNanos())
+                .putInt(msg.getHops())
+                .putInt(origin)
+                .putInt(payload.length)
+                .put(payload);
+        commit(peer, out);
+        remoteHops.increment();
+        framesSent.increment();
+    }
+
+    /**
+     * Procesa una trama recibida de otra particion.
+     *
+     * @param frame desde el byte de tipo hasta el fin de la trama (limit)
+     */
+    protected void receive(ByteBuffer frame) {
+        byte type = frame.get();
+        if (type == MESSAGE) {
+            int target = frame.getInt();
+            long id = frame.getLong();
+            int from = frame.getInt();
+            int to = frame.getInt();
+            long sequence = frame.getLong();
+            long createdNanos = frame.getLong();
+            int hops = frame.getInt();
+            int origin = frame.getInt();
+            String payload = readString(frame);
+            RemoteMessage copy = new RemoteMessage(from, to, payload, sequence, id, createdNanos, hops, origin);
+            copy.getDelivery().whenComplete((m, error) -> done(copy, error));
+            receivedHops.increment();
+            local.deliver(nodes.get(target), copy);
+        } else if (type == DONE) {
+            long id = frame.getLong();
+            String reason = readString(frame);
+            complete(id, reason.isEmpty() ? null : reason);
+        } else if (type >= MEDIUM_TYPES) {
+            onMediumFrame(type, frame);
+        } else {
+            throw new IllegalStateException(name + ": trama desconocida de tipo " + type);
+        }
+    }
+
+    // la copia termino aca: avisa a la particion del original
+    private void done(RemoteMessage copy, Throwable error) {
+        String reason = error == null ? null : String.valueOf(error.getMessage());
+        if (copy.getOrigin() == partition) {
+            complete(copy.getId(), reason);
+            return;
+        }
+        byte[] bytes = (reason == null ? "" : reason).getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 8 + 4 + bytes.length;
+        ByteBuffer out = claim(copy.getOrigin(), 4 + length);
+        out.putInt(length).put(DONE).putLong(copy.getId()).putInt(bytes.length).put(bytes);
+        commit(copy.getOrigin(), out);
+        framesSent.increment();
+    }
+
+    // completa el original; las copias duplicadas llegan tarde y se ignoran
+    private void complete(long id, String reason) {
+        Message original = pending.remove(id);
+        if (original == null) {
+            return;
+        }
+        if (reason == null) {
+            original.markDelivered();
+        } else {
+            original.markDropped(reason);
+        }
+    }
+
+    private static String readString(ByteBuffer frame) {
+        int length = frame.getInt();
+        byte[] bytes = new byte[length];
+        frame.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indica que la particion 0 (el coordinador) se desconecto; abre
+     * awaitRelease.
+     */
+    protected void release() {
+        released.countDown();
+    }
+
+    /**
+     * Espera a que el coordinador cierre su conexion: el worker de una
+     * particion corre hasta entonces.
+     */
+    public void awaitRelease() throws InterruptedException {
+        released.await();
+    }
+
+    /**
+     * awaitRelease con limite de tiempo.
+     *
+     * @return true si el coordinador ya se desconecto
+     */
+    public boolean awaitRelease(long timeout, TimeUnit unit) throws InterruptedException {
+        return released.await(timeout, unit);
+    }
+
+    @Override
+    public void shutdown() {
+        local.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        local.shutdownNow();
+        try {
+            close(0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Espera a los nodos locales y despues cierra el medio, con lo que
+     * tenga encolado ya enviado.
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean terminated = local.awaitTermination(timeout, unit);
+        return close(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) && terminated;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        local.schedule(task, delay, unit);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        local.execute(task);
+    }
+
+    @Override
+    public long getQueuedTasks() {
+        return local.getQueuedTasks();
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return local.getActiveThreads();
+    }
+
+    /**
+     * Particion de este proceso.
+     */
+    public int getPartition() {
+        return partition;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Hops que salieron de este proceso hacia otra particion.
+     */
+    public long getRemoteHops() {
+        return remoteHops.sum();
+    }
+
+    /**
+     * Tramas de hops y DONE enviadas a otras particiones.
+     */
+    public long getFramesSent() {
+        return framesSent.sum();
+    }
+
+    /**
+     * Hops recibidos de otras particiones.
+     */
+    public long getReceivedHops() {
+        return receivedHops.sum();
+    }
+
+    /**
+     * Mensajes creados aca que aun esperan el DONE de otra particion.
+     */
+    public int getPendingRemote() {
+        return pending.size();
+    }
+}
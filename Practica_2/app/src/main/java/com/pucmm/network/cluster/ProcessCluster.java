@@ -0,0 +1,196 @@
+package com.pucmm.network.cluster;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.AbstractTopology;
+import com.pucmm.network.topologia.RoutedTopology;
+
+/**
+ * Reparte una topologia entre este proceso (particion 0) y partitions-1
+ * JVMs hijas en el mismo host, conectadas por sockets en loopback
+ * (SocketTransport) o por memoria compartida (SharedMemoryTransport).
+ *
+ * Cada worker es un PartitionWorker con el mismo classpath que recrea la
+ * topologia con su constructor sin argumentos, la configura completa y
+ * ejecuta solo su bloque de nodos. Lo que cambia el reenvio se tiene que
+ * aplicar igual en todos los procesos, por eso la latencia de los enlaces se
+ * fija aca (setLinkLatency) y no sobre la topologia del coordinador.
+ *
+ * Uso tipico a traves de NetworkManager.configureDistributed.
+ */
+public class ProcessCluster implements Closeable {
+    private static final long EXIT_SECONDS = 10;
+
+    /**
+     * Medio entre los procesos.
+     */
+    public enum Medium {
+        /** SocketChannel no bloqueantes en loopback. */
+        SOCKETS,
+        /** Rings SPSC en archivos mapeados bajo /dev/shm. */
+        SHARED_MEMORY
+    }
+
+    private final int partitions;
+    private final Medium medium;
+    private final int basePort;
+    private final Path directory;
+    // -1 = la latencia por defecto de la topologia
+    private long linkLatencyNanos = -1;
+    private final List<Process> workers = new ArrayList<>();
+    private PartitionedTransport transport;
+
+    /**
+     * Cluster conectado por sockets.
+     *
+     * @param partitions procesos en total, contando este
+     * @param basePort puerto de la particion 0; la p escucha en basePort + p
+     * @throws IllegalArgumentException si partitions < 1
+     */
+    public ProcessCluster(int partitions, int basePort) {
+        this(partitions, Medium.SOCKETS, basePort, null);
+    }
+
+    /**
+     * Cluster conectado por memoria compartida.
+     *
+     * @param partitions procesos en total, contando este
+     * @param directory directorio de los rings (ver SharedMemoryTransport.defaultDirectory);
+     *                  se borra al cerrar el cluster
+     * @throws IllegalArgumentException si partitions < 1
+     */
+    public ProcessCluster(int partitions, Path directory) {
+        this(partitions, Medium.SHARED_MEMORY, 0, directory);
+    }
+
+    private ProcessCluster(int partitions, Medium medium, int basePort, Path directory) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("ProcessCluster requiere al menos 1 particion");
+        }
+        this.partitions = partitions;
+        this.medium = medium;
+        this.basePort = basePort;
+        this.directory = directory;
+    }
+
+    /**
+     * Latencia de todos los enlaces en todos los procesos; aplica desde el
+     * siguiente launch.
+     */
+    public void setLinkLatency(long latency, TimeUnit unit) {
+        if (latency < 0) {
+            throw new IllegalArgumentException("ProcessCluster requiere latencia >= 0");
+        }
+        this.linkLatencyNanos = unit.toNanos(latency);
+    }
+
+    /**
+     * Crea el transporte de la particion 0 (abre su puerto o crea sus rings)
+     * y lanza un worker por cada otra particion. El transporte devuelto es el
+     * de este proceso: se pasa a topology.setTransport antes de configurarla.
+     *
+     * @param topology topologia del coordinador; los workers crean otra de la misma clase
+     * @param numNodes nodos de la topologia completa
+     * @throws IllegalStateException si ya se lanzo
+     * @throws IOException si no se puede crear el transporte o lanzar un worker
+     */
+    public PartitionedTransport launch(AbstractTopology topology, int numNodes) throws IOException {
+        if (transport != null) {
+            throw new IllegalStateException("ProcessCluster ya esta lanzado");
+        }
+        transport = createTransport(medium, topology.getName(), numNodes, 0, partitions, endpoint());
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        for (int p = 1; p < partitions; p++) {
+            ProcessBuilder builder = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    PartitionWorker.class.getName(), topology.getClass().getName(), Integer.toString(numNodes),
+                    Integer.toString(p), Integer.toString(partitions), medium.name(), endpoint(),
+                    Long.toString(linkLatencyNanos), Boolean.toString(NetworkLog.isEnabled()));
+            workers.add(builder.inheritIO().start());
+        }
+        return transport;
+    }
+
+    // puerto base o directorio de los rings, como lo recibe PartitionWorker
+    private String endpoint() {
+        return medium == Medium.SOCKETS ? Integer.toString(basePort) : directory.toString();
+    }
+
+    static PartitionedTransport createTransport(Medium medium, String name, int numNodes, int partition,
+                                                int partitions, String endpoint) throws IOException {
+        if (medium == Medium.SOCKETS) {
+            return new SocketTransport(name, numNodes, partition, partitions, Integer.parseInt(endpoint));
+        }
+        return new SharedMemoryTransport(name, numNodes, partition, partitions, Paths.get(endpoint),
+                SharedMemoryTransport.DEFAULT_RING_BYTES);
+    }
+
+    /**
+     * Aplica a la topologia del coordinador, ya configurada, lo mismo que
+     * aplican los workers a las suyas.
+     */
+    public void configure(AbstractTopology topology) {
+        configure(topology, linkLatencyNanos);
+    }
+
+    static void configure(AbstractTopology topology, long linkLatencyNanos) {
+        if (linkLatencyNanos >= 0 && topology instanceof RoutedTopology) {
+            ((RoutedTopology) topology).setLinkLatency(linkLatencyNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Transporte de la particion 0, null antes de launch.
+     */
+    public PartitionedTransport getTransport() {
+        return transport;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public Medium getMedium() {
+        return medium;
+    }
+
+    /**
+     * Espera a que terminen los workers (terminan cuando se cierra el
+     * transporte de la particion 0), fuerza a los que no terminen a tiempo
+     * y borra el directorio de los rings.
+     */
+    @Override
+    public void close() {
+        for (Process worker : workers) {
+            try {
+                if (!worker.waitFor(EXIT_SECONDS, TimeUnit.SECONDS)) {
+                    System.err.printf("ProcessCluster: el worker %d no termino, se fuerza%n", worker.pid());
+                    worker.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                worker.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+        transport = null;
+        if (directory != null && Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(path);
+                }
+            } catch (IOException e) {
+                System.err.printf("ProcessCluster: no se pudo borrar %s: %s%n", directory, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pucmm.network.cluster;
+
+import com.pucmm.network.core.Message;
+
+/**
+ * Copia local de un mensaje que llego de otro proceso. Conserva id, origen,
+ * destino, secuencia, instante de creacion y hops del original, y recuerda
+ * la particion que lo creo: ahi espera el future del original, que se
+ * completa cuando esta copia (o la que siga en otro proceso) se entrega o
+ * se descarta.
+ */
+public class RemoteMessage extends Message {
+    private final int origin;
+
+    RemoteMessage(int fromId, int toId, String payload, long sequence, long id, long createdNanos, int hops,
+                  int origin) {
+        super(fromId, toId, payload, sequence, id, createdNanos, hops);
+        this.origin = origin;
+    }
+
+    /**
+     * Particion donde se creo el mensaje original.
+     */
+    public int getOrigin() {
+        return origin;
+    }
+}
@@ -0,0 +1,202 @@
+package com.pucmm.network.cluster;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Particiones conectadas por memoria compartida: un MappedRing por cada par
+ * dirigido de particiones, en archivos ring-<de>-<a>.bin de un directorio
+ * bajo /dev/shm (tmpfs: las paginas nunca van a disco).
+ *
+ * Un hop remoto se codifica en el lugar dentro del ring del destino (claim,
+ * escribir, commit con un store release) y el hilo lector del otro proceso
+ * lo decodifica desde el mismo mapeo: sin syscalls ni copias intermedias.
+ * Los hilos de un proceso que escriben hacia la misma particion se turnan
+ * con un lock, asi cada ring tiene un solo productor.
+ *
+ * El lector no se puede despertar desde otro proceso sin el kernel: mientras
+ * llegan tramas gira sobre los rings (latencia de un cache miss); tras
+ * SPINS vueltas vacias cede el core con yield (si hay mas hilos que cores,
+ * girar le quita el core al productor) y tras IDLE_SPINS duerme de a
+ * PARK_NANOS.
+ *
+ * Cada particion crea sus rings de salida en el constructor y abre los de
+ * entrada en start; al cerrar marca sus rings de salida como cerrados. Los
+ * archivos los borra quien creo el directorio (ProcessCluster) cuando ya
+ * terminaron todos los procesos.
+ */
+public class SharedMemoryTransport extends PartitionedTransport {
+    public static final int DEFAULT_RING_BYTES = 4 << 20;
+    private static final int SPINS = 1_000;
+    private static final int IDLE_SPINS = 20_000;
+    private static final long PARK_NANOS = 50_000;
+    private static final long OPEN_TIMEOUT_SECONDS = 30;
+
+    private final Path directory;
+    private final MappedRing[] outgoing;
+    private final ReentrantLock[] producers;
+    private final MappedRing[] incoming;
+    private volatile boolean closing;
+    private volatile boolean reading;
+    private Thread reader;
+
+    /**
+     * Crea los rings de salida de esta particion.
+     *
+     * @param name prefijo de los hilos
+     * @param numNodes nodos de la topologia completa
+     * @param partition particion de este proceso (0 = coordinador)
+     * @param partitions cantidad de particiones
+     * @param directory directorio compartido por todas las particiones
+     * @param ringBytes capacidad de cada ring, potencia de 2
+     * @throws IOException si no se pueden crear los archivos
+     */
+    public SharedMemoryTransport(String name, int numNodes, int partition, int partitions, Path directory,
+                                 int ringBytes) throws IOException {
+        super(name, numNodes, partition, partitions);
+        this.directory = directory;
+        this.outgoing = new MappedRing[partitions];
+        this.producers = new ReentrantLock[partitions];
+        this.incoming = new MappedRing[partitions];
+        Files.createDirectories(directory);
+        for (int peer = 0; peer < partitions; peer++) {
+            if (peer != partition) {
+                outgoing[peer] = MappedRing.create(ring(partition, peer), ringBytes);
+                producers[peer] = new ReentrantLock();
+            }
+        }
+    }
+
+    /**
+     * /dev/shm si existe (Linux), si no el directorio temporal, con un
+     * subdirectorio propio de este proceso.
+     */
+    public static Path defaultDirectory() {
+        Path shm = Paths.get("/dev/shm");
+        Path base = Files.isDirectory(shm) && Files.isWritable(shm) ? shm
+                : Paths.get(System.getProperty("java.io.tmpdir"));
+        return base.resolve("pucmm-net-" + ProcessHandle.current().pid());
+    }
+
+    private Path ring(int from, int to) {
+        return directory.resolve("ring-" + from + "-" + to + ".bin");
+    }
+
+    /**
+     * Abre el ring de entrada de cada otra particion (espera a que exista) y
+     * arranca el hilo lector.
+     */
+    @Override
+    protected void open() {
+        try {
+            for (int peer = 0; peer < partitions; peer++) {
+                if (peer != partition) {
+                    incoming[peer] = MappedRing.open(ring(peer, partition), OPEN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(name + ": no se pudo abrir la particion " + partition, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(name + ": interrumpido abriendo la particion " + partition, e);
+        }
+        reader = new Thread(this::readLoop, name + "-shm-" + partition);
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void readLoop() {
+        int spins = 0;
+        try {
+            while (!closing) {
+                int frames = 0;
+                for (MappedRing ring : incoming) {
+                    if (ring != null) {
+                        frames += ring.drain(this);
+                    }
+                }
+                reading = frames > 0;
+                if (frames > 0) {
+                    spins = 0;
+                } else if (partition != 0 && incoming[0].isClosedAndDrained()) {
+                    release();
+                    spins = 0;
+                    LockSupport.parkNanos(PARK_NANOS);
+                } else if (++spins < SPINS) {
+                    Thread.onSpinWait();
+                } else if (spins < IDLE_SPINS) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.printf("%s: fallo la lectura de la particion %d: %s%n", name, partition, e);
+            release();
+        }
+    }
+
+    @Override
+    protected ByteBuffer claim(int peer, int frameBytes) {
+        producers[peer].lock();
+        try {
+            return outgoing[peer].claim(frameBytes);
+        } catch (RuntimeException e) {
+            producers[peer].unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void commit(int peer, ByteBuffer buffer) {
+        outgoing[peer].commit();
+        producers[peer].unlock();
+    }
+
+    /**
+     * Marca los rings de salida como cerrados (lo ya escrito se sigue
+     * leyendo del otro lado) y detiene el lector.
+     */
+    @Override
+    protected boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        for (MappedRing ring : outgoing) {
+            if (ring != null) {
+                ring.close();
+            }
+        }
+        closing = true;
+        Thread thread = reader;
+        if (thread != null) {
+            thread.join(Math.max(1, unit.toMillis(timeout)));
+        }
+        return thread == null || !thread.isAlive();
+    }
+
+    /**
+     * Bytes escritos en los rings de salida que el otro proceso aun no leyo.
+     */
+    public long getOutgoingBacklog() {
+        long bytes = 0;
+        for (MappedRing ring : outgoing) {
+            if (ring != null) {
+                bytes += ring.backlog();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return super.getActiveThreads() + (reading ? 1 : 0);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,364 @@
+package com.pucmm.network.cluster;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Particiones conectadas por SocketChannel no bloqueantes en loopback.
+ *
+ * La particion p escucha en basePort + p y abre una conexion de salida a
+ * cada otra particion: cada canal lleva tramas en un solo sentido (la
+ * primera, HELLO, dice de que particion viene). Un unico hilo de E/S con un
+ * Selector acepta, lee y escribe todos los canales.
+ *
+ * Escrituras en lote por destino: los hilos de los nodos codifican sus
+ * tramas en el buffer de llenado del destino (bajo un lock corto) y solo el
+ * primero de cada lote despierta al selector. El hilo de E/S intercambia ese
+ * buffer por el de vaciado y lo escribe de una vez, asi un write cubre todas
+ * las tramas acumuladas mientras se escribia el lote anterior. Si el socket
+ * se llena, espera OP_WRITE sin frenar a los productores (el buffer de
+ * llenado crece).
+ */
+public class SocketTransport extends PartitionedTransport {
+    private static final byte HELLO = MEDIUM_TYPES;
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final long CONNECT_TIMEOUT_SECONDS = 30;
+    private static final long CONNECT_RETRY_MILLIS = 20;
+
+    private final int basePort;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Outbox[] outboxes;
+    // destinos con un lote nuevo para el hilo de E/S
+    private final ConcurrentLinkedQueue<Outbox> dirty = new ConcurrentLinkedQueue<>();
+    private volatile long writes;
+    private volatile long bytesWritten;
+    private volatile boolean closing;
+    private Thread ioThread;
+
+    /**
+     * Destino: conexion de salida y par de buffers de llenado y vaciado.
+     */
+    private static final class Outbox {
+        final int peer;
+        final SocketChannel channel;
+        final ReentrantLock lock = new ReentrantLock();
+        SelectionKey key;
+        // bajo lock
+        ByteBuffer filling = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        boolean scheduled;
+        // solo el hilo de E/S; vacio al empezar (limit 0)
+        ByteBuffer draining = ByteBuffer.allocateDirect(BUFFER_BYTES).limit(0);
+
+        Outbox(int peer, SocketChannel channel) {
+            this.peer = peer;
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Conexion de entrada y su buffer de lectura.
+     */
+    private static final class Inbound {
+        final SocketChannel channel;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        int peer = -1;
+
+        Inbound(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Abre el puerto de esta particion; las demas pueden conectarse desde ya.
+     *
+     * @param name prefijo de los hilos
+     * @param numNodes nodos de la topologia completa
+     * @param partition particion de este proceso (0 = coordinador)
+     * @param partitions cantidad de particiones
+     * @param basePort puerto de la particion 0; la p escucha en basePort + p
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public SocketTransport(String name, int numNodes, int partition, int partitions, int basePort)
+            throws IOException {
+        super(name, numNodes, partition, partitions);
+        if (basePort < 1 || basePort + partitions - 1 > 65535) {
+            throw new IllegalArgumentException("SocketTransport requiere puertos entre 1 y 65535");
+        }
+        this.basePort = basePort;
+        this.outboxes = new Outbox[partitions];
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(address(partition));
+        server.configureBlocking(false);
+    }
+
+    private InetSocketAddress address(int peer) {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), basePort + peer);
+    }
+
+    /**
+     * Conecta con cada otra particion (reintenta hasta que escuche), manda
+     * HELLO y arranca el hilo de E/S.
+     */
+    @Override
+    protected void open() {
+        try {
+            for (int peer = 0; peer < partitions; peer++) {
+                if (peer != partition) {
+                    outboxes[peer] = new Outbox(peer, connect(peer));
+                    ByteBuffer out = claim(peer, FRAME_HEADER + 4);
+                    out.putInt(1 + 4).put(HELLO).putInt(partition);
+                    commit(peer, out);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(name + ": no se pudo conectar la particion " + partition, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(name + ": interrumpido conectando la particion " + partition, e);
+        }
+        ioThread = new Thread(this::ioLoop, name + "-io-" + partition);
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    private SocketChannel connect(int peer) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(CONNECT_TIMEOUT_SECONDS);
+        while (true) {
+            try {
+                SocketChannel channel = SocketChannel.open(address(peer));
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.configureBlocking(false);
+                return channel;
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(CONNECT_RETRY_MILLIS);
+            }
+        }
+    }
+
+    @Override
+    protected ByteBuffer claim(int peer, int frameBytes) {
+        Outbox outbox = outboxes[peer];
+        outbox.lock.lock();
+        ByteBuffer filling = outbox.filling;
+        if (filling.remaining() < frameBytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(2 * filling.capacity(),
+                    filling.position() + frameBytes));
+            filling.flip();
+            larger.put(filling);
+            outbox.filling = filling = larger;
+        }
+        return filling;
+    }
+
+    @Override
+    protected void commit(int peer, ByteBuffer buffer) {
+        Outbox outbox = outboxes[peer];
+        boolean wake = !outbox.scheduled;
+        outbox.scheduled = true;
+        outbox.lock.unlock();
+        if (wake) {
+            dirty.offer(outbox);
+            selector.wakeup();
+        }
+    }
+
+    private void ioLoop() {
+        try {
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            for (Outbox outbox : outboxes) {
+                if (outbox != null) {
+                    outbox.key = outbox.channel.register(selector, 0, outbox);
+                }
+            }
+            while (true) {
+                Outbox outbox;
+                while ((outbox = dirty.poll()) != null) {
+                    flush(outbox);
+                }
+                if (closing && drained()) {
+                    break;
+                }
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key, (Inbound) key.attachment());
+                    } else if (key.isWritable()) {
+                        flush((Outbox) key.attachment());
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.printf("%s: fallo la E/S de la particion %d: %s%n", name, partition, e);
+            release();
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Inbound(channel));
+        }
+    }
+
+    // lee lo disponible y procesa las tramas completas
+    private void read(SelectionKey key, Inbound inbound) throws IOException {
+        ByteBuffer buffer = inbound.buffer;
+        int read = inbound.channel.read(buffer);
+        if (read < 0) {
+            key.cancel();
+            inbound.channel.close();
+            if (inbound.peer == 0) {
+                release();
+            }
+            return;
+        }
+        buffer.flip();
+        int available = buffer.limit();
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (buffer.remaining() < 4 + length) {
+                if (4 + length > buffer.capacity()) {
+                    // trama mas grande que el buffer: sigue leyendo en uno que la contenga
+                    ByteBuffer larger = ByteBuffer.allocateDirect(4 + length);
+                    larger.put(buffer);
+                    inbound.buffer = larger;
+                    return;
+                }
+                break;
+            }
+            int end = start + 4 + length;
+            buffer.limit(end).position(start + 4);
+            if (buffer.get(start + 4) == HELLO) {
+                buffer.get();
+                inbound.peer = buffer.getInt();
+            } else {
+                receive(buffer);
+            }
+            buffer.limit(available).position(end);
+        }
+        buffer.compact();
+    }
+
+    // escribe lotes hacia outbox hasta vaciarlo o llenar el socket
+    private void flush(Outbox outbox) throws IOException {
+        while (true) {
+            if (!outbox.draining.hasRemaining()) {
+                outbox.lock.lock();
+                try {
+                    outbox.scheduled = false;
+                    if (outbox.filling.position() == 0) {
+                        if (outbox.key.interestOps() != 0) {
+                            outbox.key.interestOps(0);
+                        }
+                        return;
+                    }
+                    ByteBuffer batch = outbox.filling;
+                    outbox.filling = outbox.draining.clear();
+                    outbox.draining = batch.flip();
+                } finally {
+                    outbox.lock.unlock();
+                }
+            }
+            int written = outbox.channel.write(outbox.draining);
+            writes++;
+            bytesWritten += written;
+            if (outbox.draining.hasRemaining()) {
+                outbox.key.interestOps(SelectionKey.OP_WRITE);
+                return;
+            }
+        }
+    }
+
+    private boolean drained() {
+        for (Outbox outbox : outboxes) {
+            if (outbox != null) {
+                outbox.lock.lock();
+                try {
+                    if (outbox.draining.hasRemaining() || outbox.filling.position() > 0) {
+                        return false;
+                    }
+                } finally {
+                    outbox.lock.unlock();
+                }
+            }
+        }
+        return true;
+    }
+
+    private void closeChannels() {
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // se cierra igual el resto
+            }
+        }
+        try {
+            server.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.printf("%s: error cerrando la particion %d: %s%n", name, partition, e);
+        }
+    }
+
+    /**
+     * Termina de escribir lo encolado y cierra las conexiones; del otro lado
+     * se lee fin de flujo (el worker de cada particion termina cuando cierra
+     * la 0).
+     */
+    @Override
+    protected boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        closing = true;
+        Thread thread = ioThread;
+        if (thread == null) {
+            closeChannels();
+            return true;
+        }
+        selector.wakeup();
+        thread.join(Math.max(1, unit.toMillis(timeout)));
+        return !thread.isAlive();
+    }
+
+    /**
+     * Llamadas a write del hilo de E/S: getFramesSent() / getWrites() es el
+     * tamano medio de lote.
+     */
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+}
@@ -0,0 +1,56 @@
+package com.pucmm.network.collective;
+
+/**
+ * Algoritmo con el que Collectives ejecuta cada operacion colectiva. Todos
+ * funcionan sobre cualquier topologia (los envios se rutean con sendMessage);
+ * DIMENSION_EXCHANGE, RING y DIRECT solo usan enlaces directos en hipercubo,
+ * anillo y red completa. BINOMIAL_TREE minimiza pasos en cualquier topologia,
+ * aunque en TreeNetwork algunos envios cruzan varios niveles del arbol.
+ * Pasos teoricos con p nodos (broadcast/reduce/scatter/gather; all-reduce):
+ * - BINOMIAL_TREE: ceil(log2 p); 2 * ceil(log2 p)
+ * - DIMENSION_EXCHANGE: log2 p; log2 p
+ * - RING: p - 1; 2 * (p - 1)
+ * - DIRECT: 1; 1
+ */
+public enum CollectiveAlgorithm {
+    /** Arbol binomial sobre rangos relativos a la raiz: en cada paso se duplican los nodos activos. */
+    BINOMIAL_TREE,
+    /**
+     * Arbol binomial con rangos por XOR (todos los envios entre vecinos del
+     * hipercubo); el all-reduce intercambia con el vecino de cada dimension.
+     * Requiere p potencia de 2.
+     */
+    DIMENSION_EXCHANGE,
+    /**
+     * Envios solo al sucesor del anillo. El all-reduce es reduce-scatter +
+     * all-gather por bloques: cada nodo envia 2(p-1) bloques de n/p elementos.
+     */
+    RING,
+    /** Un solo paso con envios directos entre todos los pares necesarios. */
+    DIRECT;
+
+    /**
+     * Pasos teoricos de una operacion con p nodos.
+     *
+     * @param allReduce true para all-reduce, false para las demas operaciones
+     * @param p         cantidad de nodos
+     * @return cota de pasos: log(p) o p-1 segun el algoritmo
+     */
+    public int expectedSteps(boolean allReduce, int p) {
+        if (p <= 1) {
+            return 0;
+        }
+        int log = 32 - Integer.numberOfLeadingZeros(p - 1);
+        switch (this) {
+            case BINOMIAL_TREE:
+                return allReduce ? 2 * log : log;
+            case DIMENSION_EXCHANGE:
+                return log;
+            case RING:
+                return allReduce ? 2 * (p - 1) : p - 1;
+            case DIRECT:
+            default:
+                return 1;
+        }
+    }
+}
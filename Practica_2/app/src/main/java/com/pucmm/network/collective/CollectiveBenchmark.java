@@ -0,0 +1,149 @@
+package com.pucmm.network.collective;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Ejecuta broadcast, reduce, all-reduce, scatter y gather con el algoritmo
+ * optimo de cada topologia para p = 4..maxNodos, verifica los valores y
+ * compara los pasos con la cota teorica (log(p) o p-1). Al final compara el
+ * all-reduce de todos los algoritmos sobre cada topologia con el mayor p.
+ *
+ * Los enlaces usan 1 ms de latencia para que el tiempo por paso refleje los
+ * hops: los envios a un vecino directo solo pagan cola y serializacion.
+ *
+ * Uso: CollectiveBenchmark [maxNodos] [largoVector]
+ */
+public class CollectiveBenchmark {
+    private static final long LINK_LATENCY_MS = 1;
+
+    public static void main(String[] args) {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<NetworkTopology>> topologies = new LinkedHashMap<>();
+        topologies.put("TreeNetwork", TreeNetwork::new);
+        topologies.put("HypercubeNetwork", HypercubeNetwork::new);
+        topologies.put("RingNetwork", RingNetwork::new);
+        topologies.put("FullyConnectedNetwork", FullyConnectedNetwork::new);
+
+        boolean allValid = true;
+        int lastP = 0;
+        for (int p = 4; p <= maxNodes; p *= 2) {
+            lastP = p;
+            System.out.printf("=== p=%d vector=%d ===%n", p, length);
+            for (Supplier<NetworkTopology> factory : topologies.values()) {
+                NetworkTopology topology = start(factory, p);
+                try {
+                    allValid &= runAll(new Collectives(topology), p, length);
+                } finally {
+                    topology.shutdown();
+                }
+            }
+            System.out.println();
+        }
+
+        System.out.printf("=== all-reduce p=%d con cada algoritmo ===%n", lastP);
+        for (Supplier<NetworkTopology> factory : topologies.values()) {
+            for (CollectiveAlgorithm algorithm : CollectiveAlgorithm.values()) {
+                NetworkTopology topology = start(factory, lastP);
+                try {
+                    CollectiveResult result = new Collectives(topology, algorithm)
+                            .allReduce(vectors(lastP, length), Long::sum);
+                    allValid &= report(result, Arrays.equals(result.getValues()[0], sum(lastP, length)));
+                } finally {
+                    topology.shutdown();
+                }
+            }
+        }
+        System.out.println(allValid ? "\nTodas las colectivas correctas y dentro de la cota"
+                : "\nHubo colectivas con valores incorrectos o fuera de la cota");
+    }
+
+    /**
+     * Ejecuta las cinco operaciones con la raiz 1 (o 0 si p == 1) y las verifica.
+     *
+     * @return true si todas dieron los valores esperados dentro de la cota
+     */
+    private static boolean runAll(Collectives collectives, int p, int length) {
+        int root = p > 1 ? 1 : 0;
+        long[][] vectors = vectors(p, length);
+        long[] expectedSum = sum(p, length);
+        boolean valid = true;
+
+        CollectiveResult broadcast = collectives.broadcast(root, vectors[root]);
+        boolean ok = true;
+        for (long[] value : broadcast.getValues()) {
+            ok &= Arrays.equals(value, vectors[root]);
+        }
+        valid &= report(broadcast, ok);
+
+        CollectiveResult reduce = collectives.reduce(root, vectors, Long::sum);
+        valid &= report(reduce, Arrays.equals(reduce.getValues()[root], expectedSum));
+
+        CollectiveResult allReduce = collectives.allReduce(vectors, Long::sum);
+        ok = true;
+        for (long[] value : allReduce.getValues()) {
+            ok &= Arrays.equals(value, expectedSum);
+        }
+        valid &= report(allReduce, ok);
+
+        CollectiveResult scatter = collectives.scatter(root, vectors);
+        valid &= report(scatter, Arrays.deepEquals(scatter.getValues(), vectors));
+
+        CollectiveResult gather = collectives.gather(root, vectors);
+        valid &= report(gather, Arrays.deepEquals(gather.getValues(), vectors));
+        return valid;
+    }
+
+    private static boolean report(CollectiveResult result, boolean correct) {
+        boolean valid = correct && result.isWithinBound();
+        System.out.printf("%s %s%n", result, correct ? (result.isWithinBound() ? "OK" : "EXCEDE COTA") : "ERROR");
+        return valid;
+    }
+
+    private static NetworkTopology start(Supplier<NetworkTopology> factory, int p) {
+        NetworkTopology topology = factory.get();
+        topology.configureNetwork(p);
+        if (topology instanceof RoutedTopology) {
+            ((RoutedTopology) topology).setLinkLatency(LINK_LATENCY_MS, TimeUnit.MILLISECONDS);
+        }
+        topology.runNetwork();
+        return topology;
+    }
+
+    /**
+     * Vector del nodo i: i * length + j.
+     */
+    private static long[][] vectors(int p, int length) {
+        long[][] vectors = new long[p][length];
+        for (int i = 0; i < p; i++) {
+            for (int j = 0; j < length; j++) {
+                vectors[i][j] = (long) i * length + j;
+            }
+        }
+        return vectors;
+    }
+
+    private static long[] sum(int p, int length) {
+        long[] sum = new long[length];
+        for (long[] vector : vectors(p, length)) {
+            for (int j = 0; j < length; j++) {
+                sum[j] += vector[j];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package com.pucmm.network.collective;
+
+/**
+ * Resultado de una operacion colectiva: valores finales por nodo, pasos
+ * ejecutados contra la cota teorica y tiempos por paso.
+ */
+public class CollectiveResult {
+    private final String operation;
+    private final String topologyName;
+    private final CollectiveAlgorithm algorithm;
+    private final int numNodes;
+    private final int steps;
+    private final int expectedSteps;
+    private final long messages;
+    private final long bytes;
+    private final long[] stepNanos;
+    private final long[][] values;
+
+    /**
+     * @param operation     nombre de la operacion (broadcast, reduce, ...)
+     * @param topologyName  nombre de la topologia
+     * @param algorithm     algoritmo usado
+     * @param numNodes      nodos que participaron
+     * @param expectedSteps cota teorica de pasos (ver CollectiveAlgorithm)
+     * @param messages      mensajes enviados
+     * @param bytes         bytes enviados (Message.getSizeBytes)
+     * @param stepNanos     duracion de cada paso, hasta que se entrego su ultimo mensaje
+     * @param values        valores finales indexados por nodo (ver Collectives)
+     */
+    public CollectiveResult(String operation, String topologyName, CollectiveAlgorithm algorithm,
+                            int numNodes, int expectedSteps, long messages, long bytes,
+                            long[] stepNanos, long[][] values) {
+        this.operation = operation;
+        this.topologyName = topologyName;
+        this.algorithm = algorithm;
+        this.numNodes = numNodes;
+        this.steps = stepNanos.length;
+        this.expectedSteps = expectedSteps;
+        this.messages = messages;
+        this.bytes = bytes;
+        this.stepNanos = stepNanos;
+        this.values = values;
+    }
+
+    /**
+     * Duracion total: suma de los pasos.
+     */
+    public long getElapsedNanos() {
+        long total = 0;
+        for (long nanos : stepNanos) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    /**
+     * Duracion promedio de un paso en nanosegundos.
+     */
+    public double getMeanStepNanos() {
+        return steps == 0 ? 0 : (double) getElapsedNanos() / steps;
+    }
+
+    /**
+     * Indica si la operacion no excedio la cota teorica de pasos.
+     */
+    public boolean isWithinBound() {
+        return steps <= expectedSteps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s %-18s %-10s p=%-4d pasos=%3d/%-3d mensajes=%-6d bytes=%-8d "
+                        + "total=%.2fms paso=%.1fus",
+                topologyName, algorithm, operation, numNodes, steps, expectedSteps, messages, bytes,
+                getElapsedNanos() / 1e6, getMeanStepNanos() / 1e3);
+    }
+
+    // Getters
+    public String getOperation() { return operation; }
+    public String getTopologyName() { return topologyName; }
+    public CollectiveAlgorithm getAlgorithm() { return algorithm; }
+    public int getNumNodes() { return numNodes; }
+    public int getSteps() { return steps; }
+    public int getExpectedSteps() { return expectedSteps; }
+    public long getMessages() { return messages; }
+    public long getBytes() { return bytes; }
+    public long[] getStepNanos() { return stepNanos.clone(); }
+    public long[][] getValues() { return values; }
+}
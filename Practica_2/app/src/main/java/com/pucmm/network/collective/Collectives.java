@@ -0,0 +1,583 @@
+package com.pucmm.network.collective;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.LongBinaryOperator;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+
+/**
+ * Operaciones colectivas (broadcast, reduce, all-reduce, scatter y gather)
+ * sobre cualquier NetworkTopology configurada y corriendo.
+ *
+ * Cada operacion avanza en pasos sincronos: todos los mensajes de un paso se
+ * envian con sendMessage a partir del estado al inicio del paso, y el paso
+ * termina cuando el ultimo llega a su destino. Los datos viajan en el payload
+ * (vectores de long) y cada receptor aplica lo que le llego al cerrar el paso.
+ * Los operadores de reduccion deben ser asociativos y conmutativos.
+ *
+ * Valores del resultado (CollectiveResult.getValues) indexados por nodo:
+ * - broadcast / all-reduce: el vector de cada nodo al terminar
+ * - reduce: solo la raiz tiene el vector reducido, los demas null
+ * - scatter: el bloque que recibio cada nodo
+ * - gather: el vector de cada nodo tal como lo recibio la raiz
+ */
+public class Collectives {
+    // espera maxima por los mensajes de un paso
+    private static final long STEP_TIMEOUT_SECONDS = 30;
+
+    private final NetworkTopology topology;
+    private final CollectiveAlgorithm algorithm;
+    private final String topologyName;
+    private final int p;
+
+    /**
+     * Colectivas con el algoritmo optimo para la topologia (ver defaultAlgorithm).
+     *
+     * @param topology topologia configurada y corriendo
+     * @throws IllegalStateException si la topologia no esta configurada
+     */
+    public Collectives(NetworkTopology topology) {
+        this(topology, defaultAlgorithm(topology));
+    }
+
+    /**
+     * @param topology  topologia configurada y corriendo
+     * @param algorithm algoritmo para todas las operaciones
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el algoritmo es DIMENSION_EXCHANGE y
+     *         la cantidad de nodos no es potencia de 2
+     */
+    public Collectives(NetworkTopology topology, CollectiveAlgorithm algorithm) {
+        if (topology.getNodes().isEmpty() || topology.getLatencyStats() == null) {
+            throw new IllegalStateException("Collectives requiere una topologia configurada.");
+        }
+        this.topology = topology;
+        this.algorithm = algorithm;
+        this.topologyName = topology.getLatencyStats().getTopologyName();
+        this.p = topology.getNodes().size();
+        if (algorithm == CollectiveAlgorithm.DIMENSION_EXCHANGE && Integer.bitCount(p) != 1) {
+            throw new IllegalArgumentException("DIMENSION_EXCHANGE requiere numero de nodos potencia de 2");
+        }
+    }
+
+    /**
+     * Algoritmo optimo para la topologia: intercambio por dimensiones en
+     * HypercubeNetwork, anillo en RingNetwork, directo en FullyConnectedNetwork
+     * y arbol binomial en las demas (incluida TreeNetwork).
+     *
+     * @param topology topologia
+     * @return algoritmo por defecto
+     */
+    public static CollectiveAlgorithm defaultAlgorithm(NetworkTopology topology) {
+        if (topology instanceof HypercubeNetwork) {
+            return CollectiveAlgorithm.DIMENSION_EXCHANGE;
+        } else if (topology instanceof RingNetwork) {
+            return CollectiveAlgorithm.RING;
+        } else if (topology instanceof FullyConnectedNetwork) {
+            return CollectiveAlgorithm.DIRECT;
+        }
+        return CollectiveAlgorithm.BINOMIAL_TREE;
+    }
+
+    /**
+     * Copia el vector de la raiz a todos los nodos.
+     *
+     * @param root nodo que tiene el vector
+     * @param data vector a difundir
+     * @return resultado con la copia de cada nodo
+     * @throws IllegalArgumentException si root esta fuera de rango
+     * @throws IllegalStateException si un mensaje se descarta o un paso vence
+     */
+    public CollectiveResult broadcast(int root, long[] data) {
+        validateRoot(root);
+        long[][] buffers = new long[p][];
+        buffers[root] = data.clone();
+        Run run = new Run("broadcast");
+        broadcast(run, root, buffers);
+        return run.result(false, buffers);
+    }
+
+    /**
+     * Reduce elemento a elemento los vectores de todos los nodos en la raiz.
+     *
+     * @param root   nodo que recibe la reduccion
+     * @param values vector de cada nodo, todos del mismo largo
+     * @param op     operador asociativo y conmutativo (por ejemplo Long::sum)
+     * @return resultado con el vector reducido en la raiz
+     * @throws IllegalArgumentException si root esta fuera de rango o los vectores no son validos
+     * @throws IllegalStateException si un mensaje se descarta o un paso vence
+     */
+    public CollectiveResult reduce(int root, long[][] values, LongBinaryOperator op) {
+        validateRoot(root);
+        long[][] acc = copyVectors(values, true);
+        Run run = new Run("reduce");
+        reduce(run, root, acc, op);
+        long[][] result = new long[p][];
+        result[root] = acc[root];
+        return run.result(false, result);
+    }
+
+    /**
+     * Reduce los vectores de todos los nodos y deja el resultado en todos.
+     * - BINOMIAL_TREE: reduce hacia el nodo 0 y luego broadcast.
+     * - DIMENSION_EXCHANGE: en el paso k cada nodo intercambia su vector con el
+     *   vecino de la dimension k y ambos combinan.
+     * - RING: reduce-scatter + all-gather de p bloques; cada paso envia un
+     *   bloque de n/p elementos al sucesor.
+     * - DIRECT: cada nodo envia su vector a todos los demas.
+     *
+     * @param values vector de cada nodo, todos del mismo largo
+     * @param op     operador asociativo y conmutativo
+     * @return resultado con el vector reducido en cada nodo
+     * @throws IllegalArgumentException si los vectores no son validos
+     * @throws IllegalStateException si un mensaje se descarta o un paso vence
+     */
+    public CollectiveResult allReduce(long[][] values, LongBinaryOperator op) {
+        long[][] acc = copyVectors(values, true);
+        Run run = new Run("allreduce");
+        switch (algorithm) {
+            case DIMENSION_EXCHANGE:
+                for (int mask = 1; mask < p; mask <<= 1) {
+                    for (int i = 0; i < p; i++) {
+                        int to = i ^ mask;
+                        // el de menor id va a la izquierda para que todos combinen igual
+                        boolean fromLower = i < to;
+                        run.sendVector(i, to, acc[i], v -> acc[to] = fromLower ? combine(op, v, acc[to]) : combine(op, acc[to], v));
+                    }
+                    run.step();
+                }
+                return run.result(true, acc);
+            case RING:
+                ringAllReduce(run, acc, op);
+                return run.result(true, acc);
+            case DIRECT:
+                long[][] result = copyVectors(acc, true);
+                for (int i = 0; i < p; i++) {
+                    for (int j = 0; j < p; j++) {
+                        if (i != j) {
+                            int to = j;
+                            run.sendVector(i, to, acc[i], v -> result[to] = combine(op, result[to], v));
+                        }
+                    }
+                }
+                run.step();
+                return run.result(true, result);
+            case BINOMIAL_TREE:
+            default:
+                reduce(run, 0, acc, op);
+                long[][] buffers = new long[p][];
+                buffers[0] = acc[0];
+                broadcast(run, 0, buffers);
+                return run.result(true, buffers);
+        }
+    }
+
+    /**
+     * Reparte desde la raiz el bloque chunks[i] a cada nodo i. En el arbol
+     * binomial cada envio lleva los bloques de todo el subarbol del receptor.
+     *
+     * @param root   nodo que tiene los bloques
+     * @param chunks un bloque por nodo
+     * @return resultado con el bloque recibido por cada nodo
+     * @throws IllegalArgumentException si root esta fuera de rango o no hay un bloque por nodo
+     * @throws IllegalStateException si un mensaje se descarta o un paso vence
+     */
+    public CollectiveResult scatter(int root, long[][] chunks) {
+        validateRoot(root);
+        // held[i][j]: bloque del nodo j que tiene el nodo i
+        long[][][] held = new long[p][p][];
+        held[root] = copyVectors(chunks, false);
+        Run run = new Run("scatter");
+        switch (algorithm) {
+            case RING:
+                // el rango k-1 se queda con su bloque y pasa el resto al rango k
+                for (int k = 1; k < p; k++) {
+                    run.sendRanks(held, node(k - 1, root), node(k, root), root, k, p);
+                    run.step();
+                }
+                break;
+            case DIRECT:
+                for (int i = 0; i < p; i++) {
+                    if (i != root) {
+                        run.sendRanks(held, root, i, root, rank(i, root), rank(i, root) + 1);
+                    }
+                }
+                run.step();
+                break;
+            default:
+                for (int mask = p > 1 ? Integer.highestOneBit(p - 1) : 0; mask >= 1; mask >>= 1) {
+                    for (int r = 0; r + mask < p; r += 2 * mask) {
+                        run.sendRanks(held, node(r, root), node(r + mask, root), root,
+                                r + mask, Math.min(r + 2 * mask, p));
+                    }
+                    run.step();
+                }
+        }
+        long[][] result = new long[p][];
+        for (int i = 0; i < p; i++) {
+            result[i] = held[i][i];
+        }
+        return run.result(false, result);
+    }
+
+    /**
+     * Junta en la raiz el vector de cada nodo (inverso de scatter).
+     *
+     * @param root   nodo que recibe los vectores
+     * @param values vector de cada nodo
+     * @return resultado con los vectores tal como quedaron en la raiz
+     * @throws IllegalArgumentException si root esta fuera de rango o no hay un vector por nodo
+     * @throws IllegalStateException si un mensaje se descarta o un paso vence
+     */
+    public CollectiveResult gather(int root, long[][] values) {
+        validateRoot(root);
+        long[][] own = copyVectors(values, false);
+        long[][][] held = new long[p][p][];
+        for (int i = 0; i < p; i++) {
+            held[i][i] = own[i];
+        }
+        Run run = new Run("gather");
+        switch (algorithm) {
+            case RING:
+                // el rango k pasa al sucesor los bloques de los rangos 1..k
+                for (int k = 1; k < p; k++) {
+                    run.sendRanks(held, node(k, root), node((k + 1) % p, root), root, 1, k + 1);
+                    run.step();
+                }
+                break;
+            case DIRECT:
+                for (int i = 0; i < p; i++) {
+                    if (i != root) {
+                        run.sendRanks(held, i, root, root, rank(i, root), rank(i, root) + 1);
+                    }
+                }
+                run.step();
+                break;
+            default:
+                for (int mask = 1; mask < p; mask <<= 1) {
+                    for (int r = 0; r + mask < p; r += 2 * mask) {
+                        run.sendRanks(held, node(r + mask, root), node(r, root), root,
+                                r + mask, Math.min(r + 2 * mask, p));
+                    }
+                    run.step();
+                }
+        }
+        return run.result(false, held[root]);
+    }
+
+    /**
+     * Broadcast sobre buffers, donde solo buffers[root] tiene datos.
+     */
+    private void broadcast(Run run, int root, long[][] buffers) {
+        switch (algorithm) {
+            case RING:
+                for (int k = 0; k + 1 < p; k++) {
+                    int from = node(k, root);
+                    int to = node(k + 1, root);
+                    run.sendVector(from, to, buffers[from], v -> buffers[to] = v);
+                    run.step();
+                }
+                break;
+            case DIRECT:
+                for (int i = 0; i < p; i++) {
+                    if (i != root) {
+                        int to = i;
+                        run.sendVector(root, to, buffers[root], v -> buffers[to] = v);
+                    }
+                }
+                run.step();
+                break;
+            default:
+                // en el paso k los rangos 0..2^k-1 envian al rango + 2^k
+                for (int mask = 1; mask < p; mask <<= 1) {
+                    for (int r = 0; r < mask && r + mask < p; r++) {
+                        int from = node(r, root);
+                        int to = node(r + mask, root);
+                        run.sendVector(from, to, buffers[from], v -> buffers[to] = v);
+                    }
+                    run.step();
+                }
+        }
+    }
+
+    /**
+     * Reduce acc hacia la raiz; al terminar acc[root] tiene la reduccion.
+     */
+    private void reduce(Run run, int root, long[][] acc, LongBinaryOperator op) {
+        switch (algorithm) {
+            case RING:
+                // cadena 1 -> 2 -> ... -> p-1 -> raiz acumulando
+                for (int k = 1; k < p; k++) {
+                    int from = node(k, root);
+                    int to = node((k + 1) % p, root);
+                    run.sendVector(from, to, acc[from], v -> acc[to] = combine(op, acc[to], v));
+                    run.step();
+                }
+                break;
+            case DIRECT:
+                for (int i = 0; i < p; i++) {
+                    if (i != root) {
+                        run.sendVector(i, root, acc[i], v -> acc[root] = combine(op, acc[root], v));
+                    }
+                }
+                run.step();
+                break;
+            default:
+                // inverso del broadcast binomial: en el paso k los rangos con
+                // bit k encendido (y bits menores en 0) envian al rango - 2^k
+                for (int mask = 1; mask < p; mask <<= 1) {
+                    for (int r = mask; r < p; r += 2 * mask) {
+                        int from = node(r, root);
+                        int to = node(r - mask, root);
+                        run.sendVector(from, to, acc[from], v -> acc[to] = combine(op, acc[to], v));
+                    }
+                    run.step();
+                }
+        }
+    }
+
+    /**
+     * All-reduce en anillo: p-1 pasos de reduce-scatter (al final el nodo i
+     * tiene reducido el bloque i+1) y p-1 de all-gather que circulan los
+     * bloques reducidos. Cada nodo envia un bloque por paso a su sucesor.
+     */
+    private void ringAllReduce(Run run, long[][] acc, LongBinaryOperator op) {
+        int n = acc[0].length;
+        for (int s = 0; s + 1 < p; s++) {
+            for (int i = 0; i < p; i++) {
+                int c = Math.floorMod(i - s, p);
+                int to = (i + 1) % p;
+                int start = blockStart(c, n);
+                run.sendVector(i, to, Arrays.copyOfRange(acc[i], start, blockStart(c + 1, n)), v -> {
+                    for (int j = 0; j < v.length; j++) {
+                        acc[to][start + j] = op.applyAsLong(acc[to][start + j], v[j]);
+                    }
+                });
+            }
+            run.step();
+        }
+        for (int s = 0; s + 1 < p; s++) {
+            for (int i = 0; i < p; i++) {
+                int c = Math.floorMod(i + 1 - s, p);
+                int to = (i + 1) % p;
+                int start = blockStart(c, n);
+                run.sendVector(i, to, Arrays.copyOfRange(acc[i], start, blockStart(c + 1, n)),
+                        v -> System.arraycopy(v, 0, acc[to], start, v.length));
+            }
+            run.step();
+        }
+    }
+
+    /**
+     * Inicio del bloque c al partir n elementos en p bloques.
+     */
+    private int blockStart(int c, int n) {
+        return (int) ((long) c * n / p);
+    }
+
+    /**
+     * Nodo con el rango dado relativo a la raiz. Con DIMENSION_EXCHANGE el rango
+     * es root XOR id, asi rangos que difieren en un bit son vecinos del hipercubo.
+     */
+    private int node(int rank, int root) {
+        return algorithm == CollectiveAlgorithm.DIMENSION_EXCHANGE ? root ^ rank : (root + rank) % p;
+    }
+
+    /**
+     * Rango de un nodo relativo a la raiz (inverso de node).
+     */
+    private int rank(int node, int root) {
+        return algorithm == CollectiveAlgorithm.DIMENSION_EXCHANGE ? root ^ node : Math.floorMod(node - root, p);
+    }
+
+    private static long[] combine(LongBinaryOperator op, long[] left, long[] right) {
+        long[] out = new long[left.length];
+        for (int j = 0; j < out.length; j++) {
+            out[j] = op.applyAsLong(left[j], right[j]);
+        }
+        return out;
+    }
+
+    /**
+     * Copia un vector por nodo, verificando que haya exactamente p.
+     *
+     * @param sameLength true si todos deben tener el mismo largo (reducciones)
+     * @throws IllegalArgumentException si no hay p vectores, alguno es null o
+     *         los largos difieren cuando se requiere
+     */
+    private long[][] copyVectors(long[][] values, boolean sameLength) {
+        if (values == null || values.length != p) {
+            throw new IllegalArgumentException("Collectives requiere un vector por nodo (" + p + ")");
+        }
+        long[][] copy = new long[p][];
+        for (int i = 0; i < p; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("Collectives: vector null en el nodo " + i);
+            }
+            if (sameLength && values[i].length != values[0].length) {
+                throw new IllegalArgumentException("Collectives requiere vectores del mismo largo");
+            }
+            copy[i] = values[i].clone();
+        }
+        return copy;
+    }
+
+    private void validateRoot(int root) {
+        if (root < 0 || root >= p) {
+            throw new IllegalArgumentException("Raiz fuera de rango en Collectives: " + root);
+        }
+    }
+
+    /**
+     * Codifica bloques de longs como "a,b;c;;d": bloques separados por ';' y
+     * valores por ','.
+     */
+    static String encode(long[][] blocks) {
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < blocks.length; b++) {
+            if (b > 0) {
+                sb.append(';');
+            }
+            long[] block = blocks[b];
+            for (int j = 0; j < block.length; j++) {
+                if (j > 0) {
+                    sb.append(',');
+                }
+                sb.append(block[j]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Inverso de encode.
+     */
+    static long[][] decode(String payload) {
+        String[] parts = payload.split(";", -1);
+        long[][] blocks = new long[parts.length][];
+        for (int b = 0; b < parts.length; b++) {
+            if (parts[b].isEmpty()) {
+                blocks[b] = new long[0];
+                continue;
+            }
+            String[] items = parts[b].split(",");
+            blocks[b] = new long[items.length];
+            for (int j = 0; j < items.length; j++) {
+                blocks[b][j] = Long.parseLong(items[j]);
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Envio pendiente del paso actual.
+     */
+    private static final class Transfer {
+        final int from;
+        final int to;
+        final String payload;
+        final Consumer<long[][]> onReceive;
+
+        Transfer(int from, int to, String payload, Consumer<long[][]> onReceive) {
+            this.from = from;
+            this.to = to;
+            this.payload = payload;
+            this.onReceive = onReceive;
+        }
+    }
+
+    /**
+     * Una ejecucion de una operacion: acumula los envios de cada paso,
+     * los lanza juntos y mide pasos, mensajes, bytes y tiempos.
+     */
+    private final class Run {
+        private final String operation;
+        private final List<Transfer> pending = new ArrayList<>();
+        private final List<Long> stepNanos = new ArrayList<>();
+        private long messages;
+        private long bytes;
+
+        Run(String operation) {
+            this.operation = operation;
+        }
+
+        void sendVector(int from, int to, long[] vector, Consumer<long[]> onReceive) {
+            pending.add(new Transfer(from, to, encode(new long[][] {vector}), blocks -> onReceive.accept(blocks[0])));
+        }
+
+        /**
+         * Envia los bloques de los rangos [lo, hi) que tiene from; el
+         * receptor los guarda en su fila de held.
+         */
+        void sendRanks(long[][][] held, int from, int to, int root, int lo, int hi) {
+            long[][] blocks = new long[hi - lo][];
+            for (int r = lo; r < hi; r++) {
+                blocks[r - lo] = held[from][node(r, root)];
+            }
+            pending.add(new Transfer(from, to, encode(blocks), received -> {
+                for (int r = lo; r < hi; r++) {
+                    held[to][node(r, root)] = received[r - lo];
+                }
+            }));
+        }
+
+        /**
+         * Envia todos los mensajes pendientes, espera su entrega y aplica lo
+         * recibido en cada destino.
+         *
+         * @throws IllegalStateException si un mensaje se descarta o el paso vence
+         */
+        void step() {
+            int step = stepNanos.size() + 1;
+            NetworkLog.printf("[%s] Collectives: %s paso %d con %d mensajes%n",
+                    Instant.now(), operation, step, pending.size());
+            long start = System.nanoTime();
+            List<CompletableFuture<Message>> futures = new ArrayList<>(pending.size());
+            for (Transfer t : pending) {
+                futures.add(topology.sendMessage(t.from, t.to, t.payload));
+            }
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                        .get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(operation + " interrumpido en el paso " + step);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(operation + ": mensaje descartado en el paso " + step, e.getCause());
+            } catch (TimeoutException e) {
+                throw new IllegalStateException(operation + ": el paso " + step + " no termino en "
+                        + STEP_TIMEOUT_SECONDS + "s");
+            }
+            stepNanos.add(System.nanoTime() - start);
+            for (int i = 0; i < pending.size(); i++) {
+                Message msg = futures.get(i).join();
+                messages++;
+                bytes += msg.getSizeBytes();
+                pending.get(i).onReceive.accept(decode(msg.getPayload()));
+            }
+            pending.clear();
+        }
+
+        CollectiveResult result(boolean allReduce, long[][] values) {
+            long[] nanos = new long[stepNanos.size()];
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = stepNanos.get(i);
+            }
+            return new CollectiveResult(operation, topologyName, algorithm, p,
+                    algorithm.expectedSteps(allReduce, p), messages, bytes, nanos, values);
+        }
+    }
+}
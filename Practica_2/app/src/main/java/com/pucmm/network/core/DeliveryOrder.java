@@ -0,0 +1,15 @@
+package com.pucmm.network.core;
+
+/**
+ * Garantia de orden en el destino para los mensajes de un mismo flujo (from,to).
+ */
+public enum DeliveryOrder {
+    /** Se procesa en orden de llegada; el desorden solo se mide. */
+    UNORDERED,
+    /**
+     * FIFO por flujo: un mensaje que llega antes que una secuencia anterior
+     * espera en el ReorderBuffer del destino hasta que llegue (o se descarte)
+     * la que falta.
+     */
+    FIFO_PER_FLOW
+}
@@ -0,0 +1,470 @@
+package com.pucmm.network.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulacion de eventos discretos reproducible: como VirtualTimeTransport,
+ * un solo hilo ejecuta todo en tiempo virtual, pero ademas:
+ *
+ * - Los eventos del mismo instante se ordenan con un desempate sorteado por
+ *   un generador sembrado: la semilla elige el intercalado, y la misma
+ *   semilla da el mismo intercalado.
+ * - La unica fuente de variacion que queda son los envios externos (main),
+ *   que entran al heap cuando el loop los toma. RECORD graba en un EventLog
+ *   en que evento entro cada tanda de envios y el orden de las entregas;
+ *   REPLAY vuelve a meter los envios exactamente en esos eventos (esperando
+ *   al productor si va atrasado) y compara cada entrega con el log.
+ *
+ * La semilla sola no repite una corrida: en RUN, donde se corta cada tanda
+ * de envios externos depende de cuando el loop alcanza al hilo que envia.
+ * Solo si todos entran en una tanda (getInputBatches() <= 1) dos corridas
+ * con la misma semilla coinciden; para repetir una carga que envia mientras
+ * la simulacion corre hay que grabarla con record y reproducirla con replay.
+ *
+ * Requisitos para repetir una corrida: la misma topologia y configuracion,
+ * los mismos envios en el mismo orden desde un solo hilo, y que nada fuera
+ * del transporte agende trabajo (por ejemplo el TimerWheel compartido).
+ */
+public class DeterministicTransport implements Transport {
+    private static final long PARK_NANOS = 200_000;
+    // FNV-1a de 64 bits para el digest de entregas
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Que hace el transporte con el log de eventos.
+     */
+    public enum Mode {
+        /** Sin log: desempate sembrado, envios externos segun llegan. */
+        RUN,
+        /** Graba envios externos y entregas. */
+        RECORD,
+        /** Reproduce los envios externos de un log y verifica las entregas. */
+        REPLAY
+    }
+
+    private final String name;
+    private final Mode mode;
+    private final long seed;
+    private final SplittableRandom random;
+    private final EventLog.Writer writer;
+    private final EventLog.Reader reader;
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final ConcurrentLinkedQueue<Event> submitted = new ConcurrentLinkedQueue<>();
+    private volatile long now;
+    private long sequence;
+    private volatile long processed;
+    private volatile long deliveries;
+    private volatile long inputBatches;
+    private volatile long digest = FNV_OFFSET;
+    private volatile long divergences;
+    private volatile long firstDivergence = -1;
+    private volatile Thread thread;
+    private volatile boolean sleeping;
+    private volatile boolean stopping;
+    private volatile boolean terminated;
+
+    /**
+     * Tarea agendada; target y msg solo en las entregas (para el log).
+     */
+    private static final class Event implements Comparable<Event> {
+        final Runnable task;
+        final long delay;
+        final Node target;
+        final Message msg;
+        long time;
+        long tiebreak;
+        long seq;
+
+        Event(Runnable task, long delay, Node target, Message msg) {
+            this.task = task;
+            this.delay = delay;
+            this.target = target;
+            this.msg = msg;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            if (byTime != 0) {
+                return byTime;
+            }
+            int byTiebreak = Long.compare(tiebreak, other.tiebreak);
+            return byTiebreak != 0 ? byTiebreak : Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * Transporte sembrado sin log. Repite el intercalado de los eventos, pero
+     * no el punto en que entran los envios de otros hilos (ver la clase).
+     *
+     * @param name nombre del hilo de simulacion
+     * @param seed semilla del desempate
+     */
+    public DeterministicTransport(String name, long seed) {
+        this(name, Mode.RUN, seed, null, null);
+    }
+
+    private DeterministicTransport(String name, Mode mode, long seed,
+                                   EventLog.Writer writer, EventLog.Reader reader) {
+        this.name = name;
+        this.mode = mode;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    /**
+     * Transporte sembrado que graba la corrida.
+     *
+     * @param name nombre del hilo de simulacion
+     * @param seed semilla del desempate
+     * @param log archivo donde se graba (se reemplaza)
+     * @throws IOException si no se puede crear el log
+     */
+    public static DeterministicTransport record(String name, long seed, Path log) throws IOException {
+        return new DeterministicTransport(name, Mode.RECORD, seed, new EventLog.Writer(log, seed), null);
+    }
+
+    /**
+     * Transporte que reproduce una corrida grabada, con la semilla del log.
+     *
+     * @param name nombre del hilo de simulacion
+     * @param log archivo grabado con record
+     * @throws IOException si no se puede leer o no es un log de eventos
+     */
+    public static DeterministicTransport replay(String name, Path log) throws IOException {
+        EventLog.Reader reader = new EventLog.Reader(log);
+        return new DeterministicTransport(name, Mode.REPLAY, reader.getSeed(), null, reader);
+    }
+
+    /**
+     * Arranca el hilo de simulacion.
+     *
+     * @throws IllegalStateException si ya se arranco
+     */
+    @Override
+    public void start(List<Node> nodes) {
+        if (thread != null) {
+            throw new IllegalStateException("DeterministicTransport ya esta corriendo.");
+        }
+        Thread loop = new Thread(this::loop, name + "-det");
+        thread = loop;
+        loop.start();
+    }
+
+    @Override
+    public void deliver(Node target, Message msg) {
+        submit(new Event(() -> {
+            while (!target.offerMessage(msg)) {
+                target.drain(Integer.MAX_VALUE);
+            }
+            target.drain(Integer.MAX_VALUE);
+        }, 0, target, msg));
+    }
+
+    /**
+     * Instante actual del reloj virtual.
+     */
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public boolean isVirtualClock() {
+        return true;
+    }
+
+    /**
+     * Eventos agendados (lectura sin sincronizar: aproximada).
+     */
+    @Override
+    public long getQueuedTasks() {
+        return events.size();
+    }
+
+    /**
+     * 1 mientras el hilo de simulacion procesa eventos, 0 si duerme o termino.
+     */
+    @Override
+    public int getActiveThreads() {
+        return thread != null && !sleeping && !terminated ? 1 : 0;
+    }
+
+    /**
+     * Agenda task en tiempo virtual actual + delay.
+     *
+     * @throws RejectedExecutionException si la simulacion termino
+     */
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (terminated) {
+            throw new RejectedExecutionException("DeterministicTransport detenido");
+        }
+        submit(new Event(task, unit.toNanos(delay), null, null));
+    }
+
+    /**
+     * Desde el hilo de simulacion corre ya; desde otro hilo entra como un
+     * evento en el instante virtual en que el loop lo toma.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (Thread.currentThread() == thread) {
+            task.run();
+        } else {
+            submit(new Event(task, 0, null, null));
+        }
+    }
+
+    private void submit(Event event) {
+        if (Thread.currentThread() == thread) {
+            enqueue(event);
+            return;
+        }
+        submitted.add(event);
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // solo desde el hilo de simulacion
+    private void enqueue(Event event) {
+        event.time = now + Math.max(0, event.delay);
+        event.tiebreak = random.nextLong();
+        event.seq = sequence++;
+        events.add(event);
+    }
+
+    private void loop() {
+        try {
+            while (!terminated) {
+                absorbInputs();
+                Event event = events.poll();
+                if (event == null) {
+                    if (stopping && submitted.isEmpty()) {
+                        break;
+                    }
+                    sleeping = true;
+                    if (submitted.isEmpty()) {
+                        LockSupport.parkNanos(PARK_NANOS);
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                now = event.time;
+                try {
+                    event.task.run();
+                } catch (RuntimeException e) {
+                    NetworkLog.printf("%s: evento fallido en t=%d ns: %s%n", name, now, e);
+                }
+                if (event.target != null) {
+                    onDelivery(event.target, event.msg);
+                }
+                processed++;
+            }
+            if (writer != null) {
+                writer.end(processed);
+            }
+        } catch (IOException e) {
+            NetworkLog.printf("%s: error en el log de eventos: %s%n", name, e);
+        } finally {
+            terminated = true;
+            closeLog();
+        }
+    }
+
+    // mete al heap los envios externos que tocan antes del evento actual
+    private void absorbInputs() throws IOException {
+        if (mode != Mode.REPLAY) {
+            int count = 0;
+            Event event;
+            while ((event = submitted.poll()) != null) {
+                enqueue(event);
+                count++;
+            }
+            if (count > 0) {
+                inputBatches++;
+                if (writer != null) {
+                    writer.inputs(processed, count);
+                }
+            }
+            return;
+        }
+        // con el heap vacio nada mas avanza: los envios siguientes tocan ahora
+        while (reader.peekType() == EventLog.INPUTS
+                && (reader.getInputEvent() <= processed || events.isEmpty())) {
+            if (reader.getInputEvent() != processed) {
+                diverge();
+            }
+            for (int i = 0; i < reader.getInputCount(); i++) {
+                Event event = awaitSubmitted();
+                if (event == null) {
+                    return;
+                }
+                enqueue(event);
+            }
+            inputBatches++;
+            reader.next();
+        }
+        if (reader.peekType() == EventLog.END
+                || (events.isEmpty() && reader.peekType() != EventLog.INPUTS && !submitted.isEmpty())) {
+            // fuera del log (o sin nada que lo haga avanzar): se sigue sin guion
+            Event event;
+            boolean absorbed = false;
+            while ((event = submitted.poll()) != null) {
+                enqueue(event);
+                absorbed = true;
+            }
+            if (absorbed) {
+                inputBatches++;
+            }
+        }
+    }
+
+    // espera el siguiente envio externo; null si la corrida se detiene sin el
+    private Event awaitSubmitted() {
+        Event event;
+        while ((event = submitted.poll()) == null) {
+            if (terminated || stopping) {
+                diverge();
+                return null;
+            }
+            sleeping = true;
+            if (submitted.isEmpty()) {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            sleeping = false;
+        }
+        return event;
+    }
+
+    private void onDelivery(Node target, Message msg) throws IOException {
+        deliveries++;
+        long h = digest;
+        h = (h ^ now) * FNV_PRIME;
+        h = (h ^ target.getId()) * FNV_PRIME;
+        h = (h ^ msg.getFromId()) * FNV_PRIME;
+        h = (h ^ msg.getToId()) * FNV_PRIME;
+        h = (h ^ msg.getSequence()) * FNV_PRIME;
+        h = (h ^ EventLog.deliveryType(msg)) * FNV_PRIME;
+        digest = h;
+        if (writer != null) {
+            writer.delivery(now, target.getId(), msg);
+        } else if (reader != null) {
+            int type = reader.peekType();
+            if (type == EventLog.END || type == EventLog.INPUTS || !reader.matches(now, target.getId(), msg)) {
+                diverge();
+            }
+            if (type != EventLog.END && type != EventLog.INPUTS) {
+                reader.next();
+            }
+        }
+    }
+
+    private void diverge() {
+        if (firstDivergence < 0) {
+            firstDivergence = processed;
+        }
+        divergences++;
+    }
+
+    private void closeLog() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+            if (reader != null) {
+                reader.close();
+            }
+        } catch (IOException e) {
+            NetworkLog.printf("%s: error al cerrar el log de eventos: %s%n", name, e);
+        }
+    }
+
+    /**
+     * Marca la simulacion para detenerse cuando no queden eventos.
+     */
+    @Override
+    public void shutdown() {
+        stopping = true;
+        Thread loop = thread;
+        if (loop != null) {
+            LockSupport.unpark(loop);
+        }
+    }
+
+    @Override
+    public void shutdownNow() {
+        stopping = true;
+        terminated = true;
+        Thread loop = thread;
+        if (loop != null) {
+            LockSupport.unpark(loop);
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread loop = thread;
+        if (loop == null) {
+            return true;
+        }
+        loop.join(Math.max(1, unit.toMillis(timeout)));
+        return !loop.isAlive();
+    }
+
+    // Getters
+    public Mode getMode() { return mode; }
+    public long getSeed() { return seed; }
+    public long getProcessedEvents() { return processed; }
+    public long getDeliveries() { return deliveries; }
+
+    /**
+     * Tandas de envios externos que entraron al heap. En RUN, con mas de una
+     * el resultado depende del ritmo del hilo que envia y la semilla no basta
+     * para repetirlo.
+     */
+    public long getInputBatches() {
+        return inputBatches;
+    }
+
+    /**
+     * Hash del orden de entregas (instante, nodo, mensaje); dos corridas con
+     * el mismo digest entregaron lo mismo en el mismo orden.
+     */
+    public long getDigest() {
+        return digest;
+    }
+
+    /**
+     * En REPLAY, entregas o envios que no coincidieron con el log.
+     */
+    public long getDivergences() {
+        return divergences;
+    }
+
+    /**
+     * En REPLAY, evento de la primera divergencia; -1 si no hubo.
+     */
+    public long getFirstDivergence() {
+        return firstDivergence;
+    }
+
+    /**
+     * En RECORD, bytes escritos en el log; 0 en otros modos.
+     */
+    public long getLogBytes() {
+        return writer == null ? 0 : writer.size();
+    }
+}
@@ -0,0 +1,242 @@
+package com.pucmm.network.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Log binario compacto de una corrida de DeterministicTransport: en que
+ * evento entraron los envios externos y el orden de las entregas.
+ *
+ * Formato (enteros como varint sin signo, salvo la cabecera):
+ * - cabecera: magic (int), version (byte), semilla (long)
+ * - INPUTS: tipo, eventos desde el INPUTS anterior, cantidad de envios externos
+ * - DELIVER_*: tipo (mensaje, trama DATA o ACK), tiempo virtual desde la
+ *   entrega anterior, nodo, from, to, secuencia + 1
+ * - END: tipo, eventos procesados
+ *
+ * Una entrega ocupa ~7 bytes con pocos nodos y tiempos cortos.
+ */
+public final class EventLog {
+    static final int MAGIC = 0x4E534C47;
+    static final byte VERSION = 1;
+
+    static final int END = 0;
+    static final int INPUTS = 1;
+    static final int DELIVER_MESSAGE = 2;
+    static final int DELIVER_DATA = 3;
+    static final int DELIVER_ACK = 4;
+
+    private EventLog() {
+    }
+
+    /**
+     * Tipo de registro de entrega segun la clase de mensaje.
+     */
+    static int deliveryType(Message msg) {
+        if (msg instanceof Frame) {
+            return ((Frame) msg).getKind() == Frame.Kind.ACK ? DELIVER_ACK : DELIVER_DATA;
+        }
+        return DELIVER_MESSAGE;
+    }
+
+    /**
+     * Escritura secuencial del log; la usa solo el hilo de simulacion.
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private long lastInputEvent;
+        private long lastDeliveryTime;
+
+        /**
+         * Crea (o reemplaza) el log y escribe la cabecera.
+         *
+         * @param path archivo del log
+         * @param seed semilla de la corrida
+         * @throws IOException si no se puede crear
+         */
+        public Writer(Path path, long seed) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+        }
+
+        /**
+         * Antes del evento eventIndex entraron count envios externos.
+         */
+        void inputs(long eventIndex, int count) throws IOException {
+            out.writeByte(INPUTS);
+            writeVarint(eventIndex - lastInputEvent);
+            writeVarint(count);
+            lastInputEvent = eventIndex;
+        }
+
+        /**
+         * El mensaje msg entro al nodo en el instante virtual time.
+         */
+        void delivery(long time, int node, Message msg) throws IOException {
+            out.writeByte(deliveryType(msg));
+            writeVarint(time - lastDeliveryTime);
+            writeVarint(node);
+            writeVarint(msg.getFromId());
+            writeVarint(msg.getToId());
+            writeVarint(msg.getSequence() + 1);
+            lastDeliveryTime = time;
+        }
+
+        /**
+         * Cierra el log con la cantidad de eventos procesados.
+         */
+        void end(long events) throws IOException {
+            out.writeByte(END);
+            writeVarint(events);
+        }
+
+        /**
+         * Bytes escritos hasta ahora.
+         */
+        public int size() {
+            return out.size();
+        }
+
+        private void writeVarint(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Lectura secuencial del log con un registro de anticipacion (peek); la
+     * usa solo el hilo de simulacion.
+     */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final long seed;
+        // registro actual (ver peekType)
+        private int type = -1;
+        private long inputEvent;
+        private int inputCount;
+        private long time;
+        private int node;
+        private int from;
+        private int to;
+        private long sequence;
+        private long endEvents = -1;
+
+        /**
+         * Abre el log y lee la cabecera.
+         *
+         * @param path archivo del log
+         * @throws IOException si no se puede leer o no es un log de eventos
+         */
+        public Reader(Path path) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                in.close();
+                throw new IOException(path + " no es un log de eventos");
+            }
+            this.seed = in.readLong();
+        }
+
+        /**
+         * Semilla con que se grabo la corrida.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Tipo del registro actual sin consumirlo; END al terminar el log.
+         */
+        int peekType() throws IOException {
+            if (type < 0) {
+                read();
+            }
+            return type;
+        }
+
+        /**
+         * Consume el registro actual.
+         */
+        void next() {
+            if (type != END) {
+                type = -1;
+            }
+        }
+
+        private void read() throws IOException {
+            int t;
+            try {
+                t = in.readUnsignedByte();
+            } catch (EOFException e) {
+                type = END;
+                return;
+            }
+            switch (t) {
+                case INPUTS:
+                    inputEvent += readVarint();
+                    inputCount = (int) readVarint();
+                    break;
+                case DELIVER_MESSAGE:
+                case DELIVER_DATA:
+                case DELIVER_ACK:
+                    time += readVarint();
+                    node = (int) readVarint();
+                    from = (int) readVarint();
+                    to = (int) readVarint();
+                    sequence = readVarint() - 1;
+                    break;
+                case END:
+                    endEvents = readVarint();
+                    break;
+                default:
+                    throw new IOException("Registro desconocido en log de eventos: " + t);
+            }
+            type = t;
+        }
+
+        /**
+         * Indica si el registro actual (una entrega) coincide con msg entrando a node en time.
+         */
+        boolean matches(long time, int node, Message msg) {
+            return type == deliveryType(msg) && this.time == time && this.node == node
+                    && from == msg.getFromId() && to == msg.getToId() && sequence == msg.getSequence();
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        // Getters del registro actual
+        long getInputEvent() { return inputEvent; }
+        int getInputCount() { return inputCount; }
+        long getEndEvents() { return endEvents; }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.pucmm.network.core;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Transporte de un hilo por nodo: cada nodo corre Node.run() en un pool fijo
+ * y espera mensajes bloqueado en su inbox. Es el modelo original de las
+ * topologias; la cantidad de hilos crece con la topologia.
+ *
+ * deliver usa Node.receiveMessage: con BLOCK o CREDIT el que entrega se
+ * bloquea hasta que haya espacio.
+ */
+public class ExecutorTransport implements Transport {
+    private final String name;
+    private ExecutorService nodeExecutor;
+
+    /**
+     * @param name prefijo de los hilos
+     */
+    public ExecutorTransport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Crea un pool de nodes.size() hilos y envia cada nodo a ejecutar.
+     *
+     * @throws IllegalStateException si ya se arranco
+     */
+    @Override
+    public void start(List<Node> nodes) {
+        if (nodeExecutor != null) {
+            throw new IllegalStateException("ExecutorTransport ya esta corriendo.");
+        }
+        AtomicInteger count = new AtomicInteger();
+        nodeExecutor = Executors.newFixedThreadPool(Math.max(1, nodes.size()),
+                r -> new Thread(r, name + "-node-" + count.getAndIncrement()));
+        for (Node node : nodes) {
+            nodeExecutor.submit(node);
+        }
+    }
+
+    /**
+     * Agranda el pool en un hilo y envia el nodo nuevo a ejecutar.
+     */
+    @Override
+    public synchronized void addNode(Node node) {
+        if (nodeExecutor instanceof ThreadPoolExecutor) {
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) nodeExecutor;
+            int threads = pool.getMaximumPoolSize() + 1;
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+            pool.submit(node);
+        }
+    }
+
+    @Override
+    public void deliver(Node target, Message msg) {
+        target.receiveMessage(msg);
+    }
+
+    /**
+     * Cierra el pool; los nodos salen de run() al vaciar su inbox despues de stop().
+     */
+    @Override
+    public void shutdown() {
+        if (nodeExecutor != null) {
+            nodeExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public void shutdownNow() {
+        if (nodeExecutor != null) {
+            nodeExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return nodeExecutor == null || nodeExecutor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Nodos esperando un hilo del pool (0 salvo que no haya hilos suficientes).
+     */
+    @Override
+    public long getQueuedTasks() {
+        return nodeExecutor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) nodeExecutor).getQueue().size() : 0;
+    }
+
+    /**
+     * Hilos del pool ejecutando un nodo; cada nodo ocupa el suyo aunque
+     * este bloqueado esperando mensajes.
+     */
+    @Override
+    public int getActiveThreads() {
+        return nodeExecutor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) nodeExecutor).getActiveCount() : 0;
+    }
+}
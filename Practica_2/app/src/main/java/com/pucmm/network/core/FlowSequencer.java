@@ -0,0 +1,48 @@
+package com.pucmm.network.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Numeros de secuencia por flujo (from,to) en el origen: 0, 1, 2... en el
+ * orden en que se llama next. Los contadores de cada origen se crean al
+ * primer envio, asi una topologia grande solo paga por los origenes activos.
+ * Los flujos con algun extremo agregado despues (ver
+ * AbstractTopology.addNodes) van en un mapa aparte.
+ */
+public class FlowSequencer {
+    private final int numNodes;
+    private final AtomicReferenceArray<AtomicLongArray> bySource;
+    // flujos con from o to >= numNodes
+    private final Map<Long, AtomicLong> grown = new ConcurrentHashMap<>();
+
+    /**
+     * @param numNodes cantidad de nodos de la topologia
+     */
+    public FlowSequencer(int numNodes) {
+        this.numNodes = numNodes;
+        this.bySource = new AtomicReferenceArray<>(numNodes);
+    }
+
+    /**
+     * Siguiente secuencia del flujo from->to.
+     *
+     * @param from nodo origen
+     * @param to nodo destino
+     * @return secuencia asignada, desde 0
+     */
+    public long next(int from, int to) {
+        if (from >= numNodes || to >= numNodes) {
+            return grown.computeIfAbsent(((long) from << 32) | to, k -> new AtomicLong()).getAndIncrement();
+        }
+        AtomicLongArray counters = bySource.get(from);
+        if (counters == null) {
+            bySource.compareAndSet(from, null, new AtomicLongArray(numNodes));
+            counters = bySource.get(from);
+        }
+        return counters.getAndIncrement(to);
+    }
+}
@@ -0,0 +1,72 @@
+package com.pucmm.network.core;
+
+/**
+ * Trama del protocolo de entrega confiable (ver ReliableChannel). Viaja por
+ * la red como cualquier mensaje, pero el destino se la pasa al canal en
+ * lugar de procesarla:
+ * - DATA: una transmision (original o retransmision) de un mensaje de la
+ *   aplicacion; lleva su secuencia de flujo y el intento.
+ * - ACK: confirma una secuencia del flujo inverso y, en forma acumulada,
+ *   todas las menores que cumulative.
+ */
+public class Frame extends Message {
+    // cabecera extra del ACK: secuencia acumulada
+    private static final int ACK_EXTRA_BYTES = 8;
+
+    /**
+     * Tipo de trama.
+     */
+    public enum Kind {
+        DATA,
+        ACK
+    }
+
+    private final Kind kind;
+    // mensaje de la aplicacion que lleva la trama DATA; null en un ACK
+    private final Message original;
+    private final int attempt;
+    private final long cumulative;
+
+    private Frame(int fromId, int toId, String payload, long sequence,
+                  Kind kind, Message original, int attempt, long cumulative) {
+        super(fromId, toId, payload, sequence, original != null ? original.getId() : Message.newId());
+        this.kind = kind;
+        this.original = original;
+        this.attempt = attempt;
+        this.cumulative = cumulative;
+    }
+
+    /**
+     * Trama DATA con el contenido, la secuencia y el id del mensaje original.
+     *
+     * @param original mensaje de la aplicacion
+     * @param attempt intento de transmision, desde 1
+     */
+    public static Frame data(Message original, int attempt) {
+        return new Frame(original.getFromId(), original.getToId(), original.getPayload(),
+                original.getSequence(), Kind.DATA, original, attempt, 0);
+    }
+
+    /**
+     * Trama ACK del receptor al emisor de un flujo.
+     *
+     * @param fromId receptor del flujo, que confirma
+     * @param toId emisor del flujo
+     * @param sequence secuencia recibida
+     * @param cumulative todas las secuencias menores ya se recibieron
+     */
+    public static Frame ack(int fromId, int toId, long sequence, long cumulative) {
+        return new Frame(fromId, toId, "", sequence, Kind.ACK, null, 0, cumulative);
+    }
+
+    @Override
+    public int getSizeBytes() {
+        return kind == Kind.ACK ? HEADER_BYTES + ACK_EXTRA_BYTES : super.getSizeBytes();
+    }
+
+    // Getters
+    public Kind getKind() { return kind; }
+    public Message getOriginal() { return original; }
+    public int getAttempt() { return attempt; }
+    public long getCumulative() { return cumulative; }
+}
@@ -0,0 +1,17 @@
+package com.pucmm.network.core;
+
+/**
+ * Reenvio salto a salto: lo invoca un nodo al sacar de su inbox un mensaje
+ * cuyo destino final es otro nodo. La topologia decide el siguiente hop y
+ * cuando se entrega (latencia del enlace).
+ */
+@FunctionalInterface
+public interface HopForwarder {
+    /**
+     * Reenvia el mensaje desde el nodo actual hacia su siguiente hop.
+     *
+     * @param current nodo que tiene el mensaje
+     * @param msg mensaje en transito
+     */
+    void forward(Node current, Message msg);
+}
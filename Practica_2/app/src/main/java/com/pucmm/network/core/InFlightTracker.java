@@ -0,0 +1,60 @@
+package com.pucmm.network.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuenta los mensajes en vuelo a partir de sus futures de entrega y permite
+ * esperar a que no quede ninguno (quiescencia), en lugar de dormir un tiempo fijo.
+ */
+public class InFlightTracker {
+    private final AtomicLong inFlight = new AtomicLong();
+    private final Object lock = new Object();
+
+    /**
+     * Registra un envio; se descuenta cuando su future se completa (entregado o descartado).
+     *
+     * @param delivery future de entrega del mensaje
+     * @return el mismo future, para encadenar
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> delivery) {
+        inFlight.incrementAndGet();
+        delivery.whenComplete((result, error) -> {
+            if (inFlight.decrementAndGet() == 0) {
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        });
+        return delivery;
+    }
+
+    /**
+     * Espera hasta que no haya mensajes en vuelo o venza el timeout.
+     *
+     * @param timeout tiempo maximo de espera
+     * @param unit unidad del timeout
+     * @return true si se alcanzo la quiescencia, false si vencio el timeout
+     * @throws InterruptedException si el hilo es interrumpido mientras espera
+     */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) throws InterruptedException {
+        long timeoutNanos = unit.toNanos(timeout);
+        long start = System.nanoTime();
+        synchronized (lock) {
+            while (inFlight.get() > 0) {
+                // se compara el tiempo transcurrido para no desbordar con timeouts enormes
+                long remaining = timeoutNanos - (System.nanoTime() - start);
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+        }
+        return true;
+    }
+
+    public long getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,83 @@
+package com.pucmm.network.core;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transporte sin hilos propios: el hilo que entrega (main, TimerWheel o un
+ * switch) pone el mensaje en el inbox y drena el nodo en ese momento.
+ *
+ * - Los reenvios que ocurren mientras un hilo ya esta drenando se encolan en
+ *   un trampolin por hilo y se procesan al volver, sin recursion por hop.
+ * - Cada nodo se drena con su monitor tomado; un hilo nunca tiene mas de un
+ *   monitor a la vez, asi dos hilos no procesan el mismo nodo en paralelo.
+ *
+ * Conviene para topologias pequenas o rutas de un hop: no hay saltos entre
+ * hilos. Con mucha carga el hilo emisor paga todo el procesamiento.
+ */
+public class InThreadTransport implements Transport {
+    private final ThreadLocal<Trampoline> trampolines = ThreadLocal.withInitial(Trampoline::new);
+
+    /**
+     * Entregas pendientes del hilo actual y si ya hay un bucle drenandolas.
+     */
+    private static final class Trampoline {
+        final ArrayDeque<Node> targets = new ArrayDeque<>();
+        final ArrayDeque<Message> messages = new ArrayDeque<>();
+        boolean active;
+    }
+
+    @Override
+    public void start(List<Node> nodes) {
+        // nada que arrancar: los nodos corren en el hilo que entrega
+    }
+
+    /**
+     * Entrega y procesa el mensaje en el hilo llamador. Si el llamador ya esta
+     * dentro de una entrega, solo la encola y la procesa el bucle externo.
+     */
+    @Override
+    public void deliver(Node target, Message msg) {
+        Trampoline trampoline = trampolines.get();
+        trampoline.targets.add(target);
+        trampoline.messages.add(msg);
+        if (trampoline.active) {
+            return;
+        }
+        trampoline.active = true;
+        try {
+            Node node;
+            while ((node = trampoline.targets.poll()) != null) {
+                Message next = trampoline.messages.poll();
+                synchronized (node) {
+                    // con BLOCK o CREDIT el inbox solo se llena si hay mensajes sin drenar
+                    while (!node.offerMessage(next)) {
+                        node.drain(Integer.MAX_VALUE);
+                    }
+                    node.drain(Integer.MAX_VALUE);
+                }
+            }
+        } finally {
+            trampoline.active = false;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        // sin hilos propios
+    }
+
+    @Override
+    public void shutdownNow() {
+        // sin hilos propios
+    }
+
+    /**
+     * Las entregas terminan dentro de deliver, no queda nada pendiente.
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+}
@@ -0,0 +1,50 @@
+package com.pucmm.network.core;
+
+/**
+ * Conjunto de histogramas de latencia de una topologia:
+ * - queueWait: tiempo desde que un mensaje entra al inbox hasta que el nodo lo saca.
+ * - hop: tiempo de cada salto de reenvio (incluye la latencia simulada del enlace).
+ * - endToEnd: desde la creacion del mensaje hasta que el destino lo procesa.
+ */
+public class LatencyStats {
+    private final String topologyName;
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram hop = new LatencyHistogram();
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+
+    /**
+     * @param topologyName nombre de la topologia a la que pertenecen las medidas
+     */
+    public LatencyStats(String topologyName) {
+        this.topologyName = topologyName;
+    }
+
+    public void recordQueueWait(long nanos) { queueWait.record(nanos); }
+    public void recordHop(long nanos) { hop.record(nanos); }
+    public void recordEndToEnd(long nanos) { endToEnd.record(nanos); }
+
+    // Getters
+    public String getTopologyName() { return topologyName; }
+    public LatencyHistogram getQueueWait() { return queueWait; }
+    public LatencyHistogram getHop() { return hop; }
+    public LatencyHistogram getEndToEnd() { return endToEnd; }
+
+    /**
+     * Imprime p50/p99/p999 y maximo de cada histograma, en microsegundos.
+     */
+    public void printReport() {
+        System.out.printf("--- Latencias %s (us) ---%n", topologyName);
+        printLine("espera en cola", queueWait);
+        printLine("por hop", hop);
+        printLine("extremo a extremo", endToEnd);
+    }
+
+    private static void printLine(String label, LatencyHistogram h) {
+        System.out.printf("%-18s n=%-8d p50=%-10.1f p99=%-10.1f p999=%-10.1f max=%.1f%n",
+                label, h.getCount(),
+                h.getValueAtPercentile(50) / 1e3,
+                h.getValueAtPercentile(99) / 1e3,
+                h.getValueAtPercentile(99.9) / 1e3,
+                h.getMax() / 1e3);
+    }
+}
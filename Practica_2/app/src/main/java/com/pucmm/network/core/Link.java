@@ -0,0 +1,222 @@
+package com.pucmm.network.core;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+/**
+ * Enlace dirigido from->to con latencia de propagacion, ancho de banda y cola
+ * de transmision FIFO.
+ *
+ * La cola se modela en forma analitica: cada mensaje empieza a transmitirse
+ * cuando termina el anterior (busyUntil) y ocupa el enlace bytes*8/ancho de
+ * banda. La profundidad de cola es la cantidad de mensajes aun sin terminar de
+ * transmitirse cuando llega uno nuevo.
+ *
+ * El enlace puede perder o duplicar tramas con probabilidades fijas. Cada
+ * enlace sortea con su propio generador sembrado (ver setSeed), asi el
+ * resultado de un enlace depende solo de la semilla y del orden de sus envios.
+ */
+public class Link {
+    private final int from;
+    private final int to;
+    private volatile long latencyNanos;
+    // 0 = ancho de banda ilimitado (sin serializacion ni cola)
+    private volatile long bandwidthBitsPerSecond;
+    private volatile double lossProbability;
+    private volatile double duplicateProbability;
+    private SplittableRandom random = new SplittableRandom(0);
+
+    // fin de transmision de los mensajes en cola, en orden
+    private final ArrayDeque<Long> finishTimes = new ArrayDeque<>();
+    private long busyUntilNanos;
+    private long messages;
+    private long bytes;
+    private long busyNanos;
+    private long queueingNanos;
+    private long depthSum;
+    private int maxDepth;
+    private long lost;
+    private long duplicated;
+
+    /**
+     * @param from nodo de salida
+     * @param to nodo de llegada
+     * @param latencyNanos latencia de propagacion
+     * @param bandwidthBitsPerSecond ancho de banda; 0 para ilimitado
+     */
+    public Link(int from, int to, long latencyNanos, long bandwidthBitsPerSecond) {
+        this.from = from;
+        this.to = to;
+        setLatencyNanos(latencyNanos);
+        setBandwidth(bandwidthBitsPerSecond);
+    }
+
+    /**
+     * Encola un mensaje para transmitir y devuelve cuando termina de salir.
+     *
+     * @param nowNanos instante de llegada al enlace (reloj del LinkScheduler)
+     * @param sizeBytes tamano del mensaje
+     * @return instante en que termina la transmision
+     */
+    public synchronized long enqueue(long nowNanos, int sizeBytes) {
+        while (!finishTimes.isEmpty() && finishTimes.peekFirst() <= nowNanos) {
+            finishTimes.pollFirst();
+        }
+        int depth = finishTimes.size();
+        long start = Math.max(nowNanos, busyUntilNanos);
+        long serialization = serializationNanos(sizeBytes);
+        busyUntilNanos = start + serialization;
+        if (busyUntilNanos > nowNanos) {
+            finishTimes.addLast(busyUntilNanos);
+        }
+        messages++;
+        bytes += sizeBytes;
+        busyNanos += serialization;
+        queueingNanos += start - nowNanos;
+        depthSum += depth;
+        maxDepth = Math.max(maxDepth, depth);
+        return busyUntilNanos;
+    }
+
+    /**
+     * Sortea cuantas copias de una trama llegan al otro extremo.
+     *
+     * @return 0 si se pierde, 2 si se duplica, 1 en otro caso
+     */
+    public int sampleCopies() {
+        if (lossProbability == 0 && duplicateProbability == 0) {
+            return 1;
+        }
+        synchronized (this) {
+            if (random.nextDouble() < lossProbability) {
+                lost++;
+                return 0;
+            }
+            if (random.nextDouble() < duplicateProbability) {
+                duplicated++;
+                return 2;
+            }
+            return 1;
+        }
+    }
+
+    /**
+     * Reinicia el generador de perdidas y duplicados del enlace.
+     *
+     * @param seed semilla del enlace
+     */
+    public synchronized void setSeed(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @param probability probabilidad de perder cada trama, en [0, 1]
+     * @throws IllegalArgumentException si esta fuera de rango
+     */
+    public void setLossProbability(double probability) {
+        this.lossProbability = checkProbability(probability);
+    }
+
+    /**
+     * @param probability probabilidad de duplicar cada trama, en [0, 1]
+     * @throws IllegalArgumentException si esta fuera de rango
+     */
+    public void setDuplicateProbability(double probability) {
+        this.duplicateProbability = checkProbability(probability);
+    }
+
+    private double checkProbability(double probability) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("Probabilidad fuera de [0, 1] en enlace " + from + "->" + to);
+        }
+        return probability;
+    }
+
+    /**
+     * Tiempo de serializacion de un mensaje en este enlace.
+     */
+    public long serializationNanos(int sizeBytes) {
+        long bandwidth = bandwidthBitsPerSecond;
+        return bandwidth == 0 ? 0 : sizeBytes * 8L * 1_000_000_000L / bandwidth;
+    }
+
+    /**
+     * @param latencyNanos latencia de propagacion
+     * @throws IllegalArgumentException si es negativa
+     */
+    public void setLatencyNanos(long latencyNanos) {
+        if (latencyNanos < 0) {
+            throw new IllegalArgumentException("Latencia negativa en enlace " + from + "->" + to);
+        }
+        this.latencyNanos = latencyNanos;
+    }
+
+    /**
+     * @param bitsPerSecond ancho de banda; 0 para ilimitado
+     * @throws IllegalArgumentException si es negativo
+     */
+    public void setBandwidth(long bitsPerSecond) {
+        if (bitsPerSecond < 0) {
+            throw new IllegalArgumentException("Ancho de banda negativo en enlace " + from + "->" + to);
+        }
+        this.bandwidthBitsPerSecond = bitsPerSecond;
+    }
+
+    /**
+     * Fraccion del tiempo que el enlace estuvo transmitiendo.
+     *
+     * @param elapsedNanos ventana de observacion
+     * @return utilizacion entre 0 y 1 (puede pasar de 1 si la cola sigue llena)
+     */
+    public synchronized double getUtilization(long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : (double) busyNanos / elapsedNanos;
+    }
+
+    /**
+     * Mensajes en cola o transmitiendose en este momento.
+     */
+    public int getQueueDepth() {
+        return getQueueDepth(System.nanoTime());
+    }
+
+    /**
+     * Mensajes en cola o transmitiendose en el instante dado.
+     *
+     * @param nowNanos instante en el reloj con que se encola (ver enqueue)
+     */
+    public synchronized int getQueueDepth(long nowNanos) {
+        while (!finishTimes.isEmpty() && finishTimes.peekFirst() <= nowNanos) {
+            finishTimes.pollFirst();
+        }
+        return finishTimes.size();
+    }
+
+    /**
+     * Profundidad promedio de la cola vista por los mensajes al llegar.
+     */
+    public synchronized double getAverageQueueDepth() {
+        return messages == 0 ? 0 : (double) depthSum / messages;
+    }
+
+    /**
+     * Espera promedio en cola antes de empezar a transmitir.
+     */
+    public synchronized long getAverageQueueingNanos() {
+        return messages == 0 ? 0 : queueingNanos / messages;
+    }
+
+    // Getters
+    public int getFrom() { return from; }
+    public int getTo() { return to; }
+    public long getLatencyNanos() { return latencyNanos; }
+    public long getBandwidth() { return bandwidthBitsPerSecond; }
+    public boolean isUnlimited() { return bandwidthBitsPerSecond == 0; }
+    public double getLossProbability() { return lossProbability; }
+    public double getDuplicateProbability() { return duplicateProbability; }
+    public synchronized long getLost() { return lost; }
+    public synchronized long getDuplicated() { return duplicated; }
+    public synchronized long getMessages() { return messages; }
+    public synchronized long getBytes() { return bytes; }
+    public synchronized long getBusyNanos() { return busyNanos; }
+    public synchronized int getMaxQueueDepth() { return maxDepth; }
+}
@@ -0,0 +1,423 @@
+package com.pucmm.network.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Enlaces de una topologia y entrega diferida de hops sobre un TimerWheel
+ * (por defecto el compartido) o sobre el reloj de un Transport.
+ *
+ * - Cada enlace dirigido from->to se crea al primer uso con la latencia y el
+ *   ancho de banda por defecto; ambos se pueden cambiar por enlace.
+ * - Un hop espera su turno en la cola FIFO del enlace, se serializa segun el
+ *   tamano del mensaje y luego tarda la latencia de propagacion.
+ * - La entrega corre en el hilo del wheel (o del transporte), sin ocupar
+ *   hilos durante la espera; tambien sin demora alguna, asi el hilo que
+ *   envia nunca entrega y el hop no adelanta a los que ya estaban en camino.
+ * - Un enlace puede perder o duplicar cada hop (setLoss / setDuplication):
+ *   la trama perdida ocupa igual el enlace y se descarta con markDropped; la
+ *   duplicada se transmite dos veces. Los sorteos usan un generador por
+ *   enlace derivado de la semilla (setSeed).
+ * - Tras close(), los hops pendientes y nuevos se descartan con markDropped.
+ * - Con setTraceRecorder, cada hop deja un registro HOP (o LOST) con su
+ *   tiempo en cola y transmision.
+ */
+public class LinkScheduler {
+    private final TimerWheel timer;
+    // con transporte: su reloj y su schedule reemplazan al wheel (tiempo virtual)
+    private final Transport transport;
+    private volatile long defaultLatencyNanos;
+    private volatile long defaultBandwidth;
+    private volatile double defaultLoss;
+    private volatile double defaultDuplication;
+    private volatile long seed;
+    private final Map<Long, Link> links = new ConcurrentHashMap<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long createdNanos;
+    private volatile boolean closed;
+    // traza de hops; null si no se registra
+    private volatile TraceRecorder trace;
+
+    /**
+     * @param defaultLatency latencia de los enlaces sin configuracion propia
+     * @param unit unidad de la latencia
+     * @throws IllegalArgumentException si la latencia es negativa
+     */
+    public LinkScheduler(long defaultLatency, TimeUnit unit) {
+        this(TimerWheel.shared(), defaultLatency, unit);
+    }
+
+    /**
+     * @param timer wheel donde se programan los hops
+     * @param defaultLatency latencia de los enlaces sin configuracion propia
+     * @param unit unidad de la latencia
+     * @throws IllegalArgumentException si la latencia es negativa
+     */
+    public LinkScheduler(TimerWheel timer, long defaultLatency, TimeUnit unit) {
+        this(timer, null, defaultLatency, unit);
+    }
+
+    /**
+     * @param transport transporte cuyo reloj mide las colas y donde se programan los hops
+     * @param defaultLatency latencia de los enlaces sin configuracion propia
+     * @param unit unidad de la latencia
+     * @throws IllegalArgumentException si la latencia es negativa
+     */
+    public LinkScheduler(Transport transport, long defaultLatency, TimeUnit unit) {
+        this(null, transport, defaultLatency, unit);
+    }
+
+    private LinkScheduler(TimerWheel timer, Transport transport, long defaultLatency, TimeUnit unit) {
+        if (defaultLatency < 0) {
+            throw new IllegalArgumentException("LinkScheduler requiere latencia >= 0");
+        }
+        this.timer = timer;
+        this.transport = transport;
+        this.defaultLatencyNanos = unit.toNanos(defaultLatency);
+        this.createdNanos = now();
+    }
+
+    /**
+     * Devuelve el enlace dirigido from->to, creandolo si no existe.
+     */
+    public Link getLink(int from, int to) {
+        long key = key(from, to);
+        Link link = links.get(key);
+        if (link == null) {
+            link = links.computeIfAbsent(key, k -> newLink(from, to));
+        }
+        return link;
+    }
+
+    private Link newLink(int from, int to) {
+        Link link = new Link(from, to, defaultLatencyNanos, defaultBandwidth);
+        link.setLossProbability(defaultLoss);
+        link.setDuplicateProbability(defaultDuplication);
+        link.setSeed(linkSeed(from, to));
+        return link;
+    }
+
+    /**
+     * Configura la latencia de propagacion del enlace dirigido from->to.
+     *
+     * @throws IllegalArgumentException si la latencia es negativa
+     */
+    public void setLatency(int from, int to, long latency, TimeUnit unit) {
+        getLink(from, to).setLatencyNanos(unit.toNanos(latency));
+    }
+
+    /**
+     * Configura la latencia de propagacion de todos los enlaces, existentes y futuros.
+     *
+     * @throws IllegalArgumentException si la latencia es negativa
+     */
+    public void setDefaultLatency(long latency, TimeUnit unit) {
+        if (latency < 0) {
+            throw new IllegalArgumentException("LinkScheduler requiere latencia >= 0");
+        }
+        defaultLatencyNanos = unit.toNanos(latency);
+        for (Link link : links.values()) {
+            link.setLatencyNanos(defaultLatencyNanos);
+        }
+    }
+
+    /**
+     * Latencia de propagacion del enlace dirigido from->to.
+     */
+    public long getLatencyNanos(int from, int to) {
+        return getLink(from, to).getLatencyNanos();
+    }
+
+    /**
+     * Configura el ancho de banda del enlace dirigido from->to.
+     *
+     * @param bitsPerSecond ancho de banda; 0 para ilimitado
+     * @throws IllegalArgumentException si es negativo
+     */
+    public void setBandwidth(int from, int to, long bitsPerSecond) {
+        getLink(from, to).setBandwidth(bitsPerSecond);
+    }
+
+    /**
+     * Configura el ancho de banda de todos los enlaces, existentes y futuros.
+     *
+     * @param bitsPerSecond ancho de banda; 0 para ilimitado
+     * @throws IllegalArgumentException si es negativo
+     */
+    public void setDefaultBandwidth(long bitsPerSecond) {
+        if (bitsPerSecond < 0) {
+            throw new IllegalArgumentException("LinkScheduler requiere ancho de banda >= 0");
+        }
+        defaultBandwidth = bitsPerSecond;
+        for (Link link : links.values()) {
+            link.setBandwidth(bitsPerSecond);
+        }
+    }
+
+    /**
+     * Configura la probabilidad de perder cada hop en el enlace from->to.
+     *
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalArgumentException si esta fuera de rango
+     */
+    public void setLoss(int from, int to, double probability) {
+        getLink(from, to).setLossProbability(probability);
+    }
+
+    /**
+     * Configura la probabilidad de perdida de todos los enlaces, existentes y futuros.
+     *
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalArgumentException si esta fuera de rango
+     */
+    public void setDefaultLoss(double probability) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("LinkScheduler requiere probabilidad de perdida en [0, 1]");
+        }
+        defaultLoss = probability;
+        for (Link link : links.values()) {
+            link.setLossProbability(probability);
+        }
+    }
+
+    /**
+     * Configura la probabilidad de duplicar cada hop en el enlace from->to.
+     *
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalArgumentException si esta fuera de rango
+     */
+    public void setDuplication(int from, int to, double probability) {
+        getLink(from, to).setDuplicateProbability(probability);
+    }
+
+    /**
+     * Configura la probabilidad de duplicado de todos los enlaces, existentes y futuros.
+     *
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalArgumentException si esta fuera de rango
+     */
+    public void setDefaultDuplication(double probability) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("LinkScheduler requiere probabilidad de duplicado en [0, 1]");
+        }
+        defaultDuplication = probability;
+        for (Link link : links.values()) {
+            link.setDuplicateProbability(probability);
+        }
+    }
+
+    /**
+     * Siembra los sorteos de perdida y duplicado: cada enlace usa un
+     * generador derivado de la semilla y de sus extremos.
+     *
+     * @param seed semilla de la corrida
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        for (Link link : links.values()) {
+            link.setSeed(linkSeed(link.getFrom(), link.getTo()));
+        }
+    }
+
+    // semilla propia del enlace, independiente del orden en que se crean los enlaces
+    private long linkSeed(int from, int to) {
+        return seed * 0x9E3779B97F4A7C15L + key(from, to);
+    }
+
+    /**
+     * Registra cada hop en la traza; null para dejar de registrar.
+     *
+     * @param trace traza cuyo reloj es el de este scheduler
+     */
+    public void setTraceRecorder(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Hop por el enlace from->to, desde el origen o reenviado por un nodo
+     * intermedio: cola, serializacion y latencia de propagacion del enlace.
+     * Si el scheduler esta cerrado, el mensaje se descarta.
+     *
+     * @param from nodo de salida
+     * @param to nodo de llegada
+     * @param msg mensaje en transito
+     * @param delivery entrega al siguiente nodo
+     */
+    public void schedule(int from, int to, Message msg, Runnable delivery) {
+        send(getLink(from, to), msg, delivery);
+    }
+
+    private void send(Link link, Message msg, Runnable delivery) {
+        if (closed) {
+            msg.markDropped("red detenida");
+            return;
+        }
+        TraceRecorder trace = this.trace;
+        int hop = trace != null ? msg.nextHop() : 0;
+        int copies = link.sampleCopies();
+        if (copies == 0) {
+            long now = now();
+            long finish = link.enqueue(now, link.isUnlimited() ? 0 : msg.getSizeBytes());
+            if (trace != null) {
+                trace.recordAt(now, TraceRecorder.LOST, msg.getId(), link.getFrom(), link.getTo(), hop, finish - now);
+            }
+            msg.markDropped("perdido en enlace " + link.getFrom() + "->" + link.getTo());
+            return;
+        }
+        if (copies > 1) {
+            msg.addCopies(copies - 1);
+        }
+        for (int i = 0; i < copies; i++) {
+            sendCopy(link, msg, delivery, trace, hop);
+        }
+    }
+
+    private void sendCopy(Link link, Message msg, Runnable delivery, TraceRecorder trace, int hopIndex) {
+        long now = now();
+        long finish = link.enqueue(now, link.isUnlimited() ? 0 : msg.getSizeBytes());
+        if (trace != null) {
+            trace.recordAt(now, TraceRecorder.HOP, msg.getId(), link.getFrom(), link.getTo(), hopIndex,
+                    finish - now);
+        }
+        long delay = finish - now + link.getLatencyNanos();
+        pending.incrementAndGet();
+        Runnable hop = () -> {
+            try {
+                if (closed) {
+                    msg.markDropped("red detenida");
+                } else {
+                    delivery.run();
+                }
+            } finally {
+                pending.decrementAndGet();
+            }
+        };
+        try {
+            if (transport != null) {
+                transport.schedule(hop, delay, TimeUnit.NANOSECONDS);
+            } else {
+                timer.schedule(hop, delay, TimeUnit.NANOSECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            msg.markDropped("red detenida");
+        }
+    }
+
+    /**
+     * Mensajes en cola o transmitiendose ahora en el enlace from->to, medido
+     * en el reloj del scheduler.
+     */
+    public int getQueueDepth(int from, int to) {
+        return getLink(from, to).getQueueDepth(now());
+    }
+
+    /**
+     * Espera a que se entreguen los hops programados.
+     *
+     * @param timeout espera maxima
+     * @param unit unidad de timeout
+     * @return true si no quedan hops pendientes
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+        while (pending.get() > 0) {
+            if (System.nanoTime() - start >= timeoutNanos) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cierra el scheduler: los hops que venzan despues se descartan.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Hops programados que aun no se entregan.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Enlaces usados o configurados hasta ahora.
+     */
+    public Collection<Link> getLinks() {
+        return Collections.unmodifiableCollection(links.values());
+    }
+
+    /**
+     * Hops perdidos en todos los enlaces.
+     */
+    public long getLostCount() {
+        long lost = 0;
+        for (Link link : links.values()) {
+            lost += link.getLost();
+        }
+        return lost;
+    }
+
+    /**
+     * Hops duplicados en todos los enlaces.
+     */
+    public long getDuplicatedCount() {
+        long duplicated = 0;
+        for (Link link : links.values()) {
+            duplicated += link.getDuplicated();
+        }
+        return duplicated;
+    }
+
+    /**
+     * Tiempo desde que se creo el scheduler; ventana para la utilizacion.
+     */
+    public long getElapsedNanos() {
+        return now() - createdNanos;
+    }
+
+    private long now() {
+        return transport != null ? transport.nanoTime() : System.nanoTime();
+    }
+
+    /**
+     * Imprime los enlaces mas ocupados: utilizacion, cola y espera en cola.
+     *
+     * @param topologyName nombre para el encabezado
+     * @param top cantidad maxima de enlaces a mostrar
+     */
+    public void printReport(String topologyName, int top) {
+        long elapsed = getElapsedNanos();
+        List<Link> sorted = new ArrayList<>(links.values());
+        sorted.sort(Comparator.comparingLong(Link::getBusyNanos).thenComparingLong(Link::getMessages).reversed());
+        System.out.printf("--- Enlaces %s (top %d de %d) ---%n", topologyName, Math.min(top, sorted.size()),
+                sorted.size());
+        for (Link link : sorted.subList(0, Math.min(top, sorted.size()))) {
+            System.out.printf("%4d -> %-4d msgs=%-9d util=%5.1f%%  cola prom=%-7.2f max=%-6d espera prom=%.1fus%n",
+                    link.getFrom(), link.getTo(), link.getMessages(), link.getUtilization(elapsed) * 100,
+                    link.getAverageQueueDepth(), link.getMaxQueueDepth(), link.getAverageQueueingNanos() / 1e3);
+        }
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+}
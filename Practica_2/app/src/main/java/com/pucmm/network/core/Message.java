@@ -1,15 +1,50 @@
 package com.pucmm.network.core;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Clase inmutable que representa un mensaje con origen, destino, contenido y timestamp.
+ * Mensaje con origen, destino, contenido y timestamp. Esos campos no cambian;
+ * lo unico mutable es el estado de su viaje: los hops recorridos, las copias
+ * en vuelo y el future de entrega.
+ * Los mensajes creados por una topologia llevan ademas su numero de secuencia
+ * dentro del flujo (from,to), usado por ReorderBuffer en el destino.
+ * Lleva un future de entrega que se completa cuando el destino lo procesa
+ * (o de forma excepcional si se descarta).
+ * Cada mensaje tiene un id unico en la JVM y cuenta los hops que recorre,
+ * para la traza (ver TraceRecorder).
+ * Un enlace que duplica un hop suma una copia en vuelo (addCopies); el
+ * mensaje solo se da por descartado cuando se pierde la ultima.
  */
 public class Message {
+    // cabecera simulada en el enlace: fromId, toId, secuencia y timestamp
+    public static final int HEADER_BYTES = 24;
+    // mensaje fuera de un flujo numerado: el destino no lo reordena
+    public static final long NO_SEQUENCE = -1;
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    private static final AtomicIntegerFieldUpdater<Message> COPIES =
+            AtomicIntegerFieldUpdater.newUpdater(Message.class, "copies");
+
+    private final long id;
     private final int fromId;
     private final int toId;
     private final String payload;
+    private final long sequence;
     private final Instant timestamp;
+    // cabecera + payload en UTF-8, calculado una vez: se consulta en cada hop
+    private final int sizeBytes;
+    // reloj monotono para medir latencias con resolucion de nanosegundos
+    private final long createdNanos;
+    private final CompletableFuture<Message> delivery = new CompletableFuture<>();
+    // enlaces recorridos; solo se cuentan con traza activa. Sin atomicos: el
+    // mensaje pasa de hilo en hilo por colas; solo las copias duplicadas de
+    // un enlace lo comparten y ahi el conteo es aproximado
+    private int hops;
+    // copias en vuelo: 1 mas una por cada duplicado de un enlace
+    private volatile int copies = 1;
 
     /**
      * Construye un mensaje con origen, destino y contenido.
@@ -19,15 +54,105 @@ public class Message {
      * @param payload   contenido del mensaje
      */
     public Message(int fromId, int toId, String payload) {
+        this(fromId, toId, payload, NO_SEQUENCE);
+    }
+
+    /**
+     * Construye un mensaje numerado dentro del flujo (fromId, toId).
+     *
+     * @param fromId    identificador del nodo emisor
+     * @param toId      identificador del nodo receptor
+     * @param payload   contenido del mensaje
+     * @param sequence  secuencia del flujo (0, 1, 2...) o NO_SEQUENCE
+     */
+    public Message(int fromId, int toId, String payload, long sequence) {
+        this(fromId, toId, payload, sequence, newId());
+    }
+
+    /**
+     * Construye un mensaje que comparte el id de otro (las retransmisiones
+     * de Frame llevan el del mensaje original).
+     */
+    protected Message(int fromId, int toId, String payload, long sequence, long id) {
+        this(fromId, toId, payload, sequence, id, System.nanoTime(), 0);
+    }
+
+    /**
+     * Reconstruye un mensaje que llega de otro proceso con su id, su instante
+     * de creacion y los hops ya recorridos (ver cluster.PartitionedTransport).
+     * System.nanoTime es el mismo reloj monotono para todos los procesos del host.
+     */
+    protected Message(int fromId, int toId, String payload, long sequence, long id, long createdNanos, int hops) {
+        this.id = id;
+        this.sequence = sequence;
         this.fromId = fromId;
         this.toId = toId;
         this.payload = payload;
+        this.sizeBytes = HEADER_BYTES + payload.getBytes(StandardCharsets.UTF_8).length;
         this.timestamp = Instant.now();
+        this.createdNanos = createdNanos;
+        this.hops = hops;
+    }
+
+    // id nuevo, para los constructores que no lo heredan de otro mensaje
+    static long newId() {
+        return NEXT_ID.getAndIncrement();
     }
 
     // Getters
+    public long getId() { return id; }
     public int getFromId() { return fromId; }
     public int getToId() { return toId; }
     public String getPayload() { return payload; }
+    public long getSequence() { return sequence; }
     public Instant getTimestamp() { return timestamp; }
+    public long getCreatedNanos() { return createdNanos; }
+    public CompletableFuture<Message> getDelivery() { return delivery; }
+    public int getHops() { return hops; }
+
+    /**
+     * Cuenta un enlace mas en el camino del mensaje.
+     *
+     * @return indice del enlace que empieza (0 = primer hop)
+     */
+    public int nextHop() {
+        return hops++;
+    }
+
+    /**
+     * Tamano del mensaje en el enlace: cabecera + payload en UTF-8.
+     */
+    public int getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Marca el mensaje como procesado por su destino.
+     */
+    public void markDelivered() {
+        delivery.complete(this);
+    }
+
+    /**
+     * Suma copias en vuelo: un enlace transmite el mensaje mas de una vez.
+     *
+     * @param extra copias ademas de la que ya viajaba
+     */
+    public void addCopies(int extra) {
+        COPIES.addAndGet(this, extra);
+    }
+
+    /**
+     * Marca una copia del mensaje como descartada antes de llegar a
+     * procesarse. El future falla recien con la ultima copia en vuelo: si
+     * otra sigue viajando, todavia puede entregarse.
+     *
+     * @param reason motivo del descarte
+     */
+    public void markDropped(String reason) {
+        if (COPIES.decrementAndGet(this) > 0) {
+            return;
+        }
+        delivery.completeExceptionally(new MessageDroppedException(reason));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.pucmm.network.core;
+
+/**
+ * Indica que un mensaje no llego a procesarse en su destino
+ * (inbox lleno, hilo interrumpido o red detenida).
+ */
+public class MessageDroppedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param reason motivo del descarte
+     */
+    public MessageDroppedException(String reason) {
+        super(reason);
+    }
+}
@@ -0,0 +1,34 @@
+package com.pucmm.network.core;
+
+/**
+ * Salida de logs de la simulacion. Permite apagar los printf de nodos y
+ * topologias en corridas de carga, donde el log domina el costo de cada envio.
+ */
+public final class NetworkLog {
+    private static volatile boolean enabled = true;
+
+    private NetworkLog() {
+    }
+
+    /**
+     * Activa o desactiva el log de la simulacion.
+     *
+     * @param value true para imprimir, false para silenciar
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Equivalente a System.out.printf si el log esta activo.
+     */
+    public static void printf(String format, Object... args) {
+        if (enabled) {
+            System.out.printf(format, args);
+        }
+    }
+}
@@ -1,4 +1,8 @@
 package com.pucmm.network.core;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interfaz base para representar una topologia de red
  * Define la configuracion, ejecucion, envio de mensajes y apagado de una red
@@ -17,8 +21,10 @@ public interface NetworkTopology {
      * @param from      indice del nodo origen
      * @param to        indice del nodo destino
      * @param message   contenido del mensaje
+     * @return future que se completa cuando el nodo destino procesa el mensaje,
+     *         o de forma excepcional (MessageDroppedException) si se descarta
      */
-    void sendMessage(int from, int to, String message);
+    CompletableFuture<Message> sendMessage(int from, int to, String message);
 
     /**
      * Incia la simulacion de la red
@@ -30,5 +36,19 @@ public interface NetworkTopology {
      * Detien al simulacion y libera los recursos asociados
      */
     void shutdown();
-    
+
+    /**
+     * Devuelve los nodos de la topologia (lista vacia si no esta configurada).
+     *
+     * @return vista de solo lectura de los nodos
+     */
+    List<Node> getNodes();
+
+    /**
+     * Devuelve los histogramas de latencia de la ultima configuracion
+     * (espera en cola, por hop y extremo a extremo).
+     *
+     * @return histogramas de la topologia, o null si no esta configurada
+     */
+    LatencyStats getLatencyStats();
 }
@@ -1,20 +1,66 @@
 package com.pucmm.network.core;
 
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Clase que representa un nodo dentro de la red.
- * Cada nodo ejecuta su propio hilo para procesar su bandeja de mensajes (inbox).
+ * Cada nodo ejecuta su propio hilo para procesar su bandeja de mensajes (inbox),
+ * o lo drena el shard de ShardedExecutor al que esta asignado (ver drain).
+ * El inbox puede acotarse con una capacidad y una politica de desborde.
+ * Un nodo detenido (stop) sigue aceptando mensajes y los procesa antes de
+ * salir: la topologia lo detiene despues de vaciar el medio, y lo que aun
+ * llegue del transporte se entrega. Un nodo caido (crash) pierde lo que
+ * tenia en el inbox y descarta lo que recibe hasta recover().
  */
 public class Node implements Runnable {
     private final int id;
-    private final BlockingQueue<Message> inbox;
+    private LinkedBlockingDeque<Entry> inbox;
+    private int capacity = Integer.MAX_VALUE;
+    private OverflowPolicy policy = OverflowPolicy.BLOCK;
+    // creditos disponibles, solo con OverflowPolicy.CREDIT
+    private Semaphore credits;
     private volatile boolean running = true;
+    // falla inyectada: pierde lo que recibe hasta recover()
+    private volatile boolean crashed;
+    // hilo que ejecuta run(), para despertarlo al detener el nodo
+    private volatile Thread worker;
+    // histogramas de la topologia; null si no se miden latencias
+    private LatencyStats latencyStats;
+    // reenvio de mensajes de paso; null si el nodo solo consume
+    private HopForwarder forwarder;
+    // orden por flujo de los mensajes numerados; null si no se mide ni reordena
+    private ReorderBuffer reorder;
+    // protocolo de entrega confiable; null si las tramas no se usan
+    private ReliableChannel channel;
+    // traza de entregas y descartes; null si no se registra
+    private TraceRecorder trace;
+
+    // contadores de desborde, y de mensajes perdidos por estar caido
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder lost = new LongAdder();
+    private final LongAdder backpressure = new LongAdder();
+    // mensajes de paso reenviados al siguiente hop y mensajes procesados aqui
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    /**
+     * Entrada del inbox: el mensaje y el instante en que se encolo.
+     */
+    private static final class Entry {
+        final Message msg;
+        final long enqueuedNanos;
+
+        Entry(Message msg) {
+            this.msg = msg;
+            this.enqueuedNanos = System.nanoTime();
+        }
+    }
 
     /**
-     * Constructor de un nodo con identificador unico.
+     * Constructor de un nodo con identificador unico e inbox sin limite.
      *
      * @param id identificador unico del nodo
      */
@@ -29,44 +75,377 @@ public class Node implements Runnable {
     }
 
     /**
-     * Recibe un mensaje y lo pone en la cola para procesar.
+     * Acota el inbox del nodo. Debe llamarse antes de iniciar la simulacion;
+     * los mensajes pendientes se descartan.
+     *
+     * @param capacity  numero maximo de mensajes en el inbox
+     * @param policy    politica a aplicar cuando el inbox esta lleno
+     * @throws IllegalArgumentException si capacity < 1
+     */
+    public void configureInbox(int capacity, OverflowPolicy policy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Node requiere capacidad de inbox >= 1");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.inbox = new LinkedBlockingDeque<>(capacity);
+        this.credits = policy == OverflowPolicy.CREDIT ? new Semaphore(capacity) : null;
+    }
+
+    /**
+     * Recibe un mensaje y lo pone en la cola para procesar, aplicando la politica
+     * de desborde si el inbox esta lleno.
      *
      * @param msg mensaje a procesar
+     * @return true si el mensaje quedo en el inbox, false si se descarto
+     */
+    public boolean receiveMessage(Message msg) {
+        if (crashed) {
+            lose(msg);
+            return false;
+        }
+        Entry entry = new Entry(msg);
+        switch (policy) {
+            case DROP_NEWEST:
+                if (!inbox.offer(entry)) {
+                    drop(msg, "inbox lleno");
+                    return false;
+                }
+                return true;
+            case DROP_OLDEST:
+                while (!inbox.offer(entry)) {
+                    Entry oldest = inbox.pollFirst();
+                    if (oldest != null) {
+                        drop(oldest.msg, "desplazado por un mensaje mas nuevo");
+                    }
+                }
+                return true;
+            case CREDIT:
+                if (!credits.tryAcquire()) {
+                    backpressure.increment();
+                    try {
+                        credits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        drop(msg, "interrumpido esperando credito");
+                        return false;
+                    }
+                }
+                if (!inbox.offer(entry)) {
+                    credits.release();
+                    drop(msg, "inbox lleno");
+                    return false;
+                }
+                return true;
+            case BLOCK:
+            default:
+                if (inbox.offer(entry)) {
+                    return true;
+                }
+                backpressure.increment();
+                try {
+                    inbox.put(entry);
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(msg, "interrumpido esperando espacio");
+                    return false;
+                }
+        }
+    }
+
+    /**
+     * Version sin bloqueo de receiveMessage para los hilos de ShardedExecutor:
+     * con BLOCK o CREDIT y el inbox lleno (o sin creditos) cuenta backpressure
+     * y devuelve false en lugar de esperar, y el llamador reintenta despues de
+     * drenar. Las politicas de descarte se aplican igual que en receiveMessage.
+     *
+     * @param msg mensaje a procesar
+     * @return false si el mensaje debe reintentarse; true si quedo en el inbox
+     *         o se descarto segun la politica
+     */
+    public boolean offerMessage(Message msg) {
+        if (crashed) {
+            lose(msg);
+            return true;
+        }
+        switch (policy) {
+            case BLOCK:
+                if (inbox.offer(new Entry(msg))) {
+                    return true;
+                }
+                backpressure.increment();
+                return false;
+            case CREDIT:
+                if (!credits.tryAcquire()) {
+                    backpressure.increment();
+                    return false;
+                }
+                if (!inbox.offer(new Entry(msg))) {
+                    credits.release();
+                    drop(msg, "inbox lleno");
+                }
+                return true;
+            default:
+                receiveMessage(msg);
+                return true;
+        }
+    }
+
+    /**
+     * Cuenta un descarte por la politica de desborde y completa el future con
+     * error. Con el reenvio salto a salto el inbox de un nodo intermedio tiene
+     * la unica copia del mensaje (o una de las copias duplicadas, ver
+     * Message.markDropped): descartarla aqui tambien termina su viaje.
+     */
+    private void drop(Message msg, String reason) {
+        dropped.increment();
+        if (trace != null) {
+            trace.record(TraceRecorder.DROP, msg.getId(), id, msg.getToId(), msg.getHops(), 0);
+        }
+        msg.markDropped("Nodo " + id + ": " + reason);
+    }
+
+    /**
+     * Descarta un mensaje que llego a un nodo caido, sea destino o hop de
+     * paso: como en drop, el mensaje no sigue viaje.
+     */
+    private void lose(Message msg) {
+        lost.increment();
+        if (trace != null) {
+            trace.record(TraceRecorder.DROP, msg.getId(), id, msg.getToId(), msg.getHops(), 0);
+        }
+        msg.markDropped("Nodo " + id + " caido");
+    }
+
+    /**
+     * Asocia los histogramas donde el nodo registra espera en cola y latencia extremo a extremo.
+     *
+     * @param latencyStats histogramas de la topologia
+     */
+    public void setLatencyStats(LatencyStats latencyStats) {
+        this.latencyStats = latencyStats;
+    }
+
+    /**
+     * Asocia el reenvio salto a salto de la topologia. Sin forwarder, los
+     * mensajes que no son para este nodo se ignoran.
+     *
+     * @param forwarder reenvio hacia el siguiente hop
+     */
+    public void setForwarder(HopForwarder forwarder) {
+        this.forwarder = forwarder;
+    }
+
+    /**
+     * Activa el buffer de reorden del nodo como destino: mide el desorden de
+     * los mensajes numerados y, con FIFO_PER_FLOW, los entrega en orden de
+     * secuencia por flujo.
+     *
+     * @param order garantia de orden
+     * @param stats medidas de desorden de la topologia
+     */
+    public void configureOrdering(DeliveryOrder order, ReorderStats stats) {
+        this.reorder = new ReorderBuffer(order, stats, this::complete);
+    }
+
+    /**
+     * Asocia el protocolo de entrega confiable: las tramas (Frame) cuyo
+     * destino es este nodo se le pasan al canal, que sube los mensajes nuevos
+     * a process.
+     *
+     * @param channel canal confiable de la topologia
+     */
+    public void setReliableChannel(ReliableChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Registra en la traza las entregas (DELIVER) y descartes (DROP) del nodo.
+     *
+     * @param trace traza de la topologia; null para no registrar
+     */
+    public void setTraceRecorder(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Avisa que un mensaje numerado hacia este nodo se descarto en el camino,
+     * para que el buffer de reorden no retenga las secuencias siguientes.
+     *
+     * @param msg mensaje descartado
      */
-    public void receiveMessage(Message msg) {
-        inbox.offer(msg);
+    public void skip(Message msg) {
+        if (reorder != null && msg.getSequence() != Message.NO_SEQUENCE) {
+            reorder.skip(msg);
+        }
     }
 
     /**
      * Marca el nodo para que deje de ejecutarse. Procesara lo que quede en la cola y luego saldra.
+     * Despierta al hilo del nodo si esta esperando mensajes, para que termine sin demora.
      */
     public void stop() {
         running = false;
+        Thread t = worker;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    /**
+     * Indica si el nodo sigue activo (no se ha llamado stop()).
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Falla del nodo: pierde los mensajes de su inbox y descarta los que le
+     * lleguen hasta recover(). El hilo o shard que lo atiende sigue vivo.
+     */
+    public void crash() {
+        crashed = true;
+        Entry entry;
+        while ((entry = inbox.poll()) != null) {
+            lose(entry.msg);
+            if (credits != null) {
+                credits.release();
+            }
+        }
+    }
+
+    /**
+     * Vuelve a aceptar mensajes despues de crash(); lo perdido no se recupera.
+     */
+    public void recover() {
+        crashed = false;
+    }
+
+    /**
+     * Indica si el nodo esta caido (crash() sin recover()).
+     */
+    public boolean isCrashed() {
+        return crashed;
+    }
+
+    /**
+     * Procesa un mensaje cuyo destino final es este nodo.
+     * Lo usan Node.run() y las topologias que entregan sin pasar por el inbox (bus).
+     * Con buffer de reorden, el mensaje pasa primero por el (ver configureOrdering);
+     * las tramas del protocolo confiable van al canal (ver setReliableChannel).
+     *
+     * @param msg mensaje a procesar
+     */
+    public void process(Message msg) {
+        if (channel != null && msg instanceof Frame) {
+            channel.receive(this, (Frame) msg);
+        } else if (reorder != null && msg.getSequence() != Message.NO_SEQUENCE) {
+            reorder.arrive(msg);
+        } else {
+            complete(msg);
+        }
+    }
+
+    /**
+     * Procesamiento final en orden: registra la latencia extremo a extremo y
+     * la entrega en la traza, deja el log y completa el future de entrega.
+     */
+    private void complete(Message msg) {
+        if (latencyStats != null || trace != null) {
+            long now = System.nanoTime();
+            if (latencyStats != null) {
+                latencyStats.recordEndToEnd(now - msg.getCreatedNanos());
+            }
+            if (trace != null) {
+                trace.recordAt(trace.stamp(now), TraceRecorder.DELIVER, msg.getId(), msg.getFromId(), id,
+                        msg.getHops(), 0);
+            }
+        }
+        // Mostrar timestamp original y id origen/destino
+        NetworkLog.printf("[%s] Nodo %d procesando mensaje %d->%d: %s%n",
+                msg.getTimestamp(), id, msg.getFromId(), msg.getToId(), msg.getPayload());
+        delivered.increment();
+        msg.markDelivered();
     }
 
     /**
      * Simula la actividad del nodo: solo procesa mensajes cuyo destino es este nodo.
-     * Si msg.getToId()!=id, se descarta sin log.
+     * Al procesar se completa el future de entrega del mensaje.
+     * Si msg.getToId()!=id, se reenvia con el forwarder o se descarta sin log.
+     * Con creditos, el credito se devuelve al terminar de manejar el mensaje.
      */
     @Override
     public void run() {
+        worker = Thread.currentThread();
         while (running || !inbox.isEmpty()) {
             try {
-                Message msg = inbox.poll(500, TimeUnit.MILLISECONDS);
-                if (msg != null) {
-                    if (msg.getToId() == this.id) {
-                        // Procesamos solo si es destino final
-                        // Mostrar timestamp original y id origen/destino
-                        System.out.printf("[%s] Nodo %d procesando mensaje %d->%d: %s%n",
-                                msg.getTimestamp(), id, msg.getFromId(), msg.getToId(), msg.getPayload());
-                    }
-                    // si no era para este nodo, ignoramos
+                Entry entry = inbox.poll(500, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    handle(entry);
                 }
             } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+                if (running) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                // interrupcion de stop(): drenar lo que quede y salir
             }
         }
-        System.out.printf("Nodo %d detenido.%n", id);
+        worker = null;
+        NetworkLog.printf("Nodo %d detenido.%n", id);
+    }
+
+    /**
+     * Procesa en el hilo llamador hasta max mensajes ya encolados, sin bloquear.
+     *
+     * @param max maximo de mensajes a sacar del inbox
+     * @return cantidad de mensajes manejados
+     */
+    public int drain(int max) {
+        int handled = 0;
+        Entry entry;
+        while (handled < max && (entry = inbox.poll()) != null) {
+            handle(entry);
+            handled++;
+        }
+        return handled;
     }
-}
\ No newline at end of file
+
+    /**
+     * Maneja una entrada sacada del inbox: registra la espera en cola, procesa
+     * si este nodo es el destino final o lo reenvia al siguiente hop (si no hay
+     * forwarder se ignora; caido, se pierde) y devuelve el credito.
+     */
+    private void handle(Entry entry) {
+        if (latencyStats != null) {
+            latencyStats.recordQueueWait(System.nanoTime() - entry.enqueuedNanos);
+        }
+        Message msg = entry.msg;
+        if (crashed) {
+            // cayo despues de que el mensaje salio del inbox
+            lose(msg);
+        } else if (msg.getToId() == this.id) {
+            // Procesamos solo si es destino final
+            process(msg);
+        } else if (forwarder != null) {
+            forwarded.increment();
+            forwarder.forward(this, msg);
+        }
+        if (credits != null) {
+            credits.release();
+        }
+    }
+
+    // Getters de estado del inbox
+    public int getInboxSize() { return inbox.size(); }
+    public int getInboxCapacity() { return capacity; }
+    public OverflowPolicy getOverflowPolicy() { return policy; }
+    // descartes totales: por la politica de desborde mas los perdidos por estar caido
+    public long getDroppedCount() { return dropped.sum() + lost.sum(); }
+    public long getOverflowDroppedCount() { return dropped.sum(); }
+    public long getLostCount() { return lost.sum(); }
+    public long getBackpressureCount() { return backpressure.sum(); }
+    public long getForwardedCount() { return forwarded.sum(); }
+    public long getDeliveredCount() { return delivered.sum(); }
+}
@@ -0,0 +1,20 @@
+package com.pucmm.network.core;
+
+/**
+ * Politica que aplica un nodo cuando su inbox acotado esta lleno.
+ */
+public enum OverflowPolicy {
+    /** El emisor se bloquea hasta que haya espacio. */
+    BLOCK,
+    /** Se descarta el mensaje que llega. */
+    DROP_NEWEST,
+    /** Se descarta el mensaje mas antiguo del inbox para hacer espacio. */
+    DROP_OLDEST,
+    /**
+     * Control de flujo por creditos: el nodo tiene tantos creditos como capacidad
+     * y solo los devuelve al terminar de procesar. Sin credito el emisor espera,
+     * y como el emisor es el salto anterior de la ruta, la espera se propaga
+     * hacia atras por la ruta.
+     */
+    CREDIT
+}
@@ -0,0 +1,63 @@
+package com.pucmm.network.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores del protocolo de entrega confiable de una topologia:
+ * - transmisiones: tramas DATA originales y retransmisiones por timeout.
+ * - acks enviados por los receptores.
+ * - entregados: mensajes unicos que subieron a la aplicacion (goodput).
+ * - duplicados: tramas DATA repetidas que el receptor descarto.
+ * - fallidos: mensajes abandonados tras agotar los reintentos.
+ * - rtt: ida y vuelta DATA->ACK, solo de tramas no retransmitidas (Karn).
+ */
+public class ReliabilityStats {
+    private final LongAdder originals = new LongAdder();
+    private final LongAdder retransmissions = new LongAdder();
+    private final LongAdder acks = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram rtt = new LatencyHistogram();
+
+    public void recordOriginal() { originals.increment(); }
+    public void recordRetransmission() { retransmissions.increment(); }
+    public void recordAck() { acks.increment(); }
+    public void recordDelivered() { delivered.increment(); }
+    public void recordDuplicate() { duplicates.increment(); }
+    public void recordFailed() { failed.increment(); }
+    public void recordRtt(long nanos) { rtt.record(nanos); }
+
+    // Getters
+    public long getOriginals() { return originals.sum(); }
+    public long getRetransmissions() { return retransmissions.sum(); }
+    public long getAcks() { return acks.sum(); }
+    public long getDelivered() { return delivered.sum(); }
+    public long getDuplicates() { return duplicates.sum(); }
+    public long getFailed() { return failed.sum(); }
+    public LatencyHistogram getRtt() { return rtt; }
+
+    /**
+     * Tramas que el protocolo puso en la red: DATA (con retransmisiones) y ACK.
+     */
+    public long getFramesSent() {
+        return originals.sum() + retransmissions.sum() + acks.sum();
+    }
+
+    /**
+     * Retransmisiones por cada mensaje original.
+     */
+    public double getRetransmissionOverhead() {
+        long sent = originals.sum();
+        return sent == 0 ? 0 : (double) retransmissions.sum() / sent;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("originales=%d retransmisiones=%d (%.1f%%) acks=%d entregados=%d duplicados=%d "
+                        + "fallidos=%d rtt p50=%.1fus p99=%.1fus",
+                getOriginals(), getRetransmissions(), getRetransmissionOverhead() * 100, getAcks(),
+                getDelivered(), getDuplicates(), getFailed(),
+                rtt.getValueAtPercentile(50) / 1e3, rtt.getValueAtPercentile(99) / 1e3);
+    }
+}
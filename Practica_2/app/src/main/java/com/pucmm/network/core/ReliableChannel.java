@@ -0,0 +1,353 @@
+package com.pucmm.network.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Entrega confiable extremo a extremo sobre una red que pierde o duplica
+ * tramas, por flujo (from,to) y con la secuencia de flujo del mensaje:
+ *
+ * - Emisor: ventana deslizante de hasta windowSize tramas sin confirmar; lo
+ *   que no cabe espera su turno. Cada trama DATA arma un timeout en el
+ *   scheduler del transporte (el TimerWheel compartido o el reloj virtual);
+ *   al vencer se retransmite con backoff exponencial por intento (el timeout
+ *   del flujo no crece, asi un mensaje con mala suerte no frena a los demas),
+ *   y tras MAX_ATTEMPTS intentos el mensaje se marca descartado.
+ * - Receptor: responde cada DATA con un ACK selectivo y acumulado, suprime
+ *   duplicados y sube cada mensaje una sola vez al nodo (Node.process).
+ * - El timeout se adapta por flujo con el RTT medido (srtt + 4 * rttvar) y
+ *   no se mide el RTT de tramas retransmitidas (Karn).
+ *
+ * Las tramas salen por inject, que las pone en la red como un mensaje mas;
+ * nunca se inyecta con un lock tomado, porque con transportes sincronicos la
+ * entrega (y el ACK) puede volver al canal en el mismo hilo.
+ */
+public class ReliableChannel {
+    // intentos por mensaje antes de abandonarlo
+    private static final int MAX_ATTEMPTS = 12;
+    private static final long MIN_TIMEOUT_NANOS = 1_000_000;
+    private static final long MAX_TIMEOUT_NANOS = 10_000_000_000L;
+
+    private final Transport transport;
+    private final int windowSize;
+    private final long initialTimeoutNanos;
+    private final Consumer<Message> inject;
+    private final ReliabilityStats stats = new ReliabilityStats();
+    private final Map<Long, Sender> senders = new ConcurrentHashMap<>();
+    private final Map<Long, Receiver> receivers = new ConcurrentHashMap<>();
+    // mensajes aceptados por send que aun no se confirman ni abandonan
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private volatile boolean closed;
+
+    /**
+     * Estado del emisor de un flujo; se accede con su lock.
+     */
+    private static final class Sender {
+        final Map<Long, Pending> unacked = new HashMap<>();
+        final ArrayDeque<Message> waiting = new ArrayDeque<>();
+        long timeoutNanos;
+        // estimacion del RTT; srtt < 0 hasta la primera muestra
+        long srtt = -1;
+        long rttvar;
+
+        Sender(long timeoutNanos) {
+            this.timeoutNanos = timeoutNanos;
+        }
+    }
+
+    /**
+     * Mensaje en la ventana, esperando su ACK.
+     */
+    private static final class Pending {
+        final Message original;
+        int attempts;
+        long sentNanos;
+
+        Pending(Message original) {
+            this.original = original;
+        }
+    }
+
+    /**
+     * Estado del receptor de un flujo: todo lo menor que cumulative ya llego;
+     * above son las secuencias mayores recibidas fuera de orden.
+     */
+    private static final class Receiver {
+        long cumulative;
+        final Set<Long> above = new HashSet<>();
+    }
+
+    /**
+     * @param transport transporte cuyo reloj mide el RTT y donde se programan los timeouts
+     * @param windowSize tramas sin confirmar por flujo
+     * @param initialTimeout timeout de retransmision antes de medir el RTT
+     * @param unit unidad de initialTimeout
+     * @param inject pone una trama en la red desde su nodo origen
+     * @throws IllegalArgumentException si windowSize < 1 o initialTimeout <= 0
+     */
+    public ReliableChannel(Transport transport, int windowSize, long initialTimeout, TimeUnit unit,
+                           Consumer<Message> inject) {
+        if (windowSize < 1 || initialTimeout <= 0) {
+            throw new IllegalArgumentException("ReliableChannel requiere ventana >= 1 y timeout > 0");
+        }
+        this.transport = transport;
+        this.windowSize = windowSize;
+        this.initialTimeoutNanos = unit.toNanos(initialTimeout);
+        this.inject = inject;
+    }
+
+    /**
+     * Envia un mensaje numerado de la aplicacion: sale ahora si hay lugar en
+     * la ventana de su flujo o espera a que se confirme uno anterior. Su
+     * future se completa cuando el destino lo procesa.
+     *
+     * @param msg mensaje con secuencia de flujo
+     */
+    public void send(Message msg) {
+        if (closed) {
+            msg.markDropped("red detenida");
+            return;
+        }
+        outstanding.incrementAndGet();
+        Sender sender = senders.computeIfAbsent(key(msg.getFromId(), msg.getToId()),
+                k -> new Sender(initialTimeoutNanos));
+        Pending pending = null;
+        synchronized (sender) {
+            if (sender.unacked.size() < windowSize) {
+                pending = admit(sender, msg);
+            } else {
+                sender.waiting.addLast(msg);
+            }
+        }
+        if (pending != null) {
+            stats.recordOriginal();
+            transmit(sender, pending, 1);
+        }
+    }
+
+    /**
+     * Recibe una trama cuyo destino es el nodo dado (lo llama Node.process).
+     *
+     * @param node nodo destino de la trama
+     * @param frame trama DATA o ACK
+     */
+    public void receive(Node node, Frame frame) {
+        if (frame.getKind() == Frame.Kind.ACK) {
+            onAck(frame);
+        } else {
+            onData(node, frame);
+        }
+    }
+
+    private void onData(Node node, Frame frame) {
+        Receiver receiver = receivers.computeIfAbsent(key(frame.getFromId(), frame.getToId()), k -> new Receiver());
+        long seq = frame.getSequence();
+        boolean duplicate;
+        long cumulative;
+        synchronized (receiver) {
+            duplicate = seq < receiver.cumulative || !receiver.above.add(seq);
+            if (!duplicate) {
+                while (receiver.above.remove(receiver.cumulative)) {
+                    receiver.cumulative++;
+                }
+            }
+            cumulative = receiver.cumulative;
+        }
+        // el ACK se repite tambien para duplicados: el anterior pudo perderse
+        stats.recordAck();
+        inject.accept(Frame.ack(frame.getToId(), frame.getFromId(), seq, cumulative));
+        if (duplicate) {
+            stats.recordDuplicate();
+            return;
+        }
+        stats.recordDelivered();
+        node.process(frame.getOriginal());
+    }
+
+    private void onAck(Frame ack) {
+        // el ACK viaja del receptor al emisor: el flujo es (ack.to, ack.from)
+        Sender sender = senders.get(key(ack.getToId(), ack.getFromId()));
+        if (sender == null) {
+            return;
+        }
+        long now = transport.nanoTime();
+        List<Pending> next = new ArrayList<>();
+        int confirmed = 0;
+        long rtt = -1;
+        synchronized (sender) {
+            Pending acked = sender.unacked.remove(ack.getSequence());
+            if (acked != null) {
+                confirmed++;
+                if (acked.attempts == 1) {
+                    rtt = now - acked.sentNanos;
+                    sampleRtt(sender, rtt);
+                }
+            }
+            Iterator<Map.Entry<Long, Pending>> it = sender.unacked.entrySet().iterator();
+            while (it.hasNext()) {
+                if (it.next().getKey() < ack.getCumulative()) {
+                    it.remove();
+                    confirmed++;
+                }
+            }
+            refill(sender, next);
+        }
+        outstanding.addAndGet(-confirmed);
+        if (rtt >= 0) {
+            stats.recordRtt(rtt);
+        }
+        for (Pending pending : next) {
+            stats.recordOriginal();
+            transmit(sender, pending, 1);
+        }
+    }
+
+    // timeout de un intento: si sigue sin ACK, retransmite con backoff o abandona
+    private void onTimeout(Sender sender, long seq, int attempt) {
+        if (closed) {
+            return;
+        }
+        Pending retry = null;
+        Message abandoned = null;
+        List<Pending> next = new ArrayList<>();
+        synchronized (sender) {
+            Pending pending = sender.unacked.get(seq);
+            if (pending == null || pending.attempts != attempt) {
+                return;
+            }
+            if (attempt >= MAX_ATTEMPTS) {
+                sender.unacked.remove(seq);
+                abandoned = pending.original;
+                refill(sender, next);
+            } else {
+                retry = pending;
+            }
+        }
+        if (abandoned != null) {
+            stats.recordFailed();
+            outstanding.decrementAndGet();
+            abandoned.markDropped("sin ACK tras " + MAX_ATTEMPTS + " intentos");
+        } else {
+            stats.recordRetransmission();
+            transmit(sender, retry, attempt + 1);
+        }
+        for (Pending pending : next) {
+            stats.recordOriginal();
+            transmit(sender, pending, 1);
+        }
+    }
+
+    // pone una trama DATA en la red y arma su timeout
+    private void transmit(Sender sender, Pending pending, int attempt) {
+        long timeout;
+        synchronized (sender) {
+            pending.attempts = attempt;
+            pending.sentNanos = transport.nanoTime();
+            // backoff: el timeout del flujo se duplica en cada reintento
+            timeout = Math.min(MAX_TIMEOUT_NANOS, sender.timeoutNanos << Math.min(attempt - 1, 20));
+        }
+        long seq = pending.original.getSequence();
+        inject.accept(Frame.data(pending.original, attempt));
+        try {
+            transport.schedule(() -> onTimeout(sender, seq, attempt), timeout, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // transporte detenido: el mensaje queda pendiente hasta close()
+        }
+    }
+
+    // agrega un mensaje a la ventana; se llama con el lock del emisor
+    private Pending admit(Sender sender, Message msg) {
+        Pending pending = new Pending(msg);
+        sender.unacked.put(msg.getSequence(), pending);
+        return pending;
+    }
+
+    // llena la ventana con lo que esperaba; se llama con el lock del emisor
+    private void refill(Sender sender, List<Pending> next) {
+        while (sender.unacked.size() < windowSize && !sender.waiting.isEmpty()) {
+            next.add(admit(sender, sender.waiting.pollFirst()));
+        }
+    }
+
+    // estimador de Jacobson/Karels; se llama con el lock del emisor
+    private static void sampleRtt(Sender sender, long rtt) {
+        if (sender.srtt < 0) {
+            sender.srtt = rtt;
+            sender.rttvar = rtt / 2;
+        } else {
+            sender.rttvar = (3 * sender.rttvar + Math.abs(sender.srtt - rtt)) / 4;
+            sender.srtt = (7 * sender.srtt + rtt) / 8;
+        }
+        sender.timeoutNanos = Math.max(MIN_TIMEOUT_NANOS,
+                Math.min(MAX_TIMEOUT_NANOS, sender.srtt + 4 * sender.rttvar));
+    }
+
+    /**
+     * Espera a que todos los mensajes enviados se confirmen o abandonen.
+     *
+     * @param timeout espera maxima
+     * @param unit unidad de timeout
+     * @return true si no queda nada pendiente
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long start = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+        while (outstanding.get() > 0) {
+            if (System.nanoTime() - start >= timeoutNanos) {
+                return false;
+            }
+            LockSupport.parkNanos(1_000_000);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cierra el canal: no se retransmite mas y lo que no se confirmo se
+     * marca descartado (si ya se entrego, el descarte no tiene efecto).
+     */
+    public void close() {
+        closed = true;
+        for (Sender sender : senders.values()) {
+            List<Message> pending = new ArrayList<>();
+            synchronized (sender) {
+                for (Pending p : sender.unacked.values()) {
+                    pending.add(p.original);
+                }
+                pending.addAll(sender.waiting);
+                sender.unacked.clear();
+                sender.waiting.clear();
+            }
+            for (Message msg : pending) {
+                outstanding.decrementAndGet();
+                msg.markDropped("red detenida");
+            }
+        }
+    }
+
+    /**
+     * Contadores del protocolo.
+     */
+    public ReliabilityStats getStats() {
+        return stats;
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+}
@@ -0,0 +1,134 @@
+package com.pucmm.network.core;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Buffer de reorden de un nodo destino, por flujo de origen.
+ *
+ * - UNORDERED: entrega cada mensaje al llegar y solo mide el desorden.
+ * - FIFO_PER_FLOW: entrega en orden de secuencia; un mensaje adelantado se
+ *   retiene hasta que llegue la secuencia que falta. Si la que falta se
+ *   descarta en el camino (skip), se salta para no bloquear el flujo. Una
+ *   secuencia ya entregada o saltada que vuelve a llegar (copia duplicada
+ *   por un enlace) se descarta: el flujo la entrega una sola vez.
+ * El skip llega recien cuando se pierde la ultima copia en vuelo (ver
+ * Message.markDropped), asi una copia que sobrevive no se salta.
+ *
+ * Un nodo normalmente lo usa desde un solo hilo; los metodos son
+ * synchronized porque skip puede llegar desde el hilo que descarto el mensaje.
+ */
+public class ReorderBuffer {
+    private final DeliveryOrder order;
+    private final ReorderStats stats;
+    private final Consumer<Message> sink;
+    private final Map<Integer, Flow> flows = new HashMap<>();
+
+    /**
+     * Estado de un flujo en el destino.
+     */
+    private static final class Flow {
+        // siguiente secuencia a entregar (FIFO) y mayor secuencia vista
+        long expected;
+        long highest = -1;
+        // mensajes adelantados por secuencia
+        final Map<Long, Held> held = new HashMap<>();
+        // secuencias descartadas en el camino que aun no toca entregar
+        final Set<Long> skipped = new HashSet<>();
+    }
+
+    /**
+     * Mensaje retenido y el instante en que se retuvo.
+     */
+    private static final class Held {
+        final Message msg;
+        final long since = System.nanoTime();
+
+        Held(Message msg) {
+            this.msg = msg;
+        }
+    }
+
+    /**
+     * @param order garantia de orden
+     * @param stats medidas de desorden de la topologia
+     * @param sink  procesamiento final del mensaje en el destino
+     */
+    public ReorderBuffer(DeliveryOrder order, ReorderStats stats, Consumer<Message> sink) {
+        this.order = order;
+        this.stats = stats;
+        this.sink = sink;
+    }
+
+    /**
+     * Recibe un mensaje numerado y entrega al sink lo que ya esta en orden.
+     *
+     * @param msg mensaje cuyo destino es este nodo
+     */
+    public synchronized void arrive(Message msg) {
+        long seq = msg.getSequence();
+        Flow flow = flows.computeIfAbsent(msg.getFromId(), k -> new Flow());
+        if (seq < flow.highest) {
+            stats.recordArrival(flow.highest - seq);
+        } else {
+            stats.recordArrival(0);
+            flow.highest = seq;
+        }
+        if (order == DeliveryOrder.UNORDERED) {
+            sink.accept(msg);
+            return;
+        }
+        if (seq < flow.expected) {
+            // copia de una secuencia ya entregada o saltada
+            stats.recordDuplicate();
+            return;
+        }
+        // llego una copia de una secuencia que se habia dado por perdida
+        flow.skipped.remove(seq);
+        if (seq > flow.expected) {
+            flow.held.put(seq, new Held(msg));
+            stats.recordBuffered(flow.held.size());
+            return;
+        }
+        sink.accept(msg);
+        flow.expected++;
+        release(flow);
+    }
+
+    /**
+     * Da por perdida una secuencia (el mensaje se descarto antes de llegar)
+     * para que no retenga a las siguientes.
+     *
+     * @param msg mensaje descartado cuyo destino es este nodo
+     */
+    public synchronized void skip(Message msg) {
+        if (order == DeliveryOrder.UNORDERED) {
+            return;
+        }
+        long seq = msg.getSequence();
+        Flow flow = flows.computeIfAbsent(msg.getFromId(), k -> new Flow());
+        if (seq == flow.expected) {
+            flow.expected++;
+            release(flow);
+        } else if (seq > flow.expected) {
+            flow.skipped.add(seq);
+        }
+    }
+
+    // entrega las secuencias retenidas que ya quedaron en orden
+    private void release(Flow flow) {
+        while (true) {
+            Held next = flow.held.remove(flow.expected);
+            if (next != null) {
+                stats.recordHold(System.nanoTime() - next.since);
+                sink.accept(next.msg);
+            } else if (!flow.skipped.remove(flow.expected)) {
+                return;
+            }
+            flow.expected++;
+        }
+    }
+}
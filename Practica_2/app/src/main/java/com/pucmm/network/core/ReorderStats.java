@@ -0,0 +1,67 @@
+package com.pucmm.network.core;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Medidas de desorden de una topologia, sumadas en todos los destinos:
+ * - llegadas tarde: mensajes cuya secuencia es menor que la mayor ya vista
+ *   en su flujo.
+ * - profundidad: para cada llegada tarde, cuantas secuencias posteriores ya
+ *   habian llegado (mayor vista - secuencia).
+ * - retencion: tiempo que un mensaje espero en el ReorderBuffer (solo
+ *   FIFO_PER_FLOW), y la mayor cantidad retenida a la vez en un flujo.
+ * - duplicados: copias de una secuencia ya entregada o saltada que
+ *   FIFO_PER_FLOW descarto.
+ */
+public class ReorderStats {
+    private final LongAdder sequenced = new LongAdder();
+    private final LongAdder late = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LatencyHistogram depth = new LatencyHistogram();
+    private final LatencyHistogram hold = new LatencyHistogram();
+    private final LongAccumulator maxBuffered = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra la llegada de un mensaje numerado.
+     *
+     * @param depth 0 si llego en orden, si no mayor secuencia vista - secuencia
+     */
+    public void recordArrival(long depth) {
+        sequenced.increment();
+        if (depth > 0) {
+            late.increment();
+            this.depth.record(depth);
+        }
+    }
+
+    public void recordHold(long nanos) { hold.record(nanos); }
+    public void recordBuffered(int held) { maxBuffered.accumulate(held); }
+    public void recordDuplicate() { duplicates.increment(); }
+
+    // Getters
+    public long getSequenced() { return sequenced.sum(); }
+    public long getLate() { return late.sum(); }
+    public LatencyHistogram getDepth() { return depth; }
+    public LatencyHistogram getHold() { return hold; }
+    public long getMaxBuffered() { return maxBuffered.get(); }
+    public long getDuplicates() { return duplicates.sum(); }
+
+    /**
+     * Fraccion de mensajes numerados que llegaron tarde.
+     */
+    public double getLateRatio() {
+        long total = sequenced.sum();
+        return total == 0 ? 0 : (double) late.sum() / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("tarde=%d/%d (%.2f%%) profundidad p50=%d p99=%d max=%d retenidos max=%d "
+                        + "retencion p50=%.1fus p99=%.1fus duplicados=%d",
+                getLate(), getSequenced(), getLateRatio() * 100,
+                depth.getValueAtPercentile(50), depth.getValueAtPercentile(99), depth.getMax(),
+                getMaxBuffered(), hold.getValueAtPercentile(50) / 1e3, hold.getValueAtPercentile(99) / 1e3,
+                getDuplicates());
+    }
+}
@@ -0,0 +1,497 @@
+package com.pucmm.network.core;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ejecucion por shards: un hilo (event loop) por core y cada nodo asignado
+ * de forma estatica al shard id % shards. El hilo del shard drena los inboxes
+ * de sus nodos con Node.drain, asi la cantidad de hilos no crece con la
+ * topologia ni con los envios.
+ *
+ * Entregas (deliver) segun el hilo que entrega:
+ * - el hilo del shard destino: llamada directa a Node.offerMessage
+ * - el hilo de otro shard: cola SPSC origen->destino, sin locks
+ * - un hilo externo (main, TimerWheel, switches): cola MPSC del shard
+ * Un shard nunca se bloquea: si la SPSC esta llena guarda el mensaje en un
+ * desborde local, y si el inbox destino esta lleno con BLOCK o CREDIT lo
+ * guarda en el backlog de ese nodo; ambos se reintentan en cada vuelta en
+ * orden FIFO. Un nodo lleno solo demora lo que va hacia el.
+ * Un shard sin trabajo ni pendientes se estaciona hasta que una entrega lo
+ * despierta (wake); con pendientes reintenta cada PARK_NANOS.
+ *
+ * Es el transporte por defecto de las topologias (TransportKind.SHARDED):
+ * start(nodes) en runNetwork y shutdown() + awaitTermination() al detener;
+ * awaitTermination espera a que todos los shards queden ociosos y sin
+ * mensajes en las colas.
+ */
+public class ShardedExecutor implements Transport {
+    private static final int QUEUE_CAPACITY = 256;
+    // mensajes por nodo y por cola en cada vuelta del loop
+    private static final int BATCH = 64;
+    private static final int IDLE_SPINS = 64;
+    // espera entre reintentos de desbordes y backlogs
+    private static final long PARK_NANOS = 200_000;
+
+    private final String name;
+    private final Shard[] shards;
+    private final LongAdder externalSent = new LongAdder();
+    private volatile boolean stopping;
+    private volatile boolean terminated;
+
+    /**
+     * Entrega pendiente en una cola: el nodo del siguiente hop y el mensaje.
+     */
+    private static final class Delivery {
+        final Node target;
+        final Message msg;
+
+        Delivery(Node target, Message msg) {
+            this.target = target;
+            this.msg = msg;
+        }
+    }
+
+    /**
+     * Hilo de un shard; permite reconocer en deliver si el llamador es un shard propio.
+     */
+    private static final class ShardThread extends Thread {
+        final ShardedExecutor owner;
+        final Shard shard;
+
+        ShardThread(ShardedExecutor owner, Shard shard, String name) {
+            super(name);
+            this.owner = owner;
+            this.shard = shard;
+        }
+
+        @Override
+        public void run() {
+            shard.loop();
+        }
+    }
+
+    /**
+     * @param shardCount cantidad de shards (hilos)
+     * @param name       prefijo de los hilos
+     * @throws IllegalArgumentException si shardCount < 1
+     */
+    public ShardedExecutor(int shardCount, String name) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("ShardedExecutor requiere al menos 1 shard");
+        }
+        this.name = name;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, shardCount);
+        }
+    }
+
+    /**
+     * Shards para una topologia: uno por core, sin pasar de la cantidad de nodos.
+     *
+     * @param numNodes nodos de la topologia
+     * @return cantidad de shards
+     */
+    public static int shardsFor(int numNodes) {
+        return Math.max(1, Math.min(numNodes, Runtime.getRuntime().availableProcessors()));
+    }
+
+    /**
+     * Asigna cada nodo a su shard (id % shards) y arranca los hilos.
+     *
+     * @param nodes nodos de la topologia
+     * @throws IllegalStateException si ya se arranco
+     */
+    @Override
+    public void start(List<Node> nodes) {
+        if (shards[0].thread != null) {
+            throw new IllegalStateException("ShardedExecutor ya esta corriendo.");
+        }
+        for (Node node : nodes) {
+            shardOf(node.getId()).nodes.add(node);
+        }
+        for (Shard shard : shards) {
+            shard.thread = new ShardThread(this, shard, name + "-shard-" + shard.index);
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Asigna un nodo nuevo a su shard (id % shards); el shard lo empieza a
+     * drenar en su siguiente vuelta.
+     */
+    @Override
+    public void addNode(Node node) {
+        if (shards[0].thread != null) {
+            shardOf(node.getId()).nodes.add(node);
+        }
+    }
+
+    /**
+     * Pone el mensaje en el inbox de target desde el hilo de su shard.
+     * No bloquea al llamador.
+     *
+     * @param target nodo que recibe el mensaje (siguiente hop)
+     * @param msg    mensaje
+     */
+    @Override
+    public void deliver(Node target, Message msg) {
+        Shard dst = shardOf(target.getId());
+        Thread current = Thread.currentThread();
+        if (current instanceof ShardThread && ((ShardThread) current).owner == this) {
+            Shard src = ((ShardThread) current).shard;
+            if (src == dst) {
+                src.local++;
+                src.accept(target, msg, null);
+                return;
+            }
+            src.sent++;
+            Delivery delivery = new Delivery(target, msg);
+            ArrayDeque<Delivery> overflow = src.outgoing[dst.index];
+            if (overflow.isEmpty() && dst.incoming[src.index].offer(delivery)) {
+                dst.wake();
+            } else {
+                overflow.addLast(delivery);
+                src.outgoingCount++;
+            }
+            return;
+        }
+        externalSent.increment();
+        dst.external.offer(new Delivery(target, msg));
+        dst.wake();
+    }
+
+    /**
+     * Marca el ejecutor para detenerse; awaitTermination espera a que se
+     * drene lo pendiente y termina los hilos.
+     */
+    @Override
+    public void shutdown() {
+        stopping = true;
+    }
+
+    /**
+     * Termina los hilos sin esperar a que se drenen los mensajes.
+     */
+    @Override
+    public void shutdownNow() {
+        stopping = true;
+        terminated = true;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+    }
+
+    /**
+     * Despues de shutdown(), espera a que todos los shards queden ociosos con
+     * las colas e inboxes vacios en dos revisiones seguidas y termina los hilos.
+     *
+     * @param timeout tiempo maximo de espera
+     * @param unit    unidad del timeout
+     * @return true si los hilos terminaron, false si vencio el timeout
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long previous = -1;
+        while (!terminated) {
+            long snapshot = stopping ? quiescentSnapshot() : -1;
+            if (snapshot >= 0 && snapshot == previous) {
+                shutdownNow();
+                break;
+            }
+            previous = snapshot;
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        for (Shard shard : shards) {
+            Thread thread = shard.thread;
+            if (thread != null) {
+                long remaining = deadline - System.nanoTime();
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+                if (thread.isAlive()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Mensajes consumidos de las colas si no hay trabajo pendiente en ningun
+     * shard (todos ociosos, enviados == consumidos e inboxes vacios); -1 si aun
+     * hay trabajo. Dos valores iguales seguidos indican quiescencia.
+     */
+    private long quiescentSnapshot() {
+        long sent = externalSent.sum();
+        long consumed = 0;
+        for (Shard shard : shards) {
+            if (!shard.idle) {
+                return -1;
+            }
+            sent += shard.sent;
+            consumed += shard.consumed;
+            for (Node node : shard.nodes) {
+                if (node.getInboxSize() > 0) {
+                    return -1;
+                }
+            }
+        }
+        return sent == consumed ? consumed : -1;
+    }
+
+    private Shard shardOf(int nodeId) {
+        return shards[nodeId % shards.length];
+    }
+
+    // Estadisticas
+    public int getShardCount() { return shards.length; }
+
+    /**
+     * Entregas hechas con llamada directa dentro del mismo shard.
+     */
+    public long getLocalDeliveries() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.local;
+        }
+        return total;
+    }
+
+    /**
+     * Entregas de un shard a otro por cola SPSC.
+     */
+    public long getCrossShardDeliveries() {
+        long total = 0;
+        for (Shard shard : shards) {
+            total += shard.sent;
+        }
+        return total;
+    }
+
+    /**
+     * Entregas desde hilos externos por la cola MPSC.
+     */
+    public long getExternalDeliveries() {
+        return externalSent.sum();
+    }
+
+    /**
+     * Entregas en colas SPSC, MPSC y desbordes que ningun shard tomo aun,
+     * mas las que esperan en un backlog por un inbox lleno.
+     */
+    @Override
+    public long getQueuedTasks() {
+        long queued = externalSent.sum();
+        for (Shard shard : shards) {
+            queued += shard.sent - shard.consumed + shard.backlogged;
+        }
+        return Math.max(0, queued);
+    }
+
+    /**
+     * Shards que en su ultima vuelta tuvieron trabajo o pendientes.
+     */
+    @Override
+    public int getActiveThreads() {
+        int active = 0;
+        for (Shard shard : shards) {
+            if (shard.thread != null && !shard.idle && !terminated) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Un event loop con sus nodos, sus colas de entrada y sus desbordes. Los
+     * campos no volatiles solo los toca el hilo del shard.
+     */
+    private final class Shard {
+        final int index;
+        // copy-on-write: addNode agrega desde otro hilo mientras el shard la recorre
+        final List<Node> nodes = new CopyOnWriteArrayList<>();
+        // incoming[i]: cola SPSC desde el shard i (null para el propio)
+        final SpscQueue<Delivery>[] incoming;
+        final ConcurrentLinkedQueue<Delivery> external = new ConcurrentLinkedQueue<>();
+        // outgoing[i]: desborde hacia el shard i cuando su SPSC esta llena
+        final ArrayDeque<Delivery>[] outgoing;
+        int outgoingCount;
+        // entregas a inboxes llenos con BLOCK o CREDIT, por nodo destino
+        final Map<Node, ArrayDeque<Delivery>> backlogs = new HashMap<>();
+        int backlogCount;
+        volatile Thread thread;
+        volatile boolean idle = true;
+        volatile boolean sleeping;
+        // contadores de un solo escritor (el hilo del shard)
+        volatile long local;
+        volatile long sent;
+        volatile long consumed;
+        // tamano del backlog al final de la ultima vuelta, para las metricas
+        volatile int backlogged;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Shard(int index, int shardCount) {
+            this.index = index;
+            incoming = new SpscQueue[shardCount];
+            outgoing = new ArrayDeque[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                if (i != index) {
+                    incoming[i] = new SpscQueue<>(QUEUE_CAPACITY);
+                    outgoing[i] = new ArrayDeque<>();
+                }
+            }
+        }
+
+        void loop() {
+            int spins = 0;
+            while (!terminated) {
+                int work = flushOutgoing() + pollIncoming() + retryBacklog();
+                for (Node node : nodes) {
+                    work += node.drain(BATCH);
+                }
+                boolean pending = outgoingCount > 0 || backlogCount > 0;
+                idle = work == 0 && !pending;
+                if (backlogged != backlogCount) {
+                    backlogged = backlogCount;
+                }
+                if (work > 0) {
+                    spins = 0;
+                } else if (++spins < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    // sleeping antes de revisar las colas: deliver encola y despues lo lee
+                    sleeping = true;
+                    if (!hasIncoming() && !terminated) {
+                        if (pending) {
+                            LockSupport.parkNanos(PARK_NANOS);
+                        } else {
+                            LockSupport.park(this);
+                        }
+                    }
+                    sleeping = false;
+                }
+            }
+            NetworkLog.printf("Shard %d de %s detenido (%d nodos).%n", index, name, nodes.size());
+        }
+
+        /**
+         * Entrega en el hilo del shard; si el nodo ya tiene backlog se encola
+         * detras para no adelantar sus mensajes.
+         */
+        void accept(Node target, Message msg, Delivery delivery) {
+            ArrayDeque<Delivery> backlog = backlogs.isEmpty() ? null : backlogs.get(target);
+            if (backlog == null) {
+                if (target.offerMessage(msg)) {
+                    return;
+                }
+                backlog = new ArrayDeque<>();
+                backlogs.put(target, backlog);
+            }
+            backlog.addLast(delivery != null ? delivery : new Delivery(target, msg));
+            backlogCount++;
+        }
+
+        int pollIncoming() {
+            int handled = 0;
+            for (SpscQueue<Delivery> queue : incoming) {
+                if (queue == null) {
+                    continue;
+                }
+                Delivery d;
+                for (int i = 0; i < BATCH && (d = queue.poll()) != null; i++) {
+                    accept(d.target, d.msg, d);
+                    handled++;
+                }
+            }
+            Delivery d;
+            for (int i = 0; i < BATCH && (d = external.poll()) != null; i++) {
+                accept(d.target, d.msg, d);
+                handled++;
+            }
+            if (handled > 0) {
+                consumed += handled;
+            }
+            return handled;
+        }
+
+        int flushOutgoing() {
+            if (outgoingCount == 0) {
+                return 0;
+            }
+            int moved = 0;
+            for (int i = 0; i < outgoing.length; i++) {
+                ArrayDeque<Delivery> overflow = outgoing[i];
+                if (overflow == null || overflow.isEmpty()) {
+                    continue;
+                }
+                SpscQueue<Delivery> queue = shards[i].incoming[index];
+                int before = moved;
+                while (!overflow.isEmpty() && queue.offer(overflow.peekFirst())) {
+                    overflow.pollFirst();
+                    moved++;
+                }
+                if (moved > before) {
+                    shards[i].wake();
+                }
+            }
+            outgoingCount -= moved;
+            return moved;
+        }
+
+        /**
+         * Reintenta el backlog de cada nodo en orden hasta que su inbox
+         * vuelva a llenarse; un nodo sin pendientes sale del mapa.
+         */
+        int retryBacklog() {
+            if (backlogCount == 0) {
+                return 0;
+            }
+            int delivered = 0;
+            Iterator<Map.Entry<Node, ArrayDeque<Delivery>>> it = backlogs.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Node, ArrayDeque<Delivery>> entry = it.next();
+                Node target = entry.getKey();
+                ArrayDeque<Delivery> backlog = entry.getValue();
+                while (!backlog.isEmpty() && target.getInboxSize() < target.getInboxCapacity()
+                        && target.offerMessage(backlog.peekFirst().msg)) {
+                    backlog.pollFirst();
+                    delivered++;
+                }
+                if (backlog.isEmpty()) {
+                    it.remove();
+                }
+            }
+            backlogCount -= delivered;
+            return delivered;
+        }
+
+        boolean hasIncoming() {
+            for (SpscQueue<Delivery> queue : incoming) {
+                if (queue != null && !queue.isEmpty()) {
+                    return true;
+                }
+            }
+            return !external.isEmpty();
+        }
+
+        void wake() {
+            Thread t = thread;
+            if (sleeping && t != null) {
+                LockSupport.unpark(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.pucmm.network.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Medio compartido de un bus: un log circular (ring buffer) donde cada escritura
+ * es visible para todos los lectores. Cada lector avanza con su propio cursor,
+ * al estilo Disruptor, de modo que un broadcast cuesta una sola escritura.
+ *
+ * El acceso de escritura se arbitra con un lock justo (FIFO): solo un emisor ocupa
+ * el bus a la vez y lo retiene durante el tiempo de arbitraje configurado.
+ *
+ * Solo los cursores registrados frenan al emisor (gating): un lector que
+ * termina quita el suyo (removeCursor) y close() los quita todos, asi un
+ * emisor nunca espera a un lector que ya no avanza. Antes de que existan
+ * lectores (newCursors) no hay a quien esperar: el log acepta hasta su
+ * capacidad y la escritura siguiente falla en lugar de bloquear.
+ */
+public class SharedBus {
+    private final Message[] slots;
+    private final int mask;
+    // siguiente secuencia a publicar; los lectores pueden leer todo lo < published
+    private final AtomicLong published = new AtomicLong();
+    private final CopyOnWriteArrayList<Cursor> cursors = new CopyOnWriteArrayList<>();
+    private final ReentrantLock arbiter = new ReentrantLock(true);
+    private final long arbitrationNanos;
+    // closing suelta a los emisores; closed se marca con el arbitro tomado,
+    // cuando ya no queda ninguna escritura a medio publicar
+    private volatile boolean closing;
+    private volatile boolean closed;
+    // true desde el primer newCursors: recien ahi alguien lee el log
+    private volatile boolean readersStarted;
+
+    // estadisticas de contencion
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong contendedWrites = new AtomicLong();
+    private final AtomicLong arbitrationWaitNanos = new AtomicLong();
+    private final AtomicLong gatingWaits = new AtomicLong();
+
+    /**
+     * Cursor de lectura propio de cada nodo conectado al bus.
+     */
+    public static class Cursor {
+        private volatile long next;
+
+        private Cursor(long start) {
+            this.next = start;
+        }
+
+        public long getNext() { return next; }
+    }
+
+    /**
+     * Crea un bus con la capacidad y tiempo de arbitraje dados.
+     *
+     * @param capacity          numero de ranuras del log; debe ser potencia de 2
+     * @param arbitrationNanos  tiempo que un emisor ocupa el bus por escritura
+     * @throws IllegalArgumentException si capacity no es potencia de 2 o arbitrationNanos < 0
+     */
+    public SharedBus(int capacity, long arbitrationNanos) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("SharedBus requiere capacidad potencia de 2");
+        }
+        if (arbitrationNanos < 0) {
+            throw new IllegalArgumentException("SharedBus requiere tiempo de arbitraje >= 0");
+        }
+        this.slots = new Message[capacity];
+        this.mask = capacity - 1;
+        this.arbitrationNanos = arbitrationNanos;
+    }
+
+    /**
+     * Registra count lectores que empiezan a leer desde la secuencia 0, asi no
+     * pierden lo escrito antes de que arranquen. Se registran juntos con el
+     * arbitro tomado: ninguna escritura queda entre dos de ellos.
+     *
+     * @param count cantidad de lectores
+     * @return cursores de los lectores, en orden
+     * @throws IllegalStateException si el bus esta cerrado o el log ya dio la
+     *         vuelta (lo mas viejo se sobreescribio)
+     */
+    public List<Cursor> newCursors(int count) {
+        arbiter.lock();
+        try {
+            if (closing) {
+                throw new IllegalStateException("SharedBus cerrado");
+            }
+            if (published.get() > slots.length) {
+                throw new IllegalStateException("SharedBus: el log ya dio la vuelta, no se puede leer desde 0");
+            }
+            List<Cursor> created = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                created.add(new Cursor(0));
+            }
+            cursors.addAll(created);
+            readersStarted = true;
+            return created;
+        } finally {
+            arbiter.unlock();
+        }
+    }
+
+    /**
+     * Quita el cursor de un lector que ya no lee: deja de frenar al emisor.
+     */
+    public void removeCursor(Cursor cursor) {
+        cursors.remove(cursor);
+    }
+
+    /**
+     * Cierra el bus: quita todos los cursores y las escrituras siguientes
+     * fallan, incluso las que esperaban a un lector atrasado. Los lectores
+     * pueden seguir leyendo lo ya publicado.
+     */
+    public void close() {
+        closing = true;
+        // un emisor esperando lectores ve closing y suelta el arbitro
+        arbiter.lock();
+        try {
+            cursors.clear();
+            closed = true;
+        } finally {
+            arbiter.unlock();
+        }
+    }
+
+    /**
+     * Indica si el bus termino de cerrarse: lo publicado ya no crece, asi un
+     * lector al dia no se pierde nada.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Escribe un mensaje en el bus. El emisor compite por el arbitro; si el bus
+     * esta ocupado se cuenta como escritura con contencion. Si el lector mas lento
+     * va una vuelta completa atrasado, el emisor espera (gating) para no sobreescribir.
+     *
+     * @param msg mensaje a publicar
+     * @throws IllegalStateException si el bus esta cerrado o esta lleno sin lectores
+     */
+    public void write(Message msg) {
+        long start = System.nanoTime();
+        if (!arbiter.tryLock()) {
+            contendedWrites.incrementAndGet();
+            arbiter.lock();
+        }
+        publish(msg, true, start);
+    }
+
+    /**
+     * Como write, pero sin esperar: si el bus esta ocupado o el log esta
+     * lleno no publica. Es la escritura de un lector, que no puede esperar a
+     * su propio cursor, ni al arbitro que retiene un emisor que espera a ese cursor.
+     *
+     * @param msg mensaje a publicar
+     * @return true si se publico, false si habria que esperar al arbitro o a un lector
+     * @throws IllegalStateException si el bus esta cerrado o esta lleno sin lectores
+     */
+    public boolean tryWrite(Message msg) {
+        if (!arbiter.tryLock()) {
+            if (closing) {
+                throw new IllegalStateException("SharedBus cerrado");
+            }
+            return false;
+        }
+        return publish(msg, false, System.nanoTime());
+    }
+
+    // con el arbitro ya tomado; lo suelta al terminar
+    private boolean publish(Message msg, boolean waitForReaders, long start) {
+        try {
+            arbitrationWaitNanos.addAndGet(System.nanoTime() - start);
+            if (arbitrationNanos > 0) {
+                // el bus queda ocupado durante la arbitracion/transmision
+                LockSupport.parkNanos(arbitrationNanos);
+            }
+            long seq = published.get();
+            if (!readersStarted && seq >= slots.length) {
+                throw new IllegalStateException("SharedBus lleno: " + slots.length
+                        + " mensajes escritos y todavia sin lectores");
+            }
+            while (seq - minCursor() >= slots.length) {
+                if (closing) {
+                    throw new IllegalStateException("SharedBus cerrado");
+                }
+                if (!waitForReaders) {
+                    return false;
+                }
+                gatingWaits.incrementAndGet();
+                LockSupport.parkNanos(1_000);
+            }
+            if (closing) {
+                throw new IllegalStateException("SharedBus cerrado");
+            }
+            slots[(int) (seq & mask)] = msg;
+            published.set(seq + 1);
+            writes.incrementAndGet();
+            return true;
+        } finally {
+            arbiter.unlock();
+        }
+    }
+
+    /**
+     * Lee el siguiente mensaje disponible para el cursor, o null si no hay nuevos.
+     * Solo el dueno del cursor debe llamarlo.
+     *
+     * @param cursor cursor del lector
+     * @return mensaje siguiente o null
+     */
+    public Message poll(Cursor cursor) {
+        long next = cursor.next;
+        if (next >= published.get()) {
+            return null;
+        }
+        Message msg = slots[(int) (next & mask)];
+        cursor.next = next + 1;
+        return msg;
+    }
+
+    /**
+     * Indica si el cursor ya leyo todo lo publicado.
+     */
+    public boolean isCaughtUp(Cursor cursor) {
+        return cursor.next >= published.get();
+    }
+
+    private long minCursor() {
+        long min = Long.MAX_VALUE;
+        for (Cursor cursor : cursors) {
+            min = Math.min(min, cursor.next);
+        }
+        return min == Long.MAX_VALUE ? published.get() : min;
+    }
+
+    // Getters de estadisticas
+    public long getWrites() { return writes.get(); }
+    public long getContendedWrites() { return contendedWrites.get(); }
+    public long getArbitrationWaitNanos() { return arbitrationWaitNanos.get(); }
+    public long getGatingWaits() { return gatingWaits.get(); }
+}
@@ -0,0 +1,93 @@
+package com.pucmm.network.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola acotada sin locks para un solo productor y un solo consumidor
+ * (buffer circular). Cada lado cachea el indice del otro y solo lo relee
+ * cuando la cola parece llena o vacia.
+ *
+ * @param <E> tipo de elemento
+ */
+public final class SpscQueue<E> {
+    private final Object[] buffer;
+    private final int mask;
+    // siguiente posicion a leer; solo la escribe el consumidor
+    private final AtomicLong head = new AtomicLong();
+    // siguiente posicion a escribir; solo la escribe el productor
+    private final AtomicLong tail = new AtomicLong();
+    // copia de head del productor y de tail del consumidor
+    private long cachedHead;
+    private long cachedTail;
+
+    /**
+     * @param capacity capacidad; se redondea a la potencia de 2 siguiente
+     * @throws IllegalArgumentException si capacity < 1
+     */
+    public SpscQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("SpscQueue requiere capacidad >= 1");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        buffer = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Encola sin bloquear. Solo la llama el productor.
+     *
+     * @return false si la cola esta llena
+     */
+    public boolean offer(E e) {
+        long t = tail.get();
+        if (t - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (t - cachedHead >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) t & mask] = e;
+        // escritura volatil: publica el elemento antes que el nuevo tail
+        tail.set(t + 1);
+        return true;
+    }
+
+    /**
+     * Desencola sin bloquear. Solo la llama el consumidor.
+     *
+     * @return el elemento mas antiguo, null si esta vacia
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long h = head.get();
+        if (h >= cachedTail) {
+            cachedTail = tail.get();
+            if (h >= cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) h & mask;
+        E e = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(h + 1);
+        return e;
+    }
+
+    /**
+     * Indica si la cola esta vacia; desde otros hilos es solo una aproximacion.
+     */
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,288 @@
+package com.pucmm.network.core;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Timer wheel jerarquico para entregas diferidas (latencia de enlaces).
+ *
+ * - 4 niveles de 256 ranuras: el nivel L agrupa los timers cuyo vencimiento
+ *   difiere del tick actual a partir del digito L (base 256). Al llegar el tick
+ *   actual a la ranura, los timers bajan (cascada) al nivel inferior.
+ * - schedule() es O(1): encola en una cola MPSC que drena el hilo del wheel.
+ * - Un solo hilo daemon vence todos los timers; si no hay timers pendientes
+ *   se estaciona hasta el proximo schedule.
+ * - Los timers con el mismo vencimiento se ejecutan en orden de schedule.
+ *
+ * Las tareas corren en el hilo del wheel y deben ser cortas (por ejemplo
+ * entregar un mensaje a un inbox).
+ */
+public final class TimerWheel {
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    // tick del wheel compartido: 100us da precision sub-milisegundo sin girar en vacio
+    private static final long SHARED_TICK_NANOS = 100_000;
+    // timers nuevos que se ubican por vuelta antes de volver a avanzar ticks
+    private static final int MAX_DRAIN = 4096;
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Timeout[][] heads = new Timeout[LEVELS][WHEEL_SIZE];
+    private final Timeout[][] tails = new Timeout[LEVELS][WHEEL_SIZE];
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    // tanda sacada de incoming en cada vuelta; solo la usa el hilo del wheel
+    private final Timeout[] batch = new Timeout[MAX_DRAIN];
+    private final AtomicLong pending = new AtomicLong();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+    // estado del hilo del wheel
+    private long currentTick;
+    private long inWheel;
+
+    /**
+     * Crea un wheel con su propio hilo.
+     *
+     * @param tick resolucion del wheel
+     * @param unit unidad de tick
+     * @param name nombre del hilo
+     * @throws IllegalArgumentException si el tick es menor a 1ns
+     */
+    public TimerWheel(long tick, TimeUnit unit, String name) {
+        tickNanos = unit.toNanos(tick);
+        if (tickNanos < 1) {
+            throw new IllegalArgumentException("TimerWheel requiere tick >= 1ns");
+        }
+        startNanos = System.nanoTime();
+        worker = new Thread(this::runLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Wheel compartido por todas las topologias, con ticks de 100us.
+     *
+     * @return instancia unica, creada al primer uso
+     */
+    public static TimerWheel shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Programa una tarea para ejecutarse despues de delay. La tarea nunca se
+     * ejecuta antes de tiempo; puede atrasarse hasta un tick.
+     *
+     * @param task tarea a ejecutar en el hilo del wheel
+     * @param delay espera; negativa cuenta como 0
+     * @param unit unidad de delay
+     * @return handle para cancelar
+     * @throws RejectedExecutionException si el wheel fue detenido
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new RejectedExecutionException("TimerWheel detenido");
+        }
+        long due = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(task, (due + tickNanos - 1) / tickNanos);
+        pending.incrementAndGet();
+        incoming.offer(timeout);
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /**
+     * Detiene el hilo del wheel; los timers pendientes no se ejecutan.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    private void runLoop() {
+        while (running) {
+            long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+            // drenado acotado para no atrasar los ticks con productores constantes
+            int drained = 0;
+            Timeout timeout;
+            while (drained < MAX_DRAIN && (timeout = incoming.poll()) != null) {
+                batch[drained++] = timeout;
+            }
+            if (inWheel == 0) {
+                // nada que vencer: saltar los ticks en vacio, sin pasar el primer vencimiento nuevo
+                long target = nowTick;
+                for (int i = 0; i < drained; i++) {
+                    target = Math.min(target, batch[i].deadlineTick - 1);
+                }
+                currentTick = Math.max(currentTick, target);
+            }
+            // se ubican antes de avanzar: un timer que espero en incoming no
+            // debe vencer despues de otro posterior que ya estaba en el wheel
+            for (int i = 0; i < drained; i++) {
+                place(batch[i]);
+                batch[i] = null;
+            }
+            while (currentTick < nowTick) {
+                currentTick++;
+                advance();
+            }
+            if (!incoming.isEmpty()) {
+                continue;
+            }
+            if (inWheel == 0) {
+                idle = true;
+                if (incoming.isEmpty() && running) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+            } else {
+                long nextTickAt = startNanos + (currentTick + 1) * tickNanos;
+                LockSupport.parkNanos(this, nextTickAt - System.nanoTime());
+            }
+        }
+    }
+
+    // cascada de los niveles cuyo digito acaba de girar (mayor primero) y vencimiento del nivel 0
+    private void advance() {
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            int shift = WHEEL_BITS * level;
+            if ((currentTick & ((1L << shift) - 1)) == 0) {
+                Timeout timeout = detach(level, (int) (currentTick >>> shift) & WHEEL_MASK);
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    inWheel--;
+                    place(timeout);
+                    timeout = next;
+                }
+            }
+        }
+        Timeout timeout = detach(0, (int) currentTick & WHEEL_MASK);
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.next = null;
+            inWheel--;
+            fire(timeout);
+            timeout = next;
+        }
+    }
+
+    private void place(Timeout timeout) {
+        long deadline = timeout.deadlineTick;
+        if (deadline <= currentTick) {
+            fire(timeout);
+            return;
+        }
+        if (timeout.state != Timeout.PENDING) {
+            return;
+        }
+        // nivel = digito (base 256) mas alto en que difieren vencimiento y tick actual
+        int level = (63 - Long.numberOfLeadingZeros(deadline ^ currentTick)) / WHEEL_BITS;
+        int slot;
+        if (level < LEVELS - 1) {
+            slot = (int) (deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK;
+        } else {
+            level = LEVELS - 1;
+            int shift = WHEEL_BITS * level;
+            long distance = (deadline >>> shift) - (currentTick >>> shift);
+            // demasiado lejos: se reubica al girar la ultima ranura del nivel superior
+            long digit = distance < WHEEL_SIZE ? deadline >>> shift : (currentTick >>> shift) + WHEEL_MASK;
+            slot = (int) digit & WHEEL_MASK;
+        }
+        if (tails[level][slot] == null) {
+            heads[level][slot] = timeout;
+        } else {
+            tails[level][slot].next = timeout;
+        }
+        tails[level][slot] = timeout;
+        inWheel++;
+    }
+
+    private Timeout detach(int level, int slot) {
+        Timeout head = heads[level][slot];
+        heads[level][slot] = null;
+        tails[level][slot] = null;
+        return head;
+    }
+
+    private void fire(Timeout timeout) {
+        if (!Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+            return;
+        }
+        pending.decrementAndGet();
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            System.err.printf("[%s] TimerWheel: tarea fallo: %s%n", worker.getName(), e);
+        }
+    }
+
+    /**
+     * Timers programados que aun no vencen ni se cancelaron.
+     */
+    public long getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Resolucion del wheel en nanosegundos.
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Handle de un timer programado.
+     */
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final Runnable task;
+        private final long deadlineTick;
+        private volatile int state;
+        // siguiente en la ranura; solo lo toca el hilo del wheel
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancela el timer si aun no vencio.
+         *
+         * @return true si se cancelo; false si ya vencio o ya estaba cancelado
+         */
+        public boolean cancel() {
+            if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                pending.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+    }
+
+    private static final class Holder {
+        private static final TimerWheel SHARED =
+                new TimerWheel(SHARED_TICK_NANOS, TimeUnit.NANOSECONDS, "timer-wheel");
+    }
+}
@@ -0,0 +1,310 @@
+package com.pucmm.network.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Traza binaria de los eventos de la red en archivos mapeados a memoria.
+ *
+ * Cada evento es un registro fijo de 32 bytes (little endian):
+ * - 0  long  instante en el reloj de la traza (ver setClock)
+ * - 8  long  id del mensaje (Message.getId)
+ * - 16 int   from: nodo origen del mensaje, o de salida del enlace en HOP/LOST
+ * - 20 int   to: nodo destino del mensaje, o de llegada del enlace en HOP/LOST
+ * - 24 short tipo (SEND, HOP, LOST, DELIVER, DROP; 0 = ranura vacia)
+ * - 26 short hop: indice del enlace en el camino (0 = primero); en DELIVER, hops recorridos
+ * - 28 int   en HOP, nanos en cola y transmision del enlace (saturado a int)
+ *
+ * La traza se escribe en segmentos trace-NNNNN.bin de tamano fijo; al llenarse
+ * uno se pasa al siguiente y se borran los mas viejos (quedan maxSegments).
+ * Cada segmento empieza con una cabecera del mismo tamano que un registro.
+ * El primero se crea y se toca pagina por pagina en el constructor, y cada
+ * siguiente en un hilo aparte cuando el actual va por la mitad: escribir en
+ * paginas nuevas de un archivo mapeado cuesta un fallo de pagina cada 128
+ * registros, mas que los registros mismos.
+ *
+ * Cada hilo escribe en su propio bloque de CHUNK_RECORDS registros dentro del
+ * segmento: el registro en si es un par de puts sin locks ni atomicos; solo al
+ * agotar el bloque se reserva otro con un getAndIncrement, y la rotacion de
+ * segmento (una vez por segmento) toma el monitor del recorder. Las ranuras
+ * que un hilo no llego a usar quedan en cero y el analizador las salta.
+ */
+public final class TraceRecorder implements Closeable {
+    public static final int RECORD_BYTES = 32;
+    public static final int MAGIC = 0x4E545243;
+    public static final short VERSION = 1;
+
+    /** Mensaje creado por la topologia (from, to del mensaje). */
+    public static final int SEND = 1;
+    /** Hop puesto en un enlace (from, to del enlace). */
+    public static final int HOP = 2;
+    /** Hop perdido por el enlace (from, to del enlace). */
+    public static final int LOST = 3;
+    /** Mensaje procesado por su destino (from, to del mensaje). */
+    public static final int DELIVER = 4;
+    /** Mensaje descartado en un inbox (from = nodo que descarta, to = destino). */
+    public static final int DROP = 5;
+
+    private static final int CHUNK_RECORDS = 4096;
+    private static final int CHUNK_BYTES = CHUNK_RECORDS * RECORD_BYTES;
+    private static final int PAGE_BYTES = 4096;
+
+    private final Path directory;
+    private final int chunksPerSegment;
+    private final int maxSegments;
+    private final ThreadLocal<Chunk> chunks = ThreadLocal.withInitial(Chunk::new);
+    // segmentos vivos, del mas viejo al actual (solo bajo el monitor)
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private volatile Segment current;
+    // siguiente segmento, preparado en otro hilo (bajo el monitor)
+    private CompletableFuture<Segment> next;
+    // null = System.nanoTime (ver stamp)
+    private volatile LongSupplier clock;
+    private volatile boolean closed;
+
+    /**
+     * Segmento mapeado; los bloques se reparten con nextChunk.
+     */
+    private static final class Segment {
+        final int index;
+        final Path path;
+        final MappedByteBuffer buffer;
+        final AtomicInteger nextChunk = new AtomicInteger();
+
+        Segment(int index, Path path, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Bloque del hilo actual: [position, limit) dentro del segmento.
+     */
+    private static final class Chunk {
+        MappedByteBuffer buffer;
+        int position;
+        int limit;
+    }
+
+    /**
+     * Crea el directorio si hace falta, borra trazas anteriores y abre el
+     * primer segmento.
+     *
+     * @param directory directorio de los segmentos
+     * @param segmentBytes tamano de cada segmento (se redondea a bloques de 128KB)
+     * @param maxSegments segmentos que se conservan al rotar
+     * @throws IllegalArgumentException si segmentBytes < 1 o maxSegments < 1
+     * @throws IOException si no se puede crear el directorio o el segmento
+     */
+    public TraceRecorder(Path directory, long segmentBytes, int maxSegments) throws IOException {
+        if (segmentBytes < 1 || maxSegments < 1) {
+            throw new IllegalArgumentException("TraceRecorder requiere segmento >= 1 byte y al menos 1 segmento");
+        }
+        long chunksPerSegment = (segmentBytes + CHUNK_BYTES - 1) / CHUNK_BYTES;
+        if (RECORD_BYTES + chunksPerSegment * CHUNK_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("TraceRecorder admite segmentos de hasta 2GB");
+        }
+        this.directory = directory;
+        this.chunksPerSegment = (int) chunksPerSegment;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> old = Files.newDirectoryStream(directory, "trace-*.bin")) {
+            for (Path path : old) {
+                Files.delete(path);
+            }
+        }
+        Segment first = mapSegment(0);
+        synchronized (this) {
+            segments.addLast(first);
+            current = first;
+        }
+    }
+
+    /**
+     * Reloj con que se estampan los registros; la topologia pone el de su
+     * transporte si es virtual. null (por defecto) es System.nanoTime.
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Instante actual en el reloj de la traza.
+     */
+    public long now() {
+        LongSupplier c = clock;
+        return c == null ? System.nanoTime() : c.getAsLong();
+    }
+
+    /**
+     * Instante para un evento que el llamador ya midio con System.nanoTime:
+     * esa misma medida si la traza usa el tiempo real, si no el reloj de la
+     * traza. Leer el reloj cuesta mas que escribir el registro.
+     *
+     * @param systemNanos System.nanoTime del evento
+     */
+    public long stamp(long systemNanos) {
+        LongSupplier c = clock;
+        return c == null ? systemNanos : c.getAsLong();
+    }
+
+    /**
+     * Registra un evento en el instante actual del reloj de la traza.
+     */
+    public void record(int type, long id, int from, int to, int hop, long spanNanos) {
+        recordAt(now(), type, id, from, to, hop, spanNanos);
+    }
+
+    /**
+     * Registra un evento con un instante ya medido en el reloj de la traza.
+     * Tras close() los eventos se ignoran.
+     */
+    public void recordAt(long timestamp, int type, long id, int from, int to, int hop, long spanNanos) {
+        if (closed) {
+            return;
+        }
+        Chunk chunk = chunks.get();
+        if (chunk.position == chunk.limit && !claim(chunk)) {
+            return;
+        }
+        MappedByteBuffer buffer = chunk.buffer;
+        int p = chunk.position;
+        buffer.putLong(p, timestamp);
+        buffer.putLong(p + 8, id);
+        buffer.putInt(p + 16, from);
+        buffer.putInt(p + 20, to);
+        buffer.putShort(p + 24, (short) type);
+        buffer.putShort(p + 26, (short) Math.min(hop, Short.MAX_VALUE));
+        buffer.putInt(p + 28, (int) Math.min(Math.max(spanNanos, 0), Integer.MAX_VALUE));
+        chunk.position = p + RECORD_BYTES;
+    }
+
+    // reserva un bloque nuevo para el hilo; false si la traza esta cerrada
+    private boolean claim(Chunk chunk) {
+        while (!closed) {
+            Segment segment = current;
+            int index = segment.nextChunk.getAndIncrement();
+            if (index < chunksPerSegment) {
+                if (index == chunksPerSegment / 2) {
+                    prepare(segment.index + 1);
+                }
+                chunk.buffer = segment.buffer;
+                chunk.position = RECORD_BYTES + index * CHUNK_BYTES;
+                chunk.limit = chunk.position + CHUNK_BYTES;
+                return true;
+            }
+            rotate(segment);
+        }
+        return false;
+    }
+
+    // arranca la preparacion del segmento index en un hilo aparte, una sola vez
+    private synchronized void prepare(int index) {
+        if (closed || next != null) {
+            return;
+        }
+        CompletableFuture<Segment> future = new CompletableFuture<>();
+        next = future;
+        Thread preparer = new Thread(() -> {
+            try {
+                future.complete(mapSegment(index));
+            } catch (IOException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, "trace-segment-" + index);
+        preparer.setDaemon(true);
+        preparer.start();
+    }
+
+    private synchronized void rotate(Segment full) {
+        if (closed || current != full) {
+            return;
+        }
+        prepare(full.index + 1);
+        try {
+            Segment segment = next.join();
+            next = null;
+            segments.addLast(segment);
+            current = segment;
+            while (segments.size() > maxSegments) {
+                Files.deleteIfExists(segments.pollFirst().path);
+            }
+        } catch (CompletionException | IOException e) {
+            next = null;
+            NetworkLog.printf("TraceRecorder: no se pudo rotar en %s, se detiene la traza: %s%n", directory, e);
+            closed = true;
+        }
+    }
+
+    /**
+     * Crea y mapea un segmento con su cabecera y escribe cada pagina, asi
+     * los fallos de pagina del archivo nuevo no los paga el hilo que registra.
+     */
+    private Segment mapSegment(int index) throws IOException {
+        Path path = directory.resolve(String.format("trace-%05d.bin", index));
+        long size = RECORD_BYTES + (long) chunksPerSegment * CHUNK_BYTES;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int p = PAGE_BYTES; p < size; p += PAGE_BYTES) {
+            buffer.put(p, (byte) 0);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putShort(6, (short) RECORD_BYTES);
+        buffer.putInt(8, index);
+        buffer.putInt(12, CHUNK_RECORDS);
+        return new Segment(index, path, buffer);
+    }
+
+    /**
+     * Directorio de los segmentos.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Segmentos escritos desde que se creo, incluidos los ya rotados.
+     */
+    public int getSegmentCount() {
+        return current.index + 1;
+    }
+
+    /**
+     * Deja de registrar y baja a disco los segmentos vivos. Llamarla con la
+     * simulacion detenida, para no cortar registros a medio escribir.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        if (next != null) {
+            // segmento preparado que no llego a usarse
+            try {
+                Files.deleteIfExists(next.join().path);
+            } catch (CompletionException | IOException e) {
+                NetworkLog.printf("TraceRecorder: no se pudo borrar el segmento sin usar: %s%n", e);
+            }
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.pucmm.network.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Capa de transporte de una topologia: decide que hilo ejecuta los nodos,
+ * como llega un mensaje al inbox del siguiente hop y en que reloj corren las
+ * demoras de los enlaces. La topologia solo decide la ruta (ver
+ * topologia.RoutedTopology); cambiar de transporte no cambia la topologia.
+ *
+ * Ciclo de vida con la forma de un ExecutorService: start(nodes) en
+ * runNetwork, deliver durante la simulacion y shutdown() + awaitTermination()
+ * al detener, despues de marcar los nodos con stop().
+ *
+ * Implementaciones: InThreadTransport, ExecutorTransport, VirtualTimeTransport
+ * y ShardedExecutor (ver TransportKind).
+ */
+public interface Transport {
+
+    /**
+     * Arranca la ejecucion de los nodos.
+     *
+     * @param nodes nodos de la topologia
+     * @throws IllegalStateException si ya se arranco
+     */
+    void start(List<Node> nodes);
+
+    /**
+     * Suma un nodo creado despues de start (ver AbstractTopology.addNodes).
+     * Antes de start no hace nada: start recibe la lista completa. Por
+     * defecto tampoco: los transportes que no asignan hilos a los nodos lo
+     * conocen en el primer deliver.
+     *
+     * @param node nodo nuevo, ya agregado a la topologia
+     * @throws IllegalStateException si el transporte no admite nodos nuevos
+     */
+    default void addNode(Node node) {
+    }
+
+    /**
+     * Pone el mensaje en el inbox de target (siguiente hop o destino final).
+     *
+     * @param target nodo que recibe el mensaje
+     * @param msg    mensaje
+     */
+    void deliver(Node target, Message msg);
+
+    /**
+     * Marca el transporte para detenerse; awaitTermination espera a que se
+     * drene lo pendiente.
+     */
+    void shutdown();
+
+    /**
+     * Termina sin esperar a que se drenen los mensajes.
+     */
+    void shutdownNow();
+
+    /**
+     * Despues de shutdown(), espera a que se procese lo pendiente.
+     *
+     * @param timeout tiempo maximo de espera
+     * @param unit    unidad del timeout
+     * @return true si termino, false si vencio el timeout
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+    /**
+     * Reloj del transporte; por defecto el tiempo real (System.nanoTime).
+     *
+     * @return instante actual en nanosegundos
+     */
+    default long nanoTime() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Indica si nanoTime es un reloj propio (virtual) y no System.nanoTime;
+     * quien ya midio System.nanoTime puede reusar esa medida solo si es false.
+     */
+    default boolean isVirtualClock() {
+        return false;
+    }
+
+    /**
+     * Ejecuta task despues de delay en el reloj del transporte; por defecto
+     * en el TimerWheel compartido.
+     *
+     * @param task  tarea a ejecutar
+     * @param delay demora
+     * @param unit  unidad de la demora
+     * @throws java.util.concurrent.RejectedExecutionException si el
+     *         transporte ya no acepta tareas
+     */
+    default void schedule(Runnable task, long delay, TimeUnit unit) {
+        TimerWheel.shared().schedule(task, delay, unit);
+    }
+
+    /**
+     * Ejecuta task en el contexto del transporte: los envios de la
+     * aplicacion entran por aca para que los transportes de un solo hilo
+     * toquen enlaces y reloj solo desde su hilo. Por defecto corre en el
+     * hilo llamador.
+     *
+     * @param task tarea a ejecutar
+     */
+    default void execute(Runnable task) {
+        task.run();
+    }
+
+    /**
+     * Entregas o eventos encolados en el transporte, fuera de los inboxes.
+     * Lo leen las metricas desde otro hilo: puede ser aproximado. Por
+     * defecto 0 (el transporte no encola).
+     */
+    default long getQueuedTasks() {
+        return 0;
+    }
+
+    /**
+     * Hilos del transporte con trabajo en este momento (ni ociosos ni
+     * dormidos). Por defecto 0 (no tiene hilos propios).
+     */
+    default int getActiveThreads() {
+        return 0;
+    }
+}
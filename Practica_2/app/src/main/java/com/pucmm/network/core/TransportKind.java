@@ -0,0 +1,36 @@
+package com.pucmm.network.core;
+
+/**
+ * Transportes disponibles para una topologia (ver AbstractTopology.setTransport).
+ */
+public enum TransportKind {
+    /** El hilo que entrega (main o TimerWheel) procesa los mensajes; sin hilos propios. */
+    IN_THREAD,
+    /** Un hilo por nodo bloqueado en su inbox (modelo original). */
+    EXECUTOR,
+    /** Simulacion de eventos discretos en un solo hilo con reloj virtual. */
+    VIRTUAL_TIME,
+    /** Un event loop por core, nodos repartidos por id % shards (por defecto). */
+    SHARDED;
+
+    /**
+     * Crea el transporte para una topologia.
+     *
+     * @param numNodes nodos de la topologia
+     * @param name     prefijo de los hilos
+     * @return transporte nuevo, sin arrancar
+     */
+    public Transport create(int numNodes, String name) {
+        switch (this) {
+            case IN_THREAD:
+                return new InThreadTransport();
+            case EXECUTOR:
+                return new ExecutorTransport(name);
+            case VIRTUAL_TIME:
+                return new VirtualTimeTransport(name);
+            case SHARDED:
+            default:
+                return new ShardedExecutor(ShardedExecutor.shardsFor(numNodes), name);
+        }
+    }
+}
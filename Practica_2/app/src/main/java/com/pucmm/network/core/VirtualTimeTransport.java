@@ -0,0 +1,233 @@
+package com.pucmm.network.core;
+
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulacion de eventos discretos: un solo hilo saca eventos de una cola de
+ * prioridad ordenada por (tiempo virtual, orden de llegada) y avanza el reloj
+ * virtual de evento en evento, sin esperar las demoras en tiempo real. Una
+ * latencia de enlace de 100 ms cuesta lo mismo que una de 0.
+ *
+ * - deliver agenda un evento en el instante actual que pone el mensaje en el
+ *   inbox y drena el nodo; el nodo procesa y reenvia dentro del evento.
+ * - schedule (LinkScheduler) agenda en tiempo virtual actual + demora.
+ * - Los eventos que llegan desde otros hilos (main) pasan por una cola MPSC y
+ *   entran al heap en el instante virtual en que el loop los toma.
+ *
+ * Los hops de RoutedTopology se miden en el reloj virtual; la espera en cola
+ * y la latencia extremo a extremo de Node siguen en tiempo real.
+ */
+public class VirtualTimeTransport implements Transport {
+    private static final long PARK_NANOS = 200_000;
+
+    private final String name;
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final ConcurrentLinkedQueue<Event> submitted = new ConcurrentLinkedQueue<>();
+    private volatile long now;
+    private long sequence;
+    private volatile long processed;
+    private volatile Thread thread;
+    private volatile boolean sleeping;
+    private volatile boolean stopping;
+    private volatile boolean terminated;
+
+    /**
+     * Tarea agendada; delay es relativo al instante en que el loop la toma.
+     */
+    private static final class Event implements Comparable<Event> {
+        final Runnable task;
+        final long delay;
+        long time;
+        long seq;
+
+        Event(Runnable task, long delay) {
+            this.task = task;
+            this.delay = delay;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(seq, other.seq);
+        }
+    }
+
+    /**
+     * @param name nombre del hilo de simulacion
+     */
+    public VirtualTimeTransport(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Arranca el hilo de simulacion; los eventos agendados antes se procesan al iniciar.
+     *
+     * @throws IllegalStateException si ya se arranco
+     */
+    @Override
+    public void start(List<Node> nodes) {
+        if (thread != null) {
+            throw new IllegalStateException("VirtualTimeTransport ya esta corriendo.");
+        }
+        Thread loop = new Thread(this::loop, name + "-des");
+        thread = loop;
+        loop.start();
+    }
+
+    @Override
+    public void deliver(Node target, Message msg) {
+        submit(new Event(() -> {
+            // un solo hilo procesa todo: el inbox se vacia en cada evento y nunca se llena
+            while (!target.offerMessage(msg)) {
+                target.drain(Integer.MAX_VALUE);
+            }
+            target.drain(Integer.MAX_VALUE);
+        }, 0));
+    }
+
+    /**
+     * Instante actual del reloj virtual.
+     */
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public boolean isVirtualClock() {
+        return true;
+    }
+
+    /**
+     * Eventos agendados (lectura sin sincronizar: aproximada).
+     */
+    @Override
+    public long getQueuedTasks() {
+        return events.size();
+    }
+
+    /**
+     * 1 mientras el hilo de simulacion procesa eventos, 0 si duerme o termino.
+     */
+    @Override
+    public int getActiveThreads() {
+        return thread != null && !sleeping && !terminated ? 1 : 0;
+    }
+
+    /**
+     * Agenda task en tiempo virtual actual + delay.
+     *
+     * @throws RejectedExecutionException si la simulacion termino
+     */
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (terminated) {
+            throw new RejectedExecutionException("VirtualTimeTransport detenido");
+        }
+        submit(new Event(task, unit.toNanos(delay)));
+    }
+
+    /**
+     * Desde el hilo de simulacion corre ya; desde otro hilo entra como un
+     * evento en el instante virtual en que el loop lo toma.
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (Thread.currentThread() == thread) {
+            task.run();
+        } else {
+            submit(new Event(task, 0));
+        }
+    }
+
+    private void submit(Event event) {
+        if (Thread.currentThread() == thread) {
+            enqueue(event);
+            return;
+        }
+        submitted.add(event);
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    // solo desde el hilo de simulacion
+    private void enqueue(Event event) {
+        event.time = now + Math.max(0, event.delay);
+        event.seq = sequence++;
+        events.add(event);
+    }
+
+    private void loop() {
+        while (!terminated) {
+            Event event;
+            while ((event = submitted.poll()) != null) {
+                enqueue(event);
+            }
+            event = events.poll();
+            if (event == null) {
+                if (stopping && submitted.isEmpty()) {
+                    break;
+                }
+                sleeping = true;
+                if (submitted.isEmpty()) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                sleeping = false;
+                continue;
+            }
+            now = event.time;
+            try {
+                event.task.run();
+            } catch (RuntimeException e) {
+                NetworkLog.printf("%s: evento fallido en t=%d ns: %s%n", name, now, e);
+            }
+            processed++;
+        }
+        terminated = true;
+    }
+
+    /**
+     * Marca la simulacion para detenerse cuando no queden eventos.
+     */
+    @Override
+    public void shutdown() {
+        stopping = true;
+        Thread loop = thread;
+        if (loop != null) {
+            LockSupport.unpark(loop);
+        }
+    }
+
+    @Override
+    public void shutdownNow() {
+        stopping = true;
+        terminated = true;
+        Thread loop = thread;
+        if (loop != null) {
+            LockSupport.unpark(loop);
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        Thread loop = thread;
+        if (loop == null) {
+            return true;
+        }
+        loop.join(Math.max(1, unit.toMillis(timeout)));
+        return !loop.isAlive();
+    }
+
+    /**
+     * Eventos procesados hasta ahora.
+     */
+    public long getProcessedEvents() {
+        return processed;
+    }
+}
@@ -0,0 +1,114 @@
+package com.pucmm.network.load;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.pucmm.network.cluster.PartitionedTransport;
+import com.pucmm.network.cluster.ProcessCluster;
+import com.pucmm.network.cluster.SharedMemoryTransport;
+import com.pucmm.network.cluster.SocketTransport;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.manager.NetworkManager;
+import com.pucmm.network.topologia.AbstractTopology;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+
+/**
+ * Misma carga sobre Ring y Hypercube en un solo proceso (ShardedExecutor)
+ * y repartidos entre varias JVMs con ProcessCluster, por sockets y por
+ * memoria compartida:
+ * - rafaga: msgs/s hasta la quiescencia, hops que cruzaron de proceso desde
+ *   el coordinador y, con sockets, tramas por write (tamano medio de lote)
+ * - ping-pong: de a un mensaje entre los dos nodos vecinos de cada lado del
+ *   borde de la particion 0; la ida y la vuelta del DONE cruzan dos veces,
+ *   se reporta la mediana de medio ciclo
+ *
+ * Los enlaces van sin latencia para que se vea el costo del transporte.
+ * Los workers arrancan en frio en cada corrida (JVM nueva, sin JIT).
+ *
+ * Uso: ClusterBenchmark [nodos] [mensajes] [particiones] [pingPongs] [puertoBase]
+ */
+public class ClusterBenchmark {
+    private static final long TIMEOUT_SECONDS = 120;
+
+    public static void main(String[] args) throws Exception {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int partitions = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int pingPongs = args.length > 3 ? Integer.parseInt(args[3]) : 2_000;
+        int basePort = args.length > 4 ? Integer.parseInt(args[4]) : 47_100;
+
+        NetworkLog.setEnabled(false);
+        System.out.printf("=== ClusterBenchmark n=%d mensajes=%d particiones=%d ping-pong=%d ===%n",
+                numNodes, messages, partitions, pingPongs);
+        System.out.printf("%-18s %-16s %12s %12s %14s %16s%n", "topologia", "medio", "msgs/s", "hops remotos",
+                "tramas/write", "medio ciclo us");
+        for (int round = 0; round < 2; round++) {
+            // la primera ronda calienta el coordinador
+            boolean print = round == 1;
+            for (int kind = 0; kind < 2; kind++) {
+                run(kind == 0 ? new RingNetwork() : new HypercubeNetwork(), numNodes, messages, pingPongs, null,
+                        print);
+                run(kind == 0 ? new RingNetwork() : new HypercubeNetwork(), numNodes, messages, pingPongs,
+                        new ProcessCluster(partitions, basePort), print);
+                run(kind == 0 ? new RingNetwork() : new HypercubeNetwork(), numNodes, messages, pingPongs,
+                        new ProcessCluster(partitions, SharedMemoryTransport.defaultDirectory()), print);
+            }
+        }
+    }
+
+    private static void run(AbstractTopology topology, int numNodes, int messages, int pingPongs,
+                            ProcessCluster cluster, boolean print) throws Exception {
+        NetworkManager manager = new NetworkManager();
+        if (cluster == null) {
+            manager.configureNetwork(topology, numNodes);
+            ((RoutedTopology) topology).setLinkLatency(0, TimeUnit.MILLISECONDS);
+        } else {
+            cluster.setLinkLatency(0, TimeUnit.MILLISECONDS);
+            manager.configureDistributed(topology, numNodes, cluster);
+        }
+        PartitionedTransport transport = cluster == null ? null : cluster.getTransport();
+        manager.runNetwork();
+
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            manager.sendMessage(random.nextInt(numNodes), random.nextInt(numNodes), "m" + i);
+        }
+        boolean done = manager.awaitQuiescence(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long wallNanos = System.nanoTime() - start;
+        long remote = transport == null ? 0 : transport.getRemoteHops();
+        String batch = "-";
+        if (transport instanceof SocketTransport) {
+            SocketTransport sockets = (SocketTransport) transport;
+            batch = String.format("%.1f", (double) sockets.getFramesSent() / Math.max(1, sockets.getWrites()));
+        }
+
+        // ultimo nodo de la particion 0 y su vecino en la siguiente
+        int partitions = cluster == null ? 2 : cluster.getPartitions();
+        int edge = 0;
+        while (PartitionedTransport.partitionOf(edge + 1, numNodes, partitions) == 0) {
+            edge++;
+        }
+        int neighbor = topology instanceof HypercubeNetwork ? edge ^ Integer.highestOneBit(numNodes - 1) : edge + 1;
+        long[] halfTrips = new long[pingPongs];
+        for (int i = 0; i < pingPongs; i++) {
+            long sent = System.nanoTime();
+            manager.sendMessage(edge, neighbor, "p").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            halfTrips[i] = (System.nanoTime() - sent) / 2;
+        }
+        Arrays.sort(halfTrips);
+        manager.shutdown();
+        if (print) {
+            String medium = cluster == null ? "1 proceso"
+                    : cluster.getPartitions() + "x " + (cluster.getMedium() == ProcessCluster.Medium.SOCKETS
+                    ? "sockets" : "shm");
+            System.out.printf("%-18s %-16s %12.0f %12d %14s %16.1f%s%n", topology.getName(), medium,
+                    messages / (wallNanos / 1e9), remote, batch,
+                    pingPongs == 0 ? 0 : halfTrips[pingPongs / 2] / 1e3, done ? "" : "  (sin quiescencia)");
+        }
+    }
+}
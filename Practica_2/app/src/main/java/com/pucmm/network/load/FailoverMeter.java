@@ -0,0 +1,166 @@
+package com.pucmm.network.load;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.pucmm.network.core.Message;
+
+/**
+ * Throughput en ventanas fijas alrededor de un evento (falla, recuperacion,
+ * crecimiento): cuenta entregas y descartes por ventana segun el instante en
+ * que se completa cada future.
+ *
+ * - base: entregas/s promedio de las ventanas completas antes del evento
+ *   (sin la primera, que incluye el arranque)
+ * - caida: 1 - (peor ventana desde el evento / base)
+ * - failover: desde el evento hasta que el throughput vuelve a
+ *   recovery * base por varias ventanas seguidas
+ * - deficit: entregas que faltaron respecto de la base en la ventana observada
+ */
+public class FailoverMeter {
+    private static final int SUSTAIN = 3;
+    private final long bucketNanos;
+    private final int bucketCount;
+    private final AtomicLongArray delivered;
+    private final AtomicLongArray dropped;
+    private final long startNanos = System.nanoTime();
+    private volatile long eventNanos = -1;
+
+    /**
+     * @param bucket ancho de cada ventana
+     * @param span tiempo total cubierto; lo que llegue despues cuenta en la ultima ventana
+     * @param unit unidad de bucket y span
+     * @throws IllegalArgumentException si bucket < 1 o span < bucket
+     */
+    public FailoverMeter(long bucket, long span, TimeUnit unit) {
+        if (bucket < 1 || span < bucket) {
+            throw new IllegalArgumentException("FailoverMeter requiere ventana >= 1 y tiempo total >= ventana");
+        }
+        this.bucketNanos = unit.toNanos(bucket);
+        this.bucketCount = (int) (span / bucket);
+        this.delivered = new AtomicLongArray(bucketCount);
+        this.dropped = new AtomicLongArray(bucketCount);
+    }
+
+    /**
+     * Cuenta el future en la ventana en que se complete.
+     *
+     * @return el mismo future
+     */
+    public CompletableFuture<Message> track(CompletableFuture<Message> delivery) {
+        delivery.whenComplete((m, e) -> (e == null ? delivered : dropped).incrementAndGet(bucket(System.nanoTime())));
+        return delivery;
+    }
+
+    /**
+     * Marca el instante del evento; llamar justo antes de aplicarlo.
+     */
+    public void markEvent() {
+        eventNanos = System.nanoTime();
+    }
+
+    private int bucket(long nanos) {
+        return (int) Math.min(bucketCount - 1, Math.max(0, (nanos - startNanos) / bucketNanos));
+    }
+
+    private double rate(int bucket) {
+        return delivered.get(bucket) * 1e9 / bucketNanos;
+    }
+
+    // ventana que contiene el evento
+    private int eventBucket() {
+        if (eventNanos < 0) {
+            throw new IllegalStateException("FailoverMeter sin evento marcado");
+        }
+        return bucket(eventNanos);
+    }
+
+    /**
+     * Entregas/s promedio antes del evento.
+     *
+     * @throws IllegalStateException si no se marco el evento
+     */
+    public double getBaselineRate() {
+        int event = eventBucket();
+        double sum = 0;
+        int count = 0;
+        for (int b = 1; b < event; b++) {
+            sum += rate(b);
+            count++;
+        }
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * Fraccion de la base que se pierde en la peor ventana entre el evento y
+     * until (0 = sin caida, 1 = ninguna entrega).
+     *
+     * @param until fin de la ventana de observacion, medido desde el evento
+     * @param unit unidad de until
+     */
+    public double getDip(long until, TimeUnit unit) {
+        double base = getBaselineRate();
+        if (base == 0) {
+            return 0;
+        }
+        int event = eventBucket();
+        int last = bucket(eventNanos + unit.toNanos(until)) - 1;
+        double worst = base;
+        for (int b = event; b <= last; b++) {
+            worst = Math.min(worst, rate(b));
+        }
+        return 1 - worst / base;
+    }
+
+    /**
+     * Tiempo desde el evento hasta el comienzo de la primera racha de SUSTAIN
+     * ventanas con al menos recovery * base entregas/s (una sola ventana alta
+     * puede ser el backlog que se vacia); 0 si la racha empieza en la ventana
+     * del evento.
+     *
+     * @param recovery fraccion de la base que cuenta como recuperado (p. ej. 0.8)
+     * @param until fin de la ventana de observacion, medido desde el evento
+     * @param unit unidad de until y del resultado
+     * @return tiempo de failover en unit; until si no se recupero
+     */
+    public long getFailover(double recovery, long until, TimeUnit unit) {
+        double threshold = recovery * getBaselineRate();
+        int event = eventBucket();
+        int last = bucket(eventNanos + unit.toNanos(until)) - 1;
+        int above = 0;
+        for (int b = event; b <= last; b++) {
+            above = rate(b) >= threshold ? above + 1 : 0;
+            if (above == SUSTAIN) {
+                long recoveredAt = startNanos + (b - SUSTAIN + 1) * bucketNanos;
+                return unit.convert(Math.max(0, recoveredAt - eventNanos), TimeUnit.NANOSECONDS);
+            }
+        }
+        return until;
+    }
+
+    /**
+     * Entregas que faltaron respecto de la base entre el evento y until.
+     */
+    public long getDeficit(long until, TimeUnit unit) {
+        double base = getBaselineRate();
+        int event = eventBucket();
+        int last = bucket(eventNanos + unit.toNanos(until)) - 1;
+        double missing = 0;
+        for (int b = event; b <= last; b++) {
+            missing += Math.max(0, base - rate(b)) * bucketNanos / 1e9;
+        }
+        return Math.round(missing);
+    }
+
+    /**
+     * Futures completados con error desde el evento.
+     */
+    public long getDroppedSinceEvent() {
+        long total = 0;
+        for (int b = eventBucket(); b < bucketCount; b++) {
+            total += dropped.get(b);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,185 @@
+package com.pucmm.network.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.InFlightTracker;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Entrega bajo fallas inyectadas antes de la carga: enlaces caidos, un nodo
+ * caido y un nodo lento, con el ruteo tolerante a fallas y sin el (route de
+ * siempre; lo que llega a algo caido se pierde). Misma carga uniforme en cada
+ * corrida (misma semilla, tasa fija) y por topologia:
+ * - entrega: mensajes entregados sobre enviados; "vivos" solo cuenta los
+ *   pares cuyos dos extremos siguen arriba (los demas no tienen arreglo)
+ * - hops: hops recorridos por mensaje enviado (incluye los desvios y lo que
+ *   avanzaron los que se perdieron)
+ * - p50 / p99: latencia extremo a extremo y su inflacion contra la red sana
+ * - reruteados / sin ruta: hops que volvieron de un enlace caido y descartes
+ *
+ * El anillo pierde un solo enlace: con dos queda partido aunque rutee en los
+ * dos sentidos. Degradado, solo los pares cuyo arco hacia adelante cruza la
+ * falla vuelven por el sentido contrario. El arbol tiene un solo camino entre
+ * cada par y no tiene alternativa.
+ *
+ * Uso: FaultBenchmark [nodos] [tasa] [mensajes] [lentoUs] [latenciaEnlaceUs]
+ */
+public class FaultBenchmark {
+    private static final long SEED = 42;
+    private static final long TIMEOUT_SECONDS = 60;
+    // nodo que cae o se pone lento: interior en la malla, de nivel medio en el arbol
+    private static final int VICTIM = 9;
+    // enlaces caidos: (i, edge(i)) para estos i
+    private static final int[] FAILED = {3, 20, 37, 54};
+
+    public static void main(String[] args) {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long rate = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        int messages = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        long slowUs = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+        long latencyUs = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+        if (numNodes <= FAILED[FAILED.length - 1] + 1) {
+            throw new IllegalArgumentException("FaultBenchmark requiere mas de "
+                    + (FAILED[FAILED.length - 1] + 1) + " nodos");
+        }
+
+        NetworkLog.setEnabled(false);
+        Scenario run = new Scenario(numNodes, rate, messages, latencyUs);
+        System.out.printf("=== FaultBenchmark n=%d tasa=%d/s mensajes=%d lento=%dus latencia=%dus ===%n",
+                numNodes, rate, messages, slowUs, latencyUs);
+        // calienta el JIT con la red sana y con el camino de las tablas
+        run.measure(HypercubeNetwork::new, t -> t.crashNode(VICTIM), true);
+        System.out.printf("%-17s %-16s %-10s %8s %8s %6s %8s %8s %6s %6s %10s %8s%n", "topologia", "falla", "ruteo",
+                "entrega", "vivos", "hops", "p50 ms", "p99 ms", "x p50", "x p99", "reruteados", "sin ruta");
+        int dims = Integer.numberOfTrailingZeros(Integer.highestOneBit(numNodes));
+        run.compare(HypercubeNetwork::new, 4, i -> i ^ (1 << (i % dims)), slowUs);
+        run.compare(MeshNetwork::new, 4, i -> i % 8 == 7 ? i - 1 : i + 1, slowUs);
+        run.compare(RingNetwork::new, 1, i -> (i + 1) % numNodes, slowUs);
+        run.compare(TreeNetwork::new, 4, i -> (i - 1) / 2, slowUs);
+    }
+
+    /**
+     * Extremo de un enlace que sale de i en cada topologia.
+     */
+    private interface Edge {
+        int to(int i);
+    }
+
+    private static final class Scenario {
+        final int numNodes;
+        final long rate;
+        final int messages;
+        final long latencyUs;
+
+        Scenario(int numNodes, long rate, int messages, long latencyUs) {
+            this.numNodes = numNodes;
+            this.rate = rate;
+            this.messages = messages;
+            this.latencyUs = latencyUs;
+        }
+
+        void compare(Supplier<RoutedTopology> factory, int links, Edge edge, long slowUs) {
+            Result baseline = measure(factory, t -> { }, true);
+            print("sin fallas", baseline, baseline);
+            String linkLabel = links == 1 ? "cae 1 enlace" : "caen " + links + " enlaces";
+            Consumer<RoutedTopology> failLinks = t -> {
+                for (int i = 0; i < links; i++) {
+                    t.failLink(FAILED[i], edge.to(FAILED[i]));
+                }
+            };
+            for (boolean tolerant : new boolean[] {false, true}) {
+                print(linkLabel, measure(factory, failLinks, tolerant), baseline);
+            }
+            for (boolean tolerant : new boolean[] {false, true}) {
+                print("cae el nodo " + VICTIM, measure(factory, t -> t.crashNode(VICTIM), tolerant), baseline);
+            }
+            print("nodo " + VICTIM + " lento", measure(factory, t -> t.setNodeDelay(VICTIM, slowUs,
+                    TimeUnit.MICROSECONDS), true), baseline);
+            System.out.println();
+        }
+
+        /**
+         * Una corrida: configura, inyecta la falla y envia la carga.
+         */
+        Result measure(Supplier<RoutedTopology> factory, Consumer<RoutedTopology> fault, boolean tolerant) {
+            RoutedTopology topology = factory.get();
+            topology.configureNetwork(numNodes);
+            topology.setLinkLatency(latencyUs, TimeUnit.MICROSECONDS);
+            topology.setFaultTolerantRouting(tolerant);
+            topology.runNetwork();
+            fault.accept(topology);
+
+            SplittableRandom random = new SplittableRandom(SEED);
+            InFlightTracker inFlight = new InFlightTracker();
+            LongAdder delivered = new LongAdder();
+            LongAdder liveDelivered = new LongAdder();
+            int live = 0;
+            long start = System.nanoTime();
+            try {
+                for (int i = 0; i < messages; i++) {
+                    long due = start + i * 1_000_000_000L / rate;
+                    while (System.nanoTime() < due) {
+                        LockSupport.parkNanos(due - System.nanoTime());
+                    }
+                    int from = random.nextInt(numNodes);
+                    int to = random.nextInt(numNodes);
+                    boolean alive = !topology.isNodeCrashed(from) && !topology.isNodeCrashed(to);
+                    live += alive ? 1 : 0;
+                    inFlight.track(topology.sendMessage(from, to, "f" + i)).whenComplete((m, e) -> {
+                        if (e == null) {
+                            delivered.increment();
+                            if (alive) {
+                                liveDelivered.increment();
+                            }
+                        }
+                    });
+                }
+                inFlight.awaitQuiescence(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            topology.shutdown();
+
+            Result result = new Result();
+            result.name = topology.getName();
+            result.tolerant = tolerant;
+            result.rerouted = topology.getReroutedCount();
+            result.unroutable = topology.getUnroutableCount();
+            result.delivered = (double) delivered.sum() / messages;
+            result.liveDelivered = live == 0 ? 0 : (double) liveDelivered.sum() / live;
+            result.hops = (double) topology.getLatencyStats().getHop().getCount() / messages;
+            result.p50 = topology.getLatencyStats().getEndToEnd().getValueAtPercentile(50) / 1e6;
+            result.p99 = topology.getLatencyStats().getEndToEnd().getValueAtPercentile(99) / 1e6;
+            return result;
+        }
+
+        private void print(String label, Result result, Result base) {
+            System.out.printf("%-17s %-16s %-10s %7.1f%% %7.1f%% %6.2f %8.2f %8.2f %6.2f %6.2f %10d %8d%n",
+                    result.name, label, result.tolerant ? "tolerante" : "route", result.delivered * 100,
+                    result.liveDelivered * 100, result.hops, result.p50, result.p99, result.p50 / base.p50,
+                    result.p99 / base.p99, result.rerouted, result.unroutable);
+        }
+    }
+
+    private static final class Result {
+        String name;
+        boolean tolerant;
+        long rerouted;
+        long unroutable;
+        double delivered;
+        double liveDelivered;
+        double hops;
+        double p50;
+        double p99;
+    }
+}
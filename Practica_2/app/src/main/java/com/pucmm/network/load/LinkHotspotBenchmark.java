@@ -0,0 +1,87 @@
+package com.pucmm.network.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.LinkScheduler;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Benchmark de contencion en enlaces: con ancho de banda finito y sin latencia
+ * de propagacion (solo cuentan la cola y la serializacion) sube la tasa
+ * ofrecida (duplicando) hasta saturar cada topologia e imprime los enlaces mas
+ * ocupados en ese punto, por ejemplo los de la raiz en TreeNetwork o los
+ * hoja->central en StarNetwork.
+ *
+ * Uso: LinkHotspotBenchmark [patron] [duracionMs] [anchoDeBandaBps]
+ */
+public class LinkHotspotBenchmark {
+    private static final int NODES = 16;
+    private static final long START_RATE = 1000;
+    private static final long MAX_RATE = 512_000;
+    private static final int TOP_LINKS = 6;
+
+    public static void main(String[] args) {
+        TrafficPattern pattern = args.length > 0 ? TrafficPattern.valueOf(args[0]) : TrafficPattern.UNIFORM;
+        long durationMs = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long bandwidth = args.length > 2 ? Long.parseLong(args[2]) : 1_000_000;
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<NetworkTopology>> topologies = new LinkedHashMap<>();
+        topologies.put("RingNetwork", RingNetwork::new);
+        topologies.put("StarNetwork", StarNetwork::new);
+        topologies.put("MeshNetwork", MeshNetwork::new);
+        topologies.put("HypercubeNetwork", HypercubeNetwork::new);
+        topologies.put("TreeNetwork", TreeNetwork::new);
+
+        System.out.printf("=== LinkHotspotBenchmark patron=%s n=%d ancho de banda=%d bps ===%n",
+                pattern, NODES, bandwidth);
+        for (Map.Entry<String, Supplier<NetworkTopology>> entry : topologies.entrySet()) {
+            LinkScheduler links = null;
+            for (long rate = START_RATE; rate <= MAX_RATE; rate *= 2) {
+                NetworkTopology topology = entry.getValue().get();
+                topology.configureNetwork(NODES);
+                links = configureBandwidth(topology, bandwidth);
+                topology.runNetwork();
+                LoadReport report;
+                try {
+                    report = new LoadGenerator(pattern, rate, durationMs, 42).run(topology);
+                } finally {
+                    topology.shutdown();
+                }
+                System.out.println(report);
+                if (!report.isSustained()) {
+                    break;
+                }
+            }
+            links.printReport(entry.getKey(), TOP_LINKS);
+            System.out.println();
+        }
+    }
+
+    /**
+     * Deja los enlaces de la topologia sin latencia de propagacion y con el
+     * ancho de banda dado.
+     *
+     * @return enlaces de la topologia
+     * @throws IllegalArgumentException si la topologia no tiene modelo de enlaces
+     */
+    static LinkScheduler configureBandwidth(NetworkTopology topology, long bandwidth) {
+        if (!(topology instanceof RoutedTopology)) {
+            throw new IllegalArgumentException("La topologia no tiene modelo de enlaces");
+        }
+        LinkScheduler links = ((RoutedTopology) topology).getLinks();
+        links.setDefaultLatency(0, TimeUnit.MILLISECONDS);
+        links.setDefaultBandwidth(bandwidth);
+        return links;
+    }
+}
@@ -0,0 +1,110 @@
+package com.pucmm.network.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.topologia.BusNetwork;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.SwitchedNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Benchmark de throughput: para cada topologia y cantidad de nodos sube la tasa
+ * ofrecida (duplicando) hasta que la topologia deja de sostenerla, e imprime
+ * la tasa sostenida, percentiles de latencia y el punto de saturacion.
+ *
+ * Uso: LoadBenchmark [patron] [duracionMs] [tasaInicial] [tasaMaxima]
+ */
+public class LoadBenchmark {
+    private static final int[] NODE_COUNTS = {4, 8, 16};
+
+    public static void main(String[] args) {
+        TrafficPattern pattern = args.length > 0 ? TrafficPattern.valueOf(args[0]) : TrafficPattern.UNIFORM;
+        long durationMs = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long startRate = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        long maxRate = args.length > 3 ? Long.parseLong(args[3]) : 1_024_000;
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<NetworkTopology>> topologies = new LinkedHashMap<>();
+        topologies.put("BusNetwork", BusNetwork::new);
+        topologies.put("RingNetwork", RingNetwork::new);
+        topologies.put("MeshNetwork", MeshNetwork::new);
+        topologies.put("StarNetwork", StarNetwork::new);
+        topologies.put("FullyConnectedNetwork", FullyConnectedNetwork::new);
+        topologies.put("HypercubeNetwork", HypercubeNetwork::new);
+        topologies.put("TreeNetwork", TreeNetwork::new);
+        topologies.put("SwitchedNetwork", SwitchedNetwork::new);
+
+        System.out.printf("=== LoadBenchmark patron=%s duracion=%dms ===%n", pattern, durationMs);
+        for (Map.Entry<String, Supplier<NetworkTopology>> entry : topologies.entrySet()) {
+            for (int numNodes : NODE_COUNTS) {
+                LoadReport saturation = sweep(entry.getValue(), numNodes, pattern, durationMs, startRate, maxRate);
+                System.out.printf(">> %s n=%d: saturacion en ~%s msgs/s%n%n", entry.getKey(), numNodes,
+                        saturation == null ? "<" + startRate : String.format("%.0f", saturation.getDeliveredRate()));
+            }
+        }
+    }
+
+    /**
+     * Duplica la tasa ofrecida hasta que la topologia deja de sostenerla.
+     *
+     * @return ultimo reporte sostenido, o null si ni la tasa inicial se sostuvo
+     */
+    public static LoadReport sweep(Supplier<NetworkTopology> factory, int numNodes, TrafficPattern pattern,
+                                   long durationMs, long startRate, long maxRate) {
+        return sweep(factory, topology -> { }, numNodes, pattern, durationMs, startRate, maxRate);
+    }
+
+    /**
+     * Igual que sweep, aplicando setup a cada topologia recien configurada
+     * (por ejemplo para limitar el ancho de banda de sus enlaces).
+     *
+     * @return ultimo reporte sostenido, o null si ni la tasa inicial se sostuvo
+     */
+    public static LoadReport sweep(Supplier<NetworkTopology> factory, Consumer<NetworkTopology> setup,
+                                   int numNodes, TrafficPattern pattern,
+                                   long durationMs, long startRate, long maxRate) {
+        LoadReport lastSustained = null;
+        for (long rate = startRate; rate <= maxRate; rate *= 2) {
+            LoadReport report = runOnce(factory, setup, numNodes, pattern, rate, durationMs);
+            System.out.println(report);
+            if (!report.isSustained()) {
+                break;
+            }
+            lastSustained = report;
+        }
+        return lastSustained;
+    }
+
+    /**
+     * Configura una topologia nueva, aplica la carga y la detiene.
+     */
+    public static LoadReport runOnce(Supplier<NetworkTopology> factory, int numNodes, TrafficPattern pattern,
+                                     long rate, long durationMs) {
+        return runOnce(factory, topology -> { }, numNodes, pattern, rate, durationMs);
+    }
+
+    /**
+     * Configura una topologia nueva, le aplica setup, aplica la carga y la detiene.
+     */
+    public static LoadReport runOnce(Supplier<NetworkTopology> factory, Consumer<NetworkTopology> setup,
+                                     int numNodes, TrafficPattern pattern, long rate, long durationMs) {
+        NetworkTopology topology = factory.get();
+        topology.configureNetwork(numNodes);
+        setup.accept(topology);
+        topology.runNetwork();
+        try {
+            return new LoadGenerator(pattern, rate, durationMs, 42).run(topology);
+        } finally {
+            topology.shutdown();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.pucmm.network.load;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.pucmm.network.core.InFlightTracker;
+import com.pucmm.network.core.LatencyHistogram;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.core.Node;
+
+/**
+ * Generador de carga para cualquier NetworkTopology.
+ * Envia mensajes segun un patron de trafico durante un tiempo fijo:
+ * - con tasa objetivo (> 0): los envios siguen un calendario fijo sin esperar
+ *   entregas (carga de lazo abierto); si el generador se atrasa, recupera enviando
+ *   los mensajes vencidos, de modo que la latencia no oculta la saturacion.
+ * - con tasa 0: envia tan rapido como la topologia acepte.
+ *
+ * La topologia debe estar recien configurada y corriendo: el reporte usa sus
+ * histogramas de latencia y los contadores de sus nodos.
+ */
+public class LoadGenerator {
+    private static final String PAYLOAD = "load";
+    // tamano de rafaga para TrafficPattern.BURSTY
+    private static final int BURST_SIZE = 64;
+    // espera maxima para que se entreguen los mensajes en vuelo
+    private static final long MAX_DRAIN_NANOS = 5_000_000_000L;
+
+    private final TrafficPattern pattern;
+    private final long targetRate;
+    private final long durationMs;
+    private final long seed;
+
+    /**
+     * @param pattern     patron de trafico
+     * @param targetRate  mensajes por segundo; 0 para enviar sin limite
+     * @param durationMs  duracion de la fase de envio
+     * @param seed        semilla para origenes, destinos y permutaciones
+     * @throws IllegalArgumentException si targetRate < 0 o durationMs < 1
+     */
+    public LoadGenerator(TrafficPattern pattern, long targetRate, long durationMs, long seed) {
+        if (targetRate < 0 || durationMs < 1) {
+            throw new IllegalArgumentException("LoadGenerator requiere tasa >= 0 y duracion >= 1 ms");
+        }
+        this.pattern = pattern;
+        this.targetRate = targetRate;
+        this.durationMs = durationMs;
+        this.seed = seed;
+    }
+
+    /**
+     * Ejecuta la carga sobre la topologia, espera a que se drenen los mensajes
+     * en vuelo y devuelve el reporte.
+     *
+     * @param topology topologia configurada y corriendo
+     * @return reporte de la corrida
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el patron requiere n potencia de 2 y no lo es
+     */
+    public LoadReport run(NetworkTopology topology) {
+        List<Node> nodes = topology.getNodes();
+        if (nodes.isEmpty() || topology.getLatencyStats() == null) {
+            throw new IllegalStateException("LoadGenerator requiere una topologia configurada.");
+        }
+        int numNodes = nodes.size();
+        if (pattern.requiresPowerOfTwo() && Integer.bitCount(numNodes) != 1) {
+            throw new IllegalArgumentException(pattern + " requiere numero de nodos potencia de 2");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] permutation = TrafficPattern.randomPermutation(numNodes, random);
+        LatencyHistogram endToEnd = topology.getLatencyStats().getEndToEnd();
+        InFlightTracker inFlight = new InFlightTracker();
+
+        long durationNanos = durationMs * 1_000_000L;
+        long start = System.nanoTime();
+        long sent = 0;
+        long now = start;
+        while (now - start < durationNanos) {
+            long due = targetRate == 0 ? sent + 1 : dueMessages(now - start);
+            if (sent >= due) {
+                LockSupport.parkNanos(Math.min(50_000, 1_000_000_000L / targetRate));
+            }
+            while (sent < due) {
+                int from = pattern == TrafficPattern.HOTSPOT && numNodes > 1
+                        ? 1 + random.nextInt(numNodes - 1)
+                        : random.nextInt(numNodes);
+                int to = pattern.destination(from, numNodes, random, permutation);
+                inFlight.track(topology.sendMessage(from, to, PAYLOAD));
+                sent++;
+            }
+            now = System.nanoTime();
+        }
+        long sendNanos = System.nanoTime() - start;
+
+        // drenado: esperar a que cada envio se entregue o descarte
+        try {
+            inFlight.awaitQuiescence(MAX_DRAIN_NANOS, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long totalNanos = System.nanoTime() - start;
+
+        return new LoadReport(topology.getClass().getSimpleName(), numNodes, pattern, targetRate,
+                sent, endToEnd.getCount(), droppedCount(nodes), sendNanos, totalNanos,
+                endToEnd.getValueAtPercentile(50), endToEnd.getValueAtPercentile(99),
+                endToEnd.getValueAtPercentile(99.9));
+    }
+
+    // mensajes que el calendario dice que ya debieron salir; en rafagas para BURSTY
+    private long dueMessages(long elapsedNanos) {
+        long due = (long) (elapsedNanos / 1e9 * targetRate) + 1;
+        if (pattern == TrafficPattern.BURSTY) {
+            due = (due + BURST_SIZE - 1) / BURST_SIZE * BURST_SIZE;
+        }
+        return due;
+    }
+
+    private static long droppedCount(List<Node> nodes) {
+        long dropped = 0;
+        for (Node node : nodes) {
+            dropped += node.getDroppedCount();
+        }
+        return dropped;
+    }
+}
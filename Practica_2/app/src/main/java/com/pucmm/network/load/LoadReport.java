@@ -0,0 +1,94 @@
+package com.pucmm.network.load;
+
+/**
+ * Resultado de una corrida del generador de carga.
+ */
+public class LoadReport {
+    private final String topologyName;
+    private final int numNodes;
+    private final TrafficPattern pattern;
+    private final long offeredRate;
+    private final long sent;
+    private final long delivered;
+    private final long dropped;
+    private final long sendNanos;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+
+    /**
+     * @param topologyName nombre de la topologia
+     * @param numNodes     nodos de la topologia
+     * @param pattern      patron de trafico usado
+     * @param offeredRate  tasa objetivo en msgs/s (0 = sin limite)
+     * @param sent         mensajes enviados
+     * @param delivered    mensajes procesados por su destino
+     * @param dropped      mensajes descartados (inbox lleno o nodo caido)
+     * @param sendNanos    duracion de la fase de envio
+     * @param totalNanos   duracion de envio + drenado
+     * @param p50Nanos     latencia extremo a extremo p50
+     * @param p99Nanos     latencia extremo a extremo p99
+     * @param p999Nanos    latencia extremo a extremo p999
+     */
+    public LoadReport(String topologyName, int numNodes, TrafficPattern pattern, long offeredRate,
+                      long sent, long delivered, long dropped, long sendNanos, long totalNanos,
+                      long p50Nanos, long p99Nanos, long p999Nanos) {
+        this.topologyName = topologyName;
+        this.numNodes = numNodes;
+        this.pattern = pattern;
+        this.offeredRate = offeredRate;
+        this.sent = sent;
+        this.delivered = delivered;
+        this.dropped = dropped;
+        this.sendNanos = sendNanos;
+        this.totalNanos = totalNanos;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+    }
+
+    /**
+     * Tasa de envio lograda en msgs/s.
+     */
+    public double getSentRate() {
+        return sendNanos == 0 ? 0 : sent * 1e9 / sendNanos;
+    }
+
+    /**
+     * Tasa sostenida de entrega en msgs/s, contando el drenado.
+     */
+    public double getDeliveredRate() {
+        return totalNanos == 0 ? 0 : delivered * 1e9 / totalNanos;
+    }
+
+    /**
+     * Indica si la topologia sostuvo la carga: entrego al menos el 90% de lo
+     * ofrecido y el generador pudo enviar al menos el 90% de la tasa objetivo.
+     */
+    public boolean isSustained() {
+        boolean keptUp = offeredRate == 0 || getSentRate() >= 0.9 * offeredRate;
+        return keptUp && delivered >= 0.9 * sent && getDeliveredRate() >= 0.9 * getSentRate();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s n=%-4d %-16s objetivo=%-9s enviado=%10.0f/s entregado=%10.0f/s "
+                        + "perdidos=%-6d p50=%.1fus p99=%.1fus p999=%.1fus",
+                topologyName, numNodes, pattern, offeredRate == 0 ? "max" : Long.toString(offeredRate),
+                getSentRate(), getDeliveredRate(), dropped,
+                p50Nanos / 1e3, p99Nanos / 1e3, p999Nanos / 1e3);
+    }
+
+    // Getters
+    public String getTopologyName() { return topologyName; }
+    public int getNumNodes() { return numNodes; }
+    public TrafficPattern getPattern() { return pattern; }
+    public long getOfferedRate() { return offeredRate; }
+    public long getSent() { return sent; }
+    public long getDelivered() { return delivered; }
+    public long getDropped() { return dropped; }
+    public long getP50Nanos() { return p50Nanos; }
+    public long getP99Nanos() { return p99Nanos; }
+    public long getP999Nanos() { return p999Nanos; }
+}
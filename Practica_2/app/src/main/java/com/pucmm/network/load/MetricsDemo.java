@@ -0,0 +1,98 @@
+package com.pucmm.network.load;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.manager.NetworkManager;
+import com.pucmm.network.metrics.MetricsRegistry;
+import com.pucmm.network.metrics.MetricsServer;
+import com.pucmm.network.topologia.HypercubeNetwork;
+
+/**
+ * Metricas en vivo mientras corre la simulacion: un hipercubo recibe carga
+ * continua a traves de NetworkManager, con el endpoint de Prometheus y los
+ * MXBeans publicados. Cada segundo imprime los contadores leidos del
+ * registro; al final consulta el propio endpoint HTTP e imprime el texto
+ * (sin las lineas por nodo), como lo veria un scraper.
+ *
+ * Mientras corre se puede consultar con curl la URL impresa, o conectar
+ * jconsole al proceso (dominio com.pucmm.network).
+ *
+ * Uso: MetricsDemo [nodos] [segundos] [puerto] [rafaga]
+ */
+public class MetricsDemo {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int port = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        int burst = args.length > 3 ? Integer.parseInt(args[3]) : 20_000;
+
+        NetworkLog.setEnabled(false);
+        NetworkManager manager = new NetworkManager();
+        manager.setJmxEnabled(true);
+        MetricsServer server = manager.startMetricsServer(port);
+        System.out.printf("=== MetricsDemo n=%d %ds, metricas en %s ===%n", numNodes, seconds, server.getUrl());
+
+        HypercubeNetwork topology = new HypercubeNetwork();
+        manager.configureNetwork(topology, numNodes);
+        topology.setLinkLatency(20, TimeUnit.MICROSECONDS);
+        manager.runNetwork();
+        MetricsRegistry metrics = manager.getMetrics();
+        String name = topology.getName();
+        SplittableRandom random = new SplittableRandom(42);
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long nextReport = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        long lastDelivered = 0;
+        while (System.nanoTime() < end) {
+            // rafagas acotadas: la proxima entra cuando la mitad de la anterior ya llego
+            for (int i = 0; i < burst; i++) {
+                manager.sendMessage(random.nextInt(numNodes), random.nextInt(numNodes), "m" + i);
+            }
+            while (manager.getInFlightCount() > burst / 2 && System.nanoTime() < end) {
+                Thread.sleep(1);
+            }
+            if (System.nanoTime() >= nextReport) {
+                long delivered = metrics.get("network_messages_delivered_total", "topology", name);
+                System.out.printf("enviados=%d reenviados=%d entregados=%d (+%d/s) en vuelo=%d "
+                                + "inbox max=%d cola transporte=%d hilos activos=%d%n",
+                        metrics.get("network_messages_sent_total", "topology", name),
+                        metrics.get("network_messages_forwarded_total", "topology", name),
+                        delivered, delivered - lastDelivered,
+                        metrics.get("network_manager_in_flight"),
+                        metrics.get("network_inbox_depth_max", "topology", name),
+                        metrics.get("network_transport_queued_tasks", "topology", name),
+                        metrics.get("network_transport_active_threads", "topology", name));
+                lastDelivered = delivered;
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+        manager.shutdown();
+
+        System.out.printf("%n--- GET %s (sin network_inbox_depth por nodo) ---%n", server.getUrl());
+        for (String line : scrape(server.getUrl()).split("\n")) {
+            if (!line.startsWith("network_inbox_depth{")) {
+                System.out.println(line);
+            }
+        }
+        manager.stopMetricsServer();
+        manager.setJmxEnabled(false);
+    }
+
+    private static String scrape(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            in.transferTo(body);
+            return body.toString(StandardCharsets.UTF_8.name());
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
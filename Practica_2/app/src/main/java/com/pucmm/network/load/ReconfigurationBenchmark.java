@@ -0,0 +1,195 @@
+package com.pucmm.network.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.manager.NetworkManager;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Reconfiguracion en caliente bajo carga de lazo abierto: a mitad de la
+ * corrida se aplica un evento (enlaces caidos, nodo retirado, crecimiento) y
+ * FailoverMeter mide el throughput de entregas alrededor de el:
+ * - op us: lo que tarda la operacion (actualizar rutas, agregar nodos)
+ * - caida: perdida de throughput en la peor ventana de 20 ms
+ * - failover: hasta volver al 80% de la base
+ * - deficit / descartes: entregas que faltaron y mensajes perdidos
+ * - reruteados: hops que llegaron a un enlace caido y salieron de nuevo
+ * - arboles: rutas calculadas completas / corregidas en el lugar / descartadas
+ * Las fallas se recuperan a los 2/3 de la corrida.
+ *
+ * Como referencia, "reinicio" hace el crecimiento del hipercubo como antes:
+ * detiene la red, configura una nueva del doble de nodos y la arranca.
+ *
+ * Uso: ReconfigurationBenchmark [nodos] [tasa] [latenciaMs] [duracionMs]
+ */
+public class ReconfigurationBenchmark {
+    private static final long BUCKET_MS = 20;
+    private static final double RECOVERY = 0.8;
+
+    public static void main(String[] args) throws InterruptedException {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        long rate = args.length > 1 ? Long.parseLong(args[1]) : 4000;
+        long latencyMs = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        long durationMs = args.length > 3 ? Long.parseLong(args[3]) : 1500;
+
+        NetworkLog.setEnabled(false);
+        System.out.printf("=== ReconfigurationBenchmark n=%d tasa=%d msgs/s latencia=%dms duracion=%dms ===%n",
+                numNodes, rate, latencyMs, durationMs);
+        System.out.printf("%-17s %-22s %9s %10s %7s %11s %8s %10s %10s %12s%n", "topologia", "evento", "op us",
+                "base msg/s", "caida", "failover ms", "deficit", "descartes", "reruteados", "arboles c/p/d");
+        for (int round = 0; round < 2; round++) {
+            // la primera ronda calienta el JIT: la primera falla sale del camino rapido de route
+            Scenario run = new Scenario(numNodes, rate, latencyMs, durationMs, round == 1);
+            int quarter = numNodes / 4;
+            run.measure(HypercubeNetwork::new, "caen " + quarter / 2 + " enlaces dim 0", t -> {
+                for (int i = 0; i < quarter; i += 2) {
+                    t.failLink(i, i + 1);
+                }
+            }, t -> {
+                for (int i = 0; i < quarter; i += 2) {
+                    t.recoverLink(i, i + 1);
+                }
+            });
+            run.measure(HypercubeNetwork::new, "se retira el nodo 5", t -> t.removeNode(5), null);
+            run.measure(HypercubeNetwork::new, "crece 1 dimension", t -> ((HypercubeNetwork) t).growDimension(),
+                    null);
+            run.restart(HypercubeNetwork::new, "reinicio x2 nodos");
+            run.measure(TreeNetwork::new, "cae el enlace 0-1", t -> t.failLink(0, 1), t -> t.recoverLink(0, 1));
+            run.measure(TreeNetwork::new, "crece 1 nivel", t -> ((TreeNetwork) t).growLevel(), null);
+            run.measure(RingNetwork::new, "cae el enlace 10-11", t -> t.failLink(10, 11),
+                    t -> t.recoverLink(10, 11));
+            run.measure(RingNetwork::new, "se agrega 1 nodo", t -> ((RingNetwork) t).addNode(), null);
+        }
+    }
+
+    /**
+     * Una corrida: red nueva, carga durante duracionMs, evento al tercio y
+     * recuperacion a los dos tercios.
+     */
+    private static final class Scenario {
+        final int numNodes;
+        final long rate;
+        final long latencyMs;
+        final long durationMs;
+        final boolean print;
+
+        Scenario(int numNodes, long rate, long latencyMs, long durationMs, boolean print) {
+            this.numNodes = numNodes;
+            this.rate = rate;
+            this.latencyMs = latencyMs;
+            this.durationMs = durationMs;
+            this.print = print;
+        }
+
+        void measure(Supplier<RoutedTopology> factory, String label, Consumer<RoutedTopology> event,
+                     Consumer<RoutedTopology> recovery) throws InterruptedException {
+            RoutedTopology topology = factory.get();
+            AtomicReference<NetworkManager> current = new AtomicReference<>(start(topology, numNodes));
+            FailoverMeter meter = new FailoverMeter(BUCKET_MS, durationMs + 1000, TimeUnit.MILLISECONDS);
+            Thread sender = sender(current, meter);
+            Thread.sleep(durationMs / 3);
+            meter.markEvent();
+            long start = System.nanoTime();
+            event.accept(topology);
+            long opNanos = System.nanoTime() - start;
+            Thread.sleep(durationMs / 3);
+            if (recovery != null) {
+                recovery.accept(topology);
+            }
+            sender.join();
+            NetworkManager manager = current.get();
+            manager.awaitQuiescence(5, TimeUnit.SECONDS);
+            print(topology, label, opNanos, meter);
+            manager.shutdown();
+        }
+
+        void restart(Supplier<RoutedTopology> factory, String label) throws InterruptedException {
+            RoutedTopology topology = factory.get();
+            AtomicReference<NetworkManager> current = new AtomicReference<>(start(topology, numNodes));
+            FailoverMeter meter = new FailoverMeter(BUCKET_MS, durationMs + 1000, TimeUnit.MILLISECONDS);
+            Thread sender = sender(current, meter);
+            Thread.sleep(durationMs / 3);
+            meter.markEvent();
+            long start = System.nanoTime();
+            // sin servicio mientras se reinicia: el emisor espera
+            NetworkManager old = current.getAndSet(null);
+            old.shutdown();
+            RoutedTopology grown = factory.get();
+            current.set(start(grown, numNodes * 2));
+            long opNanos = System.nanoTime() - start;
+            sender.join();
+            current.get().awaitQuiescence(5, TimeUnit.SECONDS);
+            print(grown, label, opNanos, meter);
+            current.get().shutdown();
+        }
+
+        private NetworkManager start(RoutedTopology topology, int nodes) {
+            NetworkManager manager = new NetworkManager();
+            manager.configureNetwork(topology, nodes);
+            topology.setLinkLatency(latencyMs, TimeUnit.MILLISECONDS);
+            manager.runNetwork();
+            return manager;
+        }
+
+        // envia a tasa fija entre nodos vivos al azar; lo atrasado por un reinicio no se recupera
+        private Thread sender(AtomicReference<NetworkManager> current, FailoverMeter meter) {
+            Thread thread = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(42);
+                long begin = System.nanoTime();
+                long durationNanos = TimeUnit.MILLISECONDS.toNanos(durationMs);
+                long sent = 0;
+                long now;
+                while ((now = System.nanoTime()) - begin < durationNanos) {
+                    long due = (long) ((now - begin) / 1e9 * rate);
+                    NetworkManager manager = current.get();
+                    if (manager == null) {
+                        sent = due;
+                    }
+                    if (manager == null || sent >= due) {
+                        LockSupport.parkNanos(100_000);
+                        continue;
+                    }
+                    while (sent < due) {
+                        RoutedTopology topology = (RoutedTopology) manager.getTopology();
+                        int size = topology.getNodes().size();
+                        int from = random.nextInt(size);
+                        int to = random.nextInt(size);
+                        if (topology.isNodeRemoved(from) || topology.isNodeRemoved(to)) {
+                            continue;
+                        }
+                        try {
+                            meter.track(manager.sendMessage(from, to, "r"));
+                            sent++;
+                        } catch (IllegalArgumentException e) {
+                            // se retiro entre la consulta y el envio
+                        }
+                    }
+                }
+            }, "reconfig-sender");
+            thread.start();
+            return thread;
+        }
+
+        private void print(RoutedTopology topology, String label, long opNanos, FailoverMeter meter) {
+            if (!print) {
+                return;
+            }
+            long until = durationMs / 3;
+            System.out.printf("%-17s %-22s %9.0f %10.0f %6.0f%% %11d %8d %10d %10d %12s%n", topology.getName(),
+                    label, opNanos / 1e3, meter.getBaselineRate(), meter.getDip(until, TimeUnit.MILLISECONDS) * 100,
+                    meter.getFailover(RECOVERY, until, TimeUnit.MILLISECONDS),
+                    meter.getDeficit(until, TimeUnit.MILLISECONDS), meter.getDroppedSinceEvent(),
+                    topology.getReroutedCount(), topology.getRouteComputations() + "/" + topology.getRoutePatches()
+                            + "/" + topology.getRouteInvalidations());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.pucmm.network.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.InFlightTracker;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.ReliabilityStats;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Entrega sobre enlaces con perdida y duplicado: para cada topologia y
+ * probabilidad de perdida envia la misma carga (misma semilla, tasa fija
+ * durante duracionMs) sin protocolo y con ReliableChannel, y compara:
+ * - entregados: mensajes unicos que llegaron sobre los enviados.
+ * - goodput: mensajes unicos entregados por segundo, hasta la ultima entrega
+ *   (incluye la cola de retransmisiones al final).
+ * - crudo: tramas puestas en la red por segundo (sin protocolo, los mismos
+ *   mensajes; con protocolo, DATA con retransmisiones mas ACKs).
+ * - retransmisiones por mensaje original y duplicados suprimidos.
+ *
+ * Uso: ReliabilityBenchmark [nodos] [tasa] [duracionMs] [duplicado] [latenciaEnlaceUs]
+ */
+public class ReliabilityBenchmark {
+    private static final double[] LOSSES = {0, 0.01, 0.05, 0.1};
+    private static final int WINDOW = 32;
+    private static final long INITIAL_TIMEOUT_MS = 100;
+    private static final long SEED = 42;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long rate = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        long durationMs = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+        double duplication = args.length > 3 ? Double.parseDouble(args[3]) : 0.01;
+        long latencyUs = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+        int messages = (int) (rate * durationMs / 1000);
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<RoutedTopology>> topologies = new LinkedHashMap<>();
+        topologies.put("RingNetwork", RingNetwork::new);
+        topologies.put("StarNetwork", StarNetwork::new);
+        topologies.put("MeshNetwork", MeshNetwork::new);
+        topologies.put("HypercubeNetwork", HypercubeNetwork::new);
+        topologies.put("TreeNetwork", TreeNetwork::new);
+        topologies.put("FullyConnectedNetwork", FullyConnectedNetwork::new);
+
+        System.out.printf("=== ReliabilityBenchmark n=%d tasa=%d/s mensajes=%d duplicado=%.3f latencia=%dus ===%n",
+                numNodes, rate, messages, duplication, latencyUs);
+        System.out.printf("%-22s %7s %-10s %11s %12s %12s %10s %10s %9s %12s%n", "", "perdida", "modo",
+                "entregados", "goodput/s", "crudo/s", "retrans", "dup supr", "perdidos", "p99 us");
+        for (Map.Entry<String, Supplier<RoutedTopology>> entry : topologies.entrySet()) {
+            for (double loss : LOSSES) {
+                for (boolean reliable : new boolean[] {false, true}) {
+                    run(entry.getKey(), entry.getValue().get(), numNodes, rate, messages, loss, duplication,
+                            latencyUs, reliable);
+                }
+            }
+            System.out.println();
+        }
+    }
+
+    private static void run(String name, RoutedTopology topology, int numNodes, long rate, int messages,
+                            double loss, double duplication, long latencyUs, boolean reliable) {
+        if (reliable) {
+            topology.setReliableDelivery(WINDOW, INITIAL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+        topology.configureNetwork(numNodes);
+        topology.setLinkLatency(latencyUs, TimeUnit.MICROSECONDS);
+        topology.setLinkLoss(loss);
+        topology.setLinkDuplication(duplication);
+        topology.setSeed(SEED);
+        topology.runNetwork();
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        InFlightTracker inFlight = new InFlightTracker();
+        LongAdder delivered = new LongAdder();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < messages; i++) {
+                // calendario fijo: el mensaje i sale en start + i / rate
+                long due = start + i * 1_000_000_000L / rate;
+                while (System.nanoTime() < due) {
+                    LockSupport.parkNanos(due - System.nanoTime());
+                }
+                int from = random.nextInt(numNodes);
+                int to = random.nextInt(numNodes);
+                inFlight.track(topology.sendMessage(from, to, "m" + i)).whenComplete((m, e) -> {
+                    if (e == null) {
+                        delivered.increment();
+                    }
+                });
+            }
+            inFlight.awaitQuiescence(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - start;
+        ReliabilityStats stats = topology.getReliabilityStats();
+        long lost = topology.getLinks().getLostCount();
+        topology.shutdown();
+
+        double seconds = elapsed / 1e9;
+        long frames = reliable ? stats.getFramesSent() : messages;
+        System.out.printf("%-22s %6.0f%% %-10s %10.1f%% %12.0f %12.0f %9.1f%% %10d %9d %12.1f%n",
+                name, loss * 100, reliable ? "confiable" : "sin ack",
+                100.0 * delivered.sum() / messages, delivered.sum() / seconds, frames / seconds,
+                reliable ? stats.getRetransmissionOverhead() * 100 : 0,
+                reliable ? stats.getDuplicates() : 0, lost,
+                topology.getLatencyStats().getEndToEnd().getValueAtPercentile(99) / 1e3);
+    }
+}
@@ -0,0 +1,99 @@
+package com.pucmm.network.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.pucmm.network.core.DeterministicTransport;
+import com.pucmm.network.core.InFlightTracker;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.HypercubeNetwork;
+
+/**
+ * Corridas reproducibles con DeterministicTransport: graba una corrida en un
+ * log de eventos y la reproduce varias veces, verificando que cada replay
+ * entregue lo mismo en el mismo orden (mismo digest, sin divergencias). Asi
+ * un cambio de rendimiento se compara contra el mismo flujo de eventos.
+ *
+ * La carga ejercita todo lo que podria variar entre corridas: hipercubo con
+ * ruteo adaptativo, perdida y duplicado sorteados en los enlaces, y entrega
+ * confiable con timeouts en el reloj virtual. main envia en rafagas mientras
+ * la simulacion corre, asi el punto en que entra cada rafaga cambia de una
+ * corrida a otra y es lo que el log fija. La corrida sin log usa la misma
+ * semilla pero no es repetible: se muestra como referencia de costo.
+ *
+ * Uso: ReplayBenchmark [nodos] [mensajes] [repeticiones] [semilla] [log]
+ */
+public class ReplayBenchmark {
+    private static final int BURST = 64;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws IOException {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        Path log = args.length > 4 ? Paths.get(args[4]) : Files.createTempFile("replay", ".evlog");
+
+        NetworkLog.setEnabled(false);
+        System.out.printf("=== ReplayBenchmark n=%d mensajes=%d semilla=%d log=%s ===%n",
+                numNodes, messages, seed, log);
+        DeterministicTransport unlogged = new DeterministicTransport("replay", seed);
+        run("sin log", unlogged, numNodes, messages, seed);
+        if (unlogged.getInputBatches() > 1) {
+            System.out.printf("    no repetible: los envios entraron en %d tandas segun el ritmo de main%n",
+                    unlogged.getInputBatches());
+        }
+        DeterministicTransport recorded = DeterministicTransport.record("replay", seed, log);
+        run("graba", recorded, numNodes, messages, seed);
+        System.out.printf("log: %d bytes, %.1f bytes por entrega%n", Files.size(log),
+                (double) Files.size(log) / Math.max(1, recorded.getDeliveries()));
+        for (int i = 0; i < repetitions; i++) {
+            DeterministicTransport replay = DeterministicTransport.replay("replay", log);
+            run("replay " + (i + 1), replay, numNodes, messages, seed);
+            System.out.println(replay.getDigest() == recorded.getDigest() && replay.getDivergences() == 0
+                    ? "    identico a la grabacion"
+                    : "    DIFIERE de la grabacion desde el evento " + replay.getFirstDivergence());
+        }
+    }
+
+    private static void run(String label, DeterministicTransport transport, int numNodes, int messages,
+                            long seed) {
+        HypercubeNetwork topology = new HypercubeNetwork(true);
+        topology.setTransport(transport);
+        topology.setReliableDelivery(8, 5, TimeUnit.MILLISECONDS);
+        topology.configureNetwork(numNodes);
+        topology.setLinkLatency(200, TimeUnit.MICROSECONDS);
+        topology.setLinkBandwidth(10_000_000);
+        topology.setLinkLoss(0.01);
+        topology.setLinkDuplication(0.01);
+        topology.setSeed(seed);
+        topology.runNetwork();
+
+        SplittableRandom random = new SplittableRandom(seed);
+        InFlightTracker inFlight = new InFlightTracker();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < messages; i++) {
+                inFlight.track(topology.sendMessage(random.nextInt(numNodes), random.nextInt(numNodes), "m" + i));
+                if (i % BURST == BURST - 1) {
+                    Thread.yield();
+                }
+            }
+            inFlight.awaitQuiescence(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long wallNanos = System.nanoTime() - start;
+        topology.shutdown();
+        System.out.printf("%-10s real=%8.1fms eventos=%-9d %10.0f eventos/s entregas=%-8d reloj=%8.1fms "
+                        + "tandas=%-6d digest=%016x divergencias=%d%n",
+                label, wallNanos / 1e6, transport.getProcessedEvents(),
+                transport.getProcessedEvents() / (wallNanos / 1e9), transport.getDeliveries(),
+                transport.nanoTime() / 1e6, transport.getInputBatches(), transport.getDigest(),
+                transport.getDivergences());
+    }
+}
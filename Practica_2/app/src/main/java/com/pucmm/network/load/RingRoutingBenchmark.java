@@ -0,0 +1,116 @@
+package com.pucmm.network.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.pucmm.network.core.InFlightTracker;
+import com.pucmm.network.core.Link;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.RingNetwork;
+
+/**
+ * Variantes de RingNetwork con la misma carga uniforme (misma semilla, tasa
+ * fija) para varios tamanos: unidireccional, bidireccional por el sentido mas
+ * corto, anillo cordal (cuerda ~raiz(N)) y multi-anillo de 3 (cuerdas
+ * N^(1/3) y N^(2/3)). Por variante:
+ * - grado, diametro y hops promedio entre pares segun la topologia
+ * - hops/msg: hops recorridos por mensaje enviado en la corrida
+ * - p50 / p99: latencia extremo a extremo
+ * - x hops / x p50: reduccion contra el anillo unidireccional del mismo N
+ * - enlace max: mensajes del enlace dirigido mas cargado (cada sentido tiene
+ *   su propia cola) y enlaces dirigidos que llevaron trafico
+ *
+ * Uso: RingRoutingBenchmark [tamanos separados por coma] [tasa] [mensajes] [latenciaEnlaceUs] [bps]
+ */
+public class RingRoutingBenchmark {
+    private static final long SEED = 42;
+    private static final long TIMEOUT_SECONDS = 120;
+
+    public static void main(String[] args) {
+        int[] sizes = Arrays.stream((args.length > 0 ? args[0] : "16,64,256,1024").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        long rate = args.length > 1 ? Long.parseLong(args[1]) : 500;
+        int messages = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        long latencyUs = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+        long bandwidth = args.length > 4 ? Long.parseLong(args[4]) : 0;
+
+        NetworkLog.setEnabled(false);
+        System.out.printf("=== RingRoutingBenchmark tasa=%d/s mensajes=%d latencia=%dus ancho=%s ===%n",
+                rate, messages, latencyUs, bandwidth == 0 ? "ilimitado" : bandwidth + "bps");
+        // calienta el JIT con el camino bidireccional
+        run(new RingNetwork(true, 4), 64, rate, messages, latencyUs, bandwidth);
+        System.out.printf("%6s %-22s %5s %6s %10s %8s %9s %9s %7s %6s %11s %7s%n", "nodos", "variante", "grado",
+                "diam", "hops prom", "hops/msg", "p50 ms", "p99 ms", "x hops", "x p50", "enlace max", "usados");
+        for (int n : sizes) {
+            Result base = null;
+            RingNetwork[] variants = {
+                    new RingNetwork(),
+                    new RingNetwork(true),
+                    new RingNetwork(true, RingNetwork.geometricChords(n, 2)),
+                    new RingNetwork(true, RingNetwork.geometricChords(n, 3))};
+            String[] labels = {"unidireccional", "bidireccional", "cordal", "multi-anillo"};
+            for (int v = 0; v < variants.length; v++) {
+                Result result = run(variants[v], n, rate, messages, latencyUs, bandwidth);
+                base = base == null ? result : base;
+                System.out.printf("%6d %-22s %5d %6d %10.2f %8.2f %9.2f %9.2f %7.2f %6.2f %11d %7d%n", n,
+                        labels[v] + " " + Arrays.toString(variants[v].getChords()), result.degree, result.diameter,
+                        result.averageDistance, result.hops, result.p50, result.p99, base.hops / result.hops,
+                        base.p50 / result.p50, result.busiestLink, result.usedLinks);
+            }
+            System.out.println();
+        }
+    }
+
+    private static Result run(RingNetwork ring, int numNodes, long rate, int messages, long latencyUs,
+                              long bandwidth) {
+        ring.configureNetwork(numNodes);
+        ring.setLinkLatency(latencyUs, TimeUnit.MICROSECONDS);
+        ring.setLinkBandwidth(bandwidth);
+        ring.runNetwork();
+
+        SplittableRandom random = new SplittableRandom(SEED);
+        InFlightTracker inFlight = new InFlightTracker();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < messages; i++) {
+                long due = start + i * 1_000_000_000L / rate;
+                while (System.nanoTime() < due) {
+                    LockSupport.parkNanos(due - System.nanoTime());
+                }
+                int from = random.nextInt(numNodes);
+                int to = random.nextInt(numNodes);
+                inFlight.track(ring.sendMessage(from, to, "r" + i));
+            }
+            inFlight.awaitQuiescence(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Result result = new Result();
+        result.degree = ring.getDegree();
+        result.diameter = ring.getDiameter();
+        result.averageDistance = ring.getAverageDistance();
+        result.hops = (double) ring.getLatencyStats().getHop().getCount() / messages;
+        result.p50 = ring.getLatencyStats().getEndToEnd().getValueAtPercentile(50) / 1e6;
+        result.p99 = ring.getLatencyStats().getEndToEnd().getValueAtPercentile(99) / 1e6;
+        for (Link link : ring.getLinks().getLinks()) {
+            result.busiestLink = Math.max(result.busiestLink, link.getMessages());
+            result.usedLinks += link.getMessages() > 0 ? 1 : 0;
+        }
+        ring.shutdown();
+        return result;
+    }
+
+    private static final class Result {
+        int degree;
+        int diameter;
+        double averageDistance;
+        double hops;
+        double p50;
+        double p99;
+        long busiestLink;
+        int usedLinks;
+    }
+}
@@ -0,0 +1,73 @@
+package com.pucmm.network.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.MeshRouting;
+
+/**
+ * Compara el throughput de saturacion de ruteo determinista contra adaptativo
+ * con 64 nodos: hipercubo por dimensiones vs adaptativo, y malla/toro 8x8 con
+ * XY vs west-first. Cada combinacion se satura con patrones adversos
+ * (transpuesta, inversion de bits) y con trafico uniforme como referencia.
+ * Los enlaces tienen ancho de banda finito y sin latencia de propagacion.
+ *
+ * El ancho de banda por defecto (20 kbps, ~125 msgs/s por enlace) es bajo a
+ * proposito para que saturen los enlaces antes que los hilos del simulador.
+ *
+ * Uso: RoutingComparisonBenchmark [duracionMs] [anchoDeBandaBps] [tasaInicial]
+ */
+public class RoutingComparisonBenchmark {
+    private static final int NODES = 64;
+    private static final int SIDE = 8;
+    private static final long MAX_RATE = 1_024_000;
+    private static final TrafficPattern[] PATTERNS = {
+            TrafficPattern.UNIFORM, TrafficPattern.TRANSPOSE, TrafficPattern.BIT_REVERSAL};
+
+    public static void main(String[] args) {
+        long durationMs = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        long bandwidth = args.length > 1 ? Long.parseLong(args[1]) : 20_000;
+        long startRate = args.length > 2 ? Long.parseLong(args[2]) : 250;
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<NetworkTopology>> configurations = new LinkedHashMap<>();
+        configurations.put("Hipercubo dimensiones", () -> new HypercubeNetwork(false));
+        configurations.put("Hipercubo adaptativo", () -> new HypercubeNetwork(true));
+        configurations.put("Malla 8x8 XY", () -> new MeshNetwork(MeshRouting.XY, false, SIDE, SIDE));
+        configurations.put("Malla 8x8 west-first", () -> new MeshNetwork(MeshRouting.WEST_FIRST, false, SIDE, SIDE));
+        configurations.put("Toro 8x8 XY", () -> new MeshNetwork(MeshRouting.XY, true, SIDE, SIDE));
+        configurations.put("Toro 8x8 west-first", () -> new MeshNetwork(MeshRouting.WEST_FIRST, true, SIDE, SIDE));
+
+        Map<String, double[]> saturation = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<NetworkTopology>> entry : configurations.entrySet()) {
+            double[] rates = new double[PATTERNS.length];
+            for (int p = 0; p < PATTERNS.length; p++) {
+                System.out.printf("=== %s %s ===%n", entry.getKey(), PATTERNS[p]);
+                LoadReport sustained = LoadBenchmark.sweep(entry.getValue(),
+                        topology -> LinkHotspotBenchmark.configureBandwidth(topology, bandwidth),
+                        NODES, PATTERNS[p], durationMs, startRate, MAX_RATE);
+                rates[p] = sustained == null ? 0 : sustained.getDeliveredRate();
+            }
+            saturation.put(entry.getKey(), rates);
+        }
+
+        System.out.printf("%n=== Throughput sostenido (msgs/s), n=%d, ancho de banda=%d bps ===%n", NODES, bandwidth);
+        System.out.printf("%-24s", "");
+        for (TrafficPattern pattern : PATTERNS) {
+            System.out.printf("%14s", pattern);
+        }
+        System.out.println();
+        for (Map.Entry<String, double[]> entry : saturation.entrySet()) {
+            System.out.printf("%-24s", entry.getKey());
+            for (double rate : entry.getValue()) {
+                System.out.printf("%14.0f", rate);
+            }
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.pucmm.network.load;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.TraceRecorder;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.trace.TraceAnalyzer;
+
+/**
+ * Costo de la traza binaria a plena carga: la misma rafaga sobre un
+ * hipercubo con el transporte por defecto, alternando corridas sin traza y
+ * con TraceRecorder, y compara la mediana de msgs/s. Al final analiza la
+ * traza de la ultima corrida con TraceAnalyzer.
+ *
+ * Con latencia 0 y sin ancho de banda los hops se entregan en linea, asi el
+ * costo de registrar no se esconde detras de esperas en los enlaces.
+ *
+ * Uso: TraceBenchmark [nodos] [mensajes] [repeticiones] [latenciaEnlaceUs] [directorio]
+ */
+public class TraceBenchmark {
+    private static final long SEGMENT_BYTES = 64L << 20;
+    private static final int MAX_SEGMENTS = 4;
+    private static final long TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) throws IOException {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long latencyUs = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        Path directory = args.length > 4 ? Paths.get(args[4]) : Files.createTempDirectory("trace");
+
+        NetworkLog.setEnabled(false);
+        System.out.printf("=== TraceBenchmark n=%d mensajes=%d latencia=%dus traza=%s ===%n",
+                numNodes, messages, latencyUs, directory);
+        // calentamiento de ambos caminos
+        run(numNodes, messages, latencyUs, null);
+        try (TraceRecorder warmup = new TraceRecorder(directory, SEGMENT_BYTES, MAX_SEGMENTS)) {
+            run(numNodes, messages, latencyUs, warmup);
+        }
+        double[] plain = new double[repetitions];
+        double[] traced = new double[repetitions];
+        for (int i = 0; i < repetitions; i++) {
+            plain[i] = run(numNodes, messages, latencyUs, null);
+            try (TraceRecorder trace = new TraceRecorder(directory, SEGMENT_BYTES, MAX_SEGMENTS)) {
+                traced[i] = run(numNodes, messages, latencyUs, trace);
+            }
+            System.out.printf("ronda %d: sin traza %10.0f msgs/s   con traza %10.0f msgs/s%n",
+                    i + 1, plain[i], traced[i]);
+        }
+        double plainMedian = median(plain);
+        double tracedMedian = median(traced);
+        System.out.printf("mediana: sin traza %.0f msgs/s, con traza %.0f msgs/s, costo %.1f%%%n%n",
+                plainMedian, tracedMedian, 100 * (1 - tracedMedian / plainMedian));
+
+        TraceAnalyzer analyzer = new TraceAnalyzer(directory);
+        analyzer.analyze();
+        analyzer.printReport(3, 5);
+    }
+
+    // msgs/s de una rafaga hasta la ultima entrega
+    private static double run(int numNodes, int messages, long latencyUs, TraceRecorder trace) {
+        HypercubeNetwork topology = new HypercubeNetwork();
+        topology.setTraceRecorder(trace);
+        topology.configureNetwork(numNodes);
+        topology.setLinkLatency(latencyUs, TimeUnit.MICROSECONDS);
+        topology.runNetwork();
+        SplittableRandom random = new SplittableRandom(42);
+        List<CompletableFuture<Message>> deliveries = new ArrayList<>(messages);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < messages; i++) {
+                deliveries.add(topology.sendMessage(random.nextInt(numNodes), random.nextInt(numNodes), "m" + i));
+            }
+            CompletableFuture.allOf(deliveries.toArray(new CompletableFuture<?>[0]))
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("FALLO " + e);
+        }
+        long wallNanos = System.nanoTime() - start;
+        topology.shutdown();
+        return messages / (wallNanos / 1e9);
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,89 @@
+package com.pucmm.network.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * Patrones de trafico para el generador de carga. Cada patron decide el
+ * destino de un mensaje a partir del origen.
+ */
+public enum TrafficPattern {
+    /** Destino uniforme al azar. */
+    UNIFORM,
+    /** Todos envian al nodo 0 (todos-a-uno). */
+    HOTSPOT,
+    /** Permutacion aleatoria fija: cada origen siempre envia al mismo destino. */
+    PERMUTATION,
+    /** Destino vecino por id: from+1 o from-1 modulo n. */
+    NEAREST_NEIGHBOR,
+    /** Destino uniforme, pero los mensajes salen en rafagas en lugar de espaciados. */
+    BURSTY,
+    /**
+     * Transpuesta: intercambia la mitad alta y baja de los bits del id (rota k/2
+     * bits si k es impar). En una malla 2^m x 2^m manda (x, y) a (y, x).
+     * Requiere n potencia de 2.
+     */
+    TRANSPOSE,
+    /** Inversion de bits: el id con sus k bits en orden inverso. Requiere n potencia de 2. */
+    BIT_REVERSAL;
+
+    /**
+     * Calcula el destino de un mensaje.
+     *
+     * @param from         nodo origen
+     * @param numNodes     cantidad de nodos de la topologia
+     * @param random       generador del hilo que envia
+     * @param permutation  permutacion fija (solo para PERMUTATION)
+     * @return indice del nodo destino
+     */
+    public int destination(int from, int numNodes, SplittableRandom random, int[] permutation) {
+        switch (this) {
+            case HOTSPOT:
+                return 0;
+            case PERMUTATION:
+                return permutation[from];
+            case NEAREST_NEIGHBOR:
+                return random.nextBoolean() ? (from + 1) % numNodes : (from - 1 + numNodes) % numNodes;
+            case TRANSPOSE: {
+                int bits = Integer.numberOfTrailingZeros(numNodes);
+                int half = bits / 2;
+                return ((from << half) | (from >>> (bits - half))) & (numNodes - 1);
+            }
+            case BIT_REVERSAL: {
+                int bits = Integer.numberOfTrailingZeros(numNodes);
+                return bits == 0 ? 0 : Integer.reverse(from) >>> (32 - bits);
+            }
+            case UNIFORM:
+            case BURSTY:
+            default:
+                return random.nextInt(numNodes);
+        }
+    }
+
+    /**
+     * Indica si el patron solo esta definido para n potencia de 2.
+     */
+    public boolean requiresPowerOfTwo() {
+        return this == TRANSPOSE || this == BIT_REVERSAL;
+    }
+
+    /**
+     * Genera una permutacion aleatoria de 0..n-1 (Fisher-Yates).
+     *
+     * @param numNodes tamano de la permutacion
+     * @param random   generador a usar
+     * @return arreglo con la permutacion
+     */
+    public static int[] randomPermutation(int numNodes, SplittableRandom random) {
+        int[] perm = new int[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            perm[i] = i;
+        }
+        for (int i = numNodes - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+        }
+        return perm;
+    }
+}
@@ -0,0 +1,88 @@
+package com.pucmm.network.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.TransportKind;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Compara los transportes sobre las mismas topologias: envia una rafaga de
+ * mensajes entre pares al azar (misma semilla para todos) y mide el tiempo
+ * real hasta la ultima entrega, el throughput y el tiempo en el reloj del
+ * transporte (virtual con VIRTUAL_TIME). La topologia no cambia entre
+ * corridas, solo el transporte.
+ *
+ * Uso: TransportBenchmark [nodos] [mensajes] [latenciaEnlaceUs]
+ */
+public class TransportBenchmark {
+    private static final long TIMEOUT_SECONDS = 60;
+
+    public static void main(String[] args) {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        long latencyUs = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<RoutedTopology>> topologies = new LinkedHashMap<>();
+        topologies.put("RingNetwork", RingNetwork::new);
+        topologies.put("StarNetwork", StarNetwork::new);
+        topologies.put("MeshNetwork", MeshNetwork::new);
+        topologies.put("HypercubeNetwork", HypercubeNetwork::new);
+        topologies.put("TreeNetwork", TreeNetwork::new);
+        topologies.put("FullyConnectedNetwork", FullyConnectedNetwork::new);
+
+        System.out.printf("=== TransportBenchmark n=%d mensajes=%d latencia=%dus ===%n",
+                numNodes, messages, latencyUs);
+        for (Map.Entry<String, Supplier<RoutedTopology>> entry : topologies.entrySet()) {
+            for (TransportKind kind : TransportKind.values()) {
+                run(entry.getKey(), entry.getValue().get(), kind, numNodes, messages, latencyUs);
+            }
+            System.out.println();
+        }
+    }
+
+    private static void run(String name, RoutedTopology topology, TransportKind kind,
+                            int numNodes, int messages, long latencyUs) {
+        topology.setTransport(kind);
+        topology.configureNetwork(numNodes);
+        topology.setLinkLatency(latencyUs, TimeUnit.MICROSECONDS);
+        topology.runNetwork();
+        SplittableRandom random = new SplittableRandom(42);
+        List<CompletableFuture<Message>> deliveries = new ArrayList<>(messages);
+        long start = System.nanoTime();
+        long clockStart = topology.getLinks().getElapsedNanos();
+        String status = "OK";
+        try {
+            for (int i = 0; i < messages; i++) {
+                int from = random.nextInt(numNodes);
+                int to = random.nextInt(numNodes);
+                deliveries.add(topology.sendMessage(from, to, "m" + i));
+            }
+            CompletableFuture.allOf(deliveries.toArray(new CompletableFuture<?>[0]))
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            status = "FALLO " + e.getClass().getSimpleName();
+        }
+        long wallNanos = System.nanoTime() - start;
+        long clockNanos = topology.getLinks().getElapsedNanos() - clockStart;
+        topology.shutdown();
+        System.out.printf("%-22s %-12s real=%9.1fms %10.0f msgs/s reloj=%9.1fms hop medio=%8.1fus %s%n",
+                name, kind, wallNanos / 1e6, messages / (wallNanos / 1e9), clockNanos / 1e6,
+                topology.getLatencyStats().getHop().getMean() / 1e3, status);
+    }
+}
@@ -1,14 +1,48 @@
 package com.pucmm.network.manager;
 
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.pucmm.network.cluster.ProcessCluster;
+import com.pucmm.network.core.InFlightTracker;
+import com.pucmm.network.core.LatencyStats;
+import com.pucmm.network.core.Message;
 import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.OverflowPolicy;
+import com.pucmm.network.metrics.MetricsRegistry;
+import com.pucmm.network.metrics.MetricsServer;
+import com.pucmm.network.metrics.TopologyMetrics;
+import com.pucmm.network.topologia.AbstractTopology;
 
 /**
  * Gestor generico para las topologias de red.
  * Orquesta configuracion, ejecucion, envio de mensajes y detencion.
+ * Publica las metricas en vivo de cada topologia que configura en un
+ * MetricsRegistry, opcionalmente por JMX y por HTTP (ver startMetricsServer).
  */
 public class NetworkManager {
     private NetworkTopology topology;
-    private int nodeCount;
+    private InFlightTracker inFlight = new InFlightTracker();
+    // espera maxima por mensajes en vuelo al detener la red
+    private static final long SHUTDOWN_QUIESCENCE_SECONDS = 10;
+    // latencias de la ultima corrida de cada topologia, en orden de ejecucion
+    private final Map<String, LatencyStats> latencyByTopology = new LinkedHashMap<>();
+    // metricas de cada topologia configurada; las de corridas anteriores quedan con sus valores finales
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final Map<String, TopologyMetrics> metricsByTopology = new LinkedHashMap<>();
+    private boolean jmxEnabled;
+    private MetricsServer metricsServer;
+    // workers de la topologia actual si se configuro repartida entre procesos
+    private ProcessCluster cluster;
+
+    public NetworkManager() {
+        metrics.gauge("network_manager_in_flight", "Mensajes del gestor aun sin entregar ni descartar",
+                this::getInFlightCount);
+    }
 
     /**
      * Configura en base a la topologia y numero de nodos.
@@ -18,8 +52,125 @@ public class NetworkManager {
      */
     public void configureNetwork(NetworkTopology topology, int numberOfNodes) {
         this.topology = topology;
-        this.nodeCount = numberOfNodes;
+        this.inFlight = new InFlightTracker();
         topology.configureNetwork(numberOfNodes);
+        publishMetrics(topology);
+    }
+
+    /**
+     * Configura la topologia con inboxes acotados en todos sus nodos.
+     *
+     * @param topology implementacion de NetworkTopology
+     * @param numberOfNodes cantidad de nodos a crear
+     * @param inboxCapacity capacidad maxima del inbox de cada nodo
+     * @param policy politica a aplicar cuando un inbox esta lleno
+     */
+    public void configureNetwork(NetworkTopology topology, int numberOfNodes,
+                                 int inboxCapacity, OverflowPolicy policy) {
+        configureNetwork(topology, numberOfNodes);
+        for (Node node : topology.getNodes()) {
+            node.configureInbox(inboxCapacity, policy);
+        }
+    }
+
+    /**
+     * Configura la topologia repartida entre varios procesos del host: este
+     * ejecuta la particion 0 y el cluster lanza un worker por cada otra,
+     * conectados por sockets en loopback. El resto del gestor (envios,
+     * quiescencia, metricas de envio) se usa igual; shutdown() cierra
+     * tambien los workers.
+     *
+     * @param topology topologia del coordinador (los workers crean otra de su clase)
+     * @param numberOfNodes nodos de la topologia completa
+     * @param cluster procesos y puertos a usar
+     * @throws IOException si no se puede abrir el puerto o lanzar los workers
+     */
+    public void configureDistributed(AbstractTopology topology, int numberOfNodes, ProcessCluster cluster)
+            throws IOException {
+        topology.setTransport(cluster.launch(topology, numberOfNodes));
+        this.cluster = cluster;
+        try {
+            configureNetwork(topology, numberOfNodes);
+            cluster.configure(topology);
+        } catch (RuntimeException e) {
+            this.cluster = null;
+            cluster.close();
+            throw e;
+        }
+    }
+
+    // registra (o reemplaza) las metricas de la topologia recien configurada
+    private void publishMetrics(NetworkTopology topology) {
+        if (!(topology instanceof AbstractTopology)) {
+            return;
+        }
+        TopologyMetrics topologyMetrics = new TopologyMetrics((AbstractTopology) topology);
+        topologyMetrics.register(metrics);
+        metricsByTopology.put(topologyMetrics.getTopology(), topologyMetrics);
+        if (jmxEnabled) {
+            topologyMetrics.registerMBean();
+        }
+    }
+
+    /**
+     * Registro con las metricas de las topologias configuradas.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Publica (o retira) un MXBean por topologia en el servidor JMX de la
+     * plataforma, como com.pucmm.network:type=Topology,name=<topologia>.
+     */
+    public void setJmxEnabled(boolean enabled) {
+        if (enabled == jmxEnabled) {
+            return;
+        }
+        jmxEnabled = enabled;
+        for (TopologyMetrics topologyMetrics : metricsByTopology.values()) {
+            if (enabled) {
+                topologyMetrics.registerMBean();
+            } else {
+                topologyMetrics.unregisterMBean();
+            }
+        }
+    }
+
+    /**
+     * Sirve las metricas en texto de Prometheus en http://localhost:port/metrics.
+     *
+     * @param port puerto en loopback; 0 elige uno libre
+     * @return el servidor, para consultar su puerto
+     * @throws IllegalStateException si ya hay un servidor abierto
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public MetricsServer startMetricsServer(int port) throws IOException {
+        if (metricsServer != null) {
+            throw new IllegalStateException("El servidor de metricas ya esta abierto en " + metricsServer.getUrl());
+        }
+        metricsServer = new MetricsServer(metrics, port);
+        return metricsServer;
+    }
+
+    /**
+     * Cierra el servidor de metricas, si hay uno abierto. shutdown() no lo
+     * cierra, asi las metricas finales se pueden leer despues de la corrida.
+     */
+    public void stopMetricsServer() {
+        if (metricsServer != null) {
+            metricsServer.close();
+            metricsServer = null;
+        }
+    }
+
+    /**
+     * Topologia configurada, por ejemplo para reconfigurarla en caliente
+     * (ver RoutedTopology.failLink o HypercubeNetwork.growDimension) sin
+     * volver a configurar el gestor; null si no hay una.
+     */
+    public NetworkTopology getTopology() {
+        return topology;
     }
 
     /**
@@ -34,21 +185,106 @@ public class NetworkManager {
 
     /**
      * Envia un mensaje entre dos nodos.
+     *
+     * @return future que se completa cuando el destino procesa el mensaje
      */
-    public void sendMessage(int from, int to, String message) {
+    public CompletableFuture<Message> sendMessage(int from, int to, String message) {
         if (topology == null) {
             throw new IllegalStateException("NetworkTopology no esta configurada.");
         }
-        topology.sendMessage(from, to, message);
+        return inFlight.track(topology.sendMessage(from, to, message));
+    }
+
+    /**
+     * Espera hasta que todos los mensajes enviados por el gestor se hayan
+     * entregado o descartado. Retorna en cuanto la red queda quieta.
+     */
+    public void awaitQuiescence() {
+        awaitQuiescence(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Espera la quiescencia con un limite de tiempo.
+     *
+     * @param timeout tiempo maximo de espera
+     * @param unit unidad del timeout
+     * @return true si no quedan mensajes en vuelo, false si vencio el timeout
+     */
+    public boolean awaitQuiescence(long timeout, TimeUnit unit) {
+        try {
+            return inFlight.awaitQuiescence(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Mensajes enviados por el gestor que aun no se entregan ni descartan.
+     */
+    public long getInFlightCount() {
+        return inFlight.getInFlight();
     }
 
     /**
      * Detiene la simulacion y libera recursos.
+     * Primero espera a que se entreguen los mensajes en vuelo (hasta 10s),
+     * luego detiene la topologia y guarda sus histogramas de latencia.
      */
     public void shutdown() {
         if (topology == null) {
             throw new IllegalStateException("NetworkTopology no esta configurada.");
         }
+        if (!awaitQuiescence(SHUTDOWN_QUIESCENCE_SECONDS, TimeUnit.SECONDS)) {
+            System.err.printf("NetworkManager: deteniendo con %d mensajes en vuelo%n", inFlight.getInFlight());
+        }
         topology.shutdown();
+        if (cluster != null) {
+            cluster.close();
+            cluster = null;
+        }
+        LatencyStats stats = topology.getLatencyStats();
+        if (stats != null) {
+            latencyByTopology.put(stats.getTopologyName(), stats);
+        }
+    }
+
+    /**
+     * Imprime p50/p99/p999 de espera en cola, por hop y extremo a extremo
+     * de cada topologia ejecutada (la ultima corrida de cada una).
+     */
+    public void printLatencyReport() {
+        for (LatencyStats stats : latencyByTopology.values()) {
+            stats.printReport();
+        }
+    }
+
+    /**
+     * Devuelve las latencias registradas por topologia.
+     *
+     * @return mapa nombre de topologia -> histogramas de su ultima corrida
+     */
+    public Map<String, LatencyStats> getLatencyByTopology() {
+        return latencyByTopology;
+    }
+
+    /**
+     * Imprime por nodo el tamano del inbox, descartes y eventos de backpressure.
+     */
+    public void printInboxStats() {
+        if (topology == null) {
+            throw new IllegalStateException("NetworkTopology no esta configurada.");
+        }
+        long totalDropped = 0;
+        long totalBackpressure = 0;
+        for (Node node : topology.getNodes()) {
+            System.out.printf("Nodo %d: inbox %d/%d (%s), descartados=%d, backpressure=%d%n",
+                    node.getId(), node.getInboxSize(), node.getInboxCapacity(), node.getOverflowPolicy(),
+                    node.getDroppedCount(), node.getBackpressureCount());
+            totalDropped += node.getDroppedCount();
+            totalBackpressure += node.getBackpressureCount();
+        }
+        System.out.printf("Total %d nodos: descartados=%d, backpressure=%d%n",
+                topology.getNodes().size(), totalDropped, totalBackpressure);
     }
 }
\ No newline at end of file
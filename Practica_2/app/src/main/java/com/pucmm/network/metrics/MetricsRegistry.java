@@ -0,0 +1,229 @@
+package com.pucmm.network.metrics;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de metricas en vivo: contadores y gauges con etiquetas que se
+ * leen al exportar (JMX o texto de Prometheus, ver MetricsServer).
+ *
+ * Cada muestra es un LongSupplier. Los contadores del camino caliente son
+ * LongAdder repartidos por hilo que ya viven en Node y AbstractTopology: la
+ * simulacion nunca toca el registro y la suma se paga solo al leer.
+ * Las familias se exportan en el orden en que se registraron.
+ */
+public final class MetricsRegistry {
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    /**
+     * Tipo de una familia, como lo declara la linea # TYPE.
+     */
+    public enum Type {
+        COUNTER, GAUGE
+    }
+
+    // nombre -> familia (bajo el monitor del registro)
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    private static final class Family {
+        final String name;
+        final String help;
+        final Type type;
+        // etiquetas ya formateadas ({k="v",...} o "") -> muestra
+        final Map<String, Sample> samples = new LinkedHashMap<>();
+
+        Family(String name, String help, Type type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static final class Sample {
+        final String[] labels;
+        final LongSupplier value;
+
+        Sample(String[] labels, LongSupplier value) {
+            this.labels = labels;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Crea un contador propio del registro.
+     *
+     * @param labels pares nombre, valor de etiqueta
+     * @return el LongAdder a incrementar
+     */
+    public LongAdder counter(String name, String help, String... labels) {
+        LongAdder adder = new LongAdder();
+        register(name, help, Type.COUNTER, adder::sum, labels);
+        return adder;
+    }
+
+    /**
+     * Registra un contador que ya lleva otro objeto (solo crece).
+     *
+     * @param labels pares nombre, valor de etiqueta
+     */
+    public void counter(String name, String help, LongSupplier value, String... labels) {
+        register(name, help, Type.COUNTER, value, labels);
+    }
+
+    /**
+     * Registra un gauge: un valor que sube y baja y se lee al exportar.
+     *
+     * @param labels pares nombre, valor de etiqueta
+     */
+    public void gauge(String name, String help, LongSupplier value, String... labels) {
+        register(name, help, Type.GAUGE, value, labels);
+    }
+
+    /**
+     * Registra una muestra; con el mismo nombre y etiquetas reemplaza a la
+     * anterior.
+     *
+     * @throws IllegalArgumentException si el nombre o las etiquetas no son
+     *         validos en Prometheus, o si el nombre ya existe con otro tipo
+     */
+    public synchronized void register(String name, String help, Type type, LongSupplier value, String... labels) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Nombre de metrica invalido: " + name);
+        }
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Las etiquetas de " + name + " van en pares nombre, valor");
+        }
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!LABEL.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("Etiqueta invalida en " + name + ": " + labels[i]);
+            }
+        }
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("La metrica " + name + " ya existe como " + family.type);
+        }
+        String[] copy = labels.clone();
+        family.samples.put(format(copy), new Sample(copy, value));
+    }
+
+    /**
+     * Quita todas las muestras que llevan la etiqueta label=value (por
+     * ejemplo las de una topologia) y las familias que quedan vacias.
+     *
+     * @return muestras quitadas
+     */
+    public synchronized int remove(String label, String value) {
+        int removed = 0;
+        for (Iterator<Family> f = families.values().iterator(); f.hasNext();) {
+            Family family = f.next();
+            for (Iterator<Sample> s = family.samples.values().iterator(); s.hasNext();) {
+                if (hasLabel(s.next().labels, label, value)) {
+                    s.remove();
+                    removed++;
+                }
+            }
+            if (family.samples.isEmpty()) {
+                f.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Valor actual de una muestra.
+     *
+     * @param labels pares nombre, valor en el orden en que se registro
+     * @throws IllegalArgumentException si la muestra no existe
+     */
+    public synchronized long get(String name, String... labels) {
+        Family family = families.get(name);
+        Sample sample = family == null ? null : family.samples.get(format(labels));
+        if (sample == null) {
+            throw new IllegalArgumentException("No existe la metrica " + name + format(labels));
+        }
+        return sample.value.getAsLong();
+    }
+
+    /**
+     * Nombres de las familias registradas, en orden de registro.
+     */
+    public synchronized List<String> getNames() {
+        return new ArrayList<>(families.keySet());
+    }
+
+    /**
+     * Escribe todas las muestras en el formato de texto de Prometheus
+     * (version 0.0.4): # HELP y # TYPE por familia y una linea por muestra.
+     */
+    public synchronized void writePrometheus(StringBuilder out) {
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ');
+            escape(out, family.help, false);
+            out.append('\n');
+            out.append("# TYPE ").append(family.name).append(' ')
+                    .append(family.type == Type.COUNTER ? "counter" : "gauge").append('\n');
+            for (Map.Entry<String, Sample> entry : family.samples.entrySet()) {
+                out.append(family.name).append(entry.getKey()).append(' ')
+                        .append(entry.getValue().value.getAsLong()).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Todas las muestras en texto de Prometheus.
+     */
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        writePrometheus(out);
+        return out.toString();
+    }
+
+    private static boolean hasLabel(String[] labels, String label, String value) {
+        for (int i = 0; i < labels.length; i += 2) {
+            if (labels[i].equals(label) && labels[i + 1].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // {k="v",...}, o "" sin etiquetas
+    private static String format(String[] labels) {
+        if (labels.length == 0) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"");
+            escape(out, String.valueOf(labels[i + 1]), true);
+            out.append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    // escapes del formato: \\ y \n siempre, \" solo en valores de etiqueta
+    private static void escape(StringBuilder out, String text, boolean quotes) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\') {
+                out.append("\\\\");
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '"' && quotes) {
+                out.append("\\\"");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
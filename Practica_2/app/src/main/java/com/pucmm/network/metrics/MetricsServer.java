@@ -0,0 +1,100 @@
+package com.pucmm.network.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Endpoint HTTP de solo lectura con las metricas de un MetricsRegistry en el
+ * formato de texto de Prometheus: GET /metrics.
+ *
+ * Escucha solo en la interfaz de loopback (no expone la simulacion a la
+ * red) y atiende en un unico hilo daemon: cada scrape lee los contadores al
+ * vuelo, sin detener a los nodos.
+ */
+public final class MetricsServer implements Closeable {
+    public static final String PATH = "/metrics";
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Arranca el servidor.
+     *
+     * @param registry metricas a exportar
+     * @param port puerto en loopback; 0 elige uno libre (ver getPort)
+     * @throws IllegalArgumentException si el puerto esta fuera de 0..65535
+     * @throws IOException si no se puede abrir el puerto
+     */
+    public MetricsServer(MetricsRegistry registry, int port) throws IOException {
+        if (port < 0 || port > 65535) {
+            throw new IllegalArgumentException("MetricsServer requiere un puerto entre 0 y 65535");
+        }
+        this.registry = registry;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(method)) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Puerto en que escucha (el elegido si se pidio 0).
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * URL del endpoint, para logs.
+     */
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort() + PATH;
+    }
+
+    /**
+     * Cierra el puerto y el hilo del servidor.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
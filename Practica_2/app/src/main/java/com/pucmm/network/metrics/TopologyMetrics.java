@@ -0,0 +1,227 @@
+package com.pucmm.network.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.pucmm.network.core.LinkScheduler;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.topologia.AbstractTopology;
+import com.pucmm.network.topologia.RoutedTopology;
+
+/**
+ * Metricas en vivo de una topologia, leidas de sus contadores y de su
+ * transporte en el momento de consultarlas: mensajes enviados, reenviados,
+ * entregados y descartados, perdidas en enlaces, profundidad de los inboxes,
+ * y entregas encoladas e hilos activos del transporte.
+ *
+ * Se publica en un MetricsRegistry (etiqueta topology=<nombre>, cause=<causa>
+ * en los descartes y node=<id> en la profundidad de cada inbox) y como MXBean
+ * en el servidor de la plataforma. Los valores siguen la configuracion actual
+ * de la topologia: al reconfigurarla vuelven a cero. Los nodos que la red
+ * sume en caliente (addNodes) publican su gauge al agregarse.
+ */
+public class TopologyMetrics implements TopologyMetricsMXBean {
+    public static final String DOMAIN = "com.pucmm.network";
+
+    private final AbstractTopology topology;
+    private final String name;
+
+    public TopologyMetrics(AbstractTopology topology) {
+        this.topology = topology;
+        this.name = topology.getName();
+    }
+
+    /**
+     * Registra las familias network_* con la etiqueta topology=<nombre>.
+     * Reemplaza lo que hubiera de una topologia con el mismo nombre.
+     */
+    public void register(MetricsRegistry registry) {
+        registry.remove("topology", name);
+        registry.counter("network_messages_sent_total", "Mensajes creados por sendMessage",
+                this::getMessagesSent, "topology", name);
+        registry.counter("network_messages_forwarded_total", "Mensajes reenviados por nodos intermedios",
+                this::getMessagesForwarded, "topology", name);
+        registry.counter("network_messages_delivered_total", "Mensajes procesados por su destino",
+                this::getMessagesDelivered, "topology", name);
+        registry.counter("network_messages_dropped_total",
+                "Mensajes descartados por causa: inbox lleno (overflow) o nodo caido (crash)",
+                this::getMessagesOverflowDropped, "topology", name, "cause", "overflow");
+        registry.counter("network_messages_dropped_total",
+                "Mensajes descartados por causa: inbox lleno (overflow) o nodo caido (crash)",
+                this::getMessagesLost, "topology", name, "cause", "crash");
+        registry.counter("network_link_lost_total", "Hops perdidos en enlaces con perdida",
+                this::getLinkLosses, "topology", name);
+        registry.counter("network_messages_rerouted_total", "Hops devueltos por un enlace caido y ruteados de nuevo",
+                this::getMessagesRerouted, "topology", name);
+        registry.gauge("network_inbox_depth_max", "Inbox mas profundo de la topologia",
+                this::getMaxInboxDepth, "topology", name);
+        registry.gauge("network_transport_queued_tasks", "Entregas encoladas en el transporte, fuera de los inboxes",
+                this::getTransportQueuedTasks, "topology", name);
+        registry.gauge("network_transport_active_threads", "Hilos del transporte con trabajo",
+                this::getTransportActiveThreads, "topology", name);
+        registerInboxes(registry, topology.getNodes());
+        topology.setNodesAddedListener(added -> registerInboxes(registry, added));
+    }
+
+    /**
+     * Quita del registro las muestras de esta topologia.
+     */
+    public void unregister(MetricsRegistry registry) {
+        topology.setNodesAddedListener(null);
+        registry.remove("topology", name);
+    }
+
+    private void registerInboxes(MetricsRegistry registry, List<Node> nodes) {
+        for (Node node : nodes) {
+            registry.gauge("network_inbox_depth", "Mensajes en el inbox de cada nodo",
+                    node::getInboxSize, "topology", name, "node", Integer.toString(node.getId()));
+        }
+    }
+
+    /**
+     * Registra el MXBean en el servidor de la plataforma, reemplazando al de
+     * una topologia anterior con el mismo nombre.
+     *
+     * @throws IllegalStateException si JMX rechaza el registro
+     */
+    public void registerMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = getObjectName();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudo registrar el MBean de " + name, e);
+        }
+    }
+
+    /**
+     * Quita el MXBean del servidor de la plataforma si sigue registrado.
+     */
+    public void unregisterMBean() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = getObjectName();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudo quitar el MBean de " + name, e);
+        }
+    }
+
+    /**
+     * com.pucmm.network:type=Topology,name=<topologia>
+     */
+    public ObjectName getObjectName() throws JMException {
+        return new ObjectName(DOMAIN + ":type=Topology,name=" + ObjectName.quote(name));
+    }
+
+    @Override
+    public String getTopology() {
+        return name;
+    }
+
+    @Override
+    public int getNodes() {
+        return topology.getNodes().size();
+    }
+
+    @Override
+    public long getMessagesSent() {
+        return topology.getSentCount();
+    }
+
+    @Override
+    public long getMessagesForwarded() {
+        long total = 0;
+        for (Node node : topology.getNodes()) {
+            total += node.getForwardedCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMessagesDelivered() {
+        long total = 0;
+        for (Node node : topology.getNodes()) {
+            total += node.getDeliveredCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMessagesDropped() {
+        long total = 0;
+        for (Node node : topology.getNodes()) {
+            total += node.getDroppedCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMessagesOverflowDropped() {
+        long total = 0;
+        for (Node node : topology.getNodes()) {
+            total += node.getOverflowDroppedCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getMessagesLost() {
+        long total = 0;
+        for (Node node : topology.getNodes()) {
+            total += node.getLostCount();
+        }
+        return total;
+    }
+
+    @Override
+    public long getLinkLosses() {
+        if (!(topology instanceof RoutedTopology)) {
+            return 0;
+        }
+        LinkScheduler links = ((RoutedTopology) topology).getLinks();
+        return links == null ? 0 : links.getLostCount();
+    }
+
+    @Override
+    public long getMessagesRerouted() {
+        return topology instanceof RoutedTopology ? ((RoutedTopology) topology).getReroutedCount() : 0;
+    }
+
+    @Override
+    public long getInboxDepth() {
+        long total = 0;
+        for (Node node : topology.getNodes()) {
+            total += node.getInboxSize();
+        }
+        return total;
+    }
+
+    @Override
+    public int getMaxInboxDepth() {
+        int max = 0;
+        for (Node node : topology.getNodes()) {
+            max = Math.max(max, node.getInboxSize());
+        }
+        return max;
+    }
+
+    @Override
+    public long getTransportQueuedTasks() {
+        return topology.getTransportQueuedTasks();
+    }
+
+    @Override
+    public int getTransportActiveThreads() {
+        return topology.getTransportActiveThreads();
+    }
+}
@@ -0,0 +1,23 @@
+package com.pucmm.network.metrics;
+
+/**
+ * Vista JMX de las metricas de una topologia (ver TopologyMetrics).
+ * Se registra como com.pucmm.network:type=Topology,name=<topologia>.
+ */
+public interface TopologyMetricsMXBean {
+    String getTopology();
+    int getNodes();
+    long getMessagesSent();
+    long getMessagesForwarded();
+    long getMessagesDelivered();
+    // descartes totales = inbox lleno + nodo caido
+    long getMessagesDropped();
+    long getMessagesOverflowDropped();
+    long getMessagesLost();
+    long getLinkLosses();
+    long getMessagesRerouted();
+    long getInboxDepth();
+    int getMaxInboxDepth();
+    long getTransportQueuedTasks();
+    int getTransportActiveThreads();
+}
@@ -0,0 +1,113 @@
+package com.pucmm.network.sum;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import com.pucmm.network.collective.CollectiveResult;
+import com.pucmm.network.collective.Collectives;
+import com.pucmm.network.core.NetworkTopology;
+
+/**
+ * Suma paralela de Practica_1 sobre la red simulada:
+ * 1) la raiz reparte los datos en bloques iguales (el ultimo con el resto,
+ *    como sumaParalela) con un scatter por los enlaces de la topologia
+ * 2) cada nodo suma su bloque en un SumWorker, todos en paralelo
+ * 3) las sumas parciales se reducen hacia la raiz por los enlaces
+ * Los pasos de comunicacion usan el algoritmo optimo de cada topologia
+ * (ver Collectives.defaultAlgorithm).
+ */
+public class DistributedSum {
+
+    private DistributedSum() {
+    }
+
+    /**
+     * Lee un entero por linea, igual que leerData de Practica_1.
+     *
+     * @param dataPath ruta del archivo (por ejemplo data/data.txt)
+     * @return datos del archivo
+     * @throws IOException si no se puede leer
+     */
+    public static int[] readData(Path dataPath) throws IOException {
+        return Files.readAllLines(dataPath).stream().mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Genera n enteros entre 1 y 10,000 como generarData de Practica_1, pero
+     * en memoria y con semilla fija.
+     *
+     * @param n    cantidad de datos
+     * @param seed semilla del generador
+     * @return datos generados
+     */
+    public static int[] generateData(int n, long seed) {
+        Random random = new Random(seed);
+        int[] data = new int[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = random.nextInt(10_000) + 1;
+        }
+        return data;
+    }
+
+    /**
+     * Ejecuta la suma distribuida sobre una topologia configurada y corriendo.
+     *
+     * @param topology topologia configurada y corriendo
+     * @param data     datos a sumar, en la raiz
+     * @param root     nodo que tiene los datos y recibe el total
+     * @return reporte con el total y los tiempos de comunicacion y computo
+     * @throws IllegalStateException si la topologia no esta configurada, un
+     *         mensaje se descarta o se interrumpe la espera de los SumWorker
+     * @throws IllegalArgumentException si root esta fuera de rango
+     */
+    public static DistributedSumReport run(NetworkTopology topology, int[] data, int root) {
+        Collectives collectives = new Collectives(topology);
+        int p = topology.getNodes().size();
+
+        // mismos bloques que sumaParalela: iguales y el ultimo con el resto
+        long[][] chunks = new long[p][];
+        int chunkSize = data.length / p;
+        int startIdx = 0;
+        for (int i = 0; i < p; i++) {
+            int endIdx = i == p - 1 ? data.length : startIdx + chunkSize;
+            chunks[i] = new long[endIdx - startIdx];
+            for (int j = startIdx; j < endIdx; j++) {
+                chunks[i][j - startIdx] = data[j];
+            }
+            startIdx = endIdx;
+        }
+        CollectiveResult scatter = collectives.scatter(root, chunks);
+
+        long[][] received = scatter.getValues();
+        long[][] partials = new long[p][];
+        SumWorker[] workers = new SumWorker[p];
+        long inicio = System.nanoTime();
+        for (int i = 0; i < p; i++) {
+            workers[i] = new SumWorker(received[i]);
+            workers[i].start();
+        }
+        try {
+            for (int i = 0; i < p; i++) {
+                workers[i].join();
+                partials[i] = new long[] {workers[i].getSuma()};
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("DistributedSum interrumpido esperando los SumWorker");
+        }
+        long computeNanos = System.nanoTime() - inicio;
+
+        CollectiveResult reduce = collectives.reduce(root, partials, Long::sum);
+
+        long expected = 0L;
+        for (int num : data) {
+            expected += num;
+        }
+        return new DistributedSumReport(scatter.getTopologyName(), scatter.getAlgorithm(), p, data.length,
+                reduce.getValues()[root][0], expected, scatter.getElapsedNanos(), computeNanos,
+                reduce.getElapsedNanos(), scatter.getSteps() + reduce.getSteps(),
+                scatter.getBytes() + reduce.getBytes());
+    }
+}
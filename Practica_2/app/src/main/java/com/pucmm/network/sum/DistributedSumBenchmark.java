@@ -0,0 +1,79 @@
+package com.pucmm.network.sum;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.topologia.BusNetwork;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.SwitchedNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Suma distribuida de Practica_1 en cada topologia con 2, 4, 8, 16 y 32
+ * nodos (los mismos hilos que sumaParalela). Imprime computo y comunicacion
+ * por separado y, por cantidad de nodos, la topologia con menor tiempo
+ * extremo a extremo. Los enlaces usan la latencia por defecto de cada topologia.
+ *
+ * Uso: DistributedSumBenchmark [nodosMax] [rutaData]
+ * Sin rutaData genera 1,000,000 de enteros entre 1 y 10,000 como Practica_1.
+ */
+public class DistributedSumBenchmark {
+    private static final int DEFAULT_ELEMENTS = 1_000_000;
+    private static final int ROOT = 0;
+
+    public static void main(String[] args) throws IOException {
+        int maxNodes = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int[] data = args.length > 1 ? DistributedSum.readData(Paths.get(args[1]))
+                : DistributedSum.generateData(DEFAULT_ELEMENTS, 42);
+
+        NetworkLog.setEnabled(false);
+        Map<String, Supplier<NetworkTopology>> topologies = new LinkedHashMap<>();
+        topologies.put("RingNetwork", RingNetwork::new);
+        topologies.put("StarNetwork", StarNetwork::new);
+        topologies.put("MeshNetwork", MeshNetwork::new);
+        topologies.put("HypercubeNetwork", HypercubeNetwork::new);
+        topologies.put("TreeNetwork", TreeNetwork::new);
+        topologies.put("FullyConnectedNetwork", FullyConnectedNetwork::new);
+        topologies.put("BusNetwork", BusNetwork::new);
+        topologies.put("SwitchedNetwork", SwitchedNetwork::new);
+
+        System.out.printf("=== DistributedSum datos=%d ===%n", data.length);
+        Map<Integer, DistributedSumReport> best = new LinkedHashMap<>();
+        for (int p = 2; p <= maxNodes; p *= 2) {
+            for (Supplier<NetworkTopology> factory : topologies.values()) {
+                NetworkTopology topology = factory.get();
+                topology.configureNetwork(p);
+                topology.runNetwork();
+                DistributedSumReport report;
+                try {
+                    report = DistributedSum.run(topology, data, ROOT);
+                } finally {
+                    topology.shutdown();
+                }
+                System.out.println(report);
+                DistributedSumReport current = best.get(p);
+                if (report.isCorrect() && (current == null || report.getTotalNanos() < current.getTotalNanos())) {
+                    best.put(p, report);
+                }
+            }
+            System.out.println();
+        }
+
+        System.out.println("=== Menor tiempo extremo a extremo por cantidad de nodos ===");
+        for (Map.Entry<Integer, DistributedSumReport> entry : best.entrySet()) {
+            DistributedSumReport report = entry.getValue();
+            System.out.printf("p=%-3d %-22s extremo=%9.3fms (computo=%.3fms comunicacion=%.3fms)%n",
+                    entry.getKey(), report.getTopologyName(), report.getTotalNanos() / 1e6,
+                    report.getComputeNanos() / 1e6, report.getCommunicationNanos() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.pucmm.network.sum;
+
+import com.pucmm.network.collective.CollectiveAlgorithm;
+
+/**
+ * Resultado de una suma distribuida: total contra la suma secuencial y
+ * tiempos de comunicacion (scatter + reduce) y de computo por separado.
+ */
+public class DistributedSumReport {
+    private final String topologyName;
+    private final CollectiveAlgorithm algorithm;
+    private final int numNodes;
+    private final int elements;
+    private final long total;
+    private final long expected;
+    private final long scatterNanos;
+    private final long computeNanos;
+    private final long reduceNanos;
+    private final int steps;
+    private final long bytes;
+
+    /**
+     * @param topologyName nombre de la topologia
+     * @param algorithm    algoritmo de las colectivas
+     * @param numNodes     nodos que sumaron un bloque
+     * @param elements     cantidad de datos
+     * @param total        suma que quedo en la raiz
+     * @param expected     suma secuencial de referencia
+     * @param scatterNanos duracion del scatter de los bloques
+     * @param computeNanos duracion de las sumas locales (hasta el ultimo SumWorker)
+     * @param reduceNanos  duracion del reduce de las sumas parciales
+     * @param steps        pasos de comunicacion (scatter + reduce)
+     * @param bytes        bytes enviados (scatter + reduce)
+     */
+    public DistributedSumReport(String topologyName, CollectiveAlgorithm algorithm, int numNodes, int elements,
+                                long total, long expected, long scatterNanos, long computeNanos,
+                                long reduceNanos, int steps, long bytes) {
+        this.topologyName = topologyName;
+        this.algorithm = algorithm;
+        this.numNodes = numNodes;
+        this.elements = elements;
+        this.total = total;
+        this.expected = expected;
+        this.scatterNanos = scatterNanos;
+        this.computeNanos = computeNanos;
+        this.reduceNanos = reduceNanos;
+        this.steps = steps;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Tiempo de comunicacion: scatter + reduce.
+     */
+    public long getCommunicationNanos() {
+        return scatterNanos + reduceNanos;
+    }
+
+    /**
+     * Tiempo extremo a extremo: comunicacion + computo.
+     */
+    public long getTotalNanos() {
+        return getCommunicationNanos() + computeNanos;
+    }
+
+    /**
+     * Indica si la suma distribuida coincide con la secuencial.
+     */
+    public boolean isCorrect() {
+        return total == expected;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-22s %-18s p=%-3d total=%-12d %-5s computo=%8.3fms scatter=%9.3fms "
+                        + "reduce=%8.3fms comunicacion=%9.3fms extremo=%9.3fms pasos=%-3d bytes=%d",
+                topologyName, algorithm, numNodes, total, isCorrect() ? "OK" : "ERROR",
+                computeNanos / 1e6, scatterNanos / 1e6, reduceNanos / 1e6,
+                getCommunicationNanos() / 1e6, getTotalNanos() / 1e6, steps, bytes);
+    }
+
+    // Getters
+    public String getTopologyName() { return topologyName; }
+    public CollectiveAlgorithm getAlgorithm() { return algorithm; }
+    public int getNumNodes() { return numNodes; }
+    public int getElements() { return elements; }
+    public long getTotal() { return total; }
+    public long getExpected() { return expected; }
+    public long getScatterNanos() { return scatterNanos; }
+    public long getComputeNanos() { return computeNanos; }
+    public long getReduceNanos() { return reduceNanos; }
+    public int getSteps() { return steps; }
+    public long getBytes() { return bytes; }
+}
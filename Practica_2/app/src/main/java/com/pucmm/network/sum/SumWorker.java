@@ -0,0 +1,30 @@
+package com.pucmm.network.sum;
+
+/**
+ * Hilo que suma el bloque recibido por un nodo, igual que SumWorker de
+ * Practica_1 pero sobre la copia local del nodo (despues del scatter).
+ */
+public class SumWorker extends Thread {
+    private final long[] chunk;
+    private long suma;
+
+    /**
+     * @param chunk bloque de datos del nodo
+     */
+    public SumWorker(long[] chunk) {
+        this.chunk = chunk;
+    }
+
+    @Override
+    public void run() {
+        long localSum = 0;
+        for (long value : chunk) {
+            localSum += value;
+        }
+        suma = localSum;
+    }
+
+    public long getSuma() {
+        return suma;
+    }
+}
@@ -0,0 +1,423 @@
+package com.pucmm.network.topologia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.pucmm.network.core.DeliveryOrder;
+import com.pucmm.network.core.FlowSequencer;
+import com.pucmm.network.core.LatencyStats;
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.ReorderStats;
+import com.pucmm.network.core.TraceRecorder;
+import com.pucmm.network.core.Transport;
+import com.pucmm.network.core.TransportKind;
+
+/**
+ * Base comun de las topologias: crea los nodos y sus histogramas, valida
+ * indices y maneja el ciclo de vida sobre un Transport intercambiable.
+ * Tambien numera cada mensaje por flujo (from,to) y, segun el DeliveryOrder,
+ * el destino solo mide el desorden o entrega en orden FIFO por flujo.
+ * Con setTraceRecorder, los envios, hops, entregas y descartes quedan en una
+ * traza binaria (ver TraceRecorder).
+ *
+ * Cada topologia aporta solo lo propio:
+ * - prepare: validaciones y estado que dependen del numero de nodos.
+ * - onConfigured: el medio (enlaces, bus, switches) una vez creados los nodos.
+ * - sendMessage: como entra un mensaje a la red.
+ * - drainMedium / closeMedium: como se vacia y se cierra el medio al detener.
+ * - onNodesAdded: como se suman al medio los nodos de addNodes.
+ */
+public abstract class AbstractTopology implements NetworkTopology {
+    // espera maxima al detener, para el medio y para el transporte
+    private static final long SHUTDOWN_SECONDS = 4;
+
+    private final String name = getClass().getSimpleName();
+    private TransportKind transportKind = TransportKind.SHARDED;
+    // instancia para la siguiente configuracion; si es null se crea segun transportKind
+    private Transport nextTransport;
+    private DeliveryOrder deliveryOrder = DeliveryOrder.UNORDERED;
+    // copy-on-write: addNodes agrega con la red corriendo
+    private List<Node> nodes;
+    private LatencyStats latencyStats;
+    private Transport transport;
+    private FlowSequencer sequencer;
+    private ReorderStats reorderStats;
+    private TraceRecorder trace;
+    // mensajes creados por sendMessage desde la ultima configuracion
+    private final LongAdder sent = new LongAdder();
+    // se avisa con los nodos de cada addNodes; null si nadie escucha
+    private volatile Consumer<List<Node>> nodesAddedListener;
+
+    /**
+     * Elige el transporte; aplica desde el siguiente configureNetwork.
+     *
+     * @param kind transporte a usar (por defecto SHARDED)
+     */
+    public void setTransport(TransportKind kind) {
+        this.transportKind = kind;
+    }
+
+    /**
+     * Usa esta instancia de transporte en el siguiente configureNetwork, por
+     * ejemplo un DeterministicTransport que graba o reproduce. Un transporte
+     * sirve para una sola corrida: las configuraciones siguientes vuelven a
+     * crear el de getTransportKind.
+     *
+     * @param transport transporte sin arrancar
+     */
+    public void setTransport(Transport transport) {
+        this.nextTransport = transport;
+    }
+
+    /**
+     * Transporte elegido para la siguiente configuracion.
+     */
+    public TransportKind getTransportKind() {
+        return transportKind;
+    }
+
+    /**
+     * Elige la garantia de orden por flujo; aplica desde el siguiente configureNetwork.
+     *
+     * @param order garantia de orden (por defecto UNORDERED)
+     */
+    public void setDeliveryOrder(DeliveryOrder order) {
+        this.deliveryOrder = order;
+    }
+
+    /**
+     * Garantia de orden elegida para la siguiente configuracion.
+     */
+    public DeliveryOrder getDeliveryOrder() {
+        return deliveryOrder;
+    }
+
+    /**
+     * Registra los eventos de la red en una traza; aplica desde el siguiente
+     * configureNetwork, que le pone el reloj del transporte si es virtual.
+     *
+     * @param trace traza abierta; null para no registrar
+     */
+    public void setTraceRecorder(TraceRecorder trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Recibe los nodos de cada addNodes una vez que el transporte ya los
+     * ejecuta, por ejemplo para publicar sus metricas. Sigue vigente entre
+     * configuraciones.
+     *
+     * @param listener a quien avisar; null para dejar de avisar
+     */
+    public void setNodesAddedListener(Consumer<List<Node>> listener) {
+        this.nodesAddedListener = listener;
+    }
+
+    /**
+     * Traza elegida para la siguiente configuracion; null si no se registra.
+     */
+    public TraceRecorder getTraceRecorder() {
+        return trace;
+    }
+
+    /**
+     * Configura la red con numberOfNodes nodos: valida (prepare), crea los
+     * nodos con ids 0..numberOfNodes-1, el transporte y el medio (onConfigured).
+     *
+     * @param numberOfNodes cantidad de nodos
+     * @throws IllegalArgumentException si numberOfNodes < 1 o la topologia no lo admite
+     */
+    @Override
+    public void configureNetwork(int numberOfNodes) {
+        if (numberOfNodes < 1) {
+            throw new IllegalArgumentException(name + " requiere al menos 1 nodo");
+        }
+        prepare(numberOfNodes);
+        latencyStats = new LatencyStats(name);
+        reorderStats = new ReorderStats();
+        sequencer = new FlowSequencer(numberOfNodes);
+        sent.reset();
+        List<Node> created = new ArrayList<>(numberOfNodes);
+        for (int i = 0; i < numberOfNodes; i++) {
+            created.add(newNode(i));
+        }
+        nodes = new CopyOnWriteArrayList<>(created);
+        transport = nextTransport != null ? nextTransport : transportKind.create(numberOfNodes, name);
+        nextTransport = null;
+        if (trace != null) {
+            trace.setClock(transport.isVirtualClock() ? transport::nanoTime : null);
+        }
+        onConfigured();
+    }
+
+    private Node newNode(int id) {
+        Node node = new Node(id);
+        node.setLatencyStats(latencyStats);
+        node.configureOrdering(deliveryOrder, reorderStats);
+        node.setTraceRecorder(trace);
+        return node;
+    }
+
+    /**
+     * Agrega count nodos con ids size..size+count-1 sin reconfigurar la red:
+     * los nodos existentes, sus inboxes, los enlaces y el transporte siguen
+     * como estan. Los nodos nuevos copian el inbox del nodo 0; la topologia
+     * los conecta en onNodesAdded antes de que el transporte los ejecute.
+     *
+     * @param count nodos a agregar
+     * @return nodos agregados
+     * @throws IllegalStateException si no esta configurada o el transporte no
+     *         admite nodos nuevos
+     * @throws IllegalArgumentException si count < 1
+     */
+    protected synchronized List<Node> addNodes(int count) {
+        requireConfigured();
+        if (count < 1) {
+            throw new IllegalArgumentException(name + " requiere agregar al menos 1 nodo");
+        }
+        int oldSize = nodes.size();
+        Node template = nodes.get(0);
+        List<Node> added = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Node node = newNode(oldSize + i);
+            if (template.getInboxCapacity() != Integer.MAX_VALUE) {
+                node.configureInbox(template.getInboxCapacity(), template.getOverflowPolicy());
+            }
+            added.add(node);
+        }
+        nodes.addAll(added);
+        onNodesAdded(oldSize);
+        for (Node node : added) {
+            transport.addNode(node);
+        }
+        Consumer<List<Node>> listener = nodesAddedListener;
+        if (listener != null) {
+            listener.accept(Collections.unmodifiableList(added));
+        }
+        return added;
+    }
+
+    /**
+     * Valida numberOfNodes y calcula el estado propio que depende de el,
+     * antes de crear los nodos. Por defecto no hace nada.
+     *
+     * @param numberOfNodes cantidad de nodos pedida (>= 1)
+     * @throws IllegalArgumentException si la topologia no admite ese tamano
+     */
+    protected void prepare(int numberOfNodes) {
+    }
+
+    /**
+     * Crea el medio de la topologia con los nodos y el transporte ya creados.
+     * Por defecto no hace nada.
+     */
+    protected void onConfigured() {
+    }
+
+    /**
+     * Conecta los nodos oldSize..size-1 recien agregados por addNodes. Por
+     * defecto no hace nada.
+     *
+     * @param oldSize cantidad de nodos antes de agregar
+     */
+    protected void onNodesAdded(int oldSize) {
+    }
+
+    /**
+     * Inicia la simulacion: el transporte empieza a ejecutar los nodos.
+     *
+     * @throws IllegalStateException si la topologia no esta configurada
+     */
+    @Override
+    public void runNetwork() {
+        requireConfigured();
+        transport.start(nodes);
+    }
+
+    /**
+     * Detiene la simulacion:
+     * - Espera hasta 4s a que se vacie el medio y lo cierra (drainMedium)
+     * - Marca cada nodo como detenido (stop())
+     * - Espera hasta 4s a que el transporte drene lo pendiente antes de forzar
+     */
+    @Override
+    public void shutdown() {
+        requireConfigured();
+        try {
+            drainMedium(SHUTDOWN_SECONDS, TimeUnit.SECONDS);
+            for (Node node : nodes) {
+                node.stop();
+            }
+            transport.shutdown();
+            if (!transport.awaitTermination(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                transport.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            closeMedium();
+            transport.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Espera a que el medio entregue lo que tiene en vuelo y lo cierra.
+     * Por defecto no hace nada.
+     *
+     * @param timeout espera maxima
+     * @param unit unidad de timeout
+     * @throws InterruptedException si se interrumpe la espera
+     */
+    protected void drainMedium(long timeout, TimeUnit unit) throws InterruptedException {
+    }
+
+    /**
+     * Cierra el medio sin esperar; se usa si se interrumpe la detencion.
+     * Por defecto no hace nada.
+     */
+    protected void closeMedium() {
+    }
+
+    /**
+     * Devuelve los nodos de la topologia.
+     *
+     * @return vista de solo lectura de los nodos, vacia si no esta configurada
+     */
+    @Override
+    public List<Node> getNodes() {
+        return nodes == null ? Collections.emptyList() : Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Devuelve los histogramas de latencia de la topologia.
+     *
+     * @return histogramas de la ultima configuracion, null si no esta configurada
+     */
+    @Override
+    public LatencyStats getLatencyStats() {
+        return latencyStats;
+    }
+
+    /**
+     * Devuelve las medidas de desorden por flujo de la topologia.
+     *
+     * @return medidas de la ultima configuracion, null si no esta configurada
+     */
+    public ReorderStats getReorderStats() {
+        return reorderStats;
+    }
+
+    /**
+     * Nombre de la topologia para logs y mensajes de error.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Mensajes enviados desde la ultima configuracion.
+     */
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    /**
+     * Entregas encoladas en el transporte, fuera de los inboxes (ver
+     * Transport.getQueuedTasks); 0 si no esta configurada.
+     */
+    public long getTransportQueuedTasks() {
+        Transport current = transport;
+        return current == null ? 0 : current.getQueuedTasks();
+    }
+
+    /**
+     * Hilos del transporte con trabajo (ver Transport.getActiveThreads); 0
+     * si no esta configurada.
+     */
+    public int getTransportActiveThreads() {
+        Transport current = transport;
+        return current == null ? 0 : current.getActiveThreads();
+    }
+
+    /**
+     * Transporte de la ultima configuracion, null si no esta configurada.
+     */
+    protected Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Crea un mensaje con la siguiente secuencia de su flujo y lo registra en
+     * la traza. Con
+     * FIFO_PER_FLOW, si el mensaje se descarta en el camino se avisa al
+     * destino para que no retenga las secuencias siguientes.
+     *
+     * @param from nodo origen (ya validado)
+     * @param to nodo destino (ya validado)
+     * @param payload contenido
+     * @return mensaje numerado
+     */
+    protected Message newMessage(int from, int to, String payload) {
+        Message msg = new Message(from, to, payload, sequencer.next(from, to));
+        sent.increment();
+        if (trace != null) {
+            trace.recordAt(trace.stamp(msg.getCreatedNanos()), TraceRecorder.SEND, msg.getId(), from, to, 0, 0);
+        }
+        if (deliveryOrder == DeliveryOrder.FIFO_PER_FLOW) {
+            Node target = nodes.get(to);
+            msg.getDelivery().whenComplete((m, e) -> {
+                if (e != null) {
+                    target.skip(msg);
+                }
+            });
+        }
+        return msg;
+    }
+
+    /**
+     * Nodo con el id dado; el llamador ya valido el indice.
+     */
+    protected Node node(int id) {
+        return nodes.get(id);
+    }
+
+    /**
+     * Cantidad de nodos de la ultima configuracion.
+     */
+    protected int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @throws IllegalStateException si la topologia no esta configurada
+     */
+    protected void requireConfigured() {
+        if (nodes == null) {
+            throw new IllegalStateException(name + " no esta configurada.");
+        }
+    }
+
+    /**
+     * Verifica que la topologia este configurada y que from/to esten dentro
+     * de rango [0, size-1].
+     *
+     * @param from indice de origen
+     * @param to indice de destino
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si from o to estan fuera de rango
+     */
+    protected void validateIndices(int from, int to) {
+        requireConfigured();
+        int size = nodes.size();
+        if (from < 0 || from >= size || to < 0 || to >= size) {
+            throw new IllegalArgumentException(
+                    "Indices fuera de rango en " + name + ": from=" + from + " to=" + to);
+        }
+    }
+}
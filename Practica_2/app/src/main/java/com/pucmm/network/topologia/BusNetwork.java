@@ -1,136 +1,284 @@
 package com.pucmm.network.topologia;
 
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import com.pucmm.network.core.Message;
-import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.core.NetworkLog;
 import com.pucmm.network.core.Node;
+import com.pucmm.network.core.ShardedExecutor;
+import com.pucmm.network.core.SharedBus;
+import com.pucmm.network.core.Transport;
+import com.pucmm.network.core.TransportKind;
 
 /**
  * Implementacion de la topologia de bus.
- * Todos los nodos comparten un medio comun. Hacemos broadcast,
- * pero Node solo procesa si es destino.
+ * Todos los nodos comparten un medio comun (SharedBus): un broadcast es una
+ * sola escritura en el log del bus y cada nodo lo lee con su propio cursor,
+ * procesando solo los mensajes cuyo destino es el.
+ * Los lectores procesan directo desde el log, sin pasar por inboxes, por lo
+ * que el bus no usa el transporte de AbstractTopology y rechaza setTransport.
+ * Los cursores se registran al arrancar los lectores (runNetwork): antes de
+ * eso el bus acepta hasta su capacidad y despues el envio falla.
  */
-public class BusNetwork implements NetworkTopology {
-    private List<Node> nodes;
+public class BusNetwork extends AbstractTopology {
+    // capacidad por defecto del log del bus (potencia de 2)
+    private static final int DEFAULT_BUS_CAPACITY = 1024;
+    // spins antes de que un lector se estacione esperando publicaciones
+    private static final int READER_SPINS = 100;
+    private static final long READER_PARK_NANOS = 50_000;
+
+    private final int busCapacity;
+    private final long arbitrationNanos;
+    private SharedBus bus;
     private ExecutorService nodeExecutor;
-    private ExecutorService sendExecutor;
+    // envios hechos desde un lector (por ejemplo al completar un future) que
+    // todavia no entraron al log; null en los demas hilos
+    private final ThreadLocal<ArrayDeque<Message>> readerBacklog = new ThreadLocal<>();
+
+    /**
+     * Bus con capacidad por defecto y sin tiempo de arbitraje.
+     */
+    public BusNetwork() {
+        this(DEFAULT_BUS_CAPACITY, 0);
+    }
 
     /**
-     * Configura la red en topologia de bus con un numero de nodos dado.
-     * Crea los nodos con ids 0..numNodes-1 y prepara los executors:
-     * - nodeExecutor: pool fijo de tamaño numNodes para ejecutar los nodos.
-     * - sendExecutor: pool cached para envios concurrentes.
+     * Bus con capacidad y tiempo de arbitraje configurables.
      *
-     * @param numNodes numero de nodos a instanciar en la topologia
-     * @throws IllegalArgumentException si numNodes < 1
+     * @param busCapacity        ranuras del log del bus; debe ser potencia de 2
+     * @param arbitrationMicros  tiempo que cada emisor ocupa el bus por escritura
+     */
+    public BusNetwork(int busCapacity, long arbitrationMicros) {
+        this.busCapacity = busCapacity;
+        this.arbitrationNanos = TimeUnit.MICROSECONDS.toNanos(arbitrationMicros);
+    }
+
+    /**
+     * El bus no usa transporte: sus lectores procesan desde el log.
+     *
+     * @throws UnsupportedOperationException siempre
      */
     @Override
-    public void configureNetwork(int numNodes) {
-        if (numNodes < 1) {
-            throw new IllegalArgumentException("BusNetwork requiere al menos 1 nodo");
-        }
-        nodes = new ArrayList<>();
-        for (int i = 0; i < numNodes; i++) {
-            nodes.add(new Node(i));
-        }
-        // Executor dedicado para run de nodos
-        nodeExecutor = Executors.newFixedThreadPool(numNodes);
-        // Executor para tareas de envio, tamanho variable
-        sendExecutor = Executors.newCachedThreadPool();
+    public void setTransport(TransportKind kind) {
+        throw new UnsupportedOperationException("BusNetwork no usa transporte: sus lectores procesan desde el log");
+    }
+
+    /**
+     * El bus no usa transporte: sus lectores procesan desde el log.
+     *
+     * @throws UnsupportedOperationException siempre
+     */
+    @Override
+    public void setTransport(Transport transport) {
+        throw new UnsupportedOperationException("BusNetwork no usa transporte: sus lectores procesan desde el log");
+    }
+
+    /**
+     * Crea el medio compartido y nodeExecutor: un lector por core; cada
+     * lector atiende los cursores de los nodos id % lectores, igual que los
+     * shards de ShardedExecutor.
+     */
+    @Override
+    protected void onConfigured() {
+        bus = new SharedBus(busCapacity, arbitrationNanos);
+        // Executor dedicado para los lectores del bus (uno por core)
+        nodeExecutor = Executors.newFixedThreadPool(ShardedExecutor.shardsFor(size()));
     }
 
     /**
      * Envia un mensaje desde el nodo 'from' hacia 'to' haciendo broadcast.
-     * Se crea un Message con origen, destino y payload, y se somete una tarea
-     * en sendExecutor para cada nodo de la lista. Node.run() filtrara segun destino.
+     * El emisor compite por el bus y realiza una unica escritura en el log;
+     * cada lector filtra segun destino sin encolar copias.
+     * Desde un lector no se espera al log lleno (el lector esperaria a su
+     * propio cursor): el mensaje queda en su backlog y lo publica el mismo
+     * lector entre lecturas.
      *
      * @param from indice del nodo origen
      * @param to indice del nodo destino
      * @param payload contenido del mensaje
-     * @throws IllegalStateException si la topologia no esta configurada
+     * @return future de entrega del mensaje
+     * @throws IllegalStateException si la topologia no esta configurada, el
+     *         bus esta cerrado o se llena antes de runNetwork
      * @throws IllegalArgumentException si from o to estan fuera de rango
      */
     @Override
-    public void sendMessage(int from, int to, String payload) {
+    public CompletableFuture<Message> sendMessage(int from, int to, String payload) {
         validateIndices(from, to);
-        Message msg = new Message(from, to, payload);
-        // Broadcast: enviamos a todos, pero Node.run filtrara segun destino
-        for (Node node : nodes) {
-            sendExecutor.submit(() -> {
-                // Log opcion: podriamos indicar que enviamos el broadcast
-                System.out.printf("[%s] BusNetwork: nodo %d enviando broadcast mensaje %d->%d%n",
-                        Instant.now(), from, msg.getFromId(), msg.getToId());
-                node.receiveMessage(msg);
-            });
+        Message msg = newMessage(from, to, payload);
+        NetworkLog.printf("[%s] BusNetwork: nodo %d escribiendo broadcast mensaje %d->%d%n",
+                Instant.now(), from, msg.getFromId(), msg.getToId());
+        long start = System.nanoTime();
+        ArrayDeque<Message> backlog = readerBacklog.get();
+        if (backlog == null) {
+            bus.write(msg);
+        } else if (!backlog.isEmpty() || !bus.tryWrite(msg)) {
+            backlog.add(msg);
+            return msg.getDelivery();
         }
+        // el "hop" del bus es la escritura: arbitraje + ocupacion del medio
+        getLatencyStats().recordHop(System.nanoTime() - start);
+        return msg.getDelivery();
     }
 
     /**
-     * Inicia la simulacion de la red: somete cada nodo al executor dedicado.
-     * Cada Node.run() correra en paralelo leyendo su inbox.
+     * Inicia la simulacion de la red: registra el cursor de cada nodo (desde
+     * la secuencia 0: lo enviado antes de runNetwork se lee igual) y reparte
+     * los nodos, con sus cursores, por id entre los lectores de nodeExecutor.
      *
      * @throws IllegalStateException si la topologia no esta configurada
      */
     @Override
     public void runNetwork() {
-        // Iniciamos cada nodo en su propio hilo
-        for (Node node : nodes) {
-            nodeExecutor.submit(node);
+        requireConfigured();
+        List<SharedBus.Cursor> cursors = bus.newCursors(size());
+        int readers = ShardedExecutor.shardsFor(size());
+        List<List<Node>> groups = new ArrayList<>(readers);
+        List<List<SharedBus.Cursor>> readerCursors = new ArrayList<>(readers);
+        for (int r = 0; r < readers; r++) {
+            groups.add(new ArrayList<>());
+            readerCursors.add(new ArrayList<>());
+        }
+        for (Node node : getNodes()) {
+            groups.get(node.getId() % readers).add(node);
+            readerCursors.get(node.getId() % readers).add(cursors.get(node.getId()));
+        }
+        for (int r = 0; r < readers; r++) {
+            List<Node> group = groups.get(r);
+            List<SharedBus.Cursor> groupCursors = readerCursors.get(r);
+            nodeExecutor.submit(() -> readBus(group, groupCursors));
+        }
+    }
+
+    /**
+     * Bucle de un lector: publica lo que dejaron en su backlog los envios
+     * desde este hilo y lee un mensaje por cursor en cada vuelta hasta que
+     * el bus se cierre y sus nodos hayan alcanzado la ultima publicacion; el cursor
+     * de cada nodo que termina deja de frenar a los emisores. Espera activa
+     * breve y luego park.
+     */
+    private void readBus(List<Node> group, List<SharedBus.Cursor> cursors) {
+        ArrayDeque<Message> backlog = new ArrayDeque<>();
+        readerBacklog.set(backlog);
+        boolean[] finished = new boolean[group.size()];
+        int idle = 0;
+        while (true) {
+            boolean active = !backlog.isEmpty();
+            boolean read = flushBacklog(backlog);
+            for (int i = 0; i < group.size(); i++) {
+                Node node = group.get(i);
+                SharedBus.Cursor cursor = cursors.get(i);
+                if (finished[i]) {
+                    continue;
+                }
+                // con el bus cerrado nadie mas publica: al dia, el nodo termino
+                if (bus.isClosed() && bus.isCaughtUp(cursor)) {
+                    finished[i] = true;
+                    bus.removeCursor(cursor);
+                    continue;
+                }
+                active = true;
+                Message msg = bus.poll(cursor);
+                if (msg == null) {
+                    continue;
+                }
+                read = true;
+                if (msg.getToId() == node.getId()) {
+                    node.process(msg);
+                }
+            }
+            if (!active) {
+                break;
+            }
+            if (read) {
+                idle = 0;
+            } else if (++idle < READER_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(READER_PARK_NANOS);
+            }
+        }
+        readerBacklog.remove();
+        for (Node node : group) {
+            NetworkLog.printf("Nodo %d detenido.%n", node.getId());
         }
     }
 
     /**
-     * Detiene la simulacion:
+     * Publica en orden lo que se pueda del backlog sin esperar a los lectores.
+     * Con el bus cerrado lo pendiente se descarta y su future falla.
+     *
+     * @return true si publico algo
+     */
+    private boolean flushBacklog(ArrayDeque<Message> backlog) {
+        boolean published = false;
+        Message msg;
+        while ((msg = backlog.peek()) != null) {
+            try {
+                if (!bus.tryWrite(msg)) {
+                    break;
+                }
+            } catch (IllegalStateException e) {
+                while ((msg = backlog.poll()) != null) {
+                    msg.markDropped("BusNetwork: " + e.getMessage());
+                }
+                break;
+            }
+            backlog.poll();
+            getLatencyStats().recordHop(System.nanoTime() - msg.getCreatedNanos());
+            published = true;
+        }
+        return published;
+    }
+
+    /**
+     * Vacia el bus al detener:
      * - Marca cada nodo para que deje de ejecutar (node.stop()).
-     * - Cierra nodeExecutor y sendExecutor, esperando hasta 2 segundos
-     *   para drenar tareas pendientes; si no termina, fuerza shutdownNow().
+     * - Cierra el bus: los envios siguientes, y los que esperaban a un lector
+     *   atrasado, fallan en lugar de bloquear.
+     * - Espera a que los lectores alcancen el final del log; si no terminan,
+     *   fuerza shutdownNow().
      */
     @Override
-    public void shutdown() {
-        // Paramos nodos
-        for (Node node : nodes) {
+    protected void drainMedium(long timeout, TimeUnit unit) throws InterruptedException {
+        for (Node node : getNodes()) {
             node.stop();
         }
-        // Shutdown de executors
+        bus.close();
         nodeExecutor.shutdown();
-        sendExecutor.shutdown();
-        try {
-            if (!sendExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
-                sendExecutor.shutdownNow();
-            }
-            if (!nodeExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
-                nodeExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            sendExecutor.shutdownNow();
+        if (!nodeExecutor.awaitTermination(timeout, unit)) {
             nodeExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
     }
 
+    @Override
+    protected void closeMedium() {
+        bus.close();
+        nodeExecutor.shutdownNow();
+    }
+
     /**
-     * Verifica que la topologia este configurada y que los indices from y to
-     * esten dentro de rango [0, size-1].
-     *
-     * @param from indice de origen
-     * @param to indice de destino
-     * @throws IllegalStateException si nodes es null (no configurada)
-     * @throws IllegalArgumentException si from o to estan fuera de rango
+     * Detiene la simulacion (ver drainMedium) y muestra las estadisticas de
+     * contencion del bus.
      */
-    private void validateIndices(int from, int to) {
-        if (nodes == null) {
-            throw new IllegalStateException("BusNetwork no esta configurada.");
-        }
-        int size = nodes.size();
-        if (from < 0 || from >= size || to < 0 || to >= size) {
-            throw new IllegalArgumentException(
-                    "Indices fuera de rango en BusNetwork: from=" + from + " to=" + to);
-        }
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        NetworkLog.printf("BusNetwork: %d escrituras, %d con contencion, espera de arbitraje %.3f ms%n",
+                bus.getWrites(), bus.getContendedWrites(), bus.getArbitrationWaitNanos() / 1e6);
+    }
+
+    /**
+     * Devuelve el medio compartido para consultar estadisticas de contencion.
+     */
+    public SharedBus getBus() {
+        return bus;
     }
-}
\ No newline at end of file
+}
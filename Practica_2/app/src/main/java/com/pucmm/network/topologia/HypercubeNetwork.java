@@ -1,153 +1,126 @@
 package com.pucmm.network.topologia;
 
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
-import com.pucmm.network.core.Message;
-import com.pucmm.network.core.NetworkTopology;
-import com.pucmm.network.core.Node;
+import com.pucmm.network.core.NetworkLog;
 
 /**
  * Topologia de hipercubo: nodos con IDs 0..2^d-1, conectados si difieren en un bit.
+ * Ruteo por dimensiones (bit de menor peso primero) o adaptativo: entre los
+ * vecinos que acercan al destino elige el de menor cola en ese momento.
+ * Crece en caliente de a una dimension (growDimension).
  */
-public class HypercubeNetwork implements NetworkTopology {
-    private List<Node> nodes;
-    private ExecutorService nodeExecutor;
-    private ExecutorService sendExecutor;
-    // latencia por hop
-    private final long hopLatencyMs = 100;
+public class HypercubeNetwork extends RoutedTopology {
+    // true: elige entre los hops minimos por profundidad de cola
+    private final boolean adaptive;
 
     /**
-     * Configura la red de hipercubo con el numero de nodos dado.
-     * Verifica que sea potencia de 2. Calcula dimension d tal que 2^d == numberOfNodes.
-     * Crea nodos con ids 0..numberOfNodes-1 y arranca executors.
+     * Hipercubo con ruteo por dimensiones.
+     */
+    public HypercubeNetwork() {
+        this(false);
+    }
+
+    /**
+     * @param adaptive true para ruteo adaptativo por profundidad de cola,
+     *                 false para ruteo por dimensiones
+     */
+    public HypercubeNetwork(boolean adaptive) {
+        super(100);
+        this.adaptive = adaptive;
+    }
+
+    /**
+     * Verifica que numberOfNodes sea potencia de 2 (2^d nodos, dimension d).
      *
-     * @param numberOfNodes cantidad de nodos; debe ser potencia de 2
-     * @throws IllegalArgumentException si numberOfNodes < 1 o no es potencia de 2
+     * @throws IllegalArgumentException si numberOfNodes no es potencia de 2
      */
     @Override
-    public void configureNetwork(int numberOfNodes) {
-        if (numberOfNodes < 1) {
-            throw new IllegalArgumentException("HypercubeNetwork requiere al menos 1 nodo");
-        }
-        int d = 0;
-        while ((1 << d) < numberOfNodes) {
-            d++;
-        }
-        if ((1 << d) != numberOfNodes) {
+    protected void prepare(int numberOfNodes) {
+        if (Integer.bitCount(numberOfNodes) != 1) {
             throw new IllegalArgumentException("HypercubeNetwork requiere numero de nodos potencia de 2");
         }
-        nodes = new ArrayList<>(numberOfNodes);
-        for (int i = 0; i < numberOfNodes; i++) {
-            nodes.add(new Node(i));
-        }
-        nodeExecutor = Executors.newFixedThreadPool(numberOfNodes);
-        sendExecutor = Executors.newCachedThreadPool();
     }
 
     /**
-     * Envia un mensaje desde 'from' hacia 'to' en la red de hipercubo.
-     * Rutea bit a bit: en cada hop corrige el bit de menor peso distinto.
-     * Somete tarea en sendExecutor que imprime logs de ruteo y realiza
-     * receiveMessage en cada hop.
+     * Siguiente hop segun el modo de ruteo:
+     * - por dimensiones: nextHop, siempre el bit de menor peso.
+     * - adaptativo: entre los vecinos que corrigen algun bit distinto (todos
+     *   minimos) elige el de menor carga = cola del enlace + inbox del vecino;
+     *   los empates se reparten al azar.
      *
-     * @param from indice origen
-     * @param to indice destino
-     * @param payload contenido del mensaje
-     * @throws IllegalStateException si la topologia no esta configurada
-     * @throws IllegalArgumentException si from o to fuera de rango
+     * @param current nodo actual
+     * @param to destino (distinto de current)
+     * @return siguiente nodo de la ruta
      */
     @Override
-    public void sendMessage(int from, int to, String payload) {
-        validateIndices(from, to);
-        Message msg = new Message(from, to, payload);
-        sendExecutor.submit(() -> {
-            System.out.printf("[%s] HypercubeNetwork: nodo %d iniciando ruteo hacia %d%n",
-                    Instant.now(), from, to);
-            if (from == to) {
-                nodes.get(to).receiveMessage(msg);
-                System.out.printf("[%s] HypercubeNetwork: mensaje de %d a %d entregado directo%n",
-                        Instant.now(), from, to);
-                return;
-            }
-            int current = from;
-            while (current != to) {
-                int diff = current ^ to;
-                int bit = Integer.lowestOneBit(diff);
-                int next = current ^ bit;
-                System.out.printf("[%s] HypercubeNetwork: nodo %d reenviando a %d%n",
-                        Instant.now(), current, next);
-                nodes.get(next).receiveMessage(msg);
-                current = next;
-                try {
-                    Thread.sleep(hopLatencyMs);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
+    protected int route(int current, int to) {
+        if (!adaptive) {
+            return nextHop(current, to);
+        }
+        int best = -1;
+        int bestLoad = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int diff = current ^ to; diff != 0; diff &= diff - 1) {
+            int candidate = current ^ Integer.lowestOneBit(diff);
+            int load = getLinks().getQueueDepth(current, candidate) + node(candidate).getInboxSize();
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+                ties = 1;
+            } else if (load == bestLoad && tieBreak(++ties) == 0) {
+                best = candidate;
             }
-            System.out.printf("[%s] HypercubeNetwork: ruteo de %d a %d completado%n", Instant.now(), from, to);
-        });
+        }
+        return best;
     }
 
     /**
-     * Inicia la simulacion: ejecuta cada nodo en su hilo para procesar inbox.
-     *
-     * @throws IllegalStateException si la topologia no esta configurada
+     * Vecinos que difieren en un bit.
      */
     @Override
-    public void runNetwork() {
-        for (Node node : nodes) {
-            nodeExecutor.submit(node);
-        }
+    protected boolean isLink(int from, int to) {
+        return Integer.bitCount(from ^ to) == 1;
     }
 
     /**
-     * Detiene la simulacion:
-     * - Llama stop() a cada nodo
-     * - Cierra nodeExecutor y sendExecutor, esperando hasta 4s antes de forzar.
+     * Un vecino por dimension.
      */
     @Override
-    public void shutdown() {
-        for (Node node : nodes) {
-            node.stop();
-        }
-        nodeExecutor.shutdown();
-        sendExecutor.shutdown();
-        try {
-            if (!sendExecutor.awaitTermination(4, TimeUnit.SECONDS)) {
-                sendExecutor.shutdownNow();
-            }
-            if (!nodeExecutor.awaitTermination(4, TimeUnit.SECONDS)) {
-                nodeExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            sendExecutor.shutdownNow();
-            nodeExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+    protected int[] neighbors(int from) {
+        int dimension = Integer.numberOfTrailingZeros(size());
+        int[] neighbors = new int[dimension];
+        for (int d = 0; d < dimension; d++) {
+            neighbors[d] = from ^ (1 << d);
         }
+        return neighbors;
     }
 
     /**
-     * Verifica que nodes no sea null y que from/to esten en rango valido.
+     * Agrega una dimension con la red corriendo: los nodos n..2n-1 forman una
+     * copia del hipercubo y cada i se une con i+n. Los nodos existentes y sus
+     * mensajes en vuelo siguen; las rutas minimas vigentes se extienden.
      *
-     * @param from indice origen
-     * @param to indice destino
-     * @throws IllegalStateException si nodes es null
-     * @throws IllegalArgumentException si indices fuera de rango
+     * @return dimension nueva
+     * @throws IllegalStateException si no esta configurada
      */
-    private void validateIndices(int from, int to) {
-        if (nodes == null) {
-            throw new IllegalStateException("HypercubeNetwork no esta configurada.");
-        }
-        int size = nodes.size();
-        if (from < 0 || from >= size || to < 0 || to >= size) {
-            throw new IllegalArgumentException(
-                    "Indices fuera de rango en HypercubeNetwork: from=" + from + " to=" + to);
-        }
+    public synchronized int growDimension() {
+        requireConfigured();
+        addNodes(size());
+        int dimension = Integer.numberOfTrailingZeros(size());
+        NetworkLog.printf("[%s] %s: dimension %d (%d nodos)%n", Instant.now(), getName(), dimension, size());
+        return dimension;
+    }
+
+    /**
+     * Siguiente hop en ruteo por dimensiones: corrige el bit de menor peso
+     * en que difieren current y to.
+     *
+     * @param current nodo actual
+     * @param to destino (distinto de current)
+     * @return vecino de current en la dimension corregida
+     */
+    public static int nextHop(int current, int to) {
+        return current ^ Integer.lowestOneBit(current ^ to);
     }
 }
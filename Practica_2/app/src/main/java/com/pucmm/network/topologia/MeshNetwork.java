@@ -1,120 +1,192 @@
 package com.pucmm.network.topologia;
 
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
-import com.pucmm.network.core.Message;
-import com.pucmm.network.core.NetworkTopology;
-import com.pucmm.network.core.Node;
+import java.util.Arrays;
 
 /**
- * Topologia de malla: cada nodo se comunica directo con cualquier otro.
+ * Topologia de malla 2D/3D (opcionalmente toro): cada nodo se conecta con sus
+ * vecinos en +-1 de cada dimension; en el toro los bordes se cierran.
+ * El id de un nodo es x + y*ancho (+ z*ancho*alto), con la dimension X primero.
+ * Los mensajes viajan salto a salto con ruteo XY o west-first (ver MeshRouting).
  */
-public class MeshNetwork implements NetworkTopology {
-    private List<Node> nodes;
-    private ExecutorService nodeExecutor;
-    private ExecutorService sendExecutor;
+public class MeshNetwork extends RoutedTopology {
+    private final MeshRouting routing;
+    private final boolean torus;
+    // tamanos pedidos; vacio = malla 2D lo mas cuadrada posible
+    private final int[] requestedSizes;
+    // tamano y paso del id por dimension, de la ultima configuracion
+    private int[] sizes;
+    private int[] strides;
+
+    /**
+     * Malla 2D con ruteo XY; las dimensiones se eligen al configurar.
+     */
+    public MeshNetwork() {
+        this(MeshRouting.XY, false);
+    }
+
+    /**
+     * @param routing algoritmo de ruteo
+     * @param torus   true para cerrar los bordes (toro)
+     * @param sizes   nodos por dimension (X, Y[, Z]); sin tamanos se arma una
+     *                malla 2D lo mas cuadrada posible con los nodos configurados
+     * @throws IllegalArgumentException si hay mas de 3 dimensiones o alguna es < 1
+     */
+    public MeshNetwork(MeshRouting routing, boolean torus, int... sizes) {
+        super(100);
+        if (sizes.length > 3) {
+            throw new IllegalArgumentException("MeshNetwork admite 2 o 3 dimensiones");
+        }
+        for (int size : sizes) {
+            if (size < 1) {
+                throw new IllegalArgumentException("MeshNetwork requiere dimensiones >= 1");
+            }
+        }
+        this.routing = routing;
+        this.torus = torus;
+        this.requestedSizes = sizes.clone();
+    }
 
     /**
-     * Configura la topologia de malla con un numero de nodos dado.
-     * Crea nodos ids 0..numberOfNodes-1 y prepara los executors.
+     * Calcula las dimensiones de la malla para numberOfNodes nodos.
+     * Si se dieron tamanos, su producto debe ser numberOfNodes; si no, se usa
+     * ancho = mayor divisor <= raiz(numberOfNodes).
      *
      * @param numberOfNodes cantidad de nodos a crear
-     * @throws IllegalArgumentException si numberOfNodes < 1
+     * @throws IllegalArgumentException si no coincide con los tamanos
      */
     @Override
-    public void configureNetwork(int numberOfNodes) {
-        if (numberOfNodes < 1) {
-            throw new IllegalArgumentException("MeshNetwork requiere al menos 1 nodo");
+    protected void prepare(int numberOfNodes) {
+        if (requestedSizes.length == 0) {
+            int width = (int) Math.sqrt(numberOfNodes);
+            while (numberOfNodes % width != 0) {
+                width--;
+            }
+            sizes = new int[] {width, numberOfNodes / width};
+        } else {
+            int product = 1;
+            for (int size : requestedSizes) {
+                product *= size;
+            }
+            if (product != numberOfNodes) {
+                throw new IllegalArgumentException("MeshNetwork " + Arrays.toString(requestedSizes)
+                        + " requiere " + product + " nodos, no " + numberOfNodes);
+            }
+            sizes = requestedSizes.clone();
         }
-        nodes = new ArrayList<>(numberOfNodes);
-        for (int i = 0; i < numberOfNodes; i++) {
-            nodes.add(new Node(i));
+        strides = new int[sizes.length];
+        for (int d = 0, stride = 1; d < sizes.length; d++) {
+            strides[d] = stride;
+            stride *= sizes[d];
         }
-        nodeExecutor = Executors.newFixedThreadPool(numberOfNodes);
-        sendExecutor = Executors.newCachedThreadPool();
     }
 
     /**
-     * Envia un mensaje directo desde 'from' a 'to'.
-     * Somete una tarea en sendExecutor que imprime log de envio y
-     * agrega el mensaje al inbox del nodo destino.
+     * Siguiente hop segun el ruteo configurado:
+     * - XY: la primera dimension (X, Y, Z) en que difieren, en direccion minima.
+     * - WEST_FIRST: si hay que ir hacia -X, ese hop primero; si no, entre las
+     *   dimensiones que faltan corregir elige el vecino de menor carga = cola
+     *   del enlace + inbox del vecino, repartiendo los empates al azar.
      *
-     * @param from indice de origen
-     * @param to indice de destino
-     * @param payload contenido del mensaje
-     * @throws IllegalStateException si la topologia no esta configurada
-     * @throws IllegalArgumentException si from o to estan fuera de rango
+     * @param current nodo actual
+     * @param to destino (distinto de current)
+     * @return siguiente nodo de la ruta
      */
     @Override
-    public void sendMessage(int from, int to, String payload) {
-        validateIndices(from, to);
-        Message msg = new Message(from, to, payload);
-        sendExecutor.submit(() -> {
-            System.out.printf("[%s] MeshNetwork: nodo %d enviando directo a %d%n",
-                    Instant.now(), from, to);
-            nodes.get(to).receiveMessage(msg);
-        });
+    protected int route(int current, int to) {
+        int westStep = step(current, to, 0);
+        if (routing == MeshRouting.XY || westStep < 0) {
+            for (int d = 0; d < sizes.length; d++) {
+                int step = step(current, to, d);
+                if (step != 0) {
+                    return neighbor(current, d, step);
+                }
+            }
+        }
+        int best = -1;
+        int bestLoad = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int d = 0; d < sizes.length; d++) {
+            int step = step(current, to, d);
+            if (step == 0) {
+                continue;
+            }
+            int candidate = neighbor(current, d, step);
+            int load = getLinks().getQueueDepth(current, candidate) + node(candidate).getInboxSize();
+            if (load < bestLoad) {
+                best = candidate;
+                bestLoad = load;
+                ties = 1;
+            } else if (load == bestLoad && tieBreak(++ties) == 0) {
+                best = candidate;
+            }
+        }
+        return best;
     }
-    
+
     /**
-     * Inicia la simulacion: ejecuta cada nodo en su propio hilo para procesar inbox.
-     *
-     * @throws IllegalStateException si la topologia no esta configurada
+     * Enlace directo: difieren en una sola dimension y a distancia 1 (o
+     * cruzando el borde en el toro).
      */
     @Override
-    public void runNetwork() {
-        for (Node node : nodes) {
-            nodeExecutor.submit(node);
+    protected boolean isLink(int from, int to) {
+        int differing = 0;
+        boolean adjacent = false;
+        for (int d = 0; d < sizes.length; d++) {
+            int distance = Math.abs(coordinate(from, d) - coordinate(to, d));
+            if (distance != 0) {
+                differing++;
+                adjacent = distance == 1 || (torus && distance == sizes[d] - 1);
+            }
         }
+        return differing == 1 && adjacent;
     }
 
-     /**
-     * Detiene la simulacion:
-     * - Marca cada nodo con stop()
-     * - Cierra executors esperando hasta 2 segundos antes de shutdownNow()
+    /**
+     * Vecinos en +-1 de cada dimension (cruzando el borde en el toro).
      */
     @Override
-    public void shutdown() {
-        for (Node node : nodes) {
-            node.stop();
-        }
-        nodeExecutor.shutdown();
-        sendExecutor.shutdown();
-        try {
-            if (!sendExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
-                sendExecutor.shutdownNow();
+    protected int[] neighbors(int from) {
+        int[] found = new int[2 * sizes.length];
+        int count = 0;
+        for (int d = 0; d < sizes.length; d++) {
+            int c = coordinate(from, d);
+            for (int step = -1; step <= 1; step += 2) {
+                boolean inside = torus ? sizes[d] > 1 : c + step >= 0 && c + step < sizes[d];
+                int neighbor = inside ? neighbor(from, d, step) : from;
+                if (neighbor != from && (count == 0 || found[count - 1] != neighbor)) {
+                    found[count++] = neighbor;
+                }
             }
-            if (!nodeExecutor.awaitTermination(2, TimeUnit.SECONDS)) {
-                nodeExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            sendExecutor.shutdownNow();
-            nodeExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
+        return Arrays.copyOf(found, count);
+    }
+
+    // direccion minima (+1, -1 o 0) en la dimension d; en el toro puede cruzar el borde
+    private int step(int current, int to, int d) {
+        int delta = coordinate(to, d) - coordinate(current, d);
+        if (!torus || delta == 0) {
+            return Integer.signum(delta);
+        }
+        int forward = Math.floorMod(delta, sizes[d]);
+        return forward <= sizes[d] - forward ? 1 : -1;
+    }
+
+    private int neighbor(int current, int d, int step) {
+        int c = coordinate(current, d);
+        int next = torus ? Math.floorMod(c + step, sizes[d]) : c + step;
+        return current + (next - c) * strides[d];
+    }
+
+    private int coordinate(int id, int d) {
+        return id / strides[d] % sizes[d];
     }
 
     /**
-     * Verifica que la topologia este lista y que from/to esten en rango.
+     * Nodos por dimension de la ultima configuracion (X, Y[, Z]).
      *
-     * @param from indice de origen
-     * @param to indice de destino
-     * @throws IllegalStateException si nodes es null
-     * @throws IllegalArgumentException si indices fuera de rango
+     * @return copia de los tamanos, null si no esta configurada
      */
-    private void validateIndices(int from, int to) {
-        if (nodes == null) {
-            throw new IllegalStateException("MeshNetwork no esta configurada.");
-        }
-        int size = nodes.size();
-        if (from < 0 || from >= size || to < 0 || to >= size) {
-            throw new IllegalArgumentException(
-                    "Indices fuera de rango en MeshNetwork: from=" + from + " to=" + to);
-        }
+    public int[] getSizes() {
+        return sizes == null ? null : sizes.clone();
     }
-}
\ No newline at end of file
+}
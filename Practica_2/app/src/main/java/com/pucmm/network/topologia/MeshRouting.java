@@ -0,0 +1,15 @@
+package com.pucmm.network.topologia;
+
+/**
+ * Algoritmo de ruteo de MeshNetwork. Ambos usan solo hops minimos.
+ */
+public enum MeshRouting {
+    /** Por dimensiones: corrige X por completo, luego Y, luego Z. */
+    XY,
+    /**
+     * Modelo de giros west-first: primero todos los hops hacia -X (oeste) y
+     * despues elige entre las direcciones que acercan al destino la de menor
+     * cola en ese momento.
+     */
+    WEST_FIRST
+}
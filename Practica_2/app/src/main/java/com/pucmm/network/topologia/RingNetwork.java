@@ -1,149 +1,365 @@
 package com.pucmm.network.topologia;
 
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-
-import com.pucmm.network.core.Message;
-import com.pucmm.network.core.NetworkTopology;
-import com.pucmm.network.core.Node;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 
 /**
- * Topologia de anillo: cada nodo conectado al siguiente modulo N, mensajes via hops unidireccionales.
+ * Topologia de anillo: cada nodo conectado al siguiente modulo N, con enlaces
+ * full-duplex (una cola FIFO por sentido, ver LinkScheduler).
+ * - Unidireccional (por defecto): route siempre avanza al sucesor. Con
+ *   fallas sigue avanzando mientras el arco hacia el destino este vivo; solo
+ *   los destinos sin camino hacia adelante vuelven por el sentido contrario
+ *   (camino minimo vivo de RoutingTable).
+ * - Bidireccional: cada hop sale por el sentido mas corto hacia el destino;
+ *   el camino promedio baja de N/2 a N/4.
+ * - Con cuerdas: ademas de +-1 cada nodo se une con i+-c para cada largo c.
+ *   Una cuerda es el anillo cordal (con c ~ raiz(N) el diametro baja a
+ *   ~raiz(N)); varias cuerdas de largo geometrico (ver geometricChords) son un
+ *   multi-anillo: cada largo c suma anillos de paso c superpuestos al base.
+ * Al ser simetrico, la distancia entre dos nodos depende solo de
+ * (destino - origen) mod N: una tabla de N entradas (BFS desde 0) da el
+ * siguiente hop minimo en O(cuerdas).
+ * Crece en caliente de a un nodo (addNode), que se inserta entre el ultimo y el 0.
  */
-public class RingNetwork implements NetworkTopology {
-    private List<Node> nodes;
-    private ExecutorService nodeExecutor;
-    private ExecutorService sendExecutor;
-    // latencia entre hops en ms, parametrizable
-    private final long hopLatencyMs = 100;
+public class RingNetwork extends RoutedTopology {
+    // true: cada hop sale por el camino mas corto (sentido o cuerda)
+    private final boolean bidirectional;
+    private final int[] chords;
+    // distancias por diferencia para el tamano actual; se rehace al crecer
+    private volatile Distances distances;
+    // enlaces i->i+1 caidos del anillo unidireccional, por version de fallas
+    private volatile Breaks breaks;
+
+    /**
+     * Hops minimos hacia cada diferencia d = (destino - origen) mod size con
+     * los desplazamientos de los enlaces de salida (+1, -1, +c, -c...).
+     */
+    private static final class Distances {
+        final int size;
+        final int[] offsets;
+        final int[] hops;
+
+        Distances(int size, int[] chords) {
+            this.size = size;
+            int[] found = new int[2 + 2 * chords.length];
+            int count = 0;
+            int[] candidates = new int[found.length];
+            candidates[0] = 1;
+            candidates[1] = size - 1;
+            for (int i = 0; i < chords.length; i++) {
+                candidates[2 + 2 * i] = chords[i];
+                candidates[3 + 2 * i] = size - chords[i];
+            }
+            for (int candidate : candidates) {
+                int offset = Math.floorMod(candidate, size);
+                boolean repeated = offset == 0;
+                for (int j = 0; !repeated && j < count; j++) {
+                    repeated = found[j] == offset;
+                }
+                if (!repeated) {
+                    found[count++] = offset;
+                }
+            }
+            this.offsets = Arrays.copyOf(found, count);
+            this.hops = new int[size];
+            Arrays.fill(hops, -1);
+            hops[0] = 0;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(0);
+            while (!queue.isEmpty()) {
+                int d = queue.poll();
+                for (int offset : offsets) {
+                    int next = (d + offset) % size;
+                    if (hops[next] < 0) {
+                        hops[next] = hops[d] + 1;
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+
+        // enlace de salida de current que deja menos hops hasta to
+        int next(int current, int to) {
+            int d = Math.floorMod(to - current, size);
+            int best = offsets[0];
+            int bestHops = Integer.MAX_VALUE;
+            for (int offset : offsets) {
+                int left = hops[Math.floorMod(d - offset, size)];
+                if (left < bestHops) {
+                    best = offset;
+                    bestHops = left;
+                }
+            }
+            return (current + best) % size;
+        }
+
+        boolean isOffset(int d) {
+            for (int offset : offsets) {
+                if (offset == d) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Posiciones i (ordenadas) cuyo enlace i->i+1 no sirve: caido o con un
+     * extremo caido o retirado.
+     */
+    private static final class Breaks {
+        final int size;
+        final int version;
+        final int[] at;
+
+        Breaks(int size, int version, int[] at) {
+            this.size = size;
+            this.version = version;
+            this.at = at;
+        }
+
+        // algun enlace caido en el arco current, current+1 ... to-1
+        boolean cuts(int current, int to) {
+            if (at.length == 0) {
+                return false;
+            }
+            int i = Arrays.binarySearch(at, current);
+            int first = at[i >= 0 ? i : (-i - 1) % at.length];
+            return Math.floorMod(first - current, size) < Math.floorMod(to - current, size);
+        }
+    }
+
+    /**
+     * Anillo unidireccional con 100 ms de latencia por defecto en cada enlace.
+     */
+    public RingNetwork() {
+        this(false);
+    }
+
+    /**
+     * @param bidirectional true para salir por el sentido mas corto, false
+     *                      para avanzar siempre al sucesor
+     * @param chords largos de las cuerdas (anillo cordal con uno, multi-anillo
+     *               con varios); solo con bidirectional, entre 2 y N-2
+     * @throws IllegalArgumentException si hay cuerdas en el anillo
+     *         unidireccional o alguna es < 2
+     */
+    public RingNetwork(boolean bidirectional, int... chords) {
+        super(100);
+        if (!bidirectional && chords.length > 0) {
+            throw new IllegalArgumentException("RingNetwork con cuerdas requiere ruteo bidireccional");
+        }
+        for (int chord : chords) {
+            if (chord < 2) {
+                throw new IllegalArgumentException("RingNetwork requiere cuerdas de largo >= 2");
+            }
+        }
+        this.bidirectional = bidirectional;
+        this.chords = chords.clone();
+    }
 
     /**
-     * Configura la topologia de anillo con numNodes nodos.
-     * Valida numNodes>=1 y crea nodos con ids 0..numNodes-1.
+     * Largos de cuerda de un multi-anillo de rings anillos para numberOfNodes
+     * nodos: N^(1/rings), N^(2/rings)..., redondeados y sin repetir. Con
+     * rings = 2 es la cuerda ~raiz(N) del anillo cordal.
      *
-     * @param numNodes cantidad de nodos en el anillo
-     * @throws IllegalArgumentException si numNodes < 1
+     * @throws IllegalArgumentException si rings < 2 o numberOfNodes < 4
      */
-    @Override
-    public void configureNetwork(int numNodes) {
-        if (numNodes < 1) {
-            throw new IllegalArgumentException("RingNetwork requiere al menos 1 nodo");
+    public static int[] geometricChords(int numberOfNodes, int rings) {
+        if (rings < 2 || numberOfNodes < 4) {
+            throw new IllegalArgumentException("RingNetwork requiere >= 2 anillos y >= 4 nodos para cuerdas");
         }
-        nodes = new ArrayList<>(numNodes);
-        for (int i = 0; i < numNodes; i++) {
-            nodes.add(new Node(i));
+        int[] found = new int[rings - 1];
+        int count = 0;
+        for (int k = 1; k < rings; k++) {
+            long chord = Math.round(Math.pow(numberOfNodes, (double) k / rings));
+            int clamped = (int) Math.max(2, Math.min(numberOfNodes - 2, chord));
+            if (count == 0 || found[count - 1] != clamped) {
+                found[count++] = clamped;
+            }
         }
-        nodeExecutor = Executors.newFixedThreadPool(numNodes);
-        sendExecutor = Executors.newCachedThreadPool();
+        return Arrays.copyOf(found, count);
     }
 
     /**
-     * Envía un mensaje desde 'from' a 'to' por el anillo en direccion unidireccional.
-     * Somete tarea en sendExecutor que recorre hops: current->(current+1)%size...
-     * Imprime logs de reenveio y llegada a destino.
+     * Verifica que las cuerdas entren en el anillo.
      *
-     * @param from indice de origen
-     * @param to indice de destino
-     * @param payload contenido del mensaje
-     * @throws IllegalStateException si la topologia no esta configurada
-     * @throws IllegalArgumentException si from o to fuera de rango
+     * @throws IllegalArgumentException si alguna cuerda es > N-2
      */
     @Override
-    public void sendMessage(int from, int to, String payload) {
-        validateIndices(from, to);
-        Message msg = new Message(from, to, payload);
-        sendExecutor.submit(() -> {
-            System.out.printf("[%s] RingNetwork: nodo %d empezando ruteo hacia %d%n",
-                    Instant.now(), from, to);
-            if (from == to) {
-                // directo
-                nodes.get(to).receiveMessage(msg);
-                System.out.printf("[%s] RingNetwork: mensaje de %d a %d entregado directo%n",
-                        Instant.now(), from, to);
-                return;
+    protected void prepare(int numberOfNodes) {
+        for (int chord : chords) {
+            if (chord > numberOfNodes - 2) {
+                throw new IllegalArgumentException("RingNetwork de " + numberOfNodes
+                        + " nodos admite cuerdas de 2 a " + (numberOfNodes - 2) + ", no " + chord);
             }
-            int current = from;
-            int size = nodes.size();
-            while (true) {
-                int next = (current + 1) % size;
-                // log reenviar hop
-                System.out.printf("[%s] RingNetwork: nodo %d reenviando a %d%n",
-                        Instant.now(), current, next);
-                nodes.get(next).receiveMessage(msg);
-                if (next == to) {
-                    System.out.printf("[%s] RingNetwork: mensaje de %d a %d llegado a destino%n",
-                            Instant.now(), from, to);
-                    break;
-                }
-                current = next;
-                try {
-                    Thread.sleep(hopLatencyMs);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+        }
+        distances = null;
+        breaks = null;
+    }
+
+    /**
+     * Unidireccional: el sucesor (ver nextHop). Bidireccional: el vecino
+     * (sentido o cuerda) con menos hops restantes; en empate el primero de
+     * +1, -1, +c, -c...
+     */
+    @Override
+    protected int route(int current, int to) {
+        return bidirectional ? distances().next(current, to) : nextHop(current, size());
+    }
+
+    /**
+     * Unidireccional: el sucesor mientras el arco hasta to este vivo; si hay
+     * un enlace o nodo caido en el, el camino minimo vivo (por el sentido
+     * contrario). Bidireccional: el camino minimo vivo.
+     */
+    @Override
+    protected int routeDegraded(int current, int to) {
+        if (!bidirectional && !breaks().cuts(current, to)) {
+            return nextHop(current, size());
+        }
+        return super.routeDegraded(current, to);
+    }
+
+    // se rehace cuando cambian las fallas o el tamano; la version se lee antes que los enlaces
+    private Breaks breaks() {
+        int version = faultVersion();
+        int size = size();
+        Breaks current = breaks;
+        if (current == null || current.version != version || current.size != size) {
+            int[] found = new int[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (!isLinkUp(i, nextHop(i, size))) {
+                    found[count++] = i;
                 }
             }
-        });
+            current = new Breaks(size, version, Arrays.copyOf(found, count));
+            breaks = current;
+        }
+        return current;
     }
 
     /**
-     * Inicia la simulacion: ejecuta cada nodo en su propio hilo para procesar inbox.
-     *
-     * @throws IllegalStateException si la topologia no esta configurada
+     * Enlace entre cada nodo y su sucesor y, con cuerdas, con i+-c; en los
+     * dos sentidos.
      */
     @Override
-    public void runNetwork() {
-        for (Node node : nodes) {
-            nodeExecutor.submit(node);
-        }
+    protected boolean isLink(int from, int to) {
+        Distances table = distances();
+        int d = Math.floorMod(to - from, table.size);
+        return d != 0 && table.isOffset(d);
     }
 
     /**
-     * Detiene la simulacion:
-     * - Llama stop() a cada nodo
-     * - Shutdown de executors con espera hasta 3s antes de forzar
+     * Sucesor, antecesor y los extremos de las cuerdas, sin repetir.
      */
     @Override
-    public void shutdown() {
-        for (Node node : nodes) {
-            node.stop();
-        }
-        nodeExecutor.shutdown();
-        sendExecutor.shutdown();
-        try {
-            if (!sendExecutor.awaitTermination(3, TimeUnit.SECONDS)) {
-                sendExecutor.shutdownNow();
-            }
-            if (!nodeExecutor.awaitTermination(3, TimeUnit.SECONDS)) {
-                nodeExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            sendExecutor.shutdownNow();
-            nodeExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+    protected int[] neighbors(int from) {
+        Distances table = distances();
+        int[] found = new int[table.offsets.length];
+        for (int i = 0; i < found.length; i++) {
+            found[i] = (from + table.offsets[i]) % table.size;
+        }
+        return found;
+    }
+
+    // tabla del tamano actual; la rehace quien la vea vieja (es determinista, da igual quien gane)
+    private Distances distances() {
+        int size = size();
+        Distances table = distances;
+        if (table == null || table.size != size) {
+            table = new Distances(size, chords);
+            distances = table;
+        }
+        return table;
+    }
+
+    /**
+     * Agrega un nodo con la red corriendo entre el ultimo y el 0: el enlace
+     * n-1->0 pasa a ser n-1->n->0. Un hop que ya viajaba por n-1->0 llega igual.
+     *
+     * @return id del nodo nuevo
+     * @throws IllegalStateException si no esta configurada o tiene cuerdas
+     *         (con un nodo mas cambian los extremos de todas)
+     */
+    public synchronized int addNode() {
+        requireConfigured();
+        if (chords.length > 0) {
+            throw new IllegalStateException("RingNetwork con cuerdas no crece de a un nodo");
         }
+        return addNodes(1).get(0).getId();
     }
 
     /**
-     * Verifica que nodes no sea null y que from/to esten en rango valido.
+     * Mayor distancia en hops entre dos nodos con el ruteo configurado
+     * (N-1 en el anillo unidireccional).
      *
-     * @param from indice de origen
-     * @param to indice de destino
-     * @throws IllegalStateException si topologia no configurada
-     * @throws IllegalArgumentException si indices fuera de rango
+     * @throws IllegalStateException si no esta configurada
      */
-    private void validateIndices(int from, int to) {
-        if (nodes == null) {
-            throw new IllegalStateException("RingNetwork no esta configurada.");
+    public int getDiameter() {
+        requireConfigured();
+        if (!bidirectional) {
+            return size() - 1;
         }
-        int size = nodes.size();
-        if (from < 0 || from >= size || to < 0 || to >= size) {
-            throw new IllegalArgumentException(
-                    "Indices fuera de rango en RingNetwork: from=" + from + " to=" + to);
+        int diameter = 0;
+        for (int hops : distances().hops) {
+            diameter = Math.max(diameter, hops);
         }
+        return diameter;
+    }
+
+    /**
+     * Hops promedio entre pares distintos con el ruteo configurado
+     * (N/2 en el anillo unidireccional).
+     *
+     * @throws IllegalStateException si no esta configurada
+     */
+    public double getAverageDistance() {
+        requireConfigured();
+        int size = size();
+        if (size < 2) {
+            return 0;
+        }
+        if (!bidirectional) {
+            return size / 2.0;
+        }
+        long total = 0;
+        for (int hops : distances().hops) {
+            total += hops;
+        }
+        return (double) total / (size - 1);
+    }
+
+    /**
+     * Enlaces de salida de cada nodo (2 en el anillo, 2 + 2 por cuerda).
+     *
+     * @throws IllegalStateException si no esta configurada
+     */
+    public int getDegree() {
+        requireConfigured();
+        return distances().offsets.length;
+    }
+
+    /**
+     * Largos de las cuerdas configuradas; vacio sin cuerdas.
+     */
+    public int[] getChords() {
+        return chords.clone();
+    }
+
+    public boolean isBidirectional() {
+        return bidirectional;
+    }
+
+    /**
+     * Siguiente hop en el anillo unidireccional.
+     *
+     * @param current nodo actual
+     * @param size cantidad de nodos del anillo
+     * @return sucesor de current modulo size
+     */
+    public static int nextHop(int current, int size) {
+        return (current + 1) % size;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,719 @@
+package com.pucmm.network.topologia;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.pucmm.network.core.LinkScheduler;
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.ReliabilityStats;
+import com.pucmm.network.core.ReliableChannel;
+import com.pucmm.network.core.Transport;
+
+/**
+ * Motor comun de las topologias punto a punto: enlaces con latencia y ancho
+ * de banda (LinkScheduler) y reenvio salto a salto. Cada topologia aporta solo
+ * su funcion de ruteo (route) y que pares son enlaces (isLink).
+ *
+ * - El primer hop sale al enlace en sendMessage; los siguientes los reenvia
+ *   cada nodo intermedio al sacar el mensaje de su inbox (ver forward). Cada
+ *   hop paga cola, serializacion y latencia de su enlace.
+ * - Las demoras corren en el reloj del transporte: tiempo real con el
+ *   TimerWheel compartido o tiempo virtual con VirtualTimeTransport.
+ * - Los enlaces pueden perder o duplicar hops (setLinkLoss,
+ *   setLinkDuplication). Con setReliableDelivery los mensajes viajan como
+ *   tramas de un ReliableChannel (ACK, retransmision, ventana y supresion
+ *   de duplicados) y la aplicacion ve cada mensaje una sola vez.
+ * - La red se reconfigura en caliente: failLink / recoverLink, removeNode y
+ *   los crecimientos de cada topologia (addNodes). Con algun enlace caido o
+ *   nodo caido o retirado el reenvio usa rutas minimas sobre el grafo vivo
+ *   (RoutingTable, actualizadas en forma incremental) en lugar de route. Un
+ *   hop que llega por un enlace que cayo mientras viajaba vuelve al nodo que
+ *   lo envio y se rutea de nuevo desde ahi.
+ * - Inyeccion de fallas: failLink, crashNode (el nodo pierde su inbox y lo que
+ *   le llegue hasta recoverNode) y setNodeDelay (nodo lento). Con
+ *   setFaultTolerantRouting(false) la red rutea como si no hubiera fallas y
+ *   pierde lo que llega a un enlace o nodo caido, para comparar.
+ */
+public abstract class RoutedTopology extends AbstractTopology {
+    // latencia por defecto de cada enlace (ver setLinkLatency)
+    private final long hopLatencyMs;
+    private LinkScheduler links;
+    // ventana del protocolo confiable; 0 = sin protocolo (ver setReliableDelivery)
+    private int reliableWindow;
+    private long reliableTimeoutNanos;
+    private ReliableChannel channel;
+    // desempates del ruteo adaptativo; null = ThreadLocalRandom (ver setSeed)
+    private volatile SplittableRandom routingRandom;
+    private RoutingTable routing;
+    // hops devueltos por un enlace caido y mensajes sin ruta al destino
+    private final LongAdder rerouted = new LongAdder();
+    private final LongAdder unroutable = new LongAdder();
+    private volatile boolean faultTolerant = true;
+    // nodos lentos: cada mensaje que reciben espera su turno (ver setNodeDelay)
+    private final Map<Integer, SlowNode> slowNodes = new ConcurrentHashMap<>();
+
+    /**
+     * Nodo lento como servidor de una sola fila: atiende un mensaje cada
+     * delayNanos en el reloj del transporte.
+     */
+    private static final class SlowNode {
+        final long delayNanos;
+        private long busyUntil;
+
+        SlowNode(long delayNanos) {
+            this.delayNanos = delayNanos;
+        }
+
+        // instante en que termina de atender un mensaje que llega en now
+        synchronized long admit(long now) {
+            busyUntil = Math.max(now, busyUntil) + delayNanos;
+            return busyUntil;
+        }
+    }
+
+    /**
+     * @param hopLatencyMs latencia por defecto de cada enlace en milisegundos
+     */
+    protected RoutedTopology(long hopLatencyMs) {
+        this.hopLatencyMs = hopLatencyMs;
+    }
+
+    /**
+     * Siguiente hop de current hacia to.
+     *
+     * @param current nodo actual
+     * @param to destino (distinto de current)
+     * @return vecino de current por el que sigue la ruta
+     */
+    protected abstract int route(int current, int to);
+
+    /**
+     * Indica si from->to es un enlace directo de la topologia.
+     *
+     * @param from nodo de salida (en rango)
+     * @param to nodo de llegada (en rango)
+     */
+    protected abstract boolean isLink(int from, int to);
+
+    /**
+     * Nodos a los que from tiene un enlace directo. Por defecto recorre todos
+     * los nodos con isLink; las topologias con vecindad implicita lo resuelven
+     * sin recorrer.
+     *
+     * @param from nodo de salida (en rango)
+     */
+    protected int[] neighbors(int from) {
+        int size = size();
+        int[] found = new int[size];
+        int count = 0;
+        for (int to = 0; to < size; to++) {
+            if (to != from && isLink(from, to)) {
+                found[count++] = to;
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Nodos con un enlace directo hacia to. Por defecto los enlaces son
+     * simetricos y son los mismos que neighbors(to).
+     *
+     * @param to nodo de llegada (en rango)
+     */
+    protected int[] predecessors(int to) {
+        return neighbors(to);
+    }
+
+    /**
+     * Activa la entrega confiable extremo a extremo; aplica desde el siguiente
+     * configureNetwork.
+     *
+     * @param windowSize tramas sin confirmar por flujo; 0 para desactivarla
+     * @param initialTimeout timeout de retransmision antes de medir el RTT
+     * @param unit unidad de initialTimeout
+     * @throws IllegalArgumentException si windowSize < 0, o si windowSize > 0 y
+     *         initialTimeout <= 0
+     */
+    public void setReliableDelivery(int windowSize, long initialTimeout, TimeUnit unit) {
+        if (windowSize < 0 || (windowSize > 0 && initialTimeout <= 0)) {
+            throw new IllegalArgumentException(getName() + " requiere ventana >= 0 y timeout > 0");
+        }
+        this.reliableWindow = windowSize;
+        this.reliableTimeoutNanos = unit.toNanos(initialTimeout);
+    }
+
+    /**
+     * Asocia el reenvio a cada nodo, crea los enlaces sobre el reloj del
+     * transporte y, si se pidio, el canal confiable.
+     */
+    @Override
+    protected void onConfigured() {
+        links = new LinkScheduler(getTransport(), hopLatencyMs, TimeUnit.MILLISECONDS);
+        links.setTraceRecorder(getTraceRecorder());
+        routingRandom = null;
+        routing = new RoutingTable(this, size());
+        rerouted.reset();
+        unroutable.reset();
+        slowNodes.clear();
+        channel = reliableWindow == 0 ? null : new ReliableChannel(getTransport(), reliableWindow,
+                reliableTimeoutNanos, TimeUnit.NANOSECONDS, this::inject);
+        for (Node node : getNodes()) {
+            node.setForwarder(this::forward);
+            node.setReliableChannel(channel);
+        }
+    }
+
+    /**
+     * Envia un mensaje desde 'from' hacia 'to': entrega directa si from == to,
+     * si no pone el primer hop en el enlace hacia route(from, to). Con entrega
+     * confiable el mensaje entra a la ventana de su flujo y viaja como tramas.
+     *
+     * @param from indice de origen
+     * @param to indice de destino
+     * @param payload contenido del mensaje
+     * @return future de entrega del mensaje
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si from o to fuera de rango
+     */
+    @Override
+    public CompletableFuture<Message> sendMessage(int from, int to, String payload) {
+        validateIndices(from, to);
+        if (routing.isRemoved(from) || routing.isRemoved(to)) {
+            throw new IllegalArgumentException("Nodo retirado en " + getName() + ": from=" + from + " to=" + to);
+        }
+        Message msg = newMessage(from, to, payload);
+        NetworkLog.printf("[%s] %s: nodo %d iniciando ruteo hacia %d%n",
+                Instant.now(), getName(), from, to);
+        // en el contexto del transporte: los de un solo hilo tocan enlaces y reloj solo desde su hilo
+        getTransport().execute(() -> {
+            if (channel != null && from != to) {
+                channel.send(msg);
+            } else {
+                inject(msg);
+            }
+        });
+        return msg.getDelivery();
+    }
+
+    // pone un mensaje o trama en la red desde su nodo origen
+    private void inject(Message msg) {
+        int from = msg.getFromId();
+        int to = msg.getToId();
+        long sentAt = getTransport().nanoTime();
+        if (from == to) {
+            deliver(to, msg, sentAt);
+            NetworkLog.printf("[%s] %s: mensaje de %d a %d entregado directo%n",
+                    Instant.now(), getName(), from, to);
+            return;
+        }
+        int next = nextHop(from, to);
+        if (next == RoutingTable.UNREACHABLE) {
+            dropUnroutable(from, msg);
+            return;
+        }
+        NetworkLog.printf("[%s] %s: nodo %d reenviando a %d%n",
+                Instant.now(), getName(), from, next);
+        links.schedule(from, next, msg, () -> arrive(from, next, msg, sentAt));
+    }
+
+    /**
+     * Reenvio salto a salto: el nodo intermedio entrega al siguiente hop
+     * despues de la cola y la latencia del enlace, programadas sin ocupar un
+     * hilo durante la espera.
+     *
+     * @param current nodo que saco el mensaje de su inbox
+     * @param msg mensaje en transito
+     */
+    private void forward(Node current, Message msg) {
+        forward(current.getId(), msg);
+    }
+
+    private void forward(int current, Message msg) {
+        int next = nextHop(current, msg.getToId());
+        if (next == RoutingTable.UNREACHABLE) {
+            dropUnroutable(current, msg);
+            return;
+        }
+        NetworkLog.printf("[%s] %s: nodo %d reenviando a %d%n",
+                Instant.now(), getName(), current, next);
+        long sentAt = getTransport().nanoTime();
+        links.schedule(current, next, msg, () -> arrive(current, next, msg, sentAt));
+    }
+
+    // con la red sana rutea la topologia; con fallas, routeDegraded
+    private int nextHop(int current, int to) {
+        return routing.isDegraded() && faultTolerant ? routeDegraded(current, to) : route(current, to);
+    }
+
+    /**
+     * Siguiente hop con alguna falla y el ruteo tolerante activo. Por defecto
+     * un camino minimo vivo (RoutingTable); una topologia puede seguir con su
+     * route mientras el camino que elige este vivo.
+     *
+     * @return vecino de current, o RoutingTable.UNREACHABLE si to no es alcanzable
+     */
+    protected int routeDegraded(int current, int to) {
+        return routing.nextHop(current, to);
+    }
+
+    /**
+     * Version de las fallas: cambia con cada falla, recuperacion o
+     * crecimiento. Sirve para cachear algo derivado de isLinkUp.
+     */
+    protected final int faultVersion() {
+        return routing.version();
+    }
+
+    private void dropUnroutable(int current, Message msg) {
+        unroutable.increment();
+        msg.markDropped("sin ruta de " + current + " a " + msg.getToId() + " en " + getName());
+    }
+
+    // si el enlace cayo mientras el hop viajaba, el mensaje vuelve a from y se rutea de nuevo
+    private void arrive(int from, int next, Message msg, long sentAt) {
+        if (routing.isUp(from, next)) {
+            deliver(next, msg, sentAt);
+        } else if (!faultTolerant) {
+            unroutable.increment();
+            msg.markDropped("hop " + from + "->" + next + " perdido por una falla en " + getName());
+        } else if (routing.isRemoved(from) || routing.isCrashed(from)) {
+            dropUnroutable(from, msg);
+        } else {
+            rerouted.increment();
+            NetworkLog.printf("[%s] %s: enlace %d->%d caido, nodo %d reenruta hacia %d%n",
+                    Instant.now(), getName(), from, next, from, msg.getToId());
+            forward(from, msg);
+        }
+    }
+
+    // el hop termina cuando el mensaje llega al inbox del siguiente nodo; un nodo lento lo hace esperar
+    private void deliver(int next, Message msg, long sentAt) {
+        Transport transport = getTransport();
+        SlowNode slow = slowNodes.isEmpty() ? null : slowNodes.get(next);
+        if (slow != null) {
+            long now = transport.nanoTime();
+            transport.schedule(() -> accept(next, msg, sentAt), slow.admit(now) - now, TimeUnit.NANOSECONDS);
+            return;
+        }
+        accept(next, msg, sentAt);
+    }
+
+    private void accept(int next, Message msg, long sentAt) {
+        Transport transport = getTransport();
+        transport.deliver(node(next), msg);
+        getLatencyStats().recordHop(transport.nanoTime() - sentAt);
+    }
+
+    /**
+     * Baja el enlace entre a y b en los dos sentidos. Solo se descartan las rutas que lo usaban; los
+     * hops que viajan por el vuelven a su nodo de salida y se rutean de nuevo.
+     * Sin camino alternativo los mensajes se descartan.
+     *
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si a y b no estan unidos por un enlace
+     */
+    public void failLink(int a, int b) {
+        validateEdge(a, b);
+        routing.fail(a, b);
+        NetworkLog.printf("[%s] %s: enlace %d-%d caido%n", Instant.now(), getName(), a, b);
+    }
+
+    /**
+     * Levanta el enlace entre a y b; las rutas existentes que se acortan con
+     * el se corrigen sin recalcularse. Si ya no queda nada caido, el reenvio
+     * vuelve a la funcion route de la topologia.
+     *
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si a y b no estan unidos por un enlace
+     */
+    public void recoverLink(int a, int b) {
+        validateEdge(a, b);
+        routing.recover(a, b);
+        NetworkLog.printf("[%s] %s: enlace %d-%d recuperado%n", Instant.now(), getName(), a, b);
+    }
+
+    /**
+     * Indica si el enlace dirigido from->to esta arriba.
+     */
+    public boolean isLinkUp(int from, int to) {
+        validateLink(from, to);
+        return routing.isUp(from, to);
+    }
+
+    /**
+     * Retira un nodo de la red en caliente: sus enlaces quedan caidos, el
+     * trafico de paso se rutea alrededor y los hops que viajaban hacia el
+     * vuelven a su nodo de salida. Los mensajes de paso que ya estaban en su
+     * inbox se descartan (los que eran para el se procesan) y no admite
+     * envios desde o hacia el. El id no se reutiliza.
+     *
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el nodo esta fuera de rango
+     */
+    public void removeNode(int id) {
+        validateIndices(id, id);
+        routing.remove(id);
+        node(id).setForwarder((current, msg) -> dropUnroutable(current.getId(), msg));
+        NetworkLog.printf("[%s] %s: nodo %d retirado%n", Instant.now(), getName(), id);
+    }
+
+    /**
+     * Indica si el nodo fue retirado con removeNode.
+     */
+    public boolean isNodeRemoved(int id) {
+        validateIndices(id, id);
+        return routing.isRemoved(id);
+    }
+
+    /**
+     * Falla de nodo: pierde los mensajes de su inbox y los que le lleguen
+     * (sus futures se completan con error), y el trafico de paso se rutea
+     * alrededor. A diferencia de removeNode se admiten envios desde o hacia
+     * el, que se pierden, y puede volver con recoverNode.
+     *
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el nodo esta fuera de rango
+     */
+    public void crashNode(int id) {
+        validateIndices(id, id);
+        routing.crash(id);
+        node(id).crash();
+        NetworkLog.printf("[%s] %s: nodo %d caido%n", Instant.now(), getName(), id);
+    }
+
+    /**
+     * Levanta un nodo caido con crashNode; las rutas existentes que se
+     * acortan con el se corrigen sin recalcularse.
+     *
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el nodo esta fuera de rango
+     */
+    public void recoverNode(int id) {
+        validateIndices(id, id);
+        node(id).recover();
+        routing.restore(id);
+        NetworkLog.printf("[%s] %s: nodo %d recuperado%n", Instant.now(), getName(), id);
+    }
+
+    /**
+     * Indica si el nodo esta caido (crashNode sin recoverNode).
+     */
+    public boolean isNodeCrashed(int id) {
+        validateIndices(id, id);
+        return routing.isCrashed(id);
+    }
+
+    /**
+     * Nodo lento: cada mensaje que le llega (de paso o para el) espera en una
+     * fila a que el nodo lo atienda, de a uno cada delay en el reloj del
+     * transporte. Las rutas no lo evitan. Vale hasta la siguiente configuracion.
+     *
+     * @param id nodo
+     * @param delay tiempo de atencion por mensaje; 0 para volver a la normalidad
+     * @param unit unidad de delay
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el nodo esta fuera de rango o delay < 0
+     */
+    public void setNodeDelay(int id, long delay, TimeUnit unit) {
+        validateIndices(id, id);
+        if (delay < 0) {
+            throw new IllegalArgumentException(getName() + " requiere demora de nodo >= 0");
+        }
+        if (delay == 0) {
+            slowNodes.remove(id);
+        } else {
+            slowNodes.put(id, new SlowNode(unit.toNanos(delay)));
+        }
+    }
+
+    /**
+     * Con true (por defecto) el reenvio rodea enlaces y nodos caidos por
+     * rutas minimas vivas y los hops que llegan a un enlace caido se rutean
+     * de nuevo. Con false rutea siempre con route, como si la red estuviera
+     * sana, y descarta lo que llega a un enlace o nodo caido (cuenta en
+     * getUnroutableCount). Aplica desde el siguiente hop.
+     */
+    public void setFaultTolerantRouting(boolean enabled) {
+        this.faultTolerant = enabled;
+    }
+
+    /**
+     * Conecta los nodos agregados y extiende las rutas minimas a ellos.
+     */
+    @Override
+    protected void onNodesAdded(int oldSize) {
+        for (Node node : getNodes().subList(oldSize, size())) {
+            node.setForwarder(this::forward);
+            node.setReliableChannel(channel);
+        }
+        routing.grow(oldSize);
+        NetworkLog.printf("[%s] %s: %d nodos agregados (%d en total)%n",
+                Instant.now(), getName(), size() - oldSize, size());
+    }
+
+    /**
+     * Hops que llegaron a un enlace caido y se rutearon de nuevo desde su
+     * nodo de salida.
+     */
+    public long getReroutedCount() {
+        return rerouted.sum();
+    }
+
+    /**
+     * Mensajes descartados por no tener ruta viva hasta su destino (o, sin
+     * ruteo tolerante a fallas, por llegar a un enlace o nodo caido).
+     */
+    public long getUnroutableCount() {
+        return unroutable.sum();
+    }
+
+    /**
+     * Arboles de rutas calculados completos (BFS) desde la configuracion.
+     */
+    public long getRouteComputations() {
+        return routing == null ? 0 : routing.getComputed();
+    }
+
+    /**
+     * Arboles de rutas corregidos en el lugar al recuperar enlaces o crecer.
+     */
+    public long getRoutePatches() {
+        return routing == null ? 0 : routing.getPatched();
+    }
+
+    /**
+     * Arboles de rutas descartados por una falla (se recalculan al usarse).
+     */
+    public long getRouteInvalidations() {
+        return routing == null ? 0 : routing.getDiscarded();
+    }
+
+    /**
+     * Duracion de la ultima actualizacion de rutas (falla, recuperacion o
+     * crecimiento), sin los recalculos diferidos.
+     */
+    public long getLastRouteUpdateNanos() {
+        return routing == null ? 0 : routing.getLastUpdateNanos();
+    }
+
+    /**
+     * Tiempo total de los recalculos completos de arboles.
+     */
+    public long getRouteComputeNanos() {
+        return routing == null ? 0 : routing.getComputeNanos();
+    }
+
+    /**
+     * Configura la latencia del enlace dirigido from->to. Los demas enlaces
+     * mantienen la latencia por defecto.
+     *
+     * @param from nodo de salida
+     * @param to nodo de llegada
+     * @param latency latencia del enlace
+     * @param unit unidad de la latencia
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si from->to no es un enlace o la latencia
+     *         es negativa
+     */
+    public void setLinkLatency(int from, int to, long latency, TimeUnit unit) {
+        validateLink(from, to);
+        links.setLatency(from, to, latency, unit);
+    }
+
+    /**
+     * Configura la misma latencia en todos los enlaces.
+     *
+     * @param latency latencia de cada enlace
+     * @param unit unidad de la latencia
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si la latencia es negativa
+     */
+    public void setLinkLatency(long latency, TimeUnit unit) {
+        requireConfigured();
+        links.setDefaultLatency(latency, unit);
+    }
+
+    /**
+     * Configura el ancho de banda del enlace dirigido from->to. Los mensajes
+     * se serializan segun su tamano y esperan en la cola FIFO del enlace.
+     *
+     * @param from nodo de salida
+     * @param to nodo de llegada
+     * @param bitsPerSecond ancho de banda; 0 para ilimitado
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si from->to no es un enlace o el ancho
+     *         de banda es negativo
+     */
+    public void setLinkBandwidth(int from, int to, long bitsPerSecond) {
+        validateLink(from, to);
+        links.setBandwidth(from, to, bitsPerSecond);
+    }
+
+    /**
+     * Configura el mismo ancho de banda en todos los enlaces.
+     *
+     * @param bitsPerSecond ancho de banda; 0 para ilimitado
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si el ancho de banda es negativo
+     */
+    public void setLinkBandwidth(long bitsPerSecond) {
+        requireConfigured();
+        links.setDefaultBandwidth(bitsPerSecond);
+    }
+
+    /**
+     * Configura la probabilidad de perder cada hop en el enlace dirigido from->to.
+     *
+     * @param from nodo de salida
+     * @param to nodo de llegada
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si from->to no es un enlace o la
+     *         probabilidad esta fuera de rango
+     */
+    public void setLinkLoss(int from, int to, double probability) {
+        validateLink(from, to);
+        links.setLoss(from, to, probability);
+    }
+
+    /**
+     * Configura la misma probabilidad de perdida en todos los enlaces.
+     *
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si la probabilidad esta fuera de rango
+     */
+    public void setLinkLoss(double probability) {
+        requireConfigured();
+        links.setDefaultLoss(probability);
+    }
+
+    /**
+     * Configura la probabilidad de duplicar cada hop en el enlace dirigido from->to.
+     *
+     * @param from nodo de salida
+     * @param to nodo de llegada
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si from->to no es un enlace o la
+     *         probabilidad esta fuera de rango
+     */
+    public void setLinkDuplication(int from, int to, double probability) {
+        validateLink(from, to);
+        links.setDuplication(from, to, probability);
+    }
+
+    /**
+     * Configura la misma probabilidad de duplicado en todos los enlaces.
+     *
+     * @param probability probabilidad en [0, 1]
+     * @throws IllegalStateException si la topologia no esta configurada
+     * @throws IllegalArgumentException si la probabilidad esta fuera de rango
+     */
+    public void setLinkDuplication(double probability) {
+        requireConfigured();
+        links.setDefaultDuplication(probability);
+    }
+
+    /**
+     * Siembra los sorteos de la topologia: perdida y duplicado de cada enlace
+     * (un generador por enlace) y los desempates del ruteo adaptativo (un
+     * generador compartido, ver tieBreak). Con la misma semilla y el mismo
+     * orden de eventos se repiten los mismos sorteos.
+     *
+     * @param seed semilla
+     * @throws IllegalStateException si la topologia no esta configurada
+     */
+    public void setSeed(long seed) {
+        requireConfigured();
+        links.setSeed(seed);
+        routingRandom = new SplittableRandom(seed);
+    }
+
+    /**
+     * Sorteo uniforme en [0, bound) para desempatar rutas de igual costo.
+     * Sin setSeed usa ThreadLocalRandom; sembrado, un generador compartido
+     * (sincronizado, reproducible si un solo hilo rutea).
+     */
+    protected int tieBreak(int bound) {
+        SplittableRandom random = routingRandom;
+        if (random == null) {
+            return ThreadLocalRandom.current().nextInt(bound);
+        }
+        synchronized (random) {
+            return random.nextInt(bound);
+        }
+    }
+
+    /**
+     * Contadores del protocolo confiable.
+     *
+     * @return contadores de la ultima configuracion, null si no hay entrega confiable
+     */
+    public ReliabilityStats getReliabilityStats() {
+        return channel == null ? null : channel.getStats();
+    }
+
+    /**
+     * Devuelve los enlaces de la topologia con su uso (utilizacion, cola).
+     *
+     * @return enlaces de la ultima configuracion, null si no esta configurada
+     */
+    public LinkScheduler getLinks() {
+        return links;
+    }
+
+    /**
+     * Espera a que se confirmen los mensajes del canal confiable y a que se
+     * entreguen los hops ya programados, y cierra canal y enlaces.
+     */
+    @Override
+    protected void drainMedium(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (channel != null) {
+            channel.awaitIdle(timeout, unit);
+            channel.close();
+        }
+        links.awaitIdle(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        links.close();
+    }
+
+    @Override
+    protected void closeMedium() {
+        if (channel != null) {
+            channel.close();
+        }
+        links.close();
+    }
+
+    /**
+     * Verifica que from->to sea un enlace directo de la topologia.
+     *
+     * @throws IllegalStateException si topologia no configurada
+     * @throws IllegalArgumentException si no existe el enlace
+     */
+    protected void validateLink(int from, int to) {
+        validateIndices(from, to);
+        if (from == to || !isLink(from, to)) {
+            throw new IllegalArgumentException(
+                    "No existe enlace " + from + "->" + to + " en " + getName());
+        }
+    }
+
+    // a-b unidos por un enlace en algun sentido
+    private void validateEdge(int a, int b) {
+        validateIndices(a, b);
+        if (a == b || !(isLink(a, b) || isLink(b, a))) {
+            throw new IllegalArgumentException("No existe enlace " + a + "-" + b + " en " + getName());
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.pucmm.network.topologia;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rutas minimas de una RoutedTopology con enlaces caidos o nodos caidos o
+ * retirados.
+ * Mientras la red esta sana no se usa: cada topologia rutea con su funcion
+ * route. Con la primera falla (isDegraded) el reenvio pasa a estas tablas.
+ *
+ * Por destino d guarda un arbol de caminos minimos hacia d (siguiente hop y
+ * distancia de cada nodo), calculado con un BFS sobre el grafo vivo al
+ * primer uso. Los cambios se aplican sin recalcular todo:
+ * - enlace caido, nodo caido o retirado: se descartan solo los arboles que
+ *   usaban ese enlace o nodo y se recalculan al proximo mensaje hacia su destino
+ * - enlace o nodo recuperado, nodos agregados: los arboles existentes se corrigen
+ *   relajando los enlaces nuevos y propagando las distancias que bajan
+ *   (un enlace nuevo solo puede acortar caminos); si al crecer desaparecio
+ *   un enlace usado (el cierre del anillo), ese arbol se descarta
+ *
+ * Las lecturas (nextHop, isUp) no toman locks: cada arbol publicado es
+ * inmutable y los cambios publican copias. Un mensaje ruteado con un arbol
+ * viejo puede salir por un enlace que acaba de caer; al llegar, la topologia
+ * lo detecta y lo vuelve a rutear desde el nodo anterior.
+ */
+final class RoutingTable {
+    static final int UNREACHABLE = -1;
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final RoutedTopology topology;
+    // enlaces dirigidos caidos, por clave from<<32|to (incluye los de nodos retirados)
+    private final Set<Long> down = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+    // nodos caidos: como retirados, pero pueden volver (restore)
+    private final Set<Integer> crashed = ConcurrentHashMap.newKeySet();
+    private volatile boolean degraded;
+    // cambia despues de cada falla, recuperacion o crecimiento (ver version)
+    private volatile int version;
+    // arbol hacia cada destino; null = sin calcular
+    private volatile AtomicReferenceArray<Tree> trees;
+
+    private final LongAdder computed = new LongAdder();
+    private final LongAdder patched = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private volatile long lastUpdateNanos;
+    private volatile long computeNanos;
+
+    /**
+     * Caminos minimos hacia un destino: next[v] es el vecino por el que sigue
+     * v (UNREACHABLE si no hay camino) y dist[v] los hops que faltan.
+     */
+    private static final class Tree {
+        final int[] next;
+        final int[] dist;
+
+        Tree(int[] next, int[] dist) {
+            this.next = next;
+            this.dist = dist;
+        }
+
+        Tree copy(int size) {
+            int[] n = Arrays.copyOf(next, size);
+            int[] d = Arrays.copyOf(dist, size);
+            Arrays.fill(n, next.length, size, UNREACHABLE);
+            Arrays.fill(d, dist.length, size, INFINITE);
+            return new Tree(n, d);
+        }
+    }
+
+    RoutingTable(RoutedTopology topology, int size) {
+        this.topology = topology;
+        this.trees = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Version de los enlaces y nodos caidos: cambia despues de cada cambio,
+     * asi quien cachee algo derivado de isUp sabe cuando rehacerlo.
+     */
+    int version() {
+        return version;
+    }
+
+    /**
+     * Hay algun enlace caido o nodo caido o retirado.
+     */
+    boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * El enlace from->to esta arriba y sus dos extremos estan vivos (los
+     * enlaces de un nodo caido, o los que aparecen al crecer hacia un nodo
+     * retirado, no estan en down).
+     */
+    boolean isUp(int from, int to) {
+        return !degraded || !(down.contains(key(from, to)) || isDead(from) || isDead(to));
+    }
+
+    // caido o retirado
+    private boolean isDead(int node) {
+        return removed.contains(node) || crashed.contains(node);
+    }
+
+    boolean isRemoved(int node) {
+        return degraded && removed.contains(node);
+    }
+
+    boolean isCrashed(int node) {
+        return degraded && crashed.contains(node);
+    }
+
+    /**
+     * Siguiente hop de current hacia to por un camino minimo vivo.
+     *
+     * @return vecino de current, o UNREACHABLE si to no es alcanzable
+     */
+    int nextHop(int current, int to) {
+        AtomicReferenceArray<Tree> all = trees;
+        Tree tree = to < all.length() ? all.get(to) : null;
+        if (tree == null) {
+            tree = compute(to);
+        }
+        return current < tree.next.length ? tree.next[current] : UNREACHABLE;
+    }
+
+    private synchronized Tree compute(int to) {
+        int size = topology.size();
+        if (to >= trees.length()) {
+            // destino agregado antes de que llegue grow: se hace lugar, grow corrige los demas
+            AtomicReferenceArray<Tree> all = new AtomicReferenceArray<>(size);
+            for (int d = 0; d < trees.length(); d++) {
+                all.set(d, trees.get(d));
+            }
+            trees = all;
+        }
+        Tree tree = trees.get(to);
+        if (tree != null) {
+            return tree;
+        }
+        long start = System.nanoTime();
+        int[] next = new int[size];
+        int[] dist = new int[size];
+        Arrays.fill(next, UNREACHABLE);
+        Arrays.fill(dist, INFINITE);
+        tree = new Tree(next, dist);
+        if (!isDead(to)) {
+            dist[to] = 0;
+            next[to] = to;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(to);
+            propagate(tree, queue);
+        }
+        trees.set(to, tree);
+        computed.increment();
+        computeNanos += System.nanoTime() - start;
+        return tree;
+    }
+
+    /**
+     * BFS hacia atras desde los nodos de queue: cada predecesor vivo cuya
+     * distancia baja pasa a salir por el nodo que lo alcanzo.
+     */
+    private void propagate(Tree tree, ArrayDeque<Integer> queue) {
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            int through = tree.dist[v] + 1;
+            for (int u : topology.predecessors(v)) {
+                if (u < tree.dist.length && through < tree.dist[u] && isUp(u, v)) {
+                    tree.dist[u] = through;
+                    tree.next[u] = v;
+                    queue.add(u);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marca caidos los enlaces dirigidos a->b y b->a que existan y descarta
+     * los arboles que los usaban.
+     */
+    synchronized void fail(int a, int b) {
+        long start = System.nanoTime();
+        markDown(a, b);
+        markDown(b, a);
+        version++;
+        AtomicReferenceArray<Tree> all = trees;
+        for (int d = 0; d < all.length(); d++) {
+            Tree tree = all.get(d);
+            if (tree != null && (uses(tree, a, b) || uses(tree, b, a))) {
+                all.set(d, null);
+                discarded.increment();
+            }
+        }
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    private void markDown(int from, int to) {
+        if (topology.isLink(from, to)) {
+            down.add(key(from, to));
+            degraded = true;
+        }
+    }
+
+    /**
+     * Vuelve a levantar a->b y b->a y corrige los arboles existentes con esos
+     * enlaces, sin recalcularlos. Con un extremo caido o retirado no hay nada
+     * que corregir hasta que vuelva.
+     */
+    synchronized void recover(int a, int b) {
+        long start = System.nanoTime();
+        down.remove(key(a, b));
+        down.remove(key(b, a));
+        updateDegraded();
+        version++;
+        if (isDead(a) || isDead(b)) {
+            return;
+        }
+        AtomicReferenceArray<Tree> all = trees;
+        for (int d = 0; d < all.length(); d++) {
+            Tree tree = all.get(d);
+            if (tree == null || !(shortens(tree, a, b) || shortens(tree, b, a))) {
+                continue;
+            }
+            Tree copy = tree.copy(tree.next.length);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            relax(copy, a, b, queue);
+            relax(copy, b, a, queue);
+            propagate(copy, queue);
+            all.set(d, copy);
+            patched.increment();
+        }
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    // u->v esta vivo y acorta el camino de u
+    private boolean shortens(Tree tree, int u, int v) {
+        return u < tree.dist.length && v < tree.dist.length && tree.dist[v] != INFINITE
+                && tree.dist[v] + 1 < tree.dist[u] && topology.isLink(u, v) && isUp(u, v);
+    }
+
+    // si u->v acorta el camino de u, lo toma y encola u para propagar
+    private void relax(Tree tree, int u, int v, ArrayDeque<Integer> queue) {
+        if (shortens(tree, u, v)) {
+            tree.dist[u] = tree.dist[v] + 1;
+            tree.next[u] = v;
+            queue.add(u);
+        }
+    }
+
+    /**
+     * Retira un nodo: todos sus enlaces quedan caidos, se descarta su arbol
+     * y los que pasaban por el.
+     */
+    synchronized void remove(int node) {
+        long start = System.nanoTime();
+        removed.add(node);
+        degraded = true;
+        for (int v : topology.neighbors(node)) {
+            down.add(key(node, v));
+        }
+        for (int u : topology.predecessors(node)) {
+            down.add(key(u, node));
+        }
+        version++;
+        discardThrough(node);
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Cae un nodo: sus enlaces dejan de usarse sin marcarlos en down (asi una
+     * falla de enlace aparte sigue en pie al volver el nodo). Se descarta su
+     * arbol y los que pasaban por el.
+     */
+    synchronized void crash(int node) {
+        long start = System.nanoTime();
+        crashed.add(node);
+        degraded = true;
+        version++;
+        discardThrough(node);
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Vuelve un nodo caido: su arbol se recalcula al usarse y los demas se
+     * corrigen relajando sus enlaces de salida y propagando desde el.
+     */
+    synchronized void restore(int node) {
+        long start = System.nanoTime();
+        if (!crashed.remove(node)) {
+            return;
+        }
+        updateDegraded();
+        version++;
+        if (removed.contains(node)) {
+            return;
+        }
+        AtomicReferenceArray<Tree> all = trees;
+        int[] neighbors = topology.neighbors(node);
+        for (int d = 0; d < all.length(); d++) {
+            Tree tree = all.get(d);
+            if (tree == null) {
+                continue;
+            }
+            if (d == node) {
+                // sin el nodo vivo su arbol quedo vacio
+                all.set(d, null);
+                discarded.increment();
+                continue;
+            }
+            Tree copy = null;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int v : neighbors) {
+                if (shortens(tree, node, v)) {
+                    copy = copy == null ? tree.copy(tree.next.length) : copy;
+                    relax(copy, node, v, queue);
+                }
+            }
+            if (copy != null) {
+                propagate(copy, queue);
+                all.set(d, copy);
+                patched.increment();
+            }
+        }
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    // descarta el arbol de node y los que tenian algun hop hacia el
+    private void discardThrough(int node) {
+        int[] predecessors = topology.predecessors(node);
+        AtomicReferenceArray<Tree> all = trees;
+        for (int d = 0; d < all.length(); d++) {
+            Tree tree = all.get(d);
+            if (tree == null) {
+                continue;
+            }
+            boolean through = d == node;
+            for (int u = 0; !through && u < predecessors.length; u++) {
+                through = uses(tree, predecessors[u], node);
+            }
+            if (through) {
+                all.set(d, null);
+                discarded.increment();
+            }
+        }
+    }
+
+    /**
+     * La topologia paso de oldSize a su tamano actual: extiende los arboles
+     * existentes a los nodos nuevos relajando sus enlaces. Los arboles que
+     * usaban un enlace que ya no existe se descartan.
+     */
+    synchronized void grow(int oldSize) {
+        long start = System.nanoTime();
+        int size = topology.size();
+        AtomicReferenceArray<Tree> old = trees;
+        AtomicReferenceArray<Tree> all = new AtomicReferenceArray<>(size);
+        for (int d = 0; d < old.length(); d++) {
+            Tree tree = old.get(d);
+            if (tree == null || !stillLinked(tree, d)) {
+                if (tree != null) {
+                    discarded.increment();
+                }
+                continue;
+            }
+            Tree copy = tree.copy(size);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int u = oldSize; u < size; u++) {
+                for (int v : topology.neighbors(u)) {
+                    relax(copy, u, v, queue);
+                }
+            }
+            propagate(copy, queue);
+            all.set(d, copy);
+            patched.increment();
+        }
+        trees = all;
+        version++;
+        lastUpdateNanos = System.nanoTime() - start;
+    }
+
+    private boolean stillLinked(Tree tree, int to) {
+        for (int u = 0; u < tree.next.length; u++) {
+            int v = tree.next[u];
+            if (u != to && v != UNREACHABLE && !topology.isLink(u, v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void updateDegraded() {
+        degraded = !down.isEmpty() || !removed.isEmpty() || !crashed.isEmpty();
+    }
+
+    private static boolean uses(Tree tree, int from, int to) {
+        return from < tree.next.length && tree.next[from] == to;
+    }
+
+    private static long key(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+
+    // Estadisticas
+    long getComputed() { return computed.sum(); }
+    long getPatched() { return patched.sum(); }
+    long getDiscarded() { return discarded.sum(); }
+    long getLastUpdateNanos() { return lastUpdateNanos; }
+    long getComputeNanos() { return computeNanos; }
+    int getDownLinks() { return down.size(); }
+}
@@ -3,138 +3,351 @@ package com.pucmm.network.topologia;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.pucmm.network.core.Message;
-import com.pucmm.network.core.NetworkTopology;
-import com.pucmm.network.core.Node;
+import com.pucmm.network.core.NetworkLog;
 
 /**
- * Topologia con switch central: los nodos envian mensajes al switch,
- * el switch los procesa y reenvia al destino final.
- * Se ejecuta un hilo dedicado para el switch y un pool para nodos.
+ * Topologia conmutada: los nodos envian mensajes a su switch, que los reenvia
+ * hacia el destino final. Soporta un switch unico o una jerarquia leaf-spine:
+ * cada nodo cuelga de un leaf y los leafs se conectan a todos los spines.
+ *
+ * Cada switch tiene una cola por puerto de entrada (virtual output queues):
+ * el reenvio lo hacen N hilos, y cada hilo atiende los puertos de salida
+ * asignados por hash (switch, puerto de salida). Un flujo (from,to) siempre
+ * sigue el mismo camino y las mismas colas, por lo que conserva el orden.
+ * Cada hilo guarda en una cola los puertos con trafico: tomar un frame es
+ * O(1), sin recorrer los puertos vacios.
  */
-public class SwitchedNetwork implements NetworkTopology {
-    private List<Node> nodes;
-    private ExecutorService nodeExecutor;
+public class SwitchedNetwork extends AbstractTopology {
+    private final int forwardingThreads;
+    private final int leafCount;
+    private final int spineCount;
+    // los nodos corren en el transporte; el fabric usa sus propios hilos de reenvio
     private ExecutorService switchExecutor;
-    private BlockingQueue<Message> switchQueue;
+    private List<ForwardingWorker> workers;
     private volatile boolean switchRunning;
+    // frames dentro del fabric, en cualquier cola de cualquier hilo: un hilo
+    // con su ready vacio todavia puede recibir un salto leaf-spine de otro
+    private final AtomicLong framesInFabric = new AtomicLong();
+    // nodos por leaf y base del indice global de puertos de cada switch
+    private int hostsPerLeaf;
+    private int[] portBase;
+    private int totalPorts;
+    // mensajes reenviados por cada switch (leafs 0..L-1, spines L..L+S-1)
+    private AtomicLongArray forwardedPerSwitch;
 
     /**
-     * Configura la red con numberOfNodes nodos.
-     * Crea nodos ids 0..numberOfNodes-1, inicializa nodeExecutor y switchExecutor,
-     * inicia la tarea del switch que lee de switchQueue y entrega a destino.
-     *
-     * @param numberOfNodes cantidad de nodos en la red
-     * @throws IllegalArgumentException si numberOfNodes < 1
+     * Mensaje en transito dentro del fabric: recuerda en que switch y por que
+     * puerto de entrada llego.
      */
-    @Override
-    public void configureNetwork(int numberOfNodes) {
-        if (numberOfNodes < 1) {
-            throw new IllegalArgumentException("SwitchedNetwork requiere al menos 1 nodo");
+    private static final class SwitchFrame {
+        final Message msg;
+        final int switchId;
+        final int ingressPort;
+        final long enqueuedNanos;
+
+        SwitchFrame(Message msg, int switchId, int ingressPort) {
+            this.msg = msg;
+            this.switchId = switchId;
+            this.ingressPort = ingressPort;
+            this.enqueuedNanos = System.nanoTime();
         }
-        nodes = new ArrayList<>(numberOfNodes);
-        for (int i = 0; i < numberOfNodes; i++) {
-            nodes.add(new Node(i));
+    }
+
+    /**
+     * Hilo de reenvio: posee una cola por puerto de entrada global y las atiende
+     * en round-robin para arbitrar de forma justa entre puertos. Los puertos
+     * con trafico esperan turno en ready: cada uno aparece a lo sumo una vez
+     * (scheduled) y, si le quedan frames, vuelve al final tras reenviar uno.
+     * Los permisos de pending solo despiertan al hilo: se liberan despues de
+     * agendar el puerto y el hilo se duerme recien con ready vacio.
+     * Al detener, cada hilo sigue hasta que framesInFabric llega a 0, no solo
+     * hasta vaciar su ready.
+     */
+    private final class ForwardingWorker implements Runnable {
+        private final Queue<SwitchFrame>[] ingressQueues;
+        private final Queue<Integer> ready = new ConcurrentLinkedQueue<>();
+        // 1 si el puerto esta en ready o lo esta atendiendo el hilo
+        private final AtomicIntegerArray scheduled;
+        private final Semaphore pending = new Semaphore(0);
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ForwardingWorker(int ports) {
+            ingressQueues = new Queue[ports];
+            for (int i = 0; i < ports; i++) {
+                ingressQueues[i] = new ConcurrentLinkedQueue<>();
+            }
+            scheduled = new AtomicIntegerArray(ports);
         }
-        nodeExecutor = Executors.newFixedThreadPool(numberOfNodes);
-        switchExecutor = Executors.newSingleThreadExecutor();
-        switchQueue = new LinkedBlockingQueue<>();
-        switchRunning = true;
-        // iniciar proceso del switch
-        switchExecutor.submit(() -> {
-            while (switchRunning || !switchQueue.isEmpty()) {
-                try {
-                    Message msg = switchQueue.poll(500, TimeUnit.MILLISECONDS);
-                    if (msg != null) {
-                        int to = msg.getToId();
-                        // Validar indices antes de entregar
-                        if (to < 0 || to >= nodes.size()) {
-                            System.err.printf("SwitchedNetwork: destino fuera de rango: %d%n", to);
-                        } else {
-                            System.out.printf("[%s] SwitchedNetwork: switch reenviando a %d%n",
-                                    Instant.now(), to);
-                            nodes.get(to).receiveMessage(msg);
-                        }
+
+        void enqueue(SwitchFrame frame) {
+            int port = portBase[frame.switchId] + frame.ingressPort;
+            ingressQueues[port].offer(frame);
+            // si ya estaba agendado, quien lo agendo (o el hilo que lo atiende) lo deja en ready
+            if (scheduled.compareAndSet(port, 0, 1)) {
+                ready.offer(port);
+                pending.release();
+            }
+        }
+
+        // despierta al hilo para que vea switchRunning=false o el fabric vacio
+        void wakeUp() {
+            pending.release();
+        }
+
+        @Override
+        public void run() {
+            while (switchRunning || framesInFabric.get() > 0) {
+                // round-robin entre puertos de entrada con trafico
+                Integer port = ready.poll();
+                if (port == null) {
+                    try {
+                        pending.tryAcquire(500, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
                     }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
+                    // los demas permisos son de puertos que ya estan en ready
+                    pending.drainPermits();
+                    continue;
                 }
+                Queue<SwitchFrame> queue = ingressQueues[port];
+                SwitchFrame frame = queue.poll();
+                reschedule(port, queue);
+                if (frame != null) {
+                    try {
+                        forward(frame);
+                    } finally {
+                        // el siguiente salto ya se conto en dispatch
+                        leaveFabric();
+                    }
+                }
+            }
+        }
+
+        // el puerto vuelve al final de ready si le quedan frames; si no, sale hasta el proximo enqueue
+        private void reschedule(int port, Queue<SwitchFrame> queue) {
+            if (!queue.isEmpty()) {
+                ready.offer(port);
+                return;
+            }
+            scheduled.set(port, 0);
+            // un enqueue entre isEmpty y set no pudo agendarlo: se revisa de nuevo
+            if (!queue.isEmpty() && scheduled.compareAndSet(port, 0, 1)) {
+                ready.offer(port);
             }
-        });
+        }
+    }
+
+    /**
+     * Red con un unico switch y un hilo de reenvio por nucleo.
+     */
+    public SwitchedNetwork() {
+        this(Runtime.getRuntime().availableProcessors(), 1, 0);
     }
 
     /**
-     * Envia un mensaje desde 'from' hacia 'to' a traves del switch.
-     * Valida indices y pone el mensaje en la cola switchQueue.
+     * Red conmutada configurable.
+     *
+     * @param forwardingThreads hilos de reenvio compartidos por todos los switches
+     * @param leafCount         numero de switches leaf (1 = switch unico)
+     * @param spineCount        numero de switches spine; requerido si leafCount > 1
+     * @throws IllegalArgumentException si la configuracion no es valida
+     */
+    public SwitchedNetwork(int forwardingThreads, int leafCount, int spineCount) {
+        if (forwardingThreads < 1) {
+            throw new IllegalArgumentException("SwitchedNetwork requiere al menos 1 hilo de reenvio");
+        }
+        if (leafCount < 1 || spineCount < 0 || (leafCount > 1 && spineCount < 1)) {
+            throw new IllegalArgumentException(
+                    "SwitchedNetwork requiere al menos 1 leaf y, con varios leafs, al menos 1 spine");
+        }
+        this.forwardingThreads = forwardingThreads;
+        this.leafCount = leafCount;
+        this.spineCount = spineCount;
+    }
+
+    /**
+     * Verifica que el reparto en bloques de ceil(N / leafs) nodos deje al
+     * menos un nodo en cada leaf.
+     *
+     * @throws IllegalArgumentException si algun leaf queda vacio (por ejemplo
+     *         9 nodos en 4 leafs: bloques de 3 y el ultimo leaf sin nodos)
+     */
+    @Override
+    protected void prepare(int numberOfNodes) {
+        if (leafCount > numberOfNodes) {
+            throw new IllegalArgumentException("SwitchedNetwork requiere al menos 1 nodo por leaf");
+        }
+        int perLeaf = (numberOfNodes + leafCount - 1) / leafCount;
+        if ((leafCount - 1) * perLeaf >= numberOfNodes) {
+            throw new IllegalArgumentException("SwitchedNetwork: " + numberOfNodes + " nodos en bloques de "
+                    + perLeaf + " dejan leafs vacios con " + leafCount + " leafs");
+        }
+    }
+
+    /**
+     * Reparte los nodos entre los leafs en bloques contiguos, crea las colas
+     * por puerto de entrada y arranca los hilos de reenvio.
+     */
+    @Override
+    protected void onConfigured() {
+        int numberOfNodes = size();
+        // puertos: leaf = hosts + uplinks a cada spine; spine = un puerto por leaf
+        hostsPerLeaf = (numberOfNodes + leafCount - 1) / leafCount;
+        portBase = new int[leafCount + spineCount];
+        int base = 0;
+        for (int sw = 0; sw < portBase.length; sw++) {
+            portBase[sw] = base;
+            base += sw < leafCount ? hostsPerLeaf + spineCount : leafCount;
+        }
+        totalPorts = base;
+        forwardedPerSwitch = new AtomicLongArray(leafCount + spineCount);
+
+        switchExecutor = Executors.newFixedThreadPool(forwardingThreads);
+        workers = new ArrayList<>(forwardingThreads);
+        // lo que haya quedado de una configuracion cortada con shutdownNow
+        framesInFabric.set(0);
+        switchRunning = true;
+        for (int i = 0; i < forwardingThreads; i++) {
+            ForwardingWorker worker = new ForwardingWorker(totalPorts);
+            workers.add(worker);
+            switchExecutor.submit(worker);
+        }
+    }
+
+    /**
+     * Envia un mensaje desde 'from' hacia 'to' a traves del fabric.
+     * Valida indices y pone el mensaje en la cola del puerto de entrada de 'from'
+     * en su leaf, dentro del hilo que atiende el puerto de salida correspondiente.
      *
      * @param from indice de origen
      * @param to indice de destino
      * @param payload contenido del mensaje
+     * @return future de entrega del mensaje
      * @throws IllegalStateException si topologia no configurada
      * @throws IllegalArgumentException si from o to fuera de rango
      */
     @Override
-    public void sendMessage(int from, int to, String payload) {
-        if (nodes == null) {
-            throw new IllegalStateException("SwitchedNetwork no esta configurada.");
-        }
-        int size = nodes.size();
-        if (from < 0 || from >= size || to < 0 || to >= size) {
-            throw new IllegalArgumentException(
-                    "Indices fuera de rango en SwitchedNetwork: from=" + from + " to=" + to);
-        }
-        Message msg = new Message(from, to, payload);
-        System.out.printf("[%s] SwitchedNetwork: nodo %d enviando al switch mensaje hacia %d%n",
+    public CompletableFuture<Message> sendMessage(int from, int to, String payload) {
+        validateIndices(from, to);
+        Message msg = newMessage(from, to, payload);
+        NetworkLog.printf("[%s] SwitchedNetwork: nodo %d enviando al switch mensaje hacia %d%n",
                 Instant.now(), from, to);
-        switchQueue.offer(msg);
+        dispatch(new SwitchFrame(msg, leafOf(from), from % hostsPerLeaf));
+        return msg.getDelivery();
     }
 
     /**
-     * Inicia la simulacion: ejecuta Node.run() de cada nodo.
-     *
-     * @throws IllegalStateException si topologia no configurada
+     * Decide el siguiente salto de un frame en su switch actual:
+     * - leaf con el destino conectado: entrega al nodo.
+     * - leaf sin el destino: sube al spine elegido por hash del flujo (ECMP).
+     * - spine: baja al leaf del destino.
      */
-    @Override
-    public void runNetwork() {
-        for (Node node : nodes) {
-            nodeExecutor.submit(node);
+    private void forward(SwitchFrame frame) {
+        Message msg = frame.msg;
+        int to = msg.getToId();
+        int sw = frame.switchId;
+        forwardedPerSwitch.incrementAndGet(sw);
+        // hop = espera en la cola del puerto de entrada + decision de reenvio
+        getLatencyStats().recordHop(System.nanoTime() - frame.enqueuedNanos);
+        if (sw < leafCount) {
+            if (leafOf(to) == sw) {
+                NetworkLog.printf("[%s] SwitchedNetwork: switch %d reenviando a %d%n",
+                        Instant.now(), sw, to);
+                getTransport().deliver(node(to), msg);
+            } else {
+                int spine = spineFor(msg);
+                NetworkLog.printf("[%s] SwitchedNetwork: leaf %d subiendo a spine %d%n",
+                        Instant.now(), sw, spine - leafCount);
+                dispatch(new SwitchFrame(msg, spine, sw));
+            }
+        } else {
+            int leaf = leafOf(to);
+            NetworkLog.printf("[%s] SwitchedNetwork: spine %d bajando a leaf %d%n",
+                    Instant.now(), sw - leafCount, leaf);
+            dispatch(new SwitchFrame(msg, leaf, hostsPerLeaf + (sw - leafCount)));
         }
     }
 
     /**
-     * Detiene la simulacion:
-     * - Marca stop() a cada nodo
-     * - Señala switchRunning=false para terminar el bucle del switch
-     * - Cierra nodeExecutor y switchExecutor, esperando hasta 3s antes de forzar
+     * Encola el frame en el hilo que atiende su puerto de salida en el switch actual.
      */
-    @Override
-    public void shutdown() {
-        // detener nodos
-        for (Node node : nodes) {
-            node.stop();
+    private void dispatch(SwitchFrame frame) {
+        framesInFabric.incrementAndGet();
+        int to = frame.msg.getToId();
+        int egress;
+        if (frame.switchId >= leafCount) {
+            egress = leafOf(to);
+        } else if (leafOf(to) == frame.switchId) {
+            egress = to % hostsPerLeaf;
+        } else {
+            egress = hostsPerLeaf + (spineFor(frame.msg) - leafCount);
+        }
+        int shard = Math.floorMod(31 * frame.switchId + egress, forwardingThreads);
+        workers.get(shard).enqueue(frame);
+    }
+
+    // con el fabric detenido, el ultimo frame en salir despierta a los hilos dormidos para que terminen
+    private void leaveFabric() {
+        if (framesInFabric.decrementAndGet() == 0 && !switchRunning) {
+            for (ForwardingWorker worker : workers) {
+                worker.wakeUp();
+            }
         }
-        // detener switch
+    }
+
+    private int leafOf(int nodeId) {
+        return nodeId / hostsPerLeaf;
+    }
+
+    // mismo spine para todo el flujo (from,to) para preservar el orden
+    private int spineFor(Message msg) {
+        return leafCount + Math.floorMod(31 * msg.getFromId() + msg.getToId(), spineCount);
+    }
+
+    /**
+     * Detiene el fabric: switchRunning=false para que los hilos de reenvio
+     * terminen cuando no quede ningun frame en el fabric (framesInFabric) y
+     * espera a switchExecutor antes de que se detengan los nodos.
+     */
+    @Override
+    protected void drainMedium(long timeout, TimeUnit unit) throws InterruptedException {
         switchRunning = false;
-        nodeExecutor.shutdown();
+        for (ForwardingWorker worker : workers) {
+            worker.wakeUp();
+        }
         switchExecutor.shutdown();
-        try {
-            if (!switchExecutor.awaitTermination(3, TimeUnit.SECONDS)) {
-                switchExecutor.shutdownNow();
-            }
-            if (!nodeExecutor.awaitTermination(3, TimeUnit.SECONDS)) {
-                nodeExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
+        if (!switchExecutor.awaitTermination(timeout, unit)) {
             switchExecutor.shutdownNow();
-            nodeExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    protected void closeMedium() {
+        switchRunning = false;
+        switchExecutor.shutdownNow();
+    }
+
+    /**
+     * Mensajes reenviados por un switch. Los leafs son 0..leafCount-1 y los
+     * spines leafCount..leafCount+spineCount-1.
+     *
+     * @param switchId indice del switch
+     * @return cantidad de reenvios realizados
+     */
+    public long getForwardedCount(int switchId) {
+        return forwardedPerSwitch.get(switchId);
+    }
+}
@@ -0,0 +1,368 @@
+package com.pucmm.network.trace;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.pucmm.network.core.LatencyHistogram;
+import com.pucmm.network.core.TraceRecorder;
+
+/**
+ * Analisis offline de una traza de TraceRecorder. Lee todos los segmentos
+ * del directorio (en cualquier orden de hilos) y reconstruye:
+ * - por mensaje: envio, entrega, hops y latencia extremo a extremo; y el
+ *   camino completo (enlace por enlace) de los mas lentos.
+ * - por enlace: hops, perdidas, tiempo en cola y transmision, y utilizacion
+ *   (union de los intervalos en que el enlace tuvo algo en cola o en el
+ *   aire) sobre la ventana de la traza.
+ * - distribuciones: latencia extremo a extremo, tiempo por enlace y hops
+ *   por mensaje entregado.
+ *
+ * Con rotacion, los mensajes enviados antes del segmento mas viejo que
+ * queda no tienen SEND y no cuentan para la latencia.
+ *
+ * Uso: TraceAnalyzer directorio [caminos] [enlaces]
+ */
+public class TraceAnalyzer {
+    private final Path directory;
+    private final long[] counts = new long[TraceRecorder.DROP + 1];
+    private final Map<Long, Trip> trips = new HashMap<>();
+    private final Map<Long, LinkTrace> links = new HashMap<>();
+    private final LatencyHistogram endToEnd = new LatencyHistogram();
+    private final LatencyHistogram perLink = new LatencyHistogram();
+    private final long[] hopCounts = new long[65];
+    private long records;
+    private long firstNanos = Long.MAX_VALUE;
+    private long lastNanos = Long.MIN_VALUE;
+    private int segments;
+
+    /**
+     * Eventos de un mensaje; -1 si el evento no esta en la traza.
+     */
+    private static final class Trip {
+        long sent = -1;
+        long delivered = -1;
+        int from;
+        int to;
+        int hops;
+        int lost;
+    }
+
+    /**
+     * Hops de un enlace dirigido, con los intervalos [llegada, fin de transmision].
+     */
+    private static final class LinkTrace {
+        final int from;
+        final int to;
+        long[] starts = new long[16];
+        long[] finishes = new long[16];
+        // intervalos con duracion > 0 (sin ancho de banda el hop no ocupa el enlace)
+        int intervals;
+        int hops;
+        long lost;
+        long spanSum;
+        long busyNanos;
+
+        LinkTrace(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        void add(long start, long span) {
+            hops++;
+            spanSum += span;
+            if (span == 0) {
+                return;
+            }
+            if (intervals == starts.length) {
+                starts = Arrays.copyOf(starts, intervals * 2);
+                finishes = Arrays.copyOf(finishes, intervals * 2);
+            }
+            starts[intervals] = start;
+            finishes[intervals] = start + span;
+            intervals++;
+        }
+
+        // largo de la union de intervalos: barrido sobre inicios y fines ordenados por separado
+        void computeBusy() {
+            long[] s = Arrays.copyOf(starts, intervals);
+            long[] f = Arrays.copyOf(finishes, intervals);
+            Arrays.sort(s);
+            Arrays.sort(f);
+            int active = 0;
+            long since = 0;
+            int i = 0;
+            int j = 0;
+            while (i < intervals) {
+                if (s[i] < f[j]) {
+                    if (active++ == 0) {
+                        since = s[i];
+                    }
+                    i++;
+                } else {
+                    if (--active == 0) {
+                        busyNanos += f[j] - since;
+                    }
+                    j++;
+                }
+            }
+            if (active > 0) {
+                busyNanos += f[intervals - 1] - since;
+            }
+        }
+    }
+
+    /**
+     * Vista de un registro mientras se recorre la traza.
+     */
+    private static final class Record {
+        long timestamp;
+        long id;
+        int from;
+        int to;
+        int type;
+        int hop;
+        long span;
+    }
+
+    private interface RecordVisitor {
+        void visit(Record record);
+    }
+
+    /**
+     * @param directory directorio con los segmentos trace-NNNNN.bin
+     */
+    public TraceAnalyzer(Path directory) {
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Uso: TraceAnalyzer directorio [caminos] [enlaces]");
+            return;
+        }
+        int paths = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int topLinks = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        TraceAnalyzer analyzer = new TraceAnalyzer(Paths.get(args[0]));
+        analyzer.analyze();
+        analyzer.printReport(paths, topLinks);
+    }
+
+    /**
+     * Recorre la traza y acumula mensajes, enlaces y distribuciones.
+     *
+     * @throws IOException si no se puede leer un segmento o no es de una traza
+     */
+    public void analyze() throws IOException {
+        forEachRecord(this::accumulate);
+        for (Trip trip : trips.values()) {
+            if (trip.sent >= 0 && trip.delivered >= 0) {
+                endToEnd.record(trip.delivered - trip.sent);
+                hopCounts[Math.min(trip.hops, hopCounts.length - 1)]++;
+            }
+        }
+        for (LinkTrace link : links.values()) {
+            link.computeBusy();
+        }
+    }
+
+    private void accumulate(Record r) {
+        records++;
+        counts[r.type]++;
+        firstNanos = Math.min(firstNanos, r.timestamp);
+        lastNanos = Math.max(lastNanos, r.timestamp);
+        switch (r.type) {
+            case TraceRecorder.SEND: {
+                Trip trip = trip(r.id);
+                trip.sent = r.timestamp;
+                trip.from = r.from;
+                trip.to = r.to;
+                break;
+            }
+            case TraceRecorder.HOP: {
+                Trip trip = trip(r.id);
+                trip.hops = Math.max(trip.hops, r.hop + 1);
+                link(r.from, r.to).add(r.timestamp, r.span);
+                perLink.record(r.span);
+                lastNanos = Math.max(lastNanos, r.timestamp + r.span);
+                break;
+            }
+            case TraceRecorder.LOST:
+                trip(r.id).lost++;
+                link(r.from, r.to).lost++;
+                break;
+            case TraceRecorder.DELIVER: {
+                Trip trip = trip(r.id);
+                if (trip.delivered < 0) {
+                    trip.delivered = r.timestamp;
+                }
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    private Trip trip(long id) {
+        return trips.computeIfAbsent(id, k -> new Trip());
+    }
+
+    private LinkTrace link(int from, int to) {
+        return links.computeIfAbsent(((long) from << 32) | (to & 0xffffffffL), k -> new LinkTrace(from, to));
+    }
+
+    /**
+     * Imprime el resumen: eventos, distribuciones, enlaces mas ocupados y
+     * el camino de los mensajes mas lentos.
+     *
+     * @param paths cantidad de mensajes lentos cuyo camino se reconstruye
+     * @param topLinks cantidad de enlaces a mostrar
+     * @throws IOException si no se puede releer la traza para los caminos
+     */
+    public void printReport(int paths, int topLinks) throws IOException {
+        long window = Math.max(1, lastNanos - firstNanos);
+        long sent = 0;
+        long delivered = 0;
+        long undelivered = 0;
+        for (Trip trip : trips.values()) {
+            if (trip.sent >= 0) {
+                sent++;
+                if (trip.delivered >= 0) {
+                    delivered++;
+                } else {
+                    undelivered++;
+                }
+            }
+        }
+        System.out.printf("=== Traza %s: %d segmentos, %d registros, ventana %.1fms ===%n",
+                directory, segments, records, window / 1e6);
+        System.out.printf("SEND=%d HOP=%d LOST=%d DELIVER=%d DROP=%d%n", counts[TraceRecorder.SEND],
+                counts[TraceRecorder.HOP], counts[TraceRecorder.LOST], counts[TraceRecorder.DELIVER],
+                counts[TraceRecorder.DROP]);
+        System.out.printf("mensajes: %d enviados, %d entregados, %d sin entregar, %d sin SEND en la traza%n",
+                sent, delivered, undelivered, trips.size() - sent);
+
+        System.out.println("--- Distribuciones (us) ---");
+        printLine("extremo a extremo", endToEnd);
+        printLine("por enlace", perLink);
+        StringBuilder hops = new StringBuilder();
+        for (int h = 0; h < hopCounts.length; h++) {
+            if (hopCounts[h] > 0) {
+                hops.append(String.format(" %d:%.1f%%", h, 100.0 * hopCounts[h] / Math.max(1, delivered)));
+            }
+        }
+        System.out.println("hops por mensaje entregado:" + hops);
+
+        List<LinkTrace> sorted = new ArrayList<>(links.values());
+        sorted.sort(Comparator.comparingLong((LinkTrace l) -> l.busyNanos).thenComparingInt(l -> l.hops).reversed());
+        System.out.printf("--- Enlaces (top %d de %d) ---%n", Math.min(topLinks, sorted.size()), sorted.size());
+        for (LinkTrace link : sorted.subList(0, Math.min(topLinks, sorted.size()))) {
+            System.out.printf("%4d -> %-4d hops=%-9d perdidos=%-6d util=%5.1f%%  cola+tx prom=%.1fus%n",
+                    link.from, link.to, link.hops, link.lost, 100.0 * link.busyNanos / window,
+                    link.hops == 0 ? 0 : link.spanSum / 1e3 / link.hops);
+        }
+
+        if (paths > 0) {
+            printSlowestPaths(paths);
+        }
+    }
+
+    // segunda pasada: solo los registros de los mensajes mas lentos
+    private void printSlowestPaths(int paths) throws IOException {
+        List<Map.Entry<Long, Trip>> done = new ArrayList<>();
+        for (Map.Entry<Long, Trip> entry : trips.entrySet()) {
+            if (entry.getValue().sent >= 0 && entry.getValue().delivered >= 0) {
+                done.add(entry);
+            }
+        }
+        done.sort(Comparator.comparingLong((Map.Entry<Long, Trip> e) ->
+                e.getValue().delivered - e.getValue().sent).reversed());
+        Set<Long> slowest = new HashSet<>();
+        for (Map.Entry<Long, Trip> entry : done.subList(0, Math.min(paths, done.size()))) {
+            slowest.add(entry.getKey());
+        }
+        Map<Long, List<long[]>> hops = new HashMap<>();
+        forEachRecord(r -> {
+            if ((r.type == TraceRecorder.HOP || r.type == TraceRecorder.LOST) && slowest.contains(r.id)) {
+                hops.computeIfAbsent(r.id, k -> new ArrayList<>())
+                        .add(new long[] {r.timestamp, r.from, r.to, r.span, r.type});
+            }
+        });
+        System.out.printf("--- Caminos de los %d mensajes mas lentos (us desde el envio: enlace cola+tx) ---%n",
+                slowest.size());
+        for (Map.Entry<Long, Trip> entry : done.subList(0, Math.min(paths, done.size()))) {
+            Trip trip = entry.getValue();
+            StringBuilder line = new StringBuilder(String.format("id=%d %d->%d %.1fus:", entry.getKey(),
+                    trip.from, trip.to, (trip.delivered - trip.sent) / 1e3));
+            List<long[]> path = hops.getOrDefault(entry.getKey(), new ArrayList<>());
+            path.sort(Comparator.comparingLong(h -> h[0]));
+            for (long[] h : path) {
+                line.append(String.format(" [%.1f %d>%d %.1f%s]", (h[0] - trip.sent) / 1e3, h[1], h[2], h[3] / 1e3,
+                        h[4] == TraceRecorder.LOST ? " perdido" : ""));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static void printLine(String label, LatencyHistogram h) {
+        System.out.printf("%-18s n=%-9d p50=%-10.1f p99=%-10.1f p999=%-10.1f max=%.1f%n",
+                label, h.getCount(),
+                h.getValueAtPercentile(50) / 1e3,
+                h.getValueAtPercentile(99) / 1e3,
+                h.getValueAtPercentile(99.9) / 1e3,
+                h.getMax() / 1e3);
+    }
+
+    private void forEachRecord(RecordVisitor visitor) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "trace-*.bin")) {
+            for (Path path : stream) {
+                files.add(path);
+            }
+        }
+        files.sort(Comparator.naturalOrder());
+        segments = files.size();
+        Record r = new Record();
+        for (Path path : files) {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() < TraceRecorder.RECORD_BYTES || buffer.getInt(0) != TraceRecorder.MAGIC
+                    || buffer.getShort(4) != TraceRecorder.VERSION
+                    || buffer.getShort(6) != TraceRecorder.RECORD_BYTES) {
+                throw new IOException(path + " no es un segmento de traza");
+            }
+            int end = buffer.limit() - buffer.limit() % TraceRecorder.RECORD_BYTES;
+            for (int p = TraceRecorder.RECORD_BYTES; p < end; p += TraceRecorder.RECORD_BYTES) {
+                int type = buffer.getShort(p + 24);
+                if (type <= 0 || type > TraceRecorder.DROP) {
+                    continue;
+                }
+                r.timestamp = buffer.getLong(p);
+                r.id = buffer.getLong(p + 8);
+                r.from = buffer.getInt(p + 16);
+                r.to = buffer.getInt(p + 20);
+                r.type = type;
+                r.hop = buffer.getShort(p + 26);
+                r.span = Integer.toUnsignedLong(buffer.getInt(p + 28));
+                visitor.visit(r);
+            }
+        }
+    }
+}
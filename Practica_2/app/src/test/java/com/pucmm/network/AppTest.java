@@ -0,0 +1,65 @@
+package com.pucmm.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkTopology;
+import com.pucmm.network.manager.NetworkManager;
+import com.pucmm.network.topologia.BusNetwork;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.MeshNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.StarNetwork;
+import com.pucmm.network.topologia.SwitchedNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Las mismas corridas que Main: cada topologia entrega sus mensajes y el
+ * future de cada envio se completa con el mensaje entregado.
+ */
+class AppTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    void everyTopologyDeliversToTheDestination() throws Exception {
+        deliversAll(BusNetwork::new, 5);
+        deliversAll(RingNetwork::new, 5);
+        deliversAll(MeshNetwork::new, 4);
+        deliversAll(StarNetwork::new, 5);
+        deliversAll(FullyConnectedNetwork::new, 4);
+        deliversAll(HypercubeNetwork::new, 8);
+        deliversAll(TreeNetwork::new, 7);
+        deliversAll(SwitchedNetwork::new, 6);
+    }
+
+    // un mensaje de cada nodo al opuesto, (i + n/2) % n
+    private static void deliversAll(Supplier<NetworkTopology> factory, int numNodes) throws Exception {
+        NetworkManager manager = new NetworkManager();
+        NetworkTopology topology = factory.get();
+        manager.configureNetwork(topology, numNodes);
+        manager.runNetwork();
+        try {
+            List<CompletableFuture<Message>> sent = new ArrayList<>(numNodes);
+            for (int from = 0; from < numNodes; from++) {
+                sent.add(manager.sendMessage(from, (from + numNodes / 2) % numNodes, "m" + from));
+            }
+            for (int from = 0; from < numNodes; from++) {
+                Message delivered = sent.get(from).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                String where = topology.getClass().getSimpleName() + " desde " + from;
+                assertEquals((from + numNodes / 2) % numNodes, delivered.getToId(), where);
+                assertEquals("m" + from, delivered.getPayload(), where);
+            }
+        } finally {
+            manager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.pucmm.network.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class MappedRingTest {
+    private static final int CAPACITY = 4096;
+    private static final byte TYPE = PartitionedTransport.MEDIUM_TYPES;
+
+    /**
+     * Solo recibe tramas: guarda la secuencia y el largo del cuerpo de cada una.
+     */
+    private static final class Recorder extends PartitionedTransport {
+        final List<int[]> frames = new ArrayList<>();
+
+        Recorder() {
+            super("ring-test", 1, 0, 1);
+        }
+
+        @Override
+        protected void receive(ByteBuffer frame) {
+            assertEquals(TYPE, frame.get());
+            int sequence = frame.getInt();
+            int filler = frame.remaining();
+            for (int i = 0; i < filler; i++) {
+                assertEquals((byte) (sequence + i), frame.get(), "trama " + sequence);
+            }
+            frames.add(new int[] {sequence, filler});
+        }
+
+        @Override
+        protected void open() {
+        }
+
+        @Override
+        protected ByteBuffer claim(int peer, int frameBytes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void commit(int peer, ByteBuffer buffer) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected boolean close(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+
+    // trama: largo, tipo, secuencia y filler bytes derivados de la secuencia
+    private static void write(MappedRing producer, int sequence, int filler) {
+        int length = 1 + 4 + filler;
+        ByteBuffer out = producer.claim(4 + length);
+        out.putInt(length).put(TYPE).putInt(sequence);
+        for (int i = 0; i < filler; i++) {
+            out.put((byte) (sequence + i));
+        }
+        producer.commit();
+    }
+
+    @Test
+    void framesSurviveWraparoundWithPadding() throws Exception {
+        Path dir = Files.createTempDirectory("mapped-ring");
+        Path path = dir.resolve("ring");
+        MappedRing producer = MappedRing.create(path, CAPACITY);
+        MappedRing consumer = MappedRing.open(path, 1, TimeUnit.SECONDS);
+        Recorder recorder = new Recorder();
+        try {
+            int count = 2000;
+            for (int i = 0; i < count; i++) {
+                // largos que no dividen la capacidad: el fin de los datos cae a mitad de trama
+                write(producer, i, (i * 37) % 300);
+                if (i % 3 == 2) {
+                    consumer.drain(recorder);
+                }
+            }
+            consumer.drain(recorder);
+            assertEquals(count, recorder.frames.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, recorder.frames.get(i)[0]);
+                assertEquals((i * 37) % 300, recorder.frames.get(i)[1]);
+            }
+            assertEquals(0, consumer.backlog());
+            assertFalse(consumer.isClosedAndDrained());
+            producer.close();
+            assertTrue(consumer.isClosedAndDrained());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void closedRingIsReadUntilDrained() throws Exception {
+        Path dir = Files.createTempDirectory("mapped-ring");
+        Path path = dir.resolve("ring");
+        MappedRing producer = MappedRing.create(path, CAPACITY);
+        MappedRing consumer = MappedRing.open(path, 1, TimeUnit.SECONDS);
+        Recorder recorder = new Recorder();
+        try {
+            write(producer, 0, 10);
+            write(producer, 1, 20);
+            producer.close();
+            assertFalse(consumer.isClosedAndDrained());
+            assertEquals(2, consumer.drain(recorder));
+            assertTrue(consumer.isClosedAndDrained());
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void rejectsInvalidCapacityAndOversizedFrames() throws Exception {
+        Path dir = Files.createTempDirectory("mapped-ring");
+        Path path = dir.resolve("ring");
+        try {
+            assertThrows(IllegalArgumentException.class, () -> MappedRing.create(path, 6000));
+            assertThrows(IllegalArgumentException.class, () -> MappedRing.create(path, 1024));
+            MappedRing producer = MappedRing.create(path, CAPACITY);
+            assertThrows(IllegalArgumentException.class, () -> producer.claim(CAPACITY / 2 + 1));
+        } finally {
+            Files.deleteIfExists(path);
+            Files.deleteIfExists(dir);
+        }
+    }
+}
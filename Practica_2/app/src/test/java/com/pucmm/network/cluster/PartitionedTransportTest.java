@@ -0,0 +1,188 @@
+package com.pucmm.network.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.MessageDroppedException;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.topologia.RingNetwork;
+
+/**
+ * Dos particiones en la misma JVM, cada una con su propia RingNetwork como
+ * lo harian dos procesos: los hops que cruzan de particion viajan por el
+ * medio y el future del original se completa en quien lo envio.
+ */
+class PartitionedTransportTest {
+    private static final int NODES = 8;
+    private static final int PARTITIONS = 2;
+    private static final long TIMEOUT_SECONDS = 20;
+
+    /**
+     * Las dos mitades de la red; a es el coordinador (particion 0).
+     */
+    private static final class Cluster {
+        final PartitionedTransport ta;
+        final PartitionedTransport tb;
+        final RingNetwork a = new RingNetwork();
+        final RingNetwork b = new RingNetwork();
+
+        Cluster(ProcessCluster.Medium medium, String endpoint) throws IOException {
+            ta = ProcessCluster.createTransport(medium, "cluster-test", NODES, 0, PARTITIONS, endpoint);
+            tb = ProcessCluster.createTransport(medium, "cluster-test", NODES, 1, PARTITIONS, endpoint);
+            for (RingNetwork net : new RingNetwork[] {a, b}) {
+                net.setTransport(net == a ? ta : tb);
+                net.configureNetwork(NODES);
+                ProcessCluster.configure(net, TimeUnit.MICROSECONDS.toNanos(100));
+                net.runNetwork();
+            }
+        }
+
+        // entregas hechas por los nodos locales de cada particion
+        long delivered() {
+            long total = 0;
+            for (Node node : a.getNodes()) {
+                total += ta.isLocal(node.getId()) ? node.getDeliveredCount() : 0;
+            }
+            for (Node node : b.getNodes()) {
+                total += tb.isLocal(node.getId()) ? node.getDeliveredCount() : 0;
+            }
+            return total;
+        }
+
+        // el coordinador cierra primero y la otra particion lo ve como su fin
+        void shutdown() throws InterruptedException {
+            a.shutdown();
+            assertTrue(tb.awaitRelease(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            b.shutdown();
+        }
+    }
+
+    // puerto base con basePort y basePort + 1 libres en loopback
+    private static int freeBasePort() throws IOException {
+        while (true) {
+            int port;
+            try (ServerSocket probe = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                port = probe.getLocalPort();
+            }
+            if (port < 65535) {
+                try (ServerSocket next = new ServerSocket(port + 1, 1, InetAddress.getLoopbackAddress())) {
+                    return port;
+                } catch (IOException e) {
+                    // ocupado: probar otro
+                }
+            }
+        }
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    // todos los pares desde el coordinador (incluidos origenes remotos), con un
+    // payload de varios bytes en UTF-8, y uno desde la particion 1
+    private static void exchange(Cluster cluster) throws Exception {
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        try {
+            List<CompletableFuture<Message>> sent = new ArrayList<>();
+            for (int from = 0; from < NODES; from++) {
+                for (int to = 0; to < NODES; to++) {
+                    if (from != to) {
+                        sent.add(cluster.a.sendMessage(from, to, from + "->" + to + " \u00f1"));
+                    }
+                }
+            }
+            sent.add(cluster.b.sendMessage(6, 1, "desde b"));
+            for (CompletableFuture<Message> future : sent) {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            assertEquals(sent.size(), cluster.delivered());
+            // en el anillo unidireccional cruzan 3->4 y 7->0
+            assertTrue(cluster.ta.getRemoteHops() > 0);
+            assertTrue(cluster.tb.getRemoteHops() > 0);
+            assertEquals(cluster.ta.getRemoteHops(), cluster.tb.getReceivedHops());
+            assertEquals(cluster.tb.getRemoteHops(), cluster.ta.getReceivedHops());
+            assertEquals(0, cluster.ta.getPendingRemote());
+            assertEquals(0, cluster.tb.getPendingRemote());
+
+            // un descarte en la otra particion falla el future del original
+            cluster.b.crashNode(5);
+            CompletableFuture<Message> lost = cluster.a.sendMessage(4, 5, "caido");
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> lost.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof MessageDroppedException, e.getCause().toString());
+            assertEquals(0, cluster.ta.getPendingRemote());
+        } finally {
+            cluster.shutdown();
+            NetworkLog.setEnabled(logging);
+        }
+    }
+
+    @Test
+    void socketsCarryRemoteHopsAndCompletions() throws Exception {
+        exchange(new Cluster(ProcessCluster.Medium.SOCKETS, Integer.toString(freeBasePort())));
+    }
+
+    @Test
+    void sharedMemoryCarriesRemoteHopsAndCompletions() throws Exception {
+        Path dir = Files.createTempDirectory("cluster-test");
+        try {
+            exchange(new Cluster(ProcessCluster.Medium.SHARED_MEMORY, dir.toString()));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void nodesArePartitionedInContiguousBlocks() {
+        int[] expected = {0, 0, 0, 1, 1, 1, 2, 2};
+        for (int id = 0; id < expected.length; id++) {
+            assertEquals(expected[id], PartitionedTransport.partitionOf(id, 8, 3));
+        }
+        for (int id = 0; id < 10; id++) {
+            assertEquals(0, PartitionedTransport.partitionOf(id, 10, 1));
+        }
+    }
+
+    @Test
+    void invalidPartitionsAreRejected() throws Exception {
+        Path dir = Files.createTempDirectory("cluster-test");
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new SharedMemoryTransport("x", NODES, 2, PARTITIONS, dir, 1 << 12));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new SharedMemoryTransport("x", 2, 0, 3, dir, 1 << 12));
+            assertThrows(IllegalArgumentException.class,
+                    () -> new SocketTransport("x", NODES, 0, PARTITIONS, 65535));
+            SharedMemoryTransport transport = new SharedMemoryTransport("x", NODES, 0, 1, dir, 1 << 12);
+            assertTrue(transport.isLocal(NODES - 1));
+            assertThrows(IllegalArgumentException.class, () -> transport.start(Collections.emptyList()));
+            assertThrows(IllegalStateException.class, () -> transport.addNode(new Node(NODES)));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.pucmm.network.collective;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.TreeNetwork;
+
+/**
+ * Cada operacion colectiva con cada algoritmo sobre una red completa (todos
+ * los envios son directos): valores correctos y pasos dentro de la cota.
+ */
+class CollectivesTest {
+    // potencia de 2 para DIMENSION_EXCHANGE y otra que no lo es
+    private static final int[] SIZES = {8, 6};
+    // largo no divisible por p: el all-reduce en anillo reparte bloques desiguales
+    private static final int LENGTH = 7;
+
+    private interface Check {
+        void run(Collectives collectives, int p);
+    }
+
+    // corre check con cada algoritmo valido para cada tamano
+    private static void forEachAlgorithm(Check check) {
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        try {
+            for (int p : SIZES) {
+                FullyConnectedNetwork net = new FullyConnectedNetwork();
+                net.configureNetwork(p);
+                net.setLinkLatency(100, TimeUnit.MICROSECONDS);
+                net.runNetwork();
+                try {
+                    for (CollectiveAlgorithm algorithm : CollectiveAlgorithm.values()) {
+                        if (algorithm == CollectiveAlgorithm.DIMENSION_EXCHANGE && Integer.bitCount(p) != 1) {
+                            continue;
+                        }
+                        check.run(new Collectives(net, algorithm), p);
+                    }
+                } finally {
+                    net.shutdown();
+                }
+            }
+        } finally {
+            NetworkLog.setEnabled(logging);
+        }
+    }
+
+    // vector del nodo i: i*100 + k
+    private static long[][] vectors(int p) {
+        long[][] values = new long[p][LENGTH];
+        for (int i = 0; i < p; i++) {
+            for (int k = 0; k < LENGTH; k++) {
+                values[i][k] = i * 100L + k;
+            }
+        }
+        return values;
+    }
+
+    private static long[] sums(int p) {
+        long[] sums = new long[LENGTH];
+        for (long[] vector : vectors(p)) {
+            for (int k = 0; k < LENGTH; k++) {
+                sums[k] += vector[k];
+            }
+        }
+        return sums;
+    }
+
+    private static void assertVector(long[] expected, long[] actual, String context) {
+        assertEquals(expected.length, actual.length, context);
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], context + " [" + k + "]");
+        }
+    }
+
+    private static void assertWithinBound(CollectiveResult result) {
+        assertTrue(result.isWithinBound(), result.toString());
+        assertEquals(result.getAlgorithm().expectedSteps(
+                result.getOperation().equals("allreduce"), result.getNumNodes()),
+                result.getExpectedSteps());
+    }
+
+    @Test
+    void broadcastCopiesTheRootVectorToEveryNode() {
+        forEachAlgorithm((collectives, p) -> {
+            int root = p - 1;
+            long[] data = vectors(p)[root];
+            CollectiveResult result = collectives.broadcast(root, data);
+            for (int i = 0; i < p; i++) {
+                assertVector(data, result.getValues()[i], result + " nodo " + i);
+            }
+            assertWithinBound(result);
+        });
+    }
+
+    @Test
+    void reduceLeavesTheSumOnlyAtTheRoot() {
+        forEachAlgorithm((collectives, p) -> {
+            int root = 1;
+            CollectiveResult result = collectives.reduce(root, vectors(p), Long::sum);
+            for (int i = 0; i < p; i++) {
+                if (i == root) {
+                    assertVector(sums(p), result.getValues()[i], result.toString());
+                } else {
+                    assertNull(result.getValues()[i]);
+                }
+            }
+            assertWithinBound(result);
+        });
+    }
+
+    @Test
+    void allReduceLeavesTheSameResultEverywhere() {
+        forEachAlgorithm((collectives, p) -> {
+            CollectiveResult sum = collectives.allReduce(vectors(p), Long::sum);
+            CollectiveResult max = collectives.allReduce(vectors(p), Math::max);
+            for (int i = 0; i < p; i++) {
+                assertVector(sums(p), sum.getValues()[i], sum + " nodo " + i);
+                assertVector(vectors(p)[p - 1], max.getValues()[i], max + " nodo " + i);
+            }
+            assertWithinBound(sum);
+        });
+    }
+
+    @Test
+    void scatterAndGatherAreInverses() {
+        forEachAlgorithm((collectives, p) -> {
+            int root = 2;
+            long[][] chunks = vectors(p);
+            CollectiveResult scattered = collectives.scatter(root, chunks);
+            CollectiveResult gathered = collectives.gather(root, scattered.getValues());
+            for (int i = 0; i < p; i++) {
+                assertVector(chunks[i], scattered.getValues()[i], scattered + " nodo " + i);
+                assertVector(chunks[i], gathered.getValues()[i], gathered + " nodo " + i);
+            }
+            assertWithinBound(scattered);
+            assertWithinBound(gathered);
+        });
+    }
+
+    @Test
+    void stepsAndMessagesAreCounted() {
+        forEachAlgorithm((collectives, p) -> {
+            CollectiveResult result = collectives.broadcast(0, new long[] {1, 2, 3});
+            // cada nodo salvo la raiz recibe el vector una vez
+            assertEquals(p - 1, result.getMessages(), result.toString());
+            assertTrue(result.getBytes() > 0);
+            assertEquals(result.getSteps(), result.getStepNanos().length);
+            long total = 0;
+            for (long nanos : result.getStepNanos()) {
+                total += nanos;
+            }
+            assertEquals(total, result.getElapsedNanos());
+        });
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        FullyConnectedNetwork net = new FullyConnectedNetwork();
+        net.configureNetwork(6);
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new Collectives(net, CollectiveAlgorithm.DIMENSION_EXCHANGE));
+            Collectives collectives = new Collectives(net, CollectiveAlgorithm.BINOMIAL_TREE);
+            assertThrows(IllegalArgumentException.class, () -> collectives.broadcast(6, new long[1]));
+            assertThrows(IllegalArgumentException.class, () -> collectives.scatter(0, new long[5][1]));
+            long[][] ragged = vectors(6);
+            ragged[3] = new long[1];
+            assertThrows(IllegalArgumentException.class, () -> collectives.allReduce(ragged, Long::sum));
+        } finally {
+            net.shutdown();
+        }
+        assertThrows(IllegalStateException.class, () -> new Collectives(new FullyConnectedNetwork()));
+    }
+
+    @Test
+    void defaultAlgorithmMatchesTheTopology() {
+        assertSame(CollectiveAlgorithm.DIMENSION_EXCHANGE, Collectives.defaultAlgorithm(new HypercubeNetwork()));
+        assertSame(CollectiveAlgorithm.RING, Collectives.defaultAlgorithm(new RingNetwork()));
+        assertSame(CollectiveAlgorithm.DIRECT, Collectives.defaultAlgorithm(new FullyConnectedNetwork()));
+        assertSame(CollectiveAlgorithm.BINOMIAL_TREE, Collectives.defaultAlgorithm(new TreeNetwork()));
+        assertEquals(3, CollectiveAlgorithm.BINOMIAL_TREE.expectedSteps(false, 6));
+        assertEquals(10, CollectiveAlgorithm.RING.expectedSteps(true, 6));
+        assertEquals(0, CollectiveAlgorithm.DIRECT.expectedSteps(false, 1));
+    }
+}
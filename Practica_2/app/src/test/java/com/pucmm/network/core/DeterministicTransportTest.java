@@ -0,0 +1,77 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.topologia.HypercubeNetwork;
+
+class DeterministicTransportTest {
+    private static final long SEED = 42;
+    private static final int NODES = 16;
+    private static final int MESSAGES = 500;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Test
+    void replayRepeatsTheRecordedRun() throws Exception {
+        Path log = Files.createTempFile("replay", ".log");
+        try {
+            DeterministicTransport recorded = DeterministicTransport.record("graba", SEED, log);
+            int[] recordedOutcome = run(recorded);
+            assertTrue(recorded.getDeliveries() > 0);
+            assertTrue(Files.size(log) > 0);
+
+            DeterministicTransport replay = DeterministicTransport.replay("replay", log);
+            int[] replayOutcome = run(replay);
+            assertEquals(recorded.getDigest(), replay.getDigest(), "el orden de entregas cambio");
+            assertEquals(0, replay.getDivergences(), "diverge desde el evento " + replay.getFirstDivergence());
+            assertEquals(recorded.getDeliveries(), replay.getDeliveries());
+            assertEquals(recorded.nanoTime(), replay.nanoTime());
+            // mismo resultado de cada envio: entregado (1) o descartado (0)
+            assertArrayEquals(recordedOutcome, replayOutcome);
+        } finally {
+            Files.deleteIfExists(log);
+        }
+    }
+
+    // hipercubo adaptativo con perdida, duplicado y entrega confiable, todo sembrado
+    private static int[] run(DeterministicTransport transport) throws Exception {
+        HypercubeNetwork topology = new HypercubeNetwork(true);
+        topology.setTransport(transport);
+        topology.setReliableDelivery(4, 5, TimeUnit.MILLISECONDS);
+        topology.configureNetwork(NODES);
+        topology.setLinkLatency(200, TimeUnit.MICROSECONDS);
+        topology.setLinkBandwidth(10_000_000);
+        topology.setLinkLoss(0.05);
+        topology.setLinkDuplication(0.05);
+        topology.setSeed(SEED);
+        topology.runNetwork();
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<CompletableFuture<Message>> sent = new ArrayList<>(MESSAGES);
+        try {
+            for (int i = 0; i < MESSAGES; i++) {
+                sent.add(topology.sendMessage(random.nextInt(NODES), random.nextInt(NODES), "m" + i));
+            }
+            CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]))
+                    .handle((v, e) -> null)
+                    .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            topology.shutdown();
+        }
+        int[] outcome = new int[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            outcome[i] = sent.get(i).isCompletedExceptionally() ? 0 : 1;
+        }
+        return outcome;
+    }
+}
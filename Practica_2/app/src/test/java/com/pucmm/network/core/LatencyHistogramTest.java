@@ -0,0 +1,106 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.topologia.RingNetwork;
+
+class LatencyHistogramTest {
+    private static final double EPSILON = 1e-9;
+    // 32 sub-buckets por potencia de 2
+    private static final double MAX_RELATIVE_ERROR = 1.0 / 32;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean(), EPSILON);
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int v = 1; v <= 10; v++) {
+            histogram.record(v);
+        }
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(10, histogram.getValueAtPercentile(100));
+        assertEquals(5.5, histogram.getMean(), EPSILON);
+        assertEquals(10, histogram.getMax());
+    }
+
+    @Test
+    void percentilesStayWithinTheBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int count = 100_000;
+        for (int i = 1; i <= count; i++) {
+            histogram.record(i * 1_000L);
+        }
+        for (double percentile : new double[] { 50, 90, 99, 99.9 }) {
+            long exact = (long) Math.ceil(percentile / 100 * count) * 1_000L;
+            long value = histogram.getValueAtPercentile(percentile);
+            // el limite superior del bucket: nunca por debajo, a lo sumo ~3% por encima
+            assertTrue(value >= exact, "p" + percentile + "=" + value + " < " + exact);
+            assertTrue(value <= exact * (1 + MAX_RELATIVE_ERROR), "p" + percentile + "=" + value);
+        }
+        assertEquals(count * 1_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void addMergesCountsMeanAndMax() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        a.record(20);
+        b.record(3_000);
+        a.add(b);
+        assertEquals(3, a.getCount());
+        assertEquals(3_000, a.getMax());
+        assertEquals(3_030 / 3.0, a.getMean(), EPSILON);
+        assertEquals(20, a.getValueAtPercentile(66));
+        assertEquals(1, b.getCount());
+    }
+
+    @Test
+    void topologyRecordsEveryHopQueueWaitAndDelivery() throws Exception {
+        // anillo 0->1->2: dos hops, dos inboxes y una entrega por mensaje
+        RingNetwork ring = new RingNetwork();
+        ring.configureNetwork(4);
+        ring.setLinkLatency(0, TimeUnit.MILLISECONDS);
+        ring.runNetwork();
+        int messages = 100;
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        try {
+            for (int i = 0; i < messages; i++) {
+                sent.add(ring.sendMessage(0, 2, "m" + i));
+            }
+            CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            ring.shutdown();
+        }
+        LatencyStats stats = ring.getLatencyStats();
+        assertEquals(2L * messages, stats.getHop().getCount());
+        assertEquals(2L * messages, stats.getQueueWait().getCount());
+        assertEquals(messages, stats.getEndToEnd().getCount());
+        // la entrega incluye los dos hops
+        assertTrue(stats.getEndToEnd().getMax() >= stats.getHop().getValueAtPercentile(50));
+    }
+}
@@ -0,0 +1,100 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LinkTest {
+    private static final double EPSILON = 1e-9;
+    private static final long MS = 1_000_000;
+    // 1 Mbps: 125 bytes = 1000 bits tardan 1 ms en salir
+    private static final long MBPS = 1_000_000;
+    private static final int SIZE = 125;
+
+    @Test
+    void serializationFollowsTheBandwidth() {
+        Link link = new Link(0, 1, 0, MBPS);
+        assertEquals(MS, link.serializationNanos(SIZE));
+        assertEquals(2 * MS, link.serializationNanos(2 * SIZE));
+        assertEquals(0, new Link(0, 1, 0, 0).serializationNanos(SIZE));
+    }
+
+    @Test
+    void backToBackMessagesQueueInFifoOrder() {
+        Link link = new Link(0, 1, 0, MBPS);
+        assertEquals(MS, link.enqueue(0, SIZE));
+        assertEquals(2 * MS, link.enqueue(0, SIZE));
+        assertEquals(3 * MS, link.enqueue(0, SIZE));
+        // vieron 0, 1 y 2 mensajes delante; esperaron 0, 1 y 2 ms
+        assertEquals(1.0, link.getAverageQueueDepth(), EPSILON);
+        assertEquals(MS, link.getAverageQueueingNanos());
+        assertEquals(2, link.getQueueDepth(MS + MS / 2));
+        assertEquals(0, link.getQueueDepth(3 * MS));
+        assertEquals(1.0, link.getUtilization(3 * MS), EPSILON);
+        assertEquals(3, link.getMessages());
+        assertEquals(3L * SIZE, link.getBytes());
+    }
+
+    @Test
+    void anIdleLinkTransmitsRightAway() {
+        Link link = new Link(0, 1, 0, MBPS);
+        link.enqueue(0, SIZE);
+        // llega despues de que termino el anterior: sin cola
+        assertEquals(11 * MS, link.enqueue(10 * MS, SIZE));
+        assertEquals(0, link.getAverageQueueingNanos());
+        assertEquals(0.2, link.getUtilization(10 * MS), EPSILON);
+    }
+
+    @Test
+    void unlimitedBandwidthNeverQueues() {
+        Link link = new Link(0, 1, 5 * MS, 0);
+        assertTrue(link.isUnlimited());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(7 * MS, link.enqueue(7 * MS, SIZE));
+        }
+        assertEquals(0, link.getQueueDepth(7 * MS));
+        assertEquals(0.0, link.getAverageQueueDepth(), EPSILON);
+        assertEquals(5 * MS, link.getLatencyNanos());
+    }
+
+    @Test
+    void lossAndDuplicationAreSeeded() {
+        Link lossy = new Link(0, 1, 0, 0);
+        lossy.setLossProbability(1);
+        assertEquals(0, lossy.sampleCopies());
+        Link duplicating = new Link(0, 1, 0, 0);
+        duplicating.setDuplicateProbability(1);
+        assertEquals(2, duplicating.sampleCopies());
+        assertEquals(1, lossy.getLost());
+        assertEquals(1, duplicating.getDuplicated());
+
+        int[] first = sample(7);
+        int[] second = sample(7);
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i], second[i]);
+        }
+    }
+
+    private static int[] sample(long seed) {
+        Link link = new Link(0, 1, 0, 0);
+        link.setLossProbability(0.3);
+        link.setDuplicateProbability(0.3);
+        link.setSeed(seed);
+        int[] copies = new int[100];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = link.sampleCopies();
+        }
+        return copies;
+    }
+
+    @Test
+    void invalidParametersAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Link(0, 1, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new Link(0, 1, 0, -1));
+        Link link = new Link(0, 1, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> link.setLossProbability(1.5));
+        assertThrows(IllegalArgumentException.class, () -> link.setDuplicateProbability(Double.NaN));
+    }
+}
@@ -0,0 +1,224 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.manager.NetworkManager;
+import com.pucmm.network.topologia.RingNetwork;
+
+class NodeTest {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    @Test
+    void dropNewestRejectsTheArrivalAndFailsItsFuture() {
+        Node node = new Node(0);
+        node.configureInbox(2, OverflowPolicy.DROP_NEWEST);
+        Message m0 = new Message(1, 0, "m0");
+        Message m1 = new Message(1, 0, "m1");
+        Message m2 = new Message(1, 0, "m2");
+        assertTrue(node.receiveMessage(m0));
+        assertTrue(node.receiveMessage(m1));
+        assertFalse(node.receiveMessage(m2));
+        assertDropped(m2);
+        assertEquals(1, node.getDroppedCount());
+        assertEquals(1, node.getOverflowDroppedCount());
+        assertEquals(0, node.getBackpressureCount());
+        assertEquals(2, node.drain(10));
+        assertSame(m0, m0.getDelivery().join());
+        assertSame(m1, m1.getDelivery().join());
+        assertEquals(2, node.getDeliveredCount());
+    }
+
+    @Test
+    void dropOldestEvictsTheHeadOfTheInbox() {
+        Node node = new Node(0);
+        node.configureInbox(2, OverflowPolicy.DROP_OLDEST);
+        Message m0 = new Message(1, 0, "m0");
+        Message m1 = new Message(1, 0, "m1");
+        Message m2 = new Message(1, 0, "m2");
+        assertTrue(node.receiveMessage(m0));
+        assertTrue(node.receiveMessage(m1));
+        // el nuevo entra siempre; sale el mas viejo
+        assertTrue(node.receiveMessage(m2));
+        assertDropped(m0);
+        assertEquals(1, node.getDroppedCount());
+        assertEquals(1, node.getOverflowDroppedCount());
+        assertEquals(0, node.getBackpressureCount());
+        assertEquals(2, node.drain(10));
+        assertSame(m1, m1.getDelivery().join());
+        assertSame(m2, m2.getDelivery().join());
+    }
+
+    @Test
+    void blockHoldsTheSenderUntilThereIsRoom() throws Exception {
+        Node node = new Node(0);
+        node.configureInbox(1, OverflowPolicy.BLOCK);
+        assertTrue(node.receiveMessage(new Message(1, 0, "m0")));
+        // la version sin bloqueo rechaza para reintentar, sin descartar
+        assertFalse(node.offerMessage(new Message(1, 0, "rechazado")));
+        assertEquals(1, node.getBackpressureCount());
+        assertSenderWaitsForDrain(node, 2);
+        assertEquals(0, node.getDroppedCount());
+    }
+
+    @Test
+    void creditStopsTheSenderUntilTheNodeReturnsACredit() throws Exception {
+        Node node = new Node(0);
+        node.configureInbox(1, OverflowPolicy.CREDIT);
+        assertTrue(node.receiveMessage(new Message(1, 0, "m0")));
+        assertFalse(node.offerMessage(new Message(1, 0, "rechazado")));
+        assertEquals(1, node.getBackpressureCount());
+        assertSenderWaitsForDrain(node, 2);
+        assertEquals(0, node.getDroppedCount());
+        // drenado todo, los creditos volvieron: un envio mas no espera
+        assertTrue(node.offerMessage(new Message(1, 0, "m2")));
+        assertEquals(2, node.getBackpressureCount());
+    }
+
+    @Test
+    void drainHandlesABatchInArrivalOrder() {
+        // el camino de NodeMailboxBenchmark.receiveAndDrain
+        Node node = new Node(0);
+        node.configureInbox(256, OverflowPolicy.DROP_NEWEST);
+        List<Message> sent = new ArrayList<>();
+        List<Message> delivered = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            Message msg = new Message(1, 0, "m" + i);
+            msg.getDelivery().thenAccept(delivered::add);
+            sent.add(msg);
+            assertTrue(node.receiveMessage(msg));
+        }
+        assertEquals(256, node.drain(256));
+        assertEquals(0, node.drain(256));
+        assertEquals(sent, delivered);
+        assertEquals(0, node.getInboxSize());
+    }
+
+    @Test
+    void concurrentProducersLoseNothingUnaccounted() throws Exception {
+        // el grupo mpsc de NodeMailboxBenchmark: 3 productores y un consumidor
+        Node node = new Node(0);
+        node.configureInbox(64, OverflowPolicy.DROP_NEWEST);
+        int perProducer = 20_000;
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        try {
+            List<Thread> producers = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                Thread producer = new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        node.receiveMessage(new Message(1, 0, "m"));
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+            long handled = 0;
+            for (Thread producer : producers) {
+                while (producer.isAlive()) {
+                    handled += node.drain(64);
+                }
+            }
+            handled += node.drain(Integer.MAX_VALUE);
+            assertEquals(handled, node.getDeliveredCount());
+            // cada envio se entrego o se conto como descarte
+            assertEquals(3L * perProducer, node.getDeliveredCount() + node.getDroppedCount());
+        } finally {
+            NetworkLog.setEnabled(logging);
+        }
+    }
+
+    @Test
+    void dropNewestAtAnIntermediateHopCompletesTheFuture() throws Exception {
+        assertIntermediateDropsFail(OverflowPolicy.DROP_NEWEST);
+    }
+
+    @Test
+    void dropOldestAtAnIntermediateHopCompletesTheFuture() throws Exception {
+        assertIntermediateDropsFail(OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Con el inbox lleno, un emisor en otro hilo queda bloqueado (cuenta
+     * backpressure y su mensaje no se entrega) hasta que el nodo drena uno;
+     * despues se entregan los dos.
+     */
+    private static void assertSenderWaitsForDrain(Node node, long expectedBackpressure) throws Exception {
+        Message blocked = new Message(1, 0, "m1");
+        AtomicBoolean accepted = new AtomicBoolean();
+        Thread sender = new Thread(() -> accepted.set(node.receiveMessage(blocked)));
+        sender.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (node.getBackpressureCount() < expectedBackpressure && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(expectedBackpressure, node.getBackpressureCount());
+        sender.join(50);
+        assertTrue(sender.isAlive(), "el emisor no espero");
+        assertFalse(blocked.getDelivery().isDone());
+        assertEquals(1, node.drain(1));
+        sender.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(sender.isAlive(), "el emisor no se libero");
+        assertTrue(accepted.get());
+        assertEquals(1, node.drain(10));
+        assertSame(blocked, blocked.getDelivery().join());
+        assertEquals(2, node.getDeliveredCount());
+    }
+
+    private static void assertDropped(Message msg) {
+        assertTrue(msg.getDelivery().isCompletedExceptionally());
+        try {
+            msg.getDelivery().join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof MessageDroppedException, e.getCause().toString());
+        }
+    }
+
+    private static void assertIntermediateDropsFail(OverflowPolicy policy) throws Exception {
+        // anillo 0->1->2->3: todo lo que va de 0 a 2 pasa por el inbox de 1
+        RingNetwork ring = new RingNetwork();
+        NetworkManager manager = new NetworkManager();
+        manager.configureNetwork(ring, 4, 1, policy);
+        ring.setLinkLatency(0, TimeUnit.MILLISECONDS);
+        manager.runNetwork();
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                sent.add(manager.sendMessage(0, 2, "m" + i));
+            }
+            assertTrue(manager.awaitQuiescence(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                    "quedaron " + manager.getInFlightCount() + " en vuelo");
+        } finally {
+            manager.shutdown();
+        }
+        int failed = 0;
+        for (CompletableFuture<Message> future : sent) {
+            assertTrue(future.isDone());
+            if (future.isCompletedExceptionally()) {
+                failed++;
+                try {
+                    future.join();
+                } catch (CompletionException e) {
+                    assertTrue(e.getCause() instanceof MessageDroppedException, e.getCause().toString());
+                }
+            }
+        }
+        long dropped = 0;
+        for (Node node : ring.getNodes()) {
+            dropped += node.getDroppedCount();
+        }
+        assertEquals(dropped, failed);
+        assertTrue(ring.getNodes().get(1).getDroppedCount() > 0, "el hop intermedio no descarto nada");
+    }
+}
@@ -0,0 +1,103 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+
+class ReliableChannelTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int MESSAGES = 200;
+
+    @Test
+    void retransmitsLostFramesAndSuppressesDuplicates() throws Exception {
+        // enlace guionado: se pierde el primer intento de cada DATA y todo lo
+        // que pasa llega dos veces
+        Node[] nodes = { new Node(0), new Node(1) };
+        AtomicInteger lostData = new AtomicInteger();
+        ReliableChannel channel = new ReliableChannel(new InThreadTransport(), 4, 2, TimeUnit.MILLISECONDS,
+                frame -> {
+                    Frame f = (Frame) frame;
+                    if (f.getKind() == Frame.Kind.DATA && f.getAttempt() == 1) {
+                        lostData.incrementAndGet();
+                        return;
+                    }
+                    nodes[f.getToId()].process(f);
+                    nodes[f.getToId()].process(f);
+                });
+        for (Node node : nodes) {
+            node.setReliableChannel(channel);
+        }
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            Message msg = new Message(0, 1, "m" + i, i);
+            msg.getDelivery().whenComplete((m, e) -> completions.incrementAndGet());
+            sent.add(msg.getDelivery());
+            channel.send(msg);
+        }
+        assertTrue(channel.awaitIdle(TIMEOUT_SECONDS, TimeUnit.SECONDS), "quedaron tramas sin confirmar");
+        for (CompletableFuture<Message> future : sent) {
+            assertFalse(future.isCompletedExceptionally());
+        }
+        ReliabilityStats stats = channel.getStats();
+        assertEquals(20, lostData.get());
+        assertEquals(20, stats.getRetransmissions(), stats.toString());
+        // cada retransmision llega dos veces: una sube al nodo, la otra se suprime
+        assertEquals(20, stats.getDelivered());
+        assertEquals(20, stats.getDuplicates());
+        assertEquals(20, nodes[1].getDeliveredCount());
+        assertEquals(20, completions.get());
+        assertEquals(0, stats.getFailed());
+    }
+
+    @Test
+    void lossyDuplicatingLinksDeliverEachMessageExactlyOnce() throws Exception {
+        FullyConnectedNetwork net = new FullyConnectedNetwork();
+        net.setTransport(new DeterministicTransport("reliable", 42));
+        net.setReliableDelivery(4, 5, TimeUnit.MILLISECONDS);
+        net.configureNetwork(4);
+        net.setLinkLatency(200, TimeUnit.MICROSECONDS);
+        net.setLinkLoss(0.1);
+        net.setLinkDuplication(0.1);
+        net.setSeed(42);
+        net.runNetwork();
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+        try {
+            for (int i = 0; i < MESSAGES; i++) {
+                // nunca a si mismo: esa entrega no pasa por el canal
+                int from = i % 4;
+                CompletableFuture<Message> future = net.sendMessage(from, (from + 1 + i / 4 % 3) % 4, "m" + i);
+                future.whenComplete((m, e) -> completions.incrementAndGet());
+                sent.add(future);
+            }
+            CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0])).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } finally {
+            net.shutdown();
+        }
+        ReliabilityStats stats = net.getReliabilityStats();
+        assertTrue(net.getLinks().getLostCount() > 0, "el enlace no perdio nada");
+        assertTrue(net.getLinks().getDuplicatedCount() > 0, "el enlace no duplico nada");
+        assertTrue(stats.getRetransmissions() > 0, stats.toString());
+        assertTrue(stats.getDuplicates() > 0, stats.toString());
+        long delivered = 0;
+        for (Node node : net.getNodes()) {
+            delivered += node.getDeliveredCount();
+        }
+        // cada mensaje sube una sola vez al nodo destino, con o sin copias
+        assertEquals(MESSAGES, delivered);
+        assertEquals(MESSAGES, stats.getDelivered());
+        assertEquals(MESSAGES, completions.get());
+        assertEquals(0, stats.getFailed());
+    }
+}
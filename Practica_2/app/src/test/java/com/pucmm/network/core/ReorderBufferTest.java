@@ -0,0 +1,100 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReorderBufferTest {
+    private final ReorderStats stats = new ReorderStats();
+    private final List<Long> delivered = new ArrayList<>();
+
+    private ReorderBuffer buffer(DeliveryOrder order) {
+        return new ReorderBuffer(order, stats, msg -> delivered.add(msg.getSequence()));
+    }
+
+    private static Message message(long sequence) {
+        return new Message(1, 2, "m" + sequence, sequence);
+    }
+
+    @Test
+    void fifoHoldsAdvancedSequencesUntilTheGapArrives() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.FIFO_PER_FLOW);
+        buffer.arrive(message(2));
+        buffer.arrive(message(1));
+        assertEquals(List.of(), delivered);
+        buffer.arrive(message(0));
+        assertEquals(Arrays.asList(0L, 1L, 2L), delivered);
+        assertEquals(2, stats.getLate());
+        assertEquals(2, stats.getMaxBuffered());
+    }
+
+    @Test
+    void fifoDropsCopiesOfDeliveredSequences() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.FIFO_PER_FLOW);
+        buffer.arrive(message(0));
+        buffer.arrive(message(0));
+        buffer.arrive(message(1));
+        buffer.arrive(message(0));
+        assertEquals(Arrays.asList(0L, 1L), delivered);
+        assertEquals(2, stats.getDuplicates());
+    }
+
+    @Test
+    void skipReleasesTheSequencesHeldBehindIt() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.FIFO_PER_FLOW);
+        buffer.arrive(message(1));
+        buffer.arrive(message(2));
+        buffer.skip(message(0));
+        assertEquals(Arrays.asList(1L, 2L), delivered);
+        // una copia tardia de la saltada no se entrega
+        buffer.arrive(message(0));
+        assertEquals(Arrays.asList(1L, 2L), delivered);
+        assertEquals(1, stats.getDuplicates());
+    }
+
+    @Test
+    void skippedSequenceThatArrivesBeforeItsTurnIsDelivered() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.FIFO_PER_FLOW);
+        buffer.skip(message(1));
+        buffer.arrive(message(1));
+        buffer.arrive(message(0));
+        assertEquals(Arrays.asList(0L, 1L), delivered);
+        assertEquals(0, stats.getDuplicates());
+    }
+
+    @Test
+    void skipAheadIsAppliedWhenItsTurnComes() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.FIFO_PER_FLOW);
+        buffer.skip(message(1));
+        buffer.arrive(message(2));
+        buffer.arrive(message(0));
+        assertEquals(Arrays.asList(0L, 2L), delivered);
+    }
+
+    @Test
+    void flowsFromDifferentSourcesAreIndependent() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.FIFO_PER_FLOW);
+        buffer.arrive(new Message(3, 2, "b", 1));
+        buffer.arrive(message(0));
+        assertEquals(List.of(0L), delivered);
+        buffer.arrive(new Message(3, 2, "a", 0));
+        assertEquals(Arrays.asList(0L, 0L, 1L), delivered);
+    }
+
+    @Test
+    void unorderedDeliversOnArrivalAndOnlyMeasures() {
+        ReorderBuffer buffer = buffer(DeliveryOrder.UNORDERED);
+        buffer.arrive(message(2));
+        buffer.arrive(message(0));
+        buffer.arrive(message(1));
+        buffer.skip(message(3));
+        assertEquals(Arrays.asList(2L, 0L, 1L), delivered);
+        assertEquals(3, stats.getSequenced());
+        assertEquals(2, stats.getLate());
+        assertEquals(0, stats.getDuplicates());
+    }
+}
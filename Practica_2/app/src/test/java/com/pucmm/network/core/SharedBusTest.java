@@ -0,0 +1,76 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class SharedBusTest {
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void writesBeforeReadersFailOnceTheLogIsFull() {
+        SharedBus bus = new SharedBus(4, 0);
+        Message[] sent = new Message[4];
+        for (int i = 0; i < sent.length; i++) {
+            sent[i] = new Message(0, 1, "m" + i);
+            bus.write(sent[i]);
+        }
+        // sin lectores no hay a quien esperar: falla en lugar de bloquear
+        assertThrows(IllegalStateException.class, () -> bus.write(new Message(0, 1, "extra")));
+        SharedBus.Cursor cursor = bus.newCursors(1).get(0);
+        for (Message msg : sent) {
+            assertSame(msg, bus.poll(cursor));
+        }
+        assertNull(bus.poll(cursor));
+    }
+
+    @Test
+    void tryWriteDoesNotWaitForASlowReader() {
+        SharedBus bus = new SharedBus(2, 0);
+        SharedBus.Cursor cursor = bus.newCursors(1).get(0);
+        assertTrue(bus.tryWrite(new Message(0, 1, "m0")));
+        assertTrue(bus.tryWrite(new Message(0, 1, "m1")));
+        assertFalse(bus.tryWrite(new Message(0, 1, "m2")));
+        bus.poll(cursor);
+        assertTrue(bus.tryWrite(new Message(0, 1, "m2")));
+        assertEquals(3, bus.getWrites());
+    }
+
+    @Test
+    void closeReleasesAWriterWaitingForAReader() throws Exception {
+        SharedBus bus = new SharedBus(1, 0);
+        SharedBus.Cursor cursor = bus.newCursors(1).get(0);
+        bus.write(new Message(0, 1, "m0"));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                bus.write(new Message(0, 1, "m1"));
+            } catch (IllegalStateException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        while (bus.getGatingWaits() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(bus.getGatingWaits() > 0, "el emisor no quedo esperando al lector");
+        bus.close();
+        writer.join(TIMEOUT_MILLIS);
+        assertFalse(writer.isAlive(), "close no solto al emisor");
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertTrue(bus.isClosed());
+        // lo publicado antes de cerrar se sigue leyendo
+        assertEquals("m0", bus.poll(cursor).getPayload());
+        assertTrue(bus.isCaughtUp(cursor));
+        assertThrows(IllegalStateException.class, () -> bus.newCursors(1));
+    }
+}
@@ -0,0 +1,90 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+class SpscQueueTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(1, new SpscQueue<Integer>(1).capacity());
+        assertEquals(8, new SpscQueue<Integer>(5).capacity());
+        assertEquals(8, new SpscQueue<Integer>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new SpscQueue<Integer>(0));
+    }
+
+    @Test
+    void keepsFifoOrderAcrossWraparound() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        int next = 0;
+        int expected = 0;
+        // 3 entran y 2 salen por vuelta: el buffer gira muchas veces con elementos adentro
+        for (int round = 0; round < 1000; round++) {
+            for (int i = 0; i < 3 && queue.size() < queue.capacity(); i++) {
+                assertTrue(queue.offer(next++));
+            }
+            for (int i = 0; i < 2; i++) {
+                assertEquals(expected++, queue.poll().intValue());
+            }
+        }
+        while (!queue.isEmpty()) {
+            assertEquals(expected++, queue.poll().intValue());
+        }
+        assertEquals(next, expected);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    void rejectsWhenFullAndAcceptsAgainAfterPoll() {
+        SpscQueue<Integer> queue = new SpscQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.poll().intValue());
+        assertTrue(queue.offer(4));
+        assertFalse(queue.offer(5));
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, queue.poll().intValue());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void producerAndConsumerThreadsSeeEveryElementInOrder() throws Exception {
+        SpscQueue<Integer> queue = new SpscQueue<>(64);
+        int count = 200_000;
+        AtomicReference<String> error = new AtomicReference<>();
+        Thread consumer = new Thread(() -> {
+            int expected = 0;
+            while (expected < count) {
+                Integer value = queue.poll();
+                if (value == null) {
+                    Thread.yield();
+                } else if (value != expected++) {
+                    error.set("esperado " + (expected - 1) + " obtuvo " + value);
+                    return;
+                }
+            }
+        }, "spsc-consumer");
+        consumer.start();
+        for (int i = 0; i < count; i++) {
+            while (!queue.offer(i)) {
+                Thread.yield();
+            }
+        }
+        consumer.join(TimeUnit.SECONDS.toMillis(30));
+        assertFalse(consumer.isAlive(), "el consumidor no termino");
+        assertNull(error.get(), error.get());
+        assertTrue(queue.isEmpty());
+    }
+}
@@ -0,0 +1,106 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class TimerWheelTest {
+    private static final long AWAIT_SECONDS = 10;
+
+    @Test
+    void cascadedTimersFireInDeadlineOrder() throws Exception {
+        // tick de 100ns: nivel 1 desde 25.6us, nivel 2 desde 6.5ms, nivel 3 desde 1.6s
+        TimerWheel wheel = new TimerWheel(100, TimeUnit.NANOSECONDS, "test-wheel");
+        long[] delaysMicros = {30_000, 5, 1_700_000, 100, 10_000, 2_000, 40, 7_000};
+        int count = delaysMicros.length;
+        // vencimiento de cada timer, acotado por los instantes antes y despues de schedule
+        long[] earliest = new long[count];
+        long[] latest = new long[count];
+        ConcurrentLinkedQueue<Integer> fired = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Integer> early = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                long delay = TimeUnit.MICROSECONDS.toNanos(delaysMicros[i]);
+                earliest[i] = System.nanoTime() + delay;
+                wheel.schedule(() -> {
+                    if (System.nanoTime() < earliest[index]) {
+                        early.add(index);
+                    }
+                    fired.add(index);
+                    done.countDown();
+                }, delay, TimeUnit.NANOSECONDS);
+                latest[i] = System.nanoTime() + delay + wheel.getTickNanos();
+            }
+            assertTrue(done.await(AWAIT_SECONDS, TimeUnit.SECONDS), "vencieron " + fired);
+            assertTrue(early.isEmpty(), "vencieron antes de tiempo: " + early);
+            List<Integer> order = new ArrayList<>(fired);
+            for (int a = 0; a < count; a++) {
+                for (int b = a + 1; b < count; b++) {
+                    int first = order.get(a);
+                    int second = order.get(b);
+                    assertFalse(latest[second] < earliest[first],
+                            delaysMicros[second] + "us vencia antes que " + delaysMicros[first] + "us");
+                }
+            }
+            assertEquals(0, wheel.getPendingCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void sameDeadlineFiresInScheduleOrder() throws Exception {
+        TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, "test-wheel");
+        int count = 50;
+        ConcurrentLinkedQueue<Integer> fired = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                wheel.schedule(() -> {
+                    fired.add(index);
+                    done.countDown();
+                }, 300, TimeUnit.MILLISECONDS);
+            }
+            assertTrue(done.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                expected.add(i);
+            }
+            assertEquals(expected, new ArrayList<>(fired));
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    void cancelledTimerDoesNotFireAfterCascade() throws Exception {
+        TimerWheel wheel = new TimerWheel(100, TimeUnit.NANOSECONDS, "test-wheel");
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+        CountDownLatch later = new CountDownLatch(1);
+        try {
+            TimerWheel.Timeout cancelled = wheel.schedule(() -> cancelledRan.set(true), 10, TimeUnit.MILLISECONDS);
+            wheel.schedule(later::countDown, 20, TimeUnit.MILLISECONDS);
+            assertTrue(cancelled.cancel());
+            assertFalse(cancelled.cancel());
+            assertTrue(later.await(AWAIT_SECONDS, TimeUnit.SECONDS));
+            assertFalse(cancelledRan.get());
+            assertTrue(cancelled.isCancelled());
+            assertFalse(cancelled.isExpired());
+            assertEquals(0, wheel.getPendingCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+}
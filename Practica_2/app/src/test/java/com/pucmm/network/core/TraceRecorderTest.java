@@ -0,0 +1,128 @@
+package com.pucmm.network.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class TraceRecorderTest {
+    // 1 byte se redondea a un bloque: 4096 registros por segmento
+    private static final long SEGMENT_BYTES = 1;
+    private static final int RECORDS_PER_SEGMENT = 4096;
+
+    private static int countSegments(Path dir) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "trace-*.bin")) {
+            for (Path ignored : stream) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    void recordsFollowTheDocumentedLayout() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        try {
+            AtomicLong clock = new AtomicLong(1_000);
+            try (TraceRecorder trace = new TraceRecorder(dir, SEGMENT_BYTES, 1)) {
+                trace.setClock(clock::get);
+                assertEquals(1_000, trace.now());
+                // con reloj propio stamp ignora la medida del llamador
+                assertEquals(1_000, trace.stamp(5));
+                trace.record(TraceRecorder.HOP, 77, 3, 4, 2, 1_500);
+                clock.set(2_000);
+                trace.record(TraceRecorder.DELIVER, 77, 0, 4, 3, 0);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("trace-00000.bin")))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(TraceRecorder.MAGIC, buffer.getInt(0));
+            assertEquals(TraceRecorder.VERSION, buffer.getShort(4));
+            assertEquals(TraceRecorder.RECORD_BYTES, buffer.getShort(6));
+            int p = TraceRecorder.RECORD_BYTES;
+            assertEquals(1_000, buffer.getLong(p));
+            assertEquals(77, buffer.getLong(p + 8));
+            assertEquals(3, buffer.getInt(p + 16));
+            assertEquals(4, buffer.getInt(p + 20));
+            assertEquals(TraceRecorder.HOP, buffer.getShort(p + 24));
+            assertEquals(2, buffer.getShort(p + 26));
+            assertEquals(1_500, buffer.getInt(p + 28));
+            p += TraceRecorder.RECORD_BYTES;
+            assertEquals(2_000, buffer.getLong(p));
+            assertEquals(TraceRecorder.DELIVER, buffer.getShort(p + 24));
+            // la ranura siguiente queda vacia
+            assertEquals(0, buffer.getShort(p + TraceRecorder.RECORD_BYTES + 24));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void fullSegmentsRotateAndOnlyTheNewestAreKept() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        try {
+            try (TraceRecorder trace = new TraceRecorder(dir, SEGMENT_BYTES, 2)) {
+                for (int i = 0; i < 3 * RECORDS_PER_SEGMENT + 1; i++) {
+                    trace.record(TraceRecorder.SEND, i, 0, 1, 0, 0);
+                }
+                assertEquals(4, trace.getSegmentCount());
+            }
+            assertEquals(2, countSegments(dir));
+            assertTrue(Files.exists(dir.resolve("trace-00003.bin")));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void aNewRecorderClearsOldTracesAndIgnoresRecordsAfterClose() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        try {
+            try (TraceRecorder trace = new TraceRecorder(dir, SEGMENT_BYTES, 3)) {
+                for (int i = 0; i < 2 * RECORDS_PER_SEGMENT; i++) {
+                    trace.record(TraceRecorder.SEND, i, 0, 1, 0, 0);
+                }
+            }
+            assertTrue(countSegments(dir) >= 2);
+            TraceRecorder trace = new TraceRecorder(dir, SEGMENT_BYTES, 3);
+            assertEquals(1, countSegments(dir));
+            trace.close();
+            trace.record(TraceRecorder.SEND, 1, 0, 1, 0, 0);
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(dir.resolve("trace-00000.bin")))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(0, buffer.getShort(TraceRecorder.RECORD_BYTES + 24));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void invalidSizesAreRejected() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        try {
+            assertThrows(IllegalArgumentException.class, () -> new TraceRecorder(dir, 0, 1));
+            assertThrows(IllegalArgumentException.class, () -> new TraceRecorder(dir, SEGMENT_BYTES, 0));
+            assertThrows(IllegalArgumentException.class, () -> new TraceRecorder(dir, 4L << 30, 1));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+}
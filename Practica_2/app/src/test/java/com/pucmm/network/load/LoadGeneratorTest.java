@@ -0,0 +1,83 @@
+package com.pucmm.network.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.RingNetwork;
+
+class LoadGeneratorTest {
+    private static final long RATE = 2_000;
+    private static final long DURATION_MS = 200;
+
+    private static RingNetwork running(int numNodes) {
+        RingNetwork ring = new RingNetwork(true);
+        ring.configureNetwork(numNodes);
+        ring.setLinkLatency(0, TimeUnit.MILLISECONDS);
+        ring.runNetwork();
+        return ring;
+    }
+
+    @Test
+    void openLoopRunFollowsTheScheduleAndDeliversEverything() {
+        RingNetwork ring = running(8);
+        LoadReport report;
+        // como LoadBenchmark: sin log el generador no se atrasa imprimiendo
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        try {
+            report = new LoadGenerator(TrafficPattern.UNIFORM, RATE, DURATION_MS, 42).run(ring);
+        } finally {
+            NetworkLog.setEnabled(logging);
+            ring.shutdown();
+        }
+        long scheduled = RATE * DURATION_MS / 1_000;
+        // el calendario es fijo: nunca envia de mas y si se atrasa recupera
+        // (solo una pausa al final deja envios sin hacer)
+        assertTrue(report.getSent() >= scheduled / 2 && report.getSent() <= scheduled + 1,
+                "enviados " + report.getSent() + " de " + scheduled);
+        assertEquals(report.getSent(), report.getDelivered());
+        assertEquals(0, report.getDropped());
+        assertEquals(8, report.getNumNodes());
+        assertEquals(TrafficPattern.UNIFORM, report.getPattern());
+        assertTrue(report.getP50Nanos() > 0);
+        assertTrue(report.getP50Nanos() <= report.getP99Nanos());
+        assertTrue(report.getP99Nanos() <= report.getP999Nanos());
+    }
+
+    @Test
+    void unlimitedRateSendsAsFastAsTheTopologyAccepts() {
+        RingNetwork ring = running(4);
+        LoadReport report;
+        try {
+            report = new LoadGenerator(TrafficPattern.NEAREST_NEIGHBOR, 0, 50, 42).run(ring);
+        } finally {
+            ring.shutdown();
+        }
+        assertTrue(report.getSent() > 0);
+        assertEquals(report.getSent(), report.getDelivered());
+        assertTrue(report.isSustained(), report.toString());
+    }
+
+    @Test
+    void bitPatternsRejectSizesThatAreNotPowersOfTwo() {
+        RingNetwork ring = running(6);
+        try {
+            LoadGenerator generator = new LoadGenerator(TrafficPattern.TRANSPOSE, RATE, DURATION_MS, 42);
+            assertThrows(IllegalArgumentException.class, () -> generator.run(ring));
+        } finally {
+            ring.shutdown();
+        }
+    }
+
+    @Test
+    void invalidRateOrDurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator(TrafficPattern.UNIFORM, -1, 10, 1));
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator(TrafficPattern.UNIFORM, 10, 0, 1));
+    }
+}
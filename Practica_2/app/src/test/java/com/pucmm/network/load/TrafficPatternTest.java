@@ -0,0 +1,79 @@
+package com.pucmm.network.load;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class TrafficPatternTest {
+    private static final int NODES = 16;
+
+    private static int destination(TrafficPattern pattern, int from) {
+        return pattern.destination(from, NODES, new SplittableRandom(1), null);
+    }
+
+    @Test
+    void hotspotSendsEverythingToNodeZero() {
+        for (int from = 0; from < NODES; from++) {
+            assertEquals(0, destination(TrafficPattern.HOTSPOT, from));
+        }
+    }
+
+    @Test
+    void transposeSwapsTheHalvesOfTheId() {
+        // 16 nodos = malla 4x4: (x, y) -> (y, x) con id = 4y + x
+        assertEquals(4, destination(TrafficPattern.TRANSPOSE, 1));
+        assertEquals(1, destination(TrafficPattern.TRANSPOSE, 4));
+        assertEquals(5, destination(TrafficPattern.TRANSPOSE, 5));
+        for (int from = 0; from < NODES; from++) {
+            assertEquals(from, destination(TrafficPattern.TRANSPOSE, destination(TrafficPattern.TRANSPOSE, from)));
+        }
+    }
+
+    @Test
+    void bitReversalReversesTheIdBits() {
+        assertEquals(8, destination(TrafficPattern.BIT_REVERSAL, 1));
+        assertEquals(6, destination(TrafficPattern.BIT_REVERSAL, 6));
+        assertEquals(0, TrafficPattern.BIT_REVERSAL.destination(0, 1, new SplittableRandom(1), null));
+        for (int from = 0; from < NODES; from++) {
+            assertEquals(from,
+                    destination(TrafficPattern.BIT_REVERSAL, destination(TrafficPattern.BIT_REVERSAL, from)));
+        }
+    }
+
+    @Test
+    void nearestNeighborStaysNextToTheSource() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100; i++) {
+            int from = i % NODES;
+            int to = TrafficPattern.NEAREST_NEIGHBOR.destination(from, NODES, random, null);
+            assertTrue(to == (from + 1) % NODES || to == (from - 1 + NODES) % NODES, from + "->" + to);
+        }
+    }
+
+    @Test
+    void randomPermutationIsABijectionAndSeeded() {
+        int[] perm = TrafficPattern.randomPermutation(NODES, new SplittableRandom(3));
+        boolean[] seen = new boolean[NODES];
+        for (int to : perm) {
+            assertFalse(seen[to], "destino repetido " + to);
+            seen[to] = true;
+        }
+        int[] again = TrafficPattern.randomPermutation(NODES, new SplittableRandom(3));
+        for (int i = 0; i < NODES; i++) {
+            assertEquals(perm[i], again[i]);
+            assertEquals(perm[i], TrafficPattern.PERMUTATION.destination(i, NODES, new SplittableRandom(1), perm));
+        }
+    }
+
+    @Test
+    void onlyBitPatternsRequireAPowerOfTwo() {
+        for (TrafficPattern pattern : TrafficPattern.values()) {
+            boolean bits = pattern == TrafficPattern.TRANSPOSE || pattern == TrafficPattern.BIT_REVERSAL;
+            assertEquals(bits, pattern.requiresPowerOfTwo(), pattern.toString());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.pucmm.network.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsRegistryTest {
+
+    @Test
+    void samplesAreReadWhenExported() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LongAdder requests = registry.counter("requests_total", "Pedidos", "path", "/a");
+        AtomicLong depth = new AtomicLong();
+        registry.gauge("queue_depth", "Cola", depth::get);
+        requests.add(3);
+        depth.set(7);
+        assertEquals(3, registry.get("requests_total", "path", "/a"));
+        assertEquals(7, registry.get("queue_depth"));
+        depth.set(2);
+        assertEquals(2, registry.get("queue_depth"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("requests_total", "path", "/b"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+    }
+
+    @Test
+    void scrapeWritesThePrometheusTextFormatInRegistrationOrder() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("b_depth", "Profundidad", () -> 4, "node", "1");
+        registry.counter("a_total", "Linea 1\nlinea \\2", () -> 9, "path", "say \"hi\"\n");
+        registry.gauge("b_depth", "Profundidad", () -> 5, "node", "2");
+        assertEquals("# HELP b_depth Profundidad\n"
+                + "# TYPE b_depth gauge\n"
+                + "b_depth{node=\"1\"} 4\n"
+                + "b_depth{node=\"2\"} 5\n"
+                + "# HELP a_total Linea 1\\nlinea \\\\2\n"
+                + "# TYPE a_total counter\n"
+                + "a_total{path=\"say \\\"hi\\\"\\n\"} 9\n", registry.scrape());
+        assertEquals(Arrays.asList("b_depth", "a_total"), registry.getNames());
+    }
+
+    @Test
+    void sameNameAndLabelsReplacesTheSample() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.gauge("depth", "Cola", () -> 1, "node", "0");
+        registry.gauge("depth", "Cola", () -> 2, "node", "0");
+        assertEquals(2, registry.get("depth", "node", "0"));
+        assertEquals("# HELP depth Cola\n# TYPE depth gauge\ndepth{node=\"0\"} 2\n", registry.scrape());
+    }
+
+    @Test
+    void removeDropsTheLabelledSamplesAndEmptyFamilies() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("sent_total", "Enviados", () -> 1, "topology", "Ring");
+        registry.counter("sent_total", "Enviados", () -> 2, "topology", "Star");
+        registry.gauge("depth", "Cola", () -> 3, "topology", "Ring", "node", "0");
+        assertEquals(2, registry.remove("topology", "Ring"));
+        assertEquals(Arrays.asList("sent_total"), registry.getNames());
+        assertEquals(2, registry.get("sent_total", "topology", "Star"));
+        assertEquals(0, registry.remove("topology", "Ring"));
+    }
+
+    @Test
+    void invalidRegistrationsAreRejected() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("1depth", "x", () -> 0));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("depth", "x", () -> 0, "node"));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("depth", "x", () -> 0, "no-de", "1"));
+        registry.gauge("depth", "x", () -> 0);
+        // mismo nombre con otro tipo
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("depth", "x", () -> 0));
+    }
+}
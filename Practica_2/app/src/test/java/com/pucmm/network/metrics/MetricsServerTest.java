@@ -0,0 +1,72 @@
+package com.pucmm.network.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class MetricsServerTest {
+
+    private static HttpURLConnection open(MetricsServer server, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getUrl()).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(5_000);
+        connection.setReadTimeout(5_000);
+        return connection;
+    }
+
+    private static String body(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void getServesALiveScrape() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong depth = new AtomicLong(1);
+        registry.gauge("queue_depth", "Cola", depth::get);
+        try (MetricsServer server = new MetricsServer(registry, 0)) {
+            assertTrue(server.getPort() > 0);
+            assertTrue(server.getUrl().endsWith(":" + server.getPort() + MetricsServer.PATH));
+            HttpURLConnection first = open(server, "GET");
+            assertEquals(200, first.getResponseCode());
+            assertEquals(MetricsServer.CONTENT_TYPE, first.getContentType());
+            assertEquals(registry.scrape(), body(first));
+            // cada scrape lee los valores del momento
+            depth.set(42);
+            assertTrue(body(open(server, "GET")).contains("queue_depth 42\n"));
+        }
+    }
+
+    @Test
+    void onlyGetAndHeadAreAllowed() throws Exception {
+        try (MetricsServer server = new MetricsServer(new MetricsRegistry(), 0)) {
+            assertEquals(200, open(server, "HEAD").getResponseCode());
+            HttpURLConnection post = open(server, "POST");
+            assertEquals(405, post.getResponseCode());
+            assertEquals("GET, HEAD", post.getHeaderField("Allow"));
+        }
+    }
+
+    @Test
+    void portsOutOfRangeAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new MetricsServer(new MetricsRegistry(), -1));
+        assertThrows(IllegalArgumentException.class, () -> new MetricsServer(new MetricsRegistry(), 65536));
+    }
+}
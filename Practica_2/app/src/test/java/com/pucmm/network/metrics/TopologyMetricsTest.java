@@ -0,0 +1,128 @@
+package com.pucmm.network.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+
+class TopologyMetricsTest {
+    private static final int NODES = 8;
+    private static final int MESSAGES = 10;
+    private static final long TIMEOUT_SECONDS = 20;
+
+    private static RingNetwork runningRing() {
+        RingNetwork net = new RingNetwork();
+        net.configureNetwork(NODES);
+        net.setLinkLatency(100, TimeUnit.MICROSECONDS);
+        net.runNetwork();
+        return net;
+    }
+
+    @Test
+    void countersFollowTheTopology() throws Exception {
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        RingNetwork net = runningRing();
+        try {
+            MetricsRegistry registry = new MetricsRegistry();
+            TopologyMetrics metrics = new TopologyMetrics(net);
+            metrics.register(registry);
+            String topology = net.getName();
+            List<CompletableFuture<Message>> sent = new ArrayList<>(MESSAGES);
+            for (int i = 0; i < MESSAGES; i++) {
+                // 0 -> 3 por el anillo: reenvian 1 y 2
+                sent.add(net.sendMessage(0, 3, "m" + i));
+            }
+            for (CompletableFuture<Message> future : sent) {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            net.crashNode(5);
+            CompletableFuture<Message> lost = net.sendMessage(4, 5, "caido");
+            assertThrows(ExecutionException.class, () -> lost.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            assertEquals(MESSAGES + 1, registry.get("network_messages_sent_total", "topology", topology));
+            assertEquals(MESSAGES, registry.get("network_messages_delivered_total", "topology", topology));
+            assertEquals(2 * MESSAGES, registry.get("network_messages_forwarded_total", "topology", topology));
+            assertEquals(metrics.getMessagesLost(),
+                    registry.get("network_messages_dropped_total", "topology", topology, "cause", "crash"));
+            assertEquals(0, registry.get("network_messages_dropped_total", "topology", topology, "cause", "overflow"));
+            assertEquals(metrics.getMessagesOverflowDropped() + metrics.getMessagesLost(),
+                    metrics.getMessagesDropped());
+            assertEquals(NODES, metrics.getNodes());
+            assertEquals(0, registry.get("network_inbox_depth", "topology", topology, "node", "7"));
+            // 10 muestras de la topologia y una por inbox
+            assertEquals(10 + NODES, registry.remove("topology", topology));
+            assertTrue(registry.getNames().isEmpty());
+        } finally {
+            net.shutdown();
+            NetworkLog.setEnabled(logging);
+        }
+    }
+
+    @Test
+    void nodesAddedWhileRunningPublishTheirInboxGauge() {
+        HypercubeNetwork net = new HypercubeNetwork();
+        net.configureNetwork(4);
+        net.runNetwork();
+        try {
+            MetricsRegistry registry = new MetricsRegistry();
+            TopologyMetrics metrics = new TopologyMetrics(net);
+            metrics.register(registry);
+            String topology = net.getName();
+            assertThrows(IllegalArgumentException.class,
+                    () -> registry.get("network_inbox_depth", "topology", topology, "node", "4"));
+            net.growDimension();
+            assertEquals(0, registry.get("network_inbox_depth", "topology", topology, "node", "7"));
+            assertEquals(8, metrics.getNodes());
+
+            metrics.unregister(registry);
+            assertTrue(registry.getNames().isEmpty());
+            // sin listener: crecer no vuelve a publicar
+            net.growDimension();
+            assertTrue(registry.getNames().isEmpty());
+        } finally {
+            net.shutdown();
+        }
+    }
+
+    @Test
+    void theMXBeanExposesTheSameValues() throws Exception {
+        RingNetwork net = runningRing();
+        TopologyMetrics metrics = new TopologyMetrics(net);
+        try {
+            net.sendMessage(0, 1, "m").get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            metrics.registerMBean();
+            // registrar de nuevo reemplaza al anterior
+            metrics.registerMBean();
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = metrics.getObjectName();
+            assertEquals(net.getName(), server.getAttribute(name, "Topology"));
+            assertEquals(NODES, server.getAttribute(name, "Nodes"));
+            assertEquals(1L, server.getAttribute(name, "MessagesSent"));
+            assertEquals(1L, server.getAttribute(name, "MessagesDelivered"));
+            metrics.unregisterMBean();
+            assertFalse(server.isRegistered(name));
+            metrics.unregisterMBean();
+        } finally {
+            metrics.unregisterMBean();
+            net.shutdown();
+        }
+    }
+}
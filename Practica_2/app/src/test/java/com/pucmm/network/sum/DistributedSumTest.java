@@ -0,0 +1,99 @@
+package com.pucmm.network.sum;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.collective.Collectives;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.topologia.FullyConnectedNetwork;
+import com.pucmm.network.topologia.HypercubeNetwork;
+import com.pucmm.network.topologia.RingNetwork;
+import com.pucmm.network.topologia.RoutedTopology;
+import com.pucmm.network.topologia.TreeNetwork;
+
+class DistributedSumTest {
+    // no divisible por ningun tamano: el ultimo bloque lleva el resto
+    private static final int ELEMENTS = 10_007;
+    private static final long SEED = 42;
+
+    // corre la suma en la topologia y verifica el total y la cota de pasos
+    private static DistributedSumReport sum(RoutedTopology net, int nodes, int[] data, int root) {
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        net.configureNetwork(nodes);
+        net.setLinkLatency(100, TimeUnit.MICROSECONDS);
+        net.runNetwork();
+        try {
+            DistributedSumReport report = DistributedSum.run(net, data, root);
+            assertTrue(report.isCorrect(), report.toString());
+            assertEquals(Arrays.stream(data).asLongStream().sum(), report.getTotal());
+            assertEquals(nodes, report.getNumNodes());
+            assertEquals(data.length, report.getElements());
+            assertSame(Collectives.defaultAlgorithm(net), report.getAlgorithm());
+            // scatter + reduce, cada uno dentro de su cota
+            assertTrue(report.getSteps() <= 2 * report.getAlgorithm().expectedSteps(false, nodes),
+                    report.toString());
+            assertEquals(report.getScatterNanos() + report.getReduceNanos(), report.getCommunicationNanos());
+            assertEquals(report.getCommunicationNanos() + report.getComputeNanos(), report.getTotalNanos());
+            return report;
+        } finally {
+            net.shutdown();
+            NetworkLog.setEnabled(logging);
+        }
+    }
+
+    @Test
+    void everyTopologyAddsUpToTheSequentialSum() {
+        int[] data = DistributedSum.generateData(ELEMENTS, SEED);
+        sum(new HypercubeNetwork(), 8, data, 3);
+        sum(new RingNetwork(), 6, data, 5);
+        sum(new FullyConnectedNetwork(), 5, data, 0);
+        sum(new TreeNetwork(), 7, data, 2);
+    }
+
+    @Test
+    void fewerElementsThanNodesStillAddUp() {
+        // bloques vacios salvo el ultimo, que lleva todo
+        DistributedSumReport report = sum(new HypercubeNetwork(), 8, new int[] {5, 7, 11}, 0);
+        assertEquals(23, report.getTotal());
+        assertEquals(0, sum(new RingNetwork(), 4, new int[0], 1).getTotal());
+    }
+
+    @Test
+    void generatedDataIsSeededAndInRange() {
+        int[] first = DistributedSum.generateData(1_000, SEED);
+        assertArrayEquals(first, DistributedSum.generateData(1_000, SEED));
+        for (int value : first) {
+            assertTrue(value >= 1 && value <= 10_000, "fuera de rango: " + value);
+        }
+    }
+
+    @Test
+    void readDataParsesOneIntegerPerLine() throws Exception {
+        Path file = Files.createTempFile("data", ".txt");
+        try {
+            Files.write(file, List.of("3", "10000", "1"));
+            assertArrayEquals(new int[] {3, 10_000, 1}, DistributedSum.readData(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void sumWorkerAddsItsChunk() throws Exception {
+        SumWorker worker = new SumWorker(new long[] {1, 2, 3, Integer.MAX_VALUE});
+        worker.start();
+        worker.join();
+        assertEquals(6L + Integer.MAX_VALUE, worker.getSuma());
+    }
+}
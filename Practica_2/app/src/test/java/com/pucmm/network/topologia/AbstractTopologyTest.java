@@ -0,0 +1,150 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.InThreadTransport;
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.Node;
+import com.pucmm.network.core.TransportKind;
+
+/**
+ * Ciclo de vida comun de las topologias y transportes intercambiables:
+ * cualquier transporte entrega lo mismo y la eleccion aplica desde el
+ * siguiente configureNetwork.
+ */
+class AbstractTopologyTest {
+    private static final int NODES = 8;
+    private static final long TIMEOUT_SECONDS = 20;
+
+    // transporte en el hilo llamador que cuenta las entregas
+    private static class CountingTransport extends InThreadTransport {
+        private final AtomicInteger delivered = new AtomicInteger();
+
+        @Override
+        public void deliver(Node target, Message msg) {
+            delivered.incrementAndGet();
+            super.deliver(target, msg);
+        }
+    }
+
+    // envia todos los pares distintos y espera cada entrega
+    private static void sendAllPairs(RoutedTopology net) throws Exception {
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        for (int from = 0; from < NODES; from++) {
+            for (int to = 0; to < NODES; to++) {
+                if (from != to) {
+                    sent.add(net.sendMessage(from, to, from + "->" + to));
+                }
+            }
+        }
+        int i = 0;
+        for (int from = 0; from < NODES; from++) {
+            for (int to = 0; to < NODES; to++) {
+                if (from != to) {
+                    Message msg = sent.get(i++).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    assertEquals(from + "->" + to, msg.getPayload());
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyTransportDeliversEveryPair() throws Exception {
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        try {
+            for (TransportKind kind : TransportKind.values()) {
+                for (RoutedTopology net : new RoutedTopology[] {new RingNetwork(), new StarNetwork()}) {
+                    net.setTransport(kind);
+                    net.configureNetwork(NODES);
+                    net.setLinkLatency(100, TimeUnit.MICROSECONDS);
+                    net.runNetwork();
+                    try {
+                        sendAllPairs(net);
+                    } finally {
+                        net.shutdown();
+                    }
+                    long delivered = 0;
+                    for (Node node : net.getNodes()) {
+                        delivered += node.getDeliveredCount();
+                    }
+                    assertEquals(NODES * (NODES - 1), delivered, net.getName() + " " + kind);
+                    assertEquals(NODES * (NODES - 1), net.getSentCount());
+                    assertEquals(NODES * (NODES - 1), net.getLatencyStats().getEndToEnd().getCount());
+                }
+            }
+        } finally {
+            NetworkLog.setEnabled(logging);
+        }
+    }
+
+    @Test
+    void aTransportInstanceIsUsedForOneConfigurationOnly() throws Exception {
+        RingNetwork net = new RingNetwork();
+        CountingTransport custom = new CountingTransport();
+        net.setTransport(custom);
+        net.configureNetwork(NODES);
+        assertSame(custom, net.getTransport());
+        net.runNetwork();
+        try {
+            sendAllPairs(net);
+        } finally {
+            net.shutdown();
+        }
+        assertTrue(custom.delivered.get() >= NODES * (NODES - 1));
+
+        // la siguiente configuracion vuelve al transporte por tipo
+        net.configureNetwork(NODES);
+        assertNotSame(custom, net.getTransport());
+        assertSame(TransportKind.SHARDED, net.getTransportKind());
+        assertEquals(0, net.getSentCount());
+        net.shutdown();
+    }
+
+    @Test
+    void theTransportKindAppliesFromTheNextConfiguration() {
+        RingNetwork net = new RingNetwork();
+        net.setTransport(TransportKind.IN_THREAD);
+        net.configureNetwork(NODES);
+        assertTrue(net.getTransport() instanceof InThreadTransport);
+        net.setTransport(TransportKind.VIRTUAL_TIME);
+        // la red configurada sigue con el transporte que tenia
+        assertTrue(net.getTransport() instanceof InThreadTransport);
+        net.shutdown();
+        net.configureNetwork(NODES);
+        assertTrue(net.getTransport().isVirtualClock());
+        net.shutdown();
+    }
+
+    @Test
+    void misuseIsRejected() {
+        RingNetwork net = new RingNetwork();
+        assertTrue(net.getNodes().isEmpty());
+        assertThrows(IllegalStateException.class, net::runNetwork);
+        assertThrows(IllegalStateException.class, () -> net.sendMessage(0, 1, "x"));
+        assertThrows(IllegalArgumentException.class, () -> net.configureNetwork(0));
+        assertThrows(IllegalArgumentException.class, () -> new HypercubeNetwork().configureNetwork(6));
+        net.configureNetwork(NODES);
+        try {
+            assertEquals(NODES, net.getNodes().size());
+            assertThrows(UnsupportedOperationException.class, () -> net.getNodes().clear());
+            assertThrows(IllegalArgumentException.class, () -> net.sendMessage(0, NODES, "x"));
+            assertThrows(IllegalArgumentException.class, () -> net.sendMessage(-1, 0, "x"));
+        } finally {
+            net.shutdown();
+        }
+    }
+}
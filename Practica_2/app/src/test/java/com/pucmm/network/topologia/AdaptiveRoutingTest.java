@@ -0,0 +1,153 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+
+/**
+ * Ruteo de malla (XY y west-first, con y sin toro) e hipercubo adaptativo:
+ * cada hop usa un enlace, las rutas son minimas y se respetan las reglas de
+ * giro; el adaptativo esquiva al vecino cargado.
+ */
+class AdaptiveRoutingTest {
+    private static final int SIDE = 4;
+    private static final int NODES = SIDE * SIDE;
+    private static final long TIMEOUT_SECONDS = 20;
+
+    private static int x(int id) {
+        return id % SIDE;
+    }
+
+    private static int y(int id) {
+        return id / SIDE;
+    }
+
+    private static int axisDistance(int a, int b, boolean torus) {
+        int distance = Math.abs(a - b);
+        return torus ? Math.min(distance, SIDE - distance) : distance;
+    }
+
+    private static int meshDistance(int from, int to, boolean torus) {
+        return axisDistance(x(from), x(to), torus) + axisDistance(y(from), y(to), torus);
+    }
+
+    // ruta completa de from a to, verificando que cada hop sea un enlace
+    private static List<Integer> path(RoutedTopology net, int from, int to) {
+        List<Integer> path = new ArrayList<>();
+        path.add(from);
+        int current = from;
+        while (current != to) {
+            int next = net.route(current, to);
+            assertTrue(net.isLink(current, next), current + "->" + next + " no es enlace");
+            path.add(next);
+            current = next;
+            assertTrue(path.size() <= net.size(), from + "->" + to + " no converge");
+        }
+        return path;
+    }
+
+    private static MeshNetwork mesh(MeshRouting routing, boolean torus) {
+        MeshNetwork net = new MeshNetwork(routing, torus, SIDE, SIDE);
+        net.configureNetwork(NODES);
+        return net;
+    }
+
+    @Test
+    void xyRoutesAreMinimalAndFinishXBeforeY() {
+        for (boolean torus : new boolean[] {false, true}) {
+            MeshNetwork net = mesh(MeshRouting.XY, torus);
+            for (int from = 0; from < NODES; from++) {
+                for (int to = 0; to < NODES; to++) {
+                    List<Integer> path = path(net, from, to);
+                    assertEquals(meshDistance(from, to, torus), path.size() - 1, from + "->" + to);
+                    for (int i = 1; i < path.size(); i++) {
+                        // un hop en Y solo cuando X ya es la del destino
+                        if (y(path.get(i)) != y(path.get(i - 1))) {
+                            assertEquals(x(to), x(path.get(i - 1)), from + "->" + to);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void westFirstRoutesAreMinimalAndNeverTurnBackWest() {
+        MeshNetwork net = mesh(MeshRouting.WEST_FIRST, false);
+        for (int from = 0; from < NODES; from++) {
+            for (int to = 0; to < NODES; to++) {
+                List<Integer> path = path(net, from, to);
+                assertEquals(meshDistance(from, to, false), path.size() - 1, from + "->" + to);
+                boolean leftWest = false;
+                for (int i = 1; i < path.size(); i++) {
+                    boolean west = x(path.get(i)) < x(path.get(i - 1));
+                    // los hops al oeste van todos al principio
+                    assertFalse(west && leftWest, from + "->" + to + " giro al oeste tarde");
+                    leftWest |= !west;
+                }
+            }
+        }
+    }
+
+    @Test
+    void adaptiveHypercubeRoutesAreMinimal() {
+        HypercubeNetwork net = new HypercubeNetwork(true);
+        net.configureNetwork(NODES);
+        for (int from = 0; from < NODES; from++) {
+            for (int to = 0; to < NODES; to++) {
+                assertEquals(Integer.bitCount(from ^ to), path(net, from, to).size() - 1, from + "->" + to);
+            }
+        }
+    }
+
+    @Test
+    void adaptiveRoutingAvoidsTheLoadedNeighbor() {
+        HypercubeNetwork cube = new HypercubeNetwork(true);
+        cube.configureNetwork(NODES);
+        // sin correr la red la inbox del nodo 1 no se vacia
+        cube.node(1).receiveMessage(new Message(0, 1, "carga"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(2, cube.route(0, 3));
+        }
+
+        MeshNetwork mesh = mesh(MeshRouting.WEST_FIRST, false);
+        // de 0 (0,0) a 5 (1,1): por el este (1) o por el norte (4)
+        mesh.node(4).receiveMessage(new Message(0, 4, "carga"));
+        for (int i = 0; i < 20; i++) {
+            assertEquals(1, mesh.route(0, 5));
+        }
+    }
+
+    @Test
+    void everyPairIsDeliveredOnARunningMesh() throws Exception {
+        for (MeshRouting routing : MeshRouting.values()) {
+            MeshNetwork net = mesh(routing, true);
+            net.setLinkLatency(200, TimeUnit.MICROSECONDS);
+            net.runNetwork();
+            try {
+                List<CompletableFuture<Message>> sent = new ArrayList<>();
+                for (int from = 0; from < NODES; from++) {
+                    for (int to = 0; to < NODES; to++) {
+                        if (from != to) {
+                            sent.add(net.sendMessage(from, to, from + "->" + to));
+                        }
+                    }
+                }
+                for (CompletableFuture<Message> future : sent) {
+                    future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                }
+            } finally {
+                net.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.TransportKind;
+
+class BusNetworkTest {
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int FAN_OUT = 4;
+
+    @Test
+    void sendsBeforeRunAreDeliveredUpToTheBusCapacity() throws Exception {
+        BusNetwork net = new BusNetwork(4, 0);
+        net.configureNetwork(3);
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sent.add(net.sendMessage(0, 1 + i % 2, "m" + i));
+        }
+        // sin lectores todavia: falla en lugar de bloquear al emisor
+        assertThrows(IllegalStateException.class, () -> net.sendMessage(0, 1, "extra"));
+        net.runNetwork();
+        try {
+            for (CompletableFuture<Message> future : sent) {
+                future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } finally {
+            net.shutdown();
+        }
+    }
+
+    @Test
+    void readerCallbacksCanSendWhileTheBusIsFull() throws Exception {
+        // cada entrega envia FAN_OUT mensajes desde el lector: mas que la capacidad
+        BusNetwork net = new BusNetwork(2, 0);
+        net.configureNetwork(2);
+        net.runNetwork();
+        int total = 200;
+        AtomicInteger remaining = new AtomicInteger(total - 1);
+        CountDownLatch delivered = new CountDownLatch(total);
+        try {
+            sendFanOut(net, remaining, delivered);
+            assertTrue(delivered.await(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                    "faltan " + delivered.getCount() + " entregas");
+        } finally {
+            net.shutdown();
+        }
+    }
+
+    @Test
+    void shutdownReleasesAWriterWaitingOnTheBus() throws Exception {
+        BusNetwork net = new BusNetwork(2, 0);
+        net.configureNetwork(2);
+        // el lector queda retenido en el callback de la primera entrega; se
+        // envia antes de arrancar para que el callback corra en el lector
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Message> first = net.sendMessage(0, 1, "m0");
+        first.thenRun(() -> {
+            holding.countDown();
+            awaitQuietly(release);
+        });
+        net.runNetwork();
+        assertTrue(holding.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        List<CompletableFuture<Message>> published = new ArrayList<>();
+        published.add(net.sendMessage(0, 1, "m1"));
+        published.add(net.sendMessage(0, 1, "m2"));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                net.sendMessage(0, 1, "m3");
+            } catch (IllegalStateException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (net.getBus().getGatingWaits() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(net.getBus().getGatingWaits() > 0, "el emisor no quedo esperando al lector");
+        Thread stopper = new Thread(net::shutdown);
+        stopper.start();
+        writer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(writer.isAlive(), "shutdown no solto al emisor");
+        assertTrue(failure.get() instanceof IllegalStateException);
+        release.countDown();
+        stopper.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        assertFalse(stopper.isAlive());
+        // lo publicado antes de cerrar se entrega igual
+        assertTrue(first.isDone());
+        assertEquals("m1", published.get(0).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload());
+        assertEquals("m2", published.get(1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getPayload());
+    }
+
+    @Test
+    void setTransportIsRejected() {
+        BusNetwork net = new BusNetwork();
+        assertThrows(UnsupportedOperationException.class, () -> net.setTransport(TransportKind.IN_THREAD));
+    }
+
+    private static void sendFanOut(BusNetwork net, AtomicInteger remaining, CountDownLatch delivered) {
+        net.sendMessage(0, 1, "m").thenRun(() -> {
+            delivered.countDown();
+            for (int i = 0; i < FAN_OUT && remaining.getAndDecrement() > 0; i++) {
+                sendFanOut(net, remaining, delivered);
+            }
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
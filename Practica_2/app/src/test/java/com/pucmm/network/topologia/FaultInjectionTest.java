@@ -0,0 +1,145 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.MessageDroppedException;
+
+class FaultInjectionTest {
+    private static final int NODES = 16;
+    private static final int BATCH = 2_000;
+    private static final int FAULTY = 5;
+    private static final long TIMEOUT_SECONDS = 20;
+
+    private static HypercubeNetwork running() {
+        HypercubeNetwork net = new HypercubeNetwork();
+        net.configureNetwork(NODES);
+        net.setLinkLatency(500, TimeUnit.MICROSECONDS);
+        net.runNetwork();
+        return net;
+    }
+
+    // todos los pares (from, to) distintos en orden, BATCH envios
+    private static List<CompletableFuture<Message>> sendBatch(HypercubeNetwork net) {
+        List<CompletableFuture<Message>> sent = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            int from = i % NODES;
+            int to = (from + 1 + (i / NODES) % (NODES - 1)) % NODES;
+            sent.add(net.sendMessage(from, to, "m" + i));
+        }
+        return sent;
+    }
+
+    // espera a que cada future termine, entregado o descartado
+    private static void awaitAll(List<CompletableFuture<Message>> sent) throws Exception {
+        CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]))
+                .handle((v, e) -> null)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static void assertDropped(CompletableFuture<Message> future) {
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof MessageDroppedException, e.getCause().toString());
+        }
+    }
+
+    @Test
+    void crashUnderTrafficFailsItsMessagesAndRoutesAroundIt() throws Exception {
+        HypercubeNetwork net = running();
+        try {
+            List<CompletableFuture<Message>> before = sendBatch(net);
+            // cae con trafico en vuelo: lo que tenia en su inbox se pierde
+            net.crashNode(FAULTY);
+            List<CompletableFuture<Message>> after = sendBatch(net);
+            awaitAll(before);
+            awaitAll(after);
+            // los que no van ni vienen del nodo caido llegan rodeandolo
+            int i = 0;
+            for (CompletableFuture<Message> future : after) {
+                int from = i % NODES;
+                int to = (from + 1 + (i / NODES) % (NODES - 1)) % NODES;
+                if (from == FAULTY || to == FAULTY) {
+                    assertDropped(future);
+                } else {
+                    assertFalse(future.isCompletedExceptionally(), from + "->" + to + " no llego");
+                }
+                i++;
+            }
+        } finally {
+            net.shutdown();
+        }
+    }
+
+    @Test
+    void recoveredNodeSendsAndReceivesAgain() throws Exception {
+        HypercubeNetwork net = running();
+        try {
+            List<CompletableFuture<Message>> before = sendBatch(net);
+            net.crashNode(FAULTY);
+            awaitAll(before);
+            net.recoverNode(FAULTY);
+            assertFalse(net.isNodeCrashed(FAULTY));
+            List<CompletableFuture<Message>> after = sendBatch(net);
+            awaitAll(after);
+            for (CompletableFuture<Message> future : after) {
+                assertFalse(future.isCompletedExceptionally());
+            }
+        } finally {
+            net.shutdown();
+        }
+    }
+
+    @Test
+    void slowNodeDelaysButDeliversEverything() throws Exception {
+        HypercubeNetwork net = running();
+        try {
+            List<CompletableFuture<Message>> before = sendBatch(net);
+            net.setNodeDelay(FAULTY, 50, TimeUnit.MICROSECONDS);
+            List<CompletableFuture<Message>> after = sendBatch(net);
+            awaitAll(before);
+            awaitAll(after);
+            for (CompletableFuture<Message> future : before) {
+                assertFalse(future.isCompletedExceptionally());
+            }
+            for (CompletableFuture<Message> future : after) {
+                assertFalse(future.isCompletedExceptionally());
+            }
+        } finally {
+            net.shutdown();
+        }
+    }
+
+    @Test
+    void linkFailureUnderTrafficReroutesEveryMessage() throws Exception {
+        HypercubeNetwork net = running();
+        try {
+            List<CompletableFuture<Message>> before = sendBatch(net);
+            // los hops que viajaban por 0-1 vuelven a su nodo de salida y se rutean de nuevo
+            net.failLink(0, 1);
+            List<CompletableFuture<Message>> after = sendBatch(net);
+            awaitAll(before);
+            awaitAll(after);
+            assertFalse(net.isLinkUp(0, 1));
+            for (CompletableFuture<Message> future : before) {
+                assertFalse(future.isCompletedExceptionally());
+            }
+            for (CompletableFuture<Message> future : after) {
+                assertFalse(future.isCompletedExceptionally());
+            }
+        } finally {
+            net.shutdown();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Funciones de ruteo que mide RoutingBenchmark: cada hop va a un vecino y la
+ * ruta llega al destino por el camino minimo.
+ */
+class NextHopTest {
+    private static final int SIZE = 64;
+
+    private static int depth(int node) {
+        int depth = 0;
+        while (node > 0) {
+            node = (node - 1) / 2;
+            depth++;
+        }
+        return depth;
+    }
+
+    // distancia en el arbol binario implicito: subir hasta el ancestro comun
+    private static int treeDistance(int a, int b) {
+        int distance = 0;
+        while (a != b) {
+            if (a > b) {
+                a = (a - 1) / 2;
+            } else {
+                b = (b - 1) / 2;
+            }
+            distance++;
+        }
+        return distance;
+    }
+
+    @Test
+    void treeRouteClimbsToTheCommonAncestorAndDescends() {
+        for (int from = 0; from < SIZE; from++) {
+            for (int to = 0; to < SIZE; to++) {
+                int current = from;
+                int hops = 0;
+                while (current != to) {
+                    int next = TreeNetwork.nextHop(current, to);
+                    // vecino en el arbol: padre o hijo
+                    assertTrue(next == (current - 1) / 2 || (next - 1) / 2 == current, current + "->" + next);
+                    assertEquals(1, Math.abs(depth(next) - depth(current)));
+                    current = next;
+                    hops++;
+                }
+                assertEquals(treeDistance(from, to), hops, from + "->" + to);
+            }
+        }
+    }
+
+    @Test
+    void hypercubeRouteFixesOneBitPerHop() {
+        for (int from = 0; from < SIZE; from++) {
+            for (int to = 0; to < SIZE; to++) {
+                int current = from;
+                int hops = 0;
+                int previousBit = 0;
+                while (current != to) {
+                    int next = HypercubeNetwork.nextHop(current, to);
+                    int bit = current ^ next;
+                    assertEquals(1, Integer.bitCount(bit));
+                    // dimensiones en orden creciente
+                    assertTrue(bit > previousBit);
+                    previousBit = bit;
+                    current = next;
+                    hops++;
+                }
+                assertEquals(Integer.bitCount(from ^ to), hops, from + "->" + to);
+            }
+        }
+    }
+
+    @Test
+    void ringRouteWalksClockwise() {
+        for (int from = 0; from < SIZE; from++) {
+            for (int to = 0; to < SIZE; to++) {
+                int current = from;
+                int hops = 0;
+                while (current != to) {
+                    current = RingNetwork.nextHop(current, SIZE);
+                    hops++;
+                }
+                assertEquals(Math.floorMod(to - from, SIZE), hops);
+            }
+        }
+        assertEquals(0, RingNetwork.nextHop(SIZE - 1, SIZE));
+    }
+}
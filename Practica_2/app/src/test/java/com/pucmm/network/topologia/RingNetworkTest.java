@@ -0,0 +1,145 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.Node;
+
+class RingNetworkTest {
+    private static final double EPSILON = 1e-9;
+
+    private static RingNetwork configured(int size, boolean bidirectional, int... chords) {
+        RingNetwork ring = new RingNetwork(bidirectional, chords);
+        ring.configureNetwork(size);
+        return ring;
+    }
+
+    // distancias desde 0 por BFS con saltos +-1 y +-cuerda: el minimo posible
+    private static int[] bfs(int size, int... chords) {
+        int[] dist = new int[size];
+        Arrays.fill(dist, -1);
+        dist[0] = 0;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            int[] steps = new int[2 + 2 * chords.length];
+            steps[0] = 1;
+            steps[1] = -1;
+            for (int i = 0; i < chords.length; i++) {
+                steps[2 + 2 * i] = chords[i];
+                steps[3 + 2 * i] = -chords[i];
+            }
+            for (int step : steps) {
+                int v = Math.floorMod(u + step, size);
+                if (dist[v] < 0) {
+                    dist[v] = dist[u] + 1;
+                    queue.add(v);
+                }
+            }
+        }
+        return dist;
+    }
+
+    @Test
+    void unidirectionalRingWalksAlmostTheWholeRing() {
+        RingNetwork ring = configured(16, false);
+        try {
+            assertEquals(15, ring.getDiameter());
+            assertEquals(8.0, ring.getAverageDistance(), EPSILON);
+        } finally {
+            ring.shutdown();
+        }
+    }
+
+    @Test
+    void bidirectionalRingHalvesTheDiameter() {
+        RingNetwork even = configured(16, true);
+        RingNetwork odd = configured(15, true);
+        try {
+            assertEquals(8, even.getDiameter());
+            // 2 * (1 + ... + 7) + 8 sobre 15 destinos
+            assertEquals(64.0 / 15, even.getAverageDistance(), EPSILON);
+            assertEquals(2, even.getDegree());
+            assertEquals(7, odd.getDiameter());
+            assertEquals(4.0, odd.getAverageDistance(), EPSILON);
+        } finally {
+            even.shutdown();
+            odd.shutdown();
+        }
+    }
+
+    @Test
+    void chordsReachTheBfsOptimum() {
+        int[][] variants = {{4}, {3, 9}, RingNetwork.geometricChords(64, 3)};
+        int[] sizes = {16, 16, 64};
+        for (int v = 0; v < variants.length; v++) {
+            int size = sizes[v];
+            RingNetwork ring = configured(size, true, variants[v]);
+            try {
+                int[] dist = bfs(size, variants[v]);
+                int diameter = Arrays.stream(dist).max().getAsInt();
+                double average = (double) Arrays.stream(dist).sum() / (size - 1);
+                String label = "cuerdas " + Arrays.toString(variants[v]);
+                assertEquals(diameter, ring.getDiameter(), label);
+                assertEquals(average, ring.getAverageDistance(), EPSILON, label);
+                assertEquals(2 + 2 * variants[v].length, ring.getDegree(), label);
+            } finally {
+                ring.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void geometricChordsAreRootsOfTheSize() {
+        assertArrayEquals(new int[] {8}, RingNetwork.geometricChords(64, 2));
+        assertArrayEquals(new int[] {4, 16}, RingNetwork.geometricChords(64, 3));
+    }
+
+    @Test
+    void multiHopMessagesArePipelinedThroughEachIntermediateInbox() throws Exception {
+        // 0->3 son 3 hops de 20 ms: en serie 50 mensajes tardarian 3 s
+        RingNetwork ring = configured(4, false);
+        ring.setLinkLatency(20, TimeUnit.MILLISECONDS);
+        ring.runNetwork();
+        int messages = 50;
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < messages; i++) {
+                sent.add(ring.sendMessage(0, 3, "m" + i));
+            }
+            CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        } finally {
+            ring.shutdown();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs < 1_000, "sin pipeline: " + elapsedMs + " ms");
+        List<Node> nodes = ring.getNodes();
+        // cada hop intermedio saca el mensaje de su inbox y lo reenvia
+        assertEquals(messages, nodes.get(1).getForwardedCount());
+        assertEquals(messages, nodes.get(2).getForwardedCount());
+        assertEquals(messages, nodes.get(3).getDeliveredCount());
+        assertEquals(0, nodes.get(1).getDeliveredCount());
+    }
+
+    @Test
+    void distancesRequireConfigurationAndValidChords() {
+        assertThrows(IllegalStateException.class, () -> new RingNetwork().getDiameter());
+        assertThrows(IllegalStateException.class, () -> new RingNetwork(true).getAverageDistance());
+        assertThrows(IllegalArgumentException.class, () -> new RingNetwork(false, 4));
+        assertThrows(IllegalArgumentException.class, () -> new RingNetwork(true, 1));
+    }
+}
@@ -0,0 +1,130 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tablas sobre un anillo bidireccional de 8 nodos (0-1-...-7-0).
+ */
+class RoutingTableTest {
+
+    private static RingNetwork ring(int size) {
+        RingNetwork ring = new RingNetwork(true);
+        ring.configureNetwork(size);
+        return ring;
+    }
+
+    // hops de from a to siguiendo la tabla; -1 si se corta
+    private static int walk(RoutingTable table, int from, int to, int size) {
+        int hops = 0;
+        for (int current = from; current != to; hops++) {
+            current = table.nextHop(current, to);
+            if (current == RoutingTable.UNREACHABLE || hops > size) {
+                return -1;
+            }
+        }
+        return hops;
+    }
+
+    @Test
+    void failedLinkIsRoutedAroundAndRecoverRestoresShortestPath() {
+        RingNetwork ring = ring(8);
+        try {
+            RoutingTable table = new RoutingTable(ring, 8);
+            assertEquals(1, table.nextHop(0, 2));
+            assertEquals(7, table.nextHop(0, 6));
+            int version = table.version();
+
+            table.fail(0, 1);
+            assertTrue(table.isDegraded());
+            assertFalse(table.isUp(0, 1));
+            assertFalse(table.isUp(1, 0));
+            assertTrue(version != table.version());
+            assertEquals(7, table.nextHop(0, 2));
+            assertEquals(6, walk(table, 0, 2, 8));
+            assertEquals(7, walk(table, 1, 0, 8));
+
+            table.recover(0, 1);
+            assertFalse(table.isDegraded());
+            assertEquals(1, table.nextHop(0, 2));
+            assertEquals(2, walk(table, 0, 2, 8));
+            assertEquals(1, walk(table, 1, 0, 8));
+        } finally {
+            ring.shutdown();
+        }
+    }
+
+    @Test
+    void crashedNodeIsAvoidedAndUnreachableUntilRestored() {
+        RingNetwork ring = ring(8);
+        try {
+            RoutingTable table = new RoutingTable(ring, 8);
+            assertEquals(4, table.nextHop(3, 5));
+
+            table.crash(4);
+            assertTrue(table.isCrashed(4));
+            assertEquals(2, table.nextHop(3, 5));
+            assertEquals(6, walk(table, 3, 5, 8));
+            assertEquals(RoutingTable.UNREACHABLE, table.nextHop(3, 4));
+
+            table.restore(4);
+            assertFalse(table.isDegraded());
+            assertEquals(4, table.nextHop(3, 5));
+            assertEquals(1, walk(table, 3, 4, 8));
+        } finally {
+            ring.shutdown();
+        }
+    }
+
+    @Test
+    void partitionedDestinationIsUnreachable() {
+        RingNetwork ring = ring(8);
+        try {
+            RoutingTable table = new RoutingTable(ring, 8);
+            table.fail(1, 2);
+            table.fail(5, 6);
+            // {2..5} y {6..1} quedan separados
+            assertEquals(RoutingTable.UNREACHABLE, table.nextHop(0, 3));
+            assertEquals(RoutingTable.UNREACHABLE, table.nextHop(4, 7));
+            assertEquals(2, walk(table, 2, 4, 8));
+            table.recover(5, 6);
+            assertEquals(5, walk(table, 0, 3, 8));
+        } finally {
+            ring.shutdown();
+        }
+    }
+
+    @Test
+    void growExtendsExistingTreesToNewNodes() {
+        RingNetwork ring = ring(8);
+        ring.runNetwork();
+        try {
+            RoutingTable table = new RoutingTable(ring, 8);
+            table.fail(2, 3);
+            // arboles calculados antes de crecer, con un enlace caido
+            for (int to = 0; to < 8; to++) {
+                table.nextHop(0, to);
+            }
+            assertEquals(7, table.nextHop(0, 3));
+
+            // 7-0 pasa a ser 7-8-0
+            assertEquals(8, ring.addNode());
+            table.grow(8);
+            assertEquals(8, table.nextHop(0, 7));
+            assertEquals(2, walk(table, 0, 7, 9));
+            assertEquals(8, table.nextHop(7, 0));
+            assertEquals(8, table.nextHop(0, 3));
+            assertEquals(6, walk(table, 0, 3, 9));
+            for (int from = 0; from < 8; from++) {
+                assertTrue(walk(table, from, 8, 9) > 0, "de " + from + " al nodo nuevo");
+                assertTrue(walk(table, 8, from, 9) > 0, "del nodo nuevo a " + from);
+            }
+            assertFalse(table.isUp(2, 3));
+        } finally {
+            ring.shutdown();
+        }
+    }
+}
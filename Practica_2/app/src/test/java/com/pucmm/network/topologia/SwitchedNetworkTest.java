@@ -0,0 +1,48 @@
+package com.pucmm.network.topologia;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+
+class SwitchedNetworkTest {
+    private static final int LEAFS = 2;
+    private static final int SPINES = 2;
+
+    @Test
+    void shutdownDeliversFramesStillCrossingTheFabric() {
+        // 4 hilos de reenvio: el salto leaf->spine->leaf cambia de hilo
+        SwitchedNetwork net = new SwitchedNetwork(4, LEAFS, SPINES);
+        net.configureNetwork(8);
+        net.runNetwork();
+        List<CompletableFuture<Message>> sent = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            // nodos 0..3 en el leaf 0, 4..7 en el leaf 1: todo cruza un spine
+            sent.add(net.sendMessage(i % 4, 4 + (i / 4) % 4, "m" + i));
+        }
+        // sin esperar: buena parte sigue en las colas del fabric
+        net.shutdown();
+        for (CompletableFuture<Message> future : sent) {
+            assertTrue(future.isDone(), "quedo un mensaje en el fabric");
+            assertFalse(future.isCompletedExceptionally());
+        }
+        long leafForwards = 0;
+        for (int leaf = 0; leaf < LEAFS; leaf++) {
+            leafForwards += net.getForwardedCount(leaf);
+        }
+        long spineForwards = 0;
+        for (int spine = LEAFS; spine < LEAFS + SPINES; spine++) {
+            spineForwards += net.getForwardedCount(spine);
+        }
+        // cada mensaje pasa por el leaf de origen, un spine y el leaf destino
+        assertEquals(2L * sent.size(), leafForwards);
+        assertEquals(sent.size(), spineForwards);
+    }
+}
@@ -0,0 +1,153 @@
+package com.pucmm.network.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.pucmm.network.core.Message;
+import com.pucmm.network.core.NetworkLog;
+import com.pucmm.network.core.TraceRecorder;
+import com.pucmm.network.topologia.HypercubeNetwork;
+
+class TraceAnalyzerTest {
+    private static final long SEGMENT_BYTES = 1 << 20;
+    private static final int NODES = 8;
+    private static final int MESSAGES = 200;
+    private static final long TIMEOUT_SECONDS = 20;
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path path : stream) {
+                Files.delete(path);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    // analiza la traza y devuelve el reporte impreso
+    private static String report(Path dir, int paths) throws IOException {
+        TraceAnalyzer analyzer = new TraceAnalyzer(dir);
+        analyzer.analyze();
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(captured, true, "UTF-8"));
+        try {
+            analyzer.printReport(paths, 10);
+        } finally {
+            System.setOut(out);
+        }
+        return captured.toString("UTF-8");
+    }
+
+    private static String line(String report, String prefix) {
+        for (String line : report.split("\\R")) {
+            if (line.startsWith(prefix)) {
+                return line;
+            }
+        }
+        throw new AssertionError("sin linea " + prefix + " en:\n" + report);
+    }
+
+    @Test
+    void aHandWrittenTraceIsReconstructed() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        try {
+            AtomicLong clock = new AtomicLong();
+            try (TraceRecorder trace = new TraceRecorder(dir, SEGMENT_BYTES, 1)) {
+                trace.setClock(clock::get);
+                // mensaje 1: 0 -> 1 -> 3, 400 ns
+                trace.recordAt(0, TraceRecorder.SEND, 1, 0, 3, 0, 0);
+                trace.recordAt(0, TraceRecorder.HOP, 1, 0, 1, 0, 100);
+                trace.recordAt(200, TraceRecorder.HOP, 1, 1, 3, 1, 100);
+                trace.recordAt(400, TraceRecorder.DELIVER, 1, 0, 3, 2, 0);
+                // mensaje 2: se pierde en 0 -> 1 y llega al reintento, 700 ns
+                trace.recordAt(1_000, TraceRecorder.SEND, 2, 0, 1, 0, 0);
+                trace.recordAt(1_000, TraceRecorder.LOST, 2, 0, 1, 0, 0);
+                trace.recordAt(1_500, TraceRecorder.HOP, 2, 0, 1, 0, 100);
+                trace.recordAt(1_700, TraceRecorder.DELIVER, 2, 0, 1, 1, 0);
+                // mensaje 3: nunca llega
+                trace.recordAt(2_000, TraceRecorder.SEND, 3, 2, 3, 0, 0);
+            }
+            String report = report(dir, 1);
+            assertEquals("SEND=3 HOP=3 LOST=1 DELIVER=2 DROP=0", line(report, "SEND="));
+            assertEquals("mensajes: 3 enviados, 2 entregados, 1 sin entregar, 0 sin SEND en la traza",
+                    line(report, "mensajes:"));
+            assertEquals("hops por mensaje entregado: 1:50.0% 2:50.0%", line(report, "hops por"));
+            // 0 -> 1 ocupado 200 ns de una ventana de 2000 ns; es el mas ocupado
+            String busiest = line(report, "   0 -> 1 ");
+            assertTrue(busiest.contains("hops=2 ") && busiest.contains("perdidos=1 ")
+                    && busiest.contains("util= 10.0%"), busiest);
+            // el mas lento es el 2, con la perdida en su camino
+            assertEquals("id=2 0->1 0.7us: [0.0 0>1 0.0 perdido] [0.5 0>1 0.1]", line(report, "id="));
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void aTopologyTraceAccountsForEveryMessageAndHop() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        boolean logging = NetworkLog.isEnabled();
+        NetworkLog.setEnabled(false);
+        try {
+            long expectedHops = 0;
+            try (TraceRecorder trace = new TraceRecorder(dir, SEGMENT_BYTES, 4)) {
+                HypercubeNetwork net = new HypercubeNetwork();
+                net.setTraceRecorder(trace);
+                net.configureNetwork(NODES);
+                net.setLinkLatency(100, TimeUnit.MICROSECONDS);
+                net.runNetwork();
+                try {
+                    List<CompletableFuture<Message>> sent = new ArrayList<>(MESSAGES);
+                    for (int i = 0; i < MESSAGES; i++) {
+                        int from = i % NODES;
+                        int to = (from + 1 + i / NODES) % NODES;
+                        if (to == from) {
+                            to = (to + 1) % NODES;
+                        }
+                        expectedHops += Integer.bitCount(from ^ to);
+                        sent.add(net.sendMessage(from, to, "m" + i));
+                    }
+                    for (CompletableFuture<Message> future : sent) {
+                        future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    }
+                } finally {
+                    net.shutdown();
+                }
+            }
+            String report = report(dir, 0);
+            assertEquals("SEND=" + MESSAGES + " HOP=" + expectedHops + " LOST=0 DELIVER=" + MESSAGES + " DROP=0",
+                    line(report, "SEND="));
+            assertEquals("mensajes: " + MESSAGES + " enviados, " + MESSAGES
+                    + " entregados, 0 sin entregar, 0 sin SEND en la traza", line(report, "mensajes:"));
+        } finally {
+            NetworkLog.setEnabled(logging);
+            deleteAll(dir);
+        }
+    }
+
+    @Test
+    void aFileThatIsNotATraceIsRejected() throws Exception {
+        Path dir = Files.createTempDirectory("trace");
+        try {
+            Files.write(dir.resolve("trace-00000.bin"), new byte[64]);
+            assertThrows(IOException.class, () -> new TraceAnalyzer(dir).analyze());
+        } finally {
+            deleteAll(dir);
+        }
+    }
+}